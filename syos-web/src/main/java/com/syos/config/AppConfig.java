@@ -146,6 +146,148 @@ public class AppConfig {
         return getInt("inventory.expiry.critical.days", 7);
     }
 
+    /**
+     * Gets how many bill serial numbers are reserved per database round trip.
+     */
+    public static int getBillSerialBlockSize() {
+        return getInt("billing.serial.block.size", 50);
+    }
+
+    /**
+     * Gets the maximum number of bills in progress held in memory.
+     */
+    public static int getInProgressBillMaxSize() {
+        return getInt("billing.inprogress.max.size", 500);
+    }
+
+    /**
+     * Gets how long a bill in progress may sit idle before it is retired.
+     */
+    public static int getInProgressBillIdleMinutes() {
+        return getInt("billing.inprogress.idle.minutes", 30);
+    }
+
+    /**
+     * Gets how many checkout results are cached in memory by idempotency key.
+     */
+    public static int getCheckoutIdempotencyCacheSize() {
+        return getInt("billing.idempotency.cache.size", 10000);
+    }
+
+    /**
+     * Gets how long a checkout idempotency key is honoured.
+     */
+    public static int getCheckoutIdempotencyTtlHours() {
+        return getInt("billing.idempotency.ttl.hours", 24);
+    }
+
+    /**
+     * Gets the file that journals checkouts taken while the database is unavailable.
+     */
+    public static String getOfflineJournalPath() {
+        return get("billing.offline.journal.path",
+                System.getProperty("user.home") + "/.syos/checkout-journal.log");
+    }
+
+    /**
+     * Gets the number of lock stripes guarding product stock during sales.
+     */
+    public static int getStockLockStripes() {
+        return getInt("inventory.stock.lock.stripes", 64);
+    }
+
+    /**
+     * Gets how many expired batches are written off per transaction.
+     */
+    public static int getExpiredWriteOffChunkSize() {
+        return getInt("inventory.writeoff.chunk.size", 200);
+    }
+
+    /**
+     * Whether the scheduled expired stock write-off only reports what it would remove.
+     */
+    public static boolean isExpiredWriteOffDryRun() {
+        return getBoolean("inventory.writeoff.dry.run", false);
+    }
+
+    /**
+     * Gets how many partitions of products inventory reconciliation reads at once.
+     */
+    public static int getReconciliationParallelism() {
+        return getInt("inventory.reconciliation.parallelism", 4);
+    }
+
+    /**
+     * Gets how many products inventory reconciliation reads per partition.
+     */
+    public static int getReconciliationPartitionSize() {
+        return getInt("inventory.reconciliation.partition.size", 100);
+    }
+
+    /**
+     * Gets how many months of inventory ledger rows stay in the live table before being archived.
+     */
+    public static int getLedgerRetentionMonths() {
+        return getInt("inventory.ledger.retention.months", 12);
+    }
+
+    /**
+     * Gets how many ledger rows are moved to the archive per transaction.
+     */
+    public static int getLedgerArchiveChunkSize() {
+        return getInt("inventory.ledger.archive.chunk.size", 5000);
+    }
+
+    /**
+     * Gets how many rows a catalog import validates and commits at a time.
+     */
+    public static int getCatalogImportChunkSize() {
+        return getInt("catalog.import.chunk.size", 1000);
+    }
+
+    /**
+     * Gets how long a cart holds its reservation of online stock without being touched.
+     */
+    public static int getCartReservationTtlMinutes() {
+        return getInt("cart.reservation.ttl.minutes", 15);
+    }
+
+    /**
+     * Gets how many report results the report cache holds.
+     */
+    public static int getReportCacheMaxSize() {
+        return getInt("report.cache.max.size", 1000);
+    }
+
+    /**
+     * Gets how long a report is cached, e.g. {@code report.cache.ttl.seconds.dashboard},
+     * or the given default when not configured.
+     */
+    public static long getReportCacheTtlSeconds(String report, long defaultSeconds) {
+        return getLong("report.cache.ttl.seconds." + report, defaultSeconds);
+    }
+
+    /**
+     * Gets how many dashboards may hold a live stream open at once.
+     */
+    public static int getDashboardStreamMaxClients() {
+        return getInt("dashboard.stream.max.clients", 100);
+    }
+
+    /**
+     * Gets the shortest time between two pushes of the live dashboard counts.
+     */
+    public static long getDashboardStreamPushIntervalMillis() {
+        return getLong("dashboard.stream.push.interval.millis", 1000);
+    }
+
+    /**
+     * Gets how often open dashboard streams are checked and kept alive.
+     */
+    public static int getDashboardStreamHeartbeatSeconds() {
+        return getInt("dashboard.stream.heartbeat.seconds", 15);
+    }
+
     /**
      * Reloads configuration from file.
      */
@@ -80,6 +80,8 @@ public class DataSourceConfig {
             props.getProperty("hikari.dataSource.prepStmtCacheSqlLimit", "2048"));
         config.addDataSourceProperty("useServerPrepStmts",
             props.getProperty("hikari.dataSource.useServerPrepStmts", "true"));
+        config.addDataSourceProperty("rewriteBatchedStatements",
+            props.getProperty("hikari.dataSource.rewriteBatchedStatements", "true"));
 
         logger.info("Creating HikariCP DataSource with pool size: {} - {}",
             config.getMinimumIdle(), config.getMaximumPoolSize());
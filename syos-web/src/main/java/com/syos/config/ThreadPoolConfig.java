@@ -15,6 +15,7 @@ public class ThreadPoolConfig {
     private static volatile ExecutorService apiThreadPool;
     private static volatile ScheduledExecutorService backgroundTaskExecutor;
     private static volatile ExecutorService inventoryThreadPool;
+    private static volatile ForkJoinPool reconciliationPool;
     private static final Object lock = new Object();
 
     private ThreadPoolConfig() {
@@ -63,6 +64,21 @@ public class ThreadPoolConfig {
         return inventoryThreadPool;
     }
 
+    /**
+     * Gets the fork/join pool that runs inventory reconciliation. Kept small,
+     * since every partition it works on holds a database connection.
+     */
+    public static ForkJoinPool getReconciliationPool() {
+        if (reconciliationPool == null) {
+            synchronized (lock) {
+                if (reconciliationPool == null) {
+                    reconciliationPool = createReconciliationPool();
+                }
+            }
+        }
+        return reconciliationPool;
+    }
+
     /**
      * Creates the API thread pool.
      */
@@ -125,6 +141,21 @@ public class ThreadPoolConfig {
         );
     }
 
+    /**
+     * Creates the reconciliation fork/join pool.
+     */
+    private static ForkJoinPool createReconciliationPool() {
+        int parallelism = Math.max(1, Math.min(AppConfig.getReconciliationParallelism(),
+            Runtime.getRuntime().availableProcessors()));
+        logger.info("Creating reconciliation pool with parallelism {}", parallelism);
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("syos-reconcile-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+    }
+
     /**
      * Shuts down all thread pools gracefully.
      */
@@ -134,10 +165,12 @@ public class ThreadPoolConfig {
         shutdownExecutor(apiThreadPool, "API");
         shutdownExecutor(backgroundTaskExecutor, "Background");
         shutdownExecutor(inventoryThreadPool, "Inventory");
+        shutdownExecutor(reconciliationPool, "Reconciliation");
 
         apiThreadPool = null;
         backgroundTaskExecutor = null;
         inventoryThreadPool = null;
+        reconciliationPool = null;
     }
 
     private static void shutdownExecutor(ExecutorService executor, String name) {
@@ -4,19 +4,28 @@ package com.syos.domain.enums;
  * Represents the type of store inventory or transaction origin.
  */
 public enum StoreType {
-    PHYSICAL("Physical Store"),
-    ONLINE("Online Store");
+    PHYSICAL("Physical Store", "POS"),
+    ONLINE("Online Store", "ONL");
 
     private final String displayName;
+    private final String serialPrefix;
 
-    StoreType(String displayName) {
+    StoreType(String displayName, String serialPrefix) {
         this.displayName = displayName;
+        this.serialPrefix = serialPrefix;
     }
 
     public String getDisplayName() {
         return displayName;
     }
 
+    /**
+     * Gets the prefix used in bill serial numbers for this store type.
+     */
+    public String getSerialPrefix() {
+        return serialPrefix;
+    }
+
     /**
      * Parses a string to StoreType, case-insensitive.
      */
@@ -5,11 +5,13 @@ import com.syos.domain.enums.TransactionType;
 import com.syos.domain.valueobjects.BillSerialNumber;
 import com.syos.domain.valueobjects.Money;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -59,33 +61,46 @@ public class Bill {
     // Business Methods
 
     /**
-     * Adds an item to the bill and recalculates totals.
+     * Adds an item to the bill and adds its line total to the running totals.
      */
     public void addItem(BillItem item) {
         if (item == null) {
             throw new IllegalArgumentException("Bill item cannot be null");
         }
         items.add(item);
-        calculateTotals();
+        applyLineChange(null, item.getTotalPrice());
     }
 
     /**
-     * Removes an item from the bill and recalculates totals.
+     * Removes an item from the bill and takes its line total off the running totals.
      */
     public void removeItem(BillItem item) {
-        items.remove(item);
-        calculateTotals();
+        if (items.remove(item)) {
+            applyLineChange(item.getTotalPrice(), null);
+        }
     }
 
     /**
-     * Removes an item by product code and recalculates totals.
+     * Removes an item by product code and adjusts the running totals.
      */
     public void removeItemByProductCode(String productCode) {
-        items.removeIf(item ->
-            item.getProductCode() != null &&
-            item.getProductCode().getCode().equals(productCode)
-        );
-        calculateTotals();
+        Iterator<BillItem> it = items.iterator();
+        while (it.hasNext()) {
+            BillItem item = it.next();
+            if (item.getProductCode() != null && item.getProductCode().getCode().equals(productCode)) {
+                it.remove();
+                applyLineChange(item.getTotalPrice(), null);
+            }
+        }
+    }
+
+    /**
+     * Changes the quantity of an item and moves the running totals by the difference.
+     */
+    public void updateItemQuantity(BillItem item, int newQuantity) {
+        Money before = item.getTotalPrice();
+        item.updateQuantity(newQuantity);
+        applyLineChange(before, item.getTotalPrice());
     }
 
     /**
@@ -93,11 +108,14 @@ public class Bill {
      */
     public void clearItems() {
         items.clear();
-        calculateTotals();
+        this.subtotal = Money.ZERO;
+        updateTotalAmount();
     }
 
     /**
-     * Recalculates subtotal and total amounts.
+     * Recalculates subtotal and total amounts from every item.
+     * Item changes keep the totals current on their own; this is only needed
+     * after line totals were changed outside the bill.
      */
     public void calculateTotals() {
         Money newSubtotal = Money.ZERO;
@@ -107,6 +125,19 @@ public class Bill {
             }
         }
         this.subtotal = newSubtotal;
+        updateTotalAmount();
+    }
+
+    private void applyLineChange(Money before, Money after) {
+        BigDecimal delta = (after != null ? after.getAmount() : BigDecimal.ZERO)
+            .subtract(before != null ? before.getAmount() : BigDecimal.ZERO);
+        if (delta.signum() != 0) {
+            this.subtotal = new Money(subtotal.getAmount().add(delta));
+        }
+        updateTotalAmount();
+    }
+
+    private void updateTotalAmount() {
         this.totalAmount = subtotal.subtract(
             discountAmount != null ? discountAmount : Money.ZERO
         );
@@ -120,7 +151,7 @@ public class Bill {
             throw new IllegalArgumentException("Discount cannot exceed subtotal");
         }
         this.discountAmount = discount != null ? discount : Money.ZERO;
-        calculateTotals();
+        updateTotalAmount();
     }
 
     /**
@@ -0,0 +1,22 @@
+package com.syos.domain.valueobjects;
+
+/**
+ * Value object representing a quantity of a product taken from (or moved into)
+ * a specific inventory batch.
+ *
+ * Immutable value object following DDD principles.
+ */
+public record BatchQuantity(String productCode, Integer batchId, int quantity) {
+
+    public BatchQuantity {
+        if (productCode == null || productCode.trim().isEmpty()) {
+            throw new IllegalArgumentException("Product code cannot be null or empty");
+        }
+        if (batchId == null) {
+            throw new IllegalArgumentException("Batch ID cannot be null");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+    }
+}
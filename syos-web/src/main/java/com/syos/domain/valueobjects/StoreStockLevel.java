@@ -0,0 +1,19 @@
+package com.syos.domain.valueobjects;
+
+import java.time.LocalDate;
+
+/**
+ * Value object representing the stock of one product in one store, as kept in
+ * the store stock summary.
+ *
+ * {@code stocked} is false for a product that has never been put into the store;
+ * such products show in stock summaries but not in low stock lists.
+ */
+public record StoreStockLevel(
+        String productCode,
+        String productName,
+        int totalQuantity,
+        int batchCount,
+        LocalDate earliestExpiry,
+        boolean stocked) {
+}
@@ -27,11 +27,65 @@ public abstract class BaseRepository {
 
     /**
      * Gets a connection from the pool.
+     * Inside an active JdbcUnitOfWork the transaction's connection is returned instead,
+     * so the statement joins the surrounding transaction.
      */
     protected Connection getConnection() throws SQLException {
+        Connection bound = JdbcUnitOfWork.currentConnection(dataSource);
+        if (bound != null) {
+            return bound;
+        }
         return dataSource.getConnection();
     }
 
+    /**
+     * Executes the same statement once per parameter set as a single JDBC batch.
+     * Returns the affected row count for each parameter set.
+     */
+    protected int[] executeBatch(String sql, java.util.List<Object[]> paramSets) {
+        if (paramSets.isEmpty()) {
+            return new int[0];
+        }
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Object[] params : paramSets) {
+                setParameters(stmt, params);
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        } catch (SQLException e) {
+            logger.error("Batch execution failed: {} - {}", sql, e.getMessage());
+            throw new RepositoryException("Database batch failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executes a batched insert and returns the generated integer keys in parameter order.
+     */
+    protected java.util.List<Integer> executeBatchInsertAndGetIds(String sql, java.util.List<Object[]> paramSets) {
+        java.util.List<Integer> ids = new java.util.ArrayList<>();
+        if (paramSets.isEmpty()) {
+            return ids;
+        }
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Object[] params : paramSets) {
+                setParameters(stmt, params);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                while (generatedKeys.next()) {
+                    ids.add(generatedKeys.getInt(1));
+                }
+            }
+            return ids;
+        } catch (SQLException e) {
+            logger.error("Batch insert failed: {} - {}", sql, e.getMessage());
+            throw new RepositoryException("Database batch insert failed: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Executes a query and maps results using the provided mapper.
      */
@@ -46,6 +100,26 @@ public abstract class BaseRepository {
         }
     }
 
+    /**
+     * Runs a query on the given connection and hands each row to the handler as
+     * it arrives, without holding the whole result in memory. The connection
+     * cannot run another statement until the stream has been read to the end.
+     */
+    protected void streamQuery(Connection conn, String sql, RowHandler handler, Object... params)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams row by row for this fetch size instead of buffering the result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            setParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(rs);
+                }
+            }
+        }
+    }
+
     /**
      * Executes an update (INSERT, UPDATE, DELETE) and returns affected rows.
      */
@@ -170,6 +244,14 @@ public abstract class BaseRepository {
         T mapRow(ResultSet rs) throws SQLException;
     }
 
+    /**
+     * Functional interface for consuming streamed rows.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void handle(ResultSet rs) throws SQLException;
+    }
+
     /**
      * Maps ResultSet to a list using the provided row mapper.
      */
@@ -2,14 +2,10 @@ package com.syos.repository.impl;
 
 import com.syos.domain.enums.StoreType;
 import com.syos.domain.models.BillItem;
-import com.syos.domain.valueobjects.Money;
-import com.syos.domain.valueobjects.ProductCode;
 import com.syos.repository.interfaces.BillItemRepository;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -77,7 +73,7 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
                 JOIN product p ON bi.product_code = p.product_code
                 WHERE bi.bill_item_id = ?
                 """;
-        return executeQuery(sql, rs -> mapToOptional(rs, this::mapRow), id);
+        return executeQuery(sql, rs -> mapToOptional(rs, ReportRowMappers::billItem), id);
     }
 
     @Override
@@ -89,7 +85,7 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
                 WHERE bi.bill_id = ?
                 ORDER BY bi.bill_item_id
                 """;
-        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), billId);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::billItem), billId);
     }
 
     @Override
@@ -101,69 +97,74 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
                 WHERE bi.product_code = ?
                 ORDER BY bi.created_at DESC
                 """;
-        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), productCode);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::billItem), productCode);
     }
 
     @Override
     public List<BillItem> findByProductCodeAndDateRange(String productCode, LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
                 SELECT bi.*, p.product_name
                 FROM bill_item bi
                 JOIN product p ON bi.product_code = p.product_code
                 JOIN bill b ON bi.bill_id = b.bill_id
-                WHERE bi.product_code = ? AND DATE(b.bill_date) BETWEEN ? AND ?
+                WHERE bi.product_code = ? AND b.bill_date >= ? AND b.bill_date < ?
                 ORDER BY b.bill_date DESC
                 """;
-        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), productCode, startDate, endDate);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::billItem), productCode, range.start(), range.end());
     }
 
     @Override
     public int getTotalQuantitySoldForDate(String productCode, LocalDate date) {
+        TimeRange day = TimeRange.ofDay(date);
         String sql = """
                 SELECT COALESCE(SUM(bi.quantity), 0)
                 FROM bill_item bi
                 JOIN bill b ON bi.bill_id = b.bill_id
-                WHERE bi.product_code = ? AND DATE(b.bill_date) = ?
+                WHERE bi.product_code = ? AND b.bill_date >= ? AND b.bill_date < ?
                 """;
         return executeQuery(sql, rs -> {
             if (rs.next())
                 return rs.getInt(1);
             return 0;
-        }, productCode, date);
+        }, productCode, day.start(), day.end());
     }
 
     @Override
     public int getTotalQuantitySoldForDateRange(String productCode, LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
                 SELECT COALESCE(SUM(bi.quantity), 0)
                 FROM bill_item bi
                 JOIN bill b ON bi.bill_id = b.bill_id
-                WHERE bi.product_code = ? AND DATE(b.bill_date) BETWEEN ? AND ?
+                WHERE bi.product_code = ? AND b.bill_date >= ? AND b.bill_date < ?
                 """;
         return executeQuery(sql, rs -> {
             if (rs.next())
                 return rs.getInt(1);
             return 0;
-        }, productCode, startDate, endDate);
+        }, productCode, range.start(), range.end());
     }
 
     @Override
     public BigDecimal getTotalRevenueForProduct(String productCode, LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
                 SELECT COALESCE(SUM(bi.line_total), 0)
                 FROM bill_item bi
                 JOIN bill b ON bi.bill_id = b.bill_id
-                WHERE bi.product_code = ? AND DATE(b.bill_date) BETWEEN ? AND ?
+                WHERE bi.product_code = ? AND b.bill_date >= ? AND b.bill_date < ?
                 """;
         return executeQuery(sql, rs -> {
             if (rs.next())
                 return rs.getBigDecimal(1);
             return BigDecimal.ZERO;
-        }, productCode, startDate, endDate);
+        }, productCode, range.start(), range.end());
     }
 
     @Override
     public List<ProductSalesSummary> getTopSellingProducts(LocalDate startDate, LocalDate endDate, int limit) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
                 SELECT bi.product_code, p.product_name,
                        SUM(bi.quantity) as total_quantity,
@@ -171,28 +172,19 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
                 FROM bill_item bi
                 JOIN product p ON bi.product_code = p.product_code
                 JOIN bill b ON bi.bill_id = b.bill_id
-                WHERE DATE(b.bill_date) BETWEEN ? AND ?
+                WHERE b.bill_date >= ? AND b.bill_date < ?
                 GROUP BY bi.product_code, p.product_name
                 ORDER BY total_quantity DESC
                 LIMIT ?
                 """;
 
-        return executeQuery(sql, rs -> {
-            List<ProductSalesSummary> results = new ArrayList<>();
-            while (rs.next()) {
-                results.add(new ProductSalesSummary(
-                        rs.getString("product_code"),
-                        rs.getString("product_name"),
-                        rs.getInt("total_quantity"),
-                        rs.getBigDecimal("total_revenue")));
-            }
-            return results;
-        }, startDate, endDate, limit);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::productSales), range.start(), range.end(), limit);
     }
 
     @Override
     public List<ProductSalesSummary> getTopSellingProductsByStoreType(LocalDate startDate, LocalDate endDate, int limit,
             StoreType storeType) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
                 SELECT bi.product_code, p.product_name,
                        SUM(bi.quantity) as total_quantity,
@@ -200,27 +192,18 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
                 FROM bill_item bi
                 JOIN product p ON bi.product_code = p.product_code
                 JOIN bill b ON bi.bill_id = b.bill_id
-                WHERE DATE(b.bill_date) BETWEEN ? AND ? AND b.store_type = ?
+                WHERE b.bill_date >= ? AND b.bill_date < ? AND b.store_type = ?
                 GROUP BY bi.product_code, p.product_name
                 ORDER BY total_quantity DESC
                 LIMIT ?
                 """;
 
-        return executeQuery(sql, rs -> {
-            List<ProductSalesSummary> results = new ArrayList<>();
-            while (rs.next()) {
-                results.add(new ProductSalesSummary(
-                        rs.getString("product_code"),
-                        rs.getString("product_name"),
-                        rs.getInt("total_quantity"),
-                        rs.getBigDecimal("total_revenue")));
-            }
-            return results;
-        }, startDate, endDate, storeType.name(), limit);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::productSales), range.start(), range.end(), storeType.name(), limit);
     }
 
     @Override
     public List<ProductSalesSummary> getProductSalesSummary(LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
                 SELECT bi.product_code, p.product_name,
                        SUM(bi.quantity) as total_quantity,
@@ -228,27 +211,18 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
                 FROM bill_item bi
                 JOIN product p ON bi.product_code = p.product_code
                 JOIN bill b ON bi.bill_id = b.bill_id
-                WHERE DATE(b.bill_date) BETWEEN ? AND ?
+                WHERE b.bill_date >= ? AND b.bill_date < ?
                 GROUP BY bi.product_code, p.product_name
                 ORDER BY p.product_name
                 """;
 
-        return executeQuery(sql, rs -> {
-            List<ProductSalesSummary> results = new ArrayList<>();
-            while (rs.next()) {
-                results.add(new ProductSalesSummary(
-                        rs.getString("product_code"),
-                        rs.getString("product_name"),
-                        rs.getInt("total_quantity"),
-                        rs.getBigDecimal("total_revenue")));
-            }
-            return results;
-        }, startDate, endDate);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::productSales), range.start(), range.end());
     }
 
     @Override
     public List<ProductSalesSummary> getProductSalesSummaryByStoreType(LocalDate startDate, LocalDate endDate,
             StoreType storeType) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
                 SELECT bi.product_code, p.product_name,
                        SUM(bi.quantity) as total_quantity,
@@ -256,22 +230,12 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
                 FROM bill_item bi
                 JOIN product p ON bi.product_code = p.product_code
                 JOIN bill b ON bi.bill_id = b.bill_id
-                WHERE DATE(b.bill_date) BETWEEN ? AND ? AND b.store_type = ?
+                WHERE b.bill_date >= ? AND b.bill_date < ? AND b.store_type = ?
                 GROUP BY bi.product_code, p.product_name
                 ORDER BY p.product_name
                 """;
 
-        return executeQuery(sql, rs -> {
-            List<ProductSalesSummary> results = new ArrayList<>();
-            while (rs.next()) {
-                results.add(new ProductSalesSummary(
-                        rs.getString("product_code"),
-                        rs.getString("product_name"),
-                        rs.getInt("total_quantity"),
-                        rs.getBigDecimal("total_revenue")));
-            }
-            return results;
-        }, startDate, endDate, storeType.name());
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::productSales), range.start(), range.end(), storeType.name());
     }
 
     @Override
@@ -282,11 +246,41 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
 
     @Override
     public List<BillItem> saveAll(List<BillItem> items) {
-        List<BillItem> savedItems = new ArrayList<>();
+        // New items are inserted with one batched statement; existing ones are updated individually
+        List<BillItem> newItems = new ArrayList<>();
+        for (BillItem item : items) {
+            if (item.getBillItemId() == null) {
+                newItems.add(item);
+            } else {
+                save(item);
+            }
+        }
+        insertAll(newItems);
+        return items;
+    }
+
+    private void insertAll(List<BillItem> items) {
+        String sql = """
+                INSERT INTO bill_item (bill_id, product_code, product_name, main_inventory_id, quantity, unit_price, line_total)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """;
+
+        List<Object[]> paramSets = new ArrayList<>();
         for (BillItem item : items) {
-            savedItems.add(save(item));
+            paramSets.add(new Object[] {
+                    item.getBillId(),
+                    item.getProductCodeString(),
+                    item.getProductName(),
+                    item.getMainInventoryId(),
+                    item.getQuantity(),
+                    item.getUnitPrice().getAmount(),
+                    item.getLineTotal().getAmount() });
+        }
+
+        List<Integer> ids = executeBatchInsertAndGetIds(sql, paramSets);
+        for (int i = 0; i < items.size() && i < ids.size(); i++) {
+            items.get(i).setBillItemId(ids.get(i));
         }
-        return savedItems;
     }
 
     @Override
@@ -297,7 +291,7 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
                 JOIN product p ON bi.product_code = p.product_code
                 ORDER BY bi.bill_item_id DESC
                 """;
-        return executeQuery(sql, rs -> mapToList(rs, this::mapRow));
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::billItem));
     }
 
     @Override
@@ -309,7 +303,13 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
                 ORDER BY bi.bill_item_id DESC
                 LIMIT ? OFFSET ?
                 """;
-        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), limit, offset);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::billItem), limit, offset);
+    }
+
+    @Override
+    public boolean updateQuantity(BillItem item) {
+        String sql = "UPDATE bill_item SET quantity = ?, line_total = ? WHERE bill_item_id = ?";
+        return executeUpdate(sql, item.getQuantity(), item.getLineTotal().getAmount(), item.getBillItemId()) > 0;
     }
 
     @Override
@@ -329,29 +329,4 @@ public class BillItemRepositoryImpl extends BaseRepository implements BillItemRe
         String sql = "SELECT COUNT(*) FROM bill_item";
         return executeQuery(sql, rs -> rs.next() ? rs.getLong(1) : 0L);
     }
-
-    private BillItem mapRow(ResultSet rs) throws SQLException {
-        BillItem item = new BillItem();
-        item.setBillItemId(rs.getInt("bill_item_id"));
-        item.setBillId(rs.getInt("bill_id"));
-        item.setProductCode(new ProductCode(rs.getString("product_code")));
-
-        int mainInventoryId = rs.getInt("main_inventory_id");
-        if (!rs.wasNull()) {
-            item.setMainInventoryId(mainInventoryId);
-        }
-
-        item.setQuantity(rs.getInt("quantity"));
-        item.setUnitPrice(new Money(rs.getBigDecimal("unit_price")));
-        item.setLineTotal(new Money(rs.getBigDecimal("line_total")));
-        item.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
-
-        try {
-            item.setProductName(rs.getString("product_name"));
-        } catch (SQLException e) {
-            // Column not in result set
-        }
-
-        return item;
-    }
 }
@@ -1,10 +1,12 @@
 package com.syos.repository.impl;
 
+import com.syos.config.AppConfig;
 import com.syos.domain.enums.StoreType;
 import com.syos.domain.enums.TransactionType;
 import com.syos.domain.models.Bill;
 import com.syos.domain.valueobjects.BillSerialNumber;
 import com.syos.domain.valueobjects.Money;
+import com.syos.exception.RepositoryException;
 import com.syos.repository.interfaces.BillRepository;
 
 import javax.sql.DataSource;
@@ -21,12 +23,22 @@ import java.util.Optional;
  */
 public class BillRepositoryImpl extends BaseRepository implements BillRepository {
 
+    private final BillSerialNumberAllocator serialNumberAllocator;
+
     public BillRepositoryImpl() {
         super();
+        this.serialNumberAllocator = new BillSerialNumberAllocator(
+                new BillSequenceRepositoryImpl(dataSource), AppConfig.getBillSerialBlockSize());
     }
 
     public BillRepositoryImpl(DataSource dataSource) {
+        this(dataSource, new BillSerialNumberAllocator(
+                new BillSequenceRepositoryImpl(dataSource), AppConfig.getBillSerialBlockSize()));
+    }
+
+    public BillRepositoryImpl(DataSource dataSource, BillSerialNumberAllocator serialNumberAllocator) {
         super(dataSource);
+        this.serialNumberAllocator = serialNumberAllocator;
     }
 
     @Override
@@ -38,27 +50,49 @@ public class BillRepositoryImpl extends BaseRepository implements BillRepository
         }
     }
 
-    private Bill insert(Bill bill) {
-        String sql = """
-            INSERT INTO bill (serial_number, customer_id, store_type, transaction_type,
+    private static final String INSERT_SQL = """
+            INSERT INTO bill (serial_number, customer_id, store_type, transaction_type, subtotal,
                 total_amount, discount_amount, tax_amount, tendered_amount, change_amount, cashier_id)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
             """;
 
-        Integer id = executeInsertAndGetId(sql,
+    private Bill insert(Bill bill) {
+        Integer id = executeInsertAndGetId(INSERT_SQL, insertParams(bill));
+        bill.setBillId(id);
+        return bill;
+    }
+
+    @Override
+    public List<Bill> saveAll(List<Bill> bills) {
+        List<Object[]> paramSets = new ArrayList<>();
+        for (Bill bill : bills) {
+            paramSets.add(insertParams(bill));
+        }
+        List<Integer> ids = executeBatchInsertAndGetIds(INSERT_SQL, paramSets);
+        if (ids.size() != bills.size()) {
+            throw new RepositoryException("Batch bill insert returned " + ids.size()
+                    + " keys for " + bills.size() + " bills");
+        }
+        for (int i = 0; i < bills.size(); i++) {
+            bills.get(i).setBillId(ids.get(i));
+        }
+        return bills;
+    }
+
+    private Object[] insertParams(Bill bill) {
+        return new Object[] {
             bill.getSerialNumberString(),
             bill.getCustomerId(),
             bill.getStoreType().name(),
             bill.getTransactionType().name(),
+            bill.getSubtotal().getAmount(),
             bill.getTotalAmount().getAmount(),
             bill.getDiscountAmount() != null ? bill.getDiscountAmount().getAmount() : BigDecimal.ZERO,
             bill.getTaxAmount() != null ? bill.getTaxAmount().getAmount() : BigDecimal.ZERO,
             bill.getTenderedAmount() != null ? bill.getTenderedAmount().getAmount() : null,
             bill.getChangeAmount() != null ? bill.getChangeAmount().getAmount() : null,
             bill.getCashierId()
-        );
-        bill.setBillId(id);
-        return bill;
+        };
     }
 
     private Bill update(Bill bill) {
@@ -103,26 +137,28 @@ public class BillRepositoryImpl extends BaseRepository implements BillRepository
 
     @Override
     public List<Bill> findByDate(LocalDate date) {
+        TimeRange day = TimeRange.ofDay(date);
         String sql = """
             SELECT b.*, c.customer_name, c.email as customer_email
             FROM bill b
             LEFT JOIN customer c ON b.customer_id = c.customer_id
-            WHERE DATE(b.bill_date) = ?
+            WHERE b.bill_date >= ? AND b.bill_date < ?
             ORDER BY b.bill_date DESC
             """;
-        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), date);
+        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), day.start(), day.end());
     }
 
     @Override
     public List<Bill> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
             SELECT b.*, c.customer_name, c.email as customer_email
             FROM bill b
             LEFT JOIN customer c ON b.customer_id = c.customer_id
-            WHERE DATE(b.bill_date) BETWEEN ? AND ?
+            WHERE b.bill_date >= ? AND b.bill_date < ?
             ORDER BY b.bill_date DESC
             """;
-        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), startDate, endDate);
+        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), range.start(), range.end());
     }
 
     @Override
@@ -187,24 +223,27 @@ public class BillRepositoryImpl extends BaseRepository implements BillRepository
 
     @Override
     public BigDecimal getTotalSalesForDate(LocalDate date) {
-        String sql = "SELECT COALESCE(SUM(total_amount), 0) FROM bill WHERE DATE(bill_date) = ?";
+        TimeRange day = TimeRange.ofDay(date);
+        String sql = "SELECT COALESCE(SUM(total_amount), 0) FROM bill WHERE bill_date >= ? AND bill_date < ?";
         return executeQuery(sql, rs -> {
             if (rs.next()) return rs.getBigDecimal(1);
             return BigDecimal.ZERO;
-        }, date);
+        }, day.start(), day.end());
     }
 
     @Override
     public BigDecimal getTotalSalesForDateRange(LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT COALESCE(SUM(total_amount), 0) FROM bill WHERE DATE(bill_date) BETWEEN ? AND ?";
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
+        String sql = "SELECT COALESCE(SUM(total_amount), 0) FROM bill WHERE bill_date >= ? AND bill_date < ?";
         return executeQuery(sql, rs -> {
             if (rs.next()) return rs.getBigDecimal(1);
             return BigDecimal.ZERO;
-        }, startDate, endDate);
+        }, range.start(), range.end());
     }
 
     @Override
     public List<DailySalesSummary> getDailySalesSummary(LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
             SELECT DATE(bill_date) as sale_date,
                    COUNT(*) as bill_count,
@@ -212,7 +251,7 @@ public class BillRepositoryImpl extends BaseRepository implements BillRepository
                    SUM(CASE WHEN transaction_type = 'CASH' THEN total_amount ELSE 0 END) as cash_amount,
                    SUM(CASE WHEN transaction_type = 'ONLINE' THEN total_amount ELSE 0 END) as online_amount
             FROM bill
-            WHERE DATE(bill_date) BETWEEN ? AND ?
+            WHERE bill_date >= ? AND bill_date < ?
             GROUP BY DATE(bill_date)
             ORDER BY sale_date DESC
             """;
@@ -229,15 +268,16 @@ public class BillRepositoryImpl extends BaseRepository implements BillRepository
                 ));
             }
             return results;
-        }, startDate, endDate);
+        }, range.start(), range.end());
     }
 
     @Override
     public List<StoreTypeSalesSummary> getSalesByStoreType(LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
             SELECT store_type, COUNT(*) as bill_count, COALESCE(SUM(total_amount), 0) as total_amount
             FROM bill
-            WHERE DATE(bill_date) BETWEEN ? AND ?
+            WHERE bill_date >= ? AND bill_date < ?
             GROUP BY store_type
             ORDER BY store_type
             """;
@@ -252,58 +292,35 @@ public class BillRepositoryImpl extends BaseRepository implements BillRepository
                 ));
             }
             return results;
-        }, startDate, endDate);
+        }, range.start(), range.end());
     }
 
     @Override
     public int getBillCountForDate(LocalDate date) {
-        String sql = "SELECT COUNT(*) FROM bill WHERE DATE(bill_date) = ?";
+        TimeRange day = TimeRange.ofDay(date);
+        String sql = "SELECT COUNT(*) FROM bill WHERE bill_date >= ? AND bill_date < ?";
         return executeQuery(sql, rs -> {
             if (rs.next()) return rs.getInt(1);
             return 0;
-        }, date);
+        }, day.start(), day.end());
     }
 
     @Override
     public String generateNextSerialNumber(StoreType storeType) {
-        String prefix = storeType == StoreType.PHYSICAL ? "POS" : "ONL";
-        String datePrefix = LocalDate.now().toString().replace("-", "");
-
-        String sql = """
-            SELECT serial_number FROM bill
-            WHERE serial_number LIKE ?
-            ORDER BY serial_number DESC
-            LIMIT 1
-            """;
-
-        String pattern = prefix + "-" + datePrefix + "-%";
-
-        String lastSerial = executeQuery(sql, rs -> {
-            if (rs.next()) return rs.getString(1);
-            return null;
-        }, pattern);
-
-        int nextNumber = 1;
-        if (lastSerial != null) {
-            String[] parts = lastSerial.split("-");
-            if (parts.length == 3) {
-                nextNumber = Integer.parseInt(parts[2]) + 1;
-            }
-        }
-
-        return String.format("%s-%s-%04d", prefix, datePrefix, nextNumber);
+        return serialNumberAllocator.next(storeType);
     }
 
     @Override
     public List<Bill> findByStoreTypeAndDateRange(StoreType storeType, LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
             SELECT b.*, c.customer_name, c.email as customer_email
             FROM bill b
             LEFT JOIN customer c ON b.customer_id = c.customer_id
-            WHERE b.store_type = ? AND DATE(b.bill_date) BETWEEN ? AND ?
+            WHERE b.store_type = ? AND b.bill_date >= ? AND b.bill_date < ?
             ORDER BY b.bill_date DESC
             """;
-        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), storeType.name(), startDate, endDate);
+        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), storeType.name(), range.start(), range.end());
     }
 
     @Override
@@ -329,6 +346,22 @@ public class BillRepositoryImpl extends BaseRepository implements BillRepository
         return executeQuery(sql, rs -> mapToList(rs, this::mapRow), limit, offset);
     }
 
+    @Override
+    public boolean updateTotals(Bill bill) {
+        String sql = """
+            UPDATE bill SET subtotal = ?, discount_amount = ?, tax_amount = ?, total_amount = ?
+            WHERE bill_id = ?
+            """;
+
+        return executeUpdate(sql,
+            bill.getSubtotal().getAmount(),
+            bill.getDiscountAmount() != null ? bill.getDiscountAmount().getAmount() : BigDecimal.ZERO,
+            bill.getTaxAmount() != null ? bill.getTaxAmount().getAmount() : BigDecimal.ZERO,
+            bill.getTotalAmount().getAmount(),
+            bill.getBillId()
+        ) > 0;
+    }
+
     @Override
     public boolean deleteById(Integer id) {
         String sql = "DELETE FROM bill WHERE bill_id = ?";
@@ -361,6 +394,11 @@ public class BillRepositoryImpl extends BaseRepository implements BillRepository
         bill.setTransactionType(TransactionType.valueOf(rs.getString("transaction_type")));
         bill.setTotalAmount(new Money(rs.getBigDecimal("total_amount")));
 
+        BigDecimal subtotal = rs.getBigDecimal("subtotal");
+        if (subtotal != null) {
+            bill.setSubtotal(new Money(subtotal));
+        }
+
         BigDecimal discount = rs.getBigDecimal("discount_amount");
         if (discount != null) {
             bill.setDiscountAmount(new Money(discount));
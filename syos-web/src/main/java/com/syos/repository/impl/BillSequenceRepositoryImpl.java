@@ -0,0 +1,70 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.exception.RepositoryException;
+import com.syos.repository.interfaces.BillSequenceRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Implementation of BillSequenceRepository using JDBC.
+ * The row for a store type and day is created on first use and bumped with a
+ * single INSERT ... ON DUPLICATE KEY UPDATE, so concurrent nodes never receive
+ * overlapping blocks. A new row is seeded from the day's highest existing serial.
+ */
+public class BillSequenceRepositoryImpl extends BaseRepository implements BillSequenceRepository {
+
+    public BillSequenceRepositoryImpl() {
+        super();
+    }
+
+    public BillSequenceRepositoryImpl(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public int reserveBlock(StoreType storeType, LocalDate date, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+
+        // A day's row starts after the highest serial already in bill for that day,
+        // so serials issued before the row existed (by an earlier generator, or
+        // before the table was rebuilt) are never handed out again
+        String sql = """
+            INSERT INTO bill_sequence (store_type, sequence_date, prefix, last_number)
+            SELECT ?, ?, ?, LAST_INSERT_ID(
+                       COALESCE(MAX(CAST(SUBSTRING_INDEX(b.serial_number, '-', -1) AS UNSIGNED)), 0) + ?)
+            FROM bill b
+            WHERE b.serial_number LIKE ?
+            ON DUPLICATE KEY UPDATE last_number = LAST_INSERT_ID(last_number + ?)
+            """;
+        String daySerials = storeType.getSerialPrefix() + "-" + date.format(DateTimeFormatter.BASIC_ISO_DATE) + "-%";
+
+        // Always use a dedicated auto-commit connection: a reserved block must stay
+        // reserved even if the checkout transaction that triggered it rolls back,
+        // and the sequence row lock must not be held until that transaction ends.
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement stmt = prepareStatement(conn, sql,
+                    storeType, date, storeType.getSerialPrefix(), blockSize, daySerials, blockSize)) {
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT LAST_INSERT_ID()");
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+            throw new RepositoryException("Could not read reserved bill sequence for " + storeType);
+        } catch (SQLException e) {
+            logger.error("Failed to reserve bill sequence block for {}: {}", storeType, e.getMessage());
+            throw new RepositoryException("Failed to reserve bill sequence: " + e.getMessage(), e);
+        }
+    }
+}
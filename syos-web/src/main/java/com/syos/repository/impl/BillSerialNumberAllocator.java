@@ -0,0 +1,90 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.repository.interfaces.BillSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out bill serial numbers (e.g. POS-20240115-0001) using hi/lo allocation.
+ * Blocks of numbers are reserved from bill_sequence per store type per day and
+ * issued from memory with a single atomic increment; the database is only hit
+ * when a block runs out or the day changes. Numbers left in a block when the
+ * node stops or the day rolls over are skipped, so serials are unique and
+ * increasing per node but may contain gaps.
+ */
+public class BillSerialNumberAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillSerialNumberAllocator.class);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final BillSequenceRepository sequenceRepository;
+    private final int blockSize;
+    private final Clock clock;
+    private final Map<StoreType, AtomicReference<Block>> blocks = new EnumMap<>(StoreType.class);
+
+    public BillSerialNumberAllocator(BillSequenceRepository sequenceRepository, int blockSize) {
+        this(sequenceRepository, blockSize, Clock.systemDefaultZone());
+    }
+
+    public BillSerialNumberAllocator(BillSequenceRepository sequenceRepository, int blockSize, Clock clock) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.sequenceRepository = sequenceRepository;
+        this.blockSize = blockSize;
+        this.clock = clock;
+        for (StoreType storeType : StoreType.values()) {
+            blocks.put(storeType, new AtomicReference<>());
+        }
+    }
+
+    /**
+     * Issues the next serial number for the store type.
+     */
+    public String next(StoreType storeType) {
+        AtomicReference<Block> ref = blocks.get(storeType);
+        LocalDate today = LocalDate.now(clock);
+        while (true) {
+            Block block = ref.get();
+            if (block != null && block.date().equals(today)) {
+                int number = block.next().getAndIncrement();
+                if (number <= block.last()) {
+                    return format(storeType, today, number);
+                }
+            }
+            refill(ref, block, storeType, today);
+        }
+    }
+
+    /**
+     * Replaces an exhausted or stale block. Only one thread per store type
+     * reserves a new block; the others retry against the block it installs.
+     */
+    private void refill(AtomicReference<Block> ref, Block stale, StoreType storeType, LocalDate today) {
+        synchronized (ref) {
+            if (ref.get() != stale) {
+                return;
+            }
+            int last = sequenceRepository.reserveBlock(storeType, today, blockSize);
+            ref.set(new Block(today, new AtomicInteger(last - blockSize + 1), last));
+            logger.debug("Reserved bill numbers {}-{} for {} on {}",
+                    last - blockSize + 1, last, storeType, today);
+        }
+    }
+
+    private String format(StoreType storeType, LocalDate date, int number) {
+        return String.format("%s-%s-%04d", storeType.getSerialPrefix(), date.format(DATE_FORMAT), number);
+    }
+
+    private record Block(LocalDate date, AtomicInteger next, int last) {
+    }
+}
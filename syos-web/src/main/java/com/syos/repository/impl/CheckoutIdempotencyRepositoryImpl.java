@@ -0,0 +1,51 @@
+package com.syos.repository.impl;
+
+import com.syos.repository.interfaces.CheckoutIdempotencyRepository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Implementation of CheckoutIdempotencyRepository using JDBC.
+ */
+public class CheckoutIdempotencyRepositoryImpl extends BaseRepository implements CheckoutIdempotencyRepository {
+
+    public CheckoutIdempotencyRepositoryImpl() {
+        super();
+    }
+
+    public CheckoutIdempotencyRepositoryImpl(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public Optional<String> findResult(String idempotencyKey, LocalDateTime now) {
+        String sql = """
+            SELECT result_json FROM checkout_idempotency
+            WHERE idempotency_key = ? AND expires_at > ?
+            """;
+        return executeQuery(sql, rs -> mapToOptional(rs, r -> r.getString("result_json")),
+            idempotencyKey, now);
+    }
+
+    @Override
+    public void save(String idempotencyKey, Integer billId, String resultJson,
+                     LocalDateTime now, LocalDateTime expiresAt) {
+        // An expired entry that has not been purged yet must not block the key
+        executeUpdate("DELETE FROM checkout_idempotency WHERE idempotency_key = ? AND expires_at <= ?",
+            idempotencyKey, now);
+
+        String sql = """
+            INSERT INTO checkout_idempotency (idempotency_key, bill_id, result_json, expires_at)
+            VALUES (?, ?, ?, ?)
+            """;
+        executeUpdate(sql, idempotencyKey, billId, resultJson, expiresAt);
+    }
+
+    @Override
+    public int deleteExpired(LocalDateTime now) {
+        String sql = "DELETE FROM checkout_idempotency WHERE expires_at <= ?";
+        return executeUpdate(sql, now);
+    }
+}
@@ -129,7 +129,7 @@ public class CustomerRepositoryImpl extends BaseRepository implements CustomerRe
             SELECT DISTINCT c.*
             FROM customer c
             JOIN bill b ON c.customer_id = b.customer_id
-            WHERE DATE(b.bill_date) >= DATE_SUB(CURDATE(), INTERVAL ? DAY)
+            WHERE b.bill_date >= DATE_SUB(CURDATE(), INTERVAL ? DAY)
             ORDER BY c.customer_name
             """;
         return executeQuery(sql, rs -> mapToList(rs, this::mapRow), days);
@@ -0,0 +1,195 @@
+package com.syos.repository.impl;
+
+import com.syos.repository.interfaces.InventoryLedgerRepository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of InventoryLedgerRepository using JDBC.
+ */
+public class InventoryLedgerRepositoryImpl extends BaseRepository implements InventoryLedgerRepository {
+
+    /** Lower bound of the ledger when no snapshot precedes a query; no snapshot is taken at it. */
+    static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 2, 0, 0);
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String LEDGER_CHANGES = """
+        SELECT main_inventory_id, product_code,
+               CASE WHEN store_type IS NULL OR store_type = 'WAREHOUSE' THEN quantity_changed
+                    WHEN transaction_type IN ('RESTOCK_PHYSICAL', 'RESTOCK_ONLINE') THEN -quantity_changed
+                    ELSE 0 END,
+               CASE WHEN store_type = 'PHYSICAL' THEN quantity_changed ELSE 0 END,
+               CASE WHEN store_type = 'ONLINE' THEN quantity_changed ELSE 0 END
+        FROM %s
+        WHERE transaction_date >= ? AND transaction_date %s ?
+          AND main_inventory_id IS NOT NULL AND transaction_type <> 'PURCHASE'%s
+        """;
+
+    public InventoryLedgerRepositoryImpl() {
+        super();
+    }
+
+    public InventoryLedgerRepositoryImpl(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findSnapshotAtOrBefore(LocalDateTime time) {
+        String sql = "SELECT MAX(snapshot_at) AS snapshot_at FROM inventory_snapshot WHERE snapshot_at <= ?";
+        return executeQuery(sql, rs -> rs.next()
+                ? Optional.ofNullable(toLocalDateTime(rs.getTimestamp("snapshot_at")))
+                : Optional.empty(), time);
+    }
+
+    @Override
+    public int createSnapshot(LocalDateTime previousSnapshotAt, LocalDateTime snapshotAt) {
+        List<Object> params = new ArrayList<>();
+        params.add(snapshotAt);
+        String sql = """
+            INSERT INTO inventory_snapshot
+                (snapshot_at, main_inventory_id, product_code, main_quantity, physical_quantity, online_quantity)
+            """ + levelsSql(previousSnapshotAt, snapshotAt, false, null, params);
+        return executeUpdate(sql, params.toArray());
+    }
+
+    @Override
+    public List<BatchStockLevel> findStockAsOf(LocalDateTime snapshotAt, LocalDateTime asOf, String productCode) {
+        List<Object> params = new ArrayList<>();
+        String sql = levelsSql(snapshotAt, asOf, true, productCode, params)
+                + "ORDER BY b.product_code, b.main_inventory_id\n";
+        return executeQuery(sql, rs -> mapToList(rs, this::mapLevel), params.toArray());
+    }
+
+    @Override
+    public int pruneSnapshots(LocalDateTime before) {
+        String sql = """
+            DELETE s FROM inventory_snapshot s
+            LEFT JOIN (
+                SELECT MIN(snapshot_at) AS keep_at
+                FROM inventory_snapshot
+                WHERE snapshot_at < ?
+                GROUP BY YEAR(snapshot_at), MONTH(snapshot_at)
+            ) monthly ON s.snapshot_at = monthly.keep_at
+            WHERE s.snapshot_at < ? AND monthly.keep_at IS NULL
+            """;
+        return executeUpdate(sql, before, before);
+    }
+
+    @Override
+    public boolean ensureArchivePartition(YearMonth month) {
+        String sql = """
+            SELECT PARTITION_NAME FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'inventory_transaction_archive'
+              AND PARTITION_NAME <> 'p_future'
+            ORDER BY PARTITION_ORDINAL_POSITION DESC
+            LIMIT 1
+            """;
+        Optional<String> last = executeQuery(sql, rs -> mapToOptional(rs, r -> r.getString("PARTITION_NAME")));
+        if (last.isPresent() && YearMonth.parse(last.get(), PARTITION_NAME).compareTo(month) >= 0) {
+            return false;
+        }
+        // DDL commits on its own, so this runs outside any unit of work
+        executeUpdate("""
+            ALTER TABLE inventory_transaction_archive REORGANIZE PARTITION p_future INTO (
+                PARTITION %s VALUES LESS THAN ('%s'),
+                PARTITION p_future VALUES LESS THAN (MAXVALUE))
+            """.formatted(month.format(PARTITION_NAME), month.plusMonths(1).atDay(1)));
+        logger.info("Added ledger archive partition {}", month.format(PARTITION_NAME));
+        return true;
+    }
+
+    @Override
+    public int archiveLedgerRows(LocalDateTime before, int limit) {
+        String lastIdSql = """
+            SELECT MAX(transaction_id) AS last_id FROM (
+                SELECT transaction_id FROM inventory_transaction
+                WHERE transaction_date < ?
+                ORDER BY transaction_id
+                LIMIT ?) oldest
+            """;
+        int lastId = executeQuery(lastIdSql, rs -> rs.next() ? rs.getInt("last_id") : 0, before, limit);
+        if (lastId == 0) {
+            return 0;
+        }
+        executeUpdate("""
+            INSERT INTO inventory_transaction_archive
+                (transaction_id, product_code, main_inventory_id, transaction_type, store_type,
+                 quantity_changed, bill_id, remarks, transaction_date)
+            SELECT transaction_id, product_code, main_inventory_id, transaction_type, store_type,
+                   quantity_changed, bill_id, remarks, transaction_date
+            FROM inventory_transaction
+            WHERE transaction_id <= ? AND transaction_date < ?
+            """, lastId, before);
+        return executeUpdate("DELETE FROM inventory_transaction WHERE transaction_id <= ? AND transaction_date < ?",
+                lastId, before);
+    }
+
+    /**
+     * Builds the per-batch stock query: a snapshot's rows, plus the batches
+     * received and the ledger changes dated from the snapshot up to the given
+     * time, summed per batch. Appends the parameters in order.
+     */
+    private String levelsSql(LocalDateTime snapshotAt, LocalDateTime until, boolean inclusive,
+                             String productCode, List<Object> params) {
+        LocalDateTime from = snapshotAt != null ? snapshotAt : LEDGER_START;
+        String upper = inclusive ? "<=" : "<";
+        String productFilter = productCode != null ? " AND product_code = ?" : "";
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT b.main_inventory_id, b.product_code,
+                   SUM(b.main_quantity) AS main_quantity,
+                   SUM(b.physical_quantity) AS physical_quantity,
+                   SUM(b.online_quantity) AS online_quantity
+            FROM (
+                SELECT main_inventory_id, product_code, main_quantity, physical_quantity, online_quantity
+                FROM inventory_snapshot
+                WHERE snapshot_at = ?%1$s
+                UNION ALL
+                SELECT main_inventory_id, product_code, quantity_received, 0, 0
+                FROM main_inventory
+                WHERE created_at >= ? AND created_at %2$s ?%1$s
+                UNION ALL
+            """.formatted(productFilter, upper));
+        addParams(params, productCode, from);
+        addParams(params, productCode, from, until);
+        sql.append(LEDGER_CHANGES.formatted("inventory_transaction", upper, productFilter));
+        addParams(params, productCode, from, until);
+        if (inclusive) {
+            // Archived months are pruned to the queried range by partition
+            sql.append("UNION ALL\n");
+            sql.append(LEDGER_CHANGES.formatted("inventory_transaction_archive", upper, productFilter));
+            addParams(params, productCode, from, until);
+        }
+        sql.append("""
+            ) b
+            GROUP BY b.main_inventory_id, b.product_code
+            HAVING SUM(b.main_quantity) <> 0 OR SUM(b.physical_quantity) <> 0 OR SUM(b.online_quantity) <> 0
+            """);
+        return sql.toString();
+    }
+
+    private static void addParams(List<Object> params, String productCode, Object... values) {
+        params.addAll(List.of(values));
+        if (productCode != null) {
+            params.add(productCode);
+        }
+    }
+
+    private BatchStockLevel mapLevel(ResultSet rs) throws SQLException {
+        return new BatchStockLevel(
+                rs.getInt("main_inventory_id"),
+                rs.getString("product_code"),
+                rs.getInt("main_quantity"),
+                rs.getInt("physical_quantity"),
+                rs.getInt("online_quantity"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.InventoryTransactionType;
+import com.syos.domain.enums.StoreType;
+import com.syos.exception.RepositoryException;
+import com.syos.repository.interfaces.InventoryReconciliationRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of InventoryReconciliationRepository using JDBC.
+ */
+public class InventoryReconciliationRepositoryImpl extends BaseRepository implements InventoryReconciliationRepository {
+
+    private static final String BATCHES_SQL = """
+        SELECT main_inventory_id, product_code, quantity_received, remaining_quantity
+        FROM main_inventory
+        WHERE product_code BETWEEN ? AND ?
+        """;
+
+    private static final String PHYSICAL_SQL = """
+        SELECT main_inventory_id, quantity_on_shelf AS quantity
+        FROM physical_store_inventory
+        WHERE product_code BETWEEN ? AND ?
+        """;
+
+    private static final String ONLINE_SQL = """
+        SELECT main_inventory_id, quantity_available AS quantity
+        FROM online_store_inventory
+        WHERE product_code BETWEEN ? AND ?
+        """;
+
+    // Archived ledger rows still count towards every batch's expected quantity
+    private static final String LEDGER_SQL = """
+        SELECT main_inventory_id, transaction_type, store_type, quantity_changed
+        FROM inventory_transaction
+        WHERE product_code BETWEEN ? AND ?
+        UNION ALL
+        SELECT main_inventory_id, transaction_type, store_type, quantity_changed
+        FROM inventory_transaction_archive
+        WHERE product_code BETWEEN ? AND ?
+        """;
+
+    public InventoryReconciliationRepositoryImpl() {
+        super();
+    }
+
+    public InventoryReconciliationRepositoryImpl(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public List<String> findProductCodes() {
+        String sql = "SELECT DISTINCT product_code FROM main_inventory ORDER BY product_code";
+        return executeQuery(sql, rs -> mapToList(rs, r -> r.getString("product_code")));
+    }
+
+    @Override
+    public void readPartition(String firstProductCode, String lastProductCode, PartitionReader reader) {
+        // A connection of its own, never one bound to a unit of work on this thread
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            int isolation = conn.getTransactionIsolation();
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setReadOnly(true);
+            try {
+                // The first read fixes the snapshot; the rest see the same point in time
+                streamQuery(conn, BATCHES_SQL, rs -> reader.batch(rs.getInt("main_inventory_id"),
+                        rs.getString("product_code"), rs.getInt("quantity_received"),
+                        rs.getInt("remaining_quantity")),
+                    firstProductCode, lastProductCode);
+                streamQuery(conn, PHYSICAL_SQL, rs -> reader.shelf(StoreType.PHYSICAL,
+                        rs.getInt("main_inventory_id"), rs.getInt("quantity")),
+                    firstProductCode, lastProductCode);
+                streamQuery(conn, ONLINE_SQL, rs -> reader.shelf(StoreType.ONLINE,
+                        rs.getInt("main_inventory_id"), rs.getInt("quantity")),
+                    firstProductCode, lastProductCode);
+                streamQuery(conn, LEDGER_SQL, rs -> {
+                    int batchId = rs.getInt("main_inventory_id");
+                    reader.ledger(rs.wasNull() ? null : batchId,
+                        InventoryTransactionType.valueOf(rs.getString("transaction_type")),
+                        toStoreType(rs.getString("store_type")),
+                        rs.getInt("quantity_changed"));
+                }, firstProductCode, lastProductCode, firstProductCode, lastProductCode);
+                conn.commit();
+            } finally {
+                conn.setReadOnly(false);
+                conn.setTransactionIsolation(isolation);
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            logger.error("Reconciliation read failed for products {} to {}: {}",
+                firstProductCode, lastProductCode, e.getMessage());
+            throw new RepositoryException("Database query failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void saveDiscrepancies(LocalDateTime runStartedAt, List<BatchDiscrepancy> discrepancies) {
+        String sql = """
+            INSERT INTO inventory_discrepancy
+                (run_started_at, main_inventory_id, product_code, location, expected_quantity, actual_quantity)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+        List<Object[]> paramSets = new ArrayList<>();
+        for (BatchDiscrepancy discrepancy : discrepancies) {
+            paramSets.add(new Object[] {
+                runStartedAt, discrepancy.batchId(), discrepancy.productCode(), discrepancy.location(),
+                discrepancy.expectedQuantity(), discrepancy.actualQuantity()
+            });
+        }
+        executeBatch(sql, paramSets);
+    }
+
+    /**
+     * Maps a ledger store type; WAREHOUSE and null both mean main inventory.
+     */
+    private static StoreType toStoreType(String storeType) {
+        if ("PHYSICAL".equals(storeType)) {
+            return StoreType.PHYSICAL;
+        }
+        if ("ONLINE".equals(storeType)) {
+            return StoreType.ONLINE;
+        }
+        return null;
+    }
+}
@@ -58,6 +58,35 @@ public class InventoryTransactionRepositoryImpl extends BaseRepository implement
         return transaction;
     }
 
+    @Override
+    public List<InventoryTransaction> saveAll(List<InventoryTransaction> transactions) {
+        String sql = """
+            INSERT INTO inventory_transaction (product_code, main_inventory_id, transaction_type,
+                store_type, quantity_changed, bill_id, remarks, transaction_date)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        List<Object[]> paramSets = new ArrayList<>();
+        for (InventoryTransaction transaction : transactions) {
+            paramSets.add(new Object[] {
+                transaction.getProductCodeString(),
+                transaction.getMainInventoryId(),
+                transaction.getTransactionType().name(),
+                transaction.getStoreType() != null ? transaction.getStoreType().name() : null,
+                transaction.getQuantityChanged(),
+                transaction.getBillId(),
+                transaction.getRemarks(),
+                transaction.getTransactionDate() != null ? transaction.getTransactionDate() : LocalDateTime.now()
+            });
+        }
+
+        List<Integer> ids = executeBatchInsertAndGetIds(sql, paramSets);
+        for (int i = 0; i < transactions.size() && i < ids.size(); i++) {
+            transactions.get(i).setTransactionId(ids.get(i));
+        }
+        return transactions;
+    }
+
     private InventoryTransaction update(InventoryTransaction transaction) {
         String sql = """
             UPDATE inventory_transaction SET remarks = ?
@@ -127,6 +156,15 @@ public class InventoryTransactionRepositoryImpl extends BaseRepository implement
         return executeQuery(sql, rs -> mapToList(rs, this::mapRow), billId);
     }
 
+    @Override
+    public boolean existsForBill(Integer billId) {
+        String sql = """
+            SELECT EXISTS (SELECT 1 FROM inventory_transaction WHERE bill_id = ?)
+                OR EXISTS (SELECT 1 FROM inventory_transaction_archive WHERE bill_id = ?)
+            """;
+        return executeQuery(sql, rs -> rs.next() && rs.getBoolean(1), billId, billId);
+    }
+
     @Override
     public List<InventoryTransaction> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         String sql = """
@@ -197,13 +235,14 @@ public class InventoryTransactionRepositoryImpl extends BaseRepository implement
 
     @Override
     public List<DailyTransactionSummary> getDailySummary(LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
         String sql = """
             SELECT DATE(transaction_date) as trans_date,
                    COUNT(*) as transaction_count,
                    COALESCE(SUM(CASE WHEN transaction_type = 'SALE' THEN ABS(quantity_changed) ELSE 0 END), 0) as sales_qty,
                    COALESCE(SUM(CASE WHEN transaction_type IN ('RESTOCK_PHYSICAL', 'RESTOCK_ONLINE') THEN quantity_changed ELSE 0 END), 0) as restock_qty
             FROM inventory_transaction
-            WHERE DATE(transaction_date) BETWEEN ? AND ?
+            WHERE transaction_date >= ? AND transaction_date < ?
             GROUP BY DATE(transaction_date)
             ORDER BY trans_date DESC
             """;
@@ -219,7 +258,7 @@ public class InventoryTransactionRepositoryImpl extends BaseRepository implement
                 ));
             }
             return results;
-        }, startDate, endDate);
+        }, range.start(), range.end());
     }
 
     @Override
@@ -0,0 +1,153 @@
+package com.syos.repository.impl;
+
+import com.syos.exception.RepositoryException;
+import com.syos.repository.interfaces.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC implementation of UnitOfWork.
+ * Borrows a single pooled connection, binds it to the current thread and
+ * disables auto-commit. Every repository extending BaseRepository that uses the
+ * same DataSource picks up the bound connection, so all statements issued inside
+ * the work travel over one connection and are committed once.
+ */
+public class JdbcUnitOfWork implements UnitOfWork {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcUnitOfWork.class);
+
+    private static final ThreadLocal<BoundConnection> CURRENT = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+
+    public JdbcUnitOfWork(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public <T> T execute(Work<T> work) {
+        BoundConnection existing = CURRENT.get();
+        if (existing != null && existing.dataSource() == dataSource) {
+            // Join the outer transaction
+            return work.perform();
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean previousAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            BoundConnection bound = new BoundConnection(dataSource, conn, nonClosing(conn), new ArrayList<>());
+            CURRENT.set(bound);
+            T result;
+            try {
+                result = work.perform();
+                conn.commit();
+            } catch (RuntimeException | Error | SQLException e) {
+                rollbackQuietly(conn);
+                throw e;
+            } finally {
+                CURRENT.remove();
+                conn.setAutoCommit(previousAutoCommit);
+            }
+            runCommitActions(bound.commitActions());
+            return result;
+        } catch (SQLException e) {
+            logger.error("Unit of work failed: {}", e.getMessage());
+            throw new RepositoryException("Transaction failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        BoundConnection bound = CURRENT.get();
+        if (bound != null && bound.dataSource() == dataSource) {
+            bound.commitActions().add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    @Override
+    public <T> T suspend(Work<T> work) {
+        BoundConnection suspended = CURRENT.get();
+        if (suspended == null) {
+            return work.perform();
+        }
+        CURRENT.remove();
+        try {
+            return work.perform();
+        } finally {
+            CURRENT.set(suspended);
+        }
+    }
+
+    /**
+     * Returns the connection bound to the current thread for the given DataSource,
+     * or null if no unit of work is active. The returned connection ignores close()
+     * so that try-with-resources blocks in repositories leave it open.
+     */
+    static Connection currentConnection(DataSource dataSource) {
+        BoundConnection bound = CURRENT.get();
+        if (bound != null && bound.dataSource() == dataSource) {
+            return bound.shared();
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a unit of work is active on the current thread.
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    private void runCommitActions(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // The transaction is already committed; a failing action must not undo that
+                logger.error("After-commit action failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            logger.error("Rollback failed: {}", e.getMessage());
+        }
+    }
+
+    private static Connection nonClosing(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "isClosed":
+                            return target.isClosed();
+                        default:
+                            try {
+                                return method.invoke(target, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    private record BoundConnection(DataSource dataSource, Connection connection, Connection shared,
+                                   List<Runnable> commitActions) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.syos.repository.impl;
 
 import com.syos.domain.models.MainInventory;
+import com.syos.domain.valueobjects.BatchQuantity;
 import com.syos.domain.valueobjects.Money;
 import com.syos.domain.valueobjects.ProductCode;
 import com.syos.repository.interfaces.MainInventoryRepository;
@@ -9,6 +10,9 @@ import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -108,6 +112,22 @@ public class MainInventoryRepositoryImpl extends BaseRepository implements MainI
         return executeQuery(sql, rs -> mapToList(rs, this::mapRow), productCode);
     }
 
+    @Override
+    public List<MainInventory> findAvailableBatchesByProductCodes(Collection<String> productCodes) {
+        if (productCodes.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(productCodes.size(), "?"));
+        String sql = """
+            SELECT mi.*, p.product_name
+            FROM main_inventory mi
+            JOIN product p ON mi.product_code = p.product_code
+            WHERE mi.product_code IN (%s) AND mi.remaining_quantity > 0
+            ORDER BY mi.product_code, mi.expiry_date ASC, mi.purchase_date ASC
+            """.formatted(placeholders);
+        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), productCodes.toArray());
+    }
+
     @Override
     public Optional<MainInventory> findNextBatchForSale(String productCode, int requiredQuantity) {
         // First try to find a single batch that can fulfill the entire quantity
@@ -169,6 +189,45 @@ public class MainInventoryRepositoryImpl extends BaseRepository implements MainI
         return executeQuery(sql, rs -> mapToList(rs, this::mapRow));
     }
 
+    @Override
+    public List<MainInventory> findAvailableWithExpiry() {
+        String sql = """
+            SELECT mi.*, p.product_name
+            FROM main_inventory mi
+            JOIN product p ON mi.product_code = p.product_code
+            WHERE mi.remaining_quantity > 0
+                AND mi.expiry_date IS NOT NULL
+            ORDER BY mi.expiry_date ASC
+            """;
+        return executeQuery(sql, rs -> mapToList(rs, this::mapRow));
+    }
+
+    @Override
+    public List<ExpiredStock> findExpiredStock(LocalDate expiredBefore, int afterBatchId, int limit) {
+        // Walks the primary key so each chunk is a short range scan, whatever the backlog
+        String sql = """
+            SELECT mi.main_inventory_id, mi.product_code, mi.expiry_date, mi.remaining_quantity,
+                   COALESCE(psi.quantity_on_shelf, 0) AS physical_quantity,
+                   COALESCE(osi.quantity_available, 0) AS online_quantity
+            FROM main_inventory mi
+            LEFT JOIN physical_store_inventory psi ON psi.main_inventory_id = mi.main_inventory_id
+            LEFT JOIN online_store_inventory osi ON osi.main_inventory_id = mi.main_inventory_id
+            WHERE mi.main_inventory_id > ?
+                AND mi.expiry_date < ?
+                AND (mi.remaining_quantity > 0 OR psi.quantity_on_shelf > 0 OR osi.quantity_available > 0)
+            ORDER BY mi.main_inventory_id
+            LIMIT ?
+            """;
+        return executeQuery(sql, rs -> mapToList(rs, r -> new ExpiredStock(
+            r.getInt("main_inventory_id"),
+            r.getString("product_code"),
+            toLocalDate(r.getDate("expiry_date")),
+            r.getInt("remaining_quantity"),
+            r.getInt("physical_quantity"),
+            r.getInt("online_quantity")
+        )), afterBatchId, expiredBefore, limit);
+    }
+
     @Override
     public List<MainInventory> findBySupplier(String supplierName) {
         String sql = """
@@ -200,6 +259,28 @@ public class MainInventoryRepositoryImpl extends BaseRepository implements MainI
         return executeUpdate(sql, amount, batchId, amount) > 0;
     }
 
+    @Override
+    public boolean reduceQuantities(List<BatchQuantity> reductions) {
+        String sql = """
+            UPDATE main_inventory
+            SET remaining_quantity = remaining_quantity - ?
+            WHERE main_inventory_id = ? AND remaining_quantity >= ?
+            """;
+
+        List<Object[]> paramSets = new ArrayList<>();
+        for (BatchQuantity reduction : reductions) {
+            paramSets.add(new Object[] { reduction.quantity(), reduction.batchId(), reduction.quantity() });
+        }
+
+        int[] counts = executeBatch(sql, paramSets);
+        for (int count : counts) {
+            if (count == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean increaseQuantity(Integer batchId, int amount) {
         String sql = """
@@ -222,6 +303,33 @@ public class MainInventoryRepositoryImpl extends BaseRepository implements MainI
         return executeQuery(sql, rs -> mapToList(rs, this::mapRow), startDate, endDate);
     }
 
+    @Override
+    public List<MainInventory> insertAll(List<MainInventory> batches) {
+        String sql = """
+            INSERT INTO main_inventory (product_code, quantity_received, purchase_price,
+                purchase_date, expiry_date, supplier_name, remaining_quantity)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        List<Object[]> paramSets = new ArrayList<>(batches.size());
+        for (MainInventory batch : batches) {
+            paramSets.add(new Object[] {
+                batch.getProductCodeString(),
+                batch.getQuantityReceived(),
+                batch.getPurchasePrice().getAmount(),
+                batch.getPurchaseDate(),
+                batch.getExpiryDate(),
+                batch.getSupplierName(),
+                batch.getRemainingQuantity()
+            });
+        }
+        List<Integer> ids = executeBatchInsertAndGetIds(sql, paramSets);
+        for (int i = 0; i < ids.size() && i < batches.size(); i++) {
+            batches.get(i).setMainInventoryId(ids.get(i));
+        }
+        return batches;
+    }
+
     @Override
     public List<MainInventory> findAll() {
         String sql = """
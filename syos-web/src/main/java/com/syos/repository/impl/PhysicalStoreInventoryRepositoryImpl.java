@@ -1,7 +1,10 @@
 package com.syos.repository.impl;
 
+import com.syos.domain.enums.StoreType;
 import com.syos.domain.models.PhysicalStoreInventory;
+import com.syos.domain.valueobjects.BatchQuantity;
 import com.syos.domain.valueobjects.ProductCode;
+import com.syos.domain.valueobjects.StoreStockLevel;
 import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
 
 import javax.sql.DataSource;
@@ -9,6 +12,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +22,19 @@ import java.util.Optional;
  */
 public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository implements PhysicalStoreInventoryRepository {
 
+    // One row per (product, batch); a restock of a batch already on the shelf adds to it
+    private static final String UPSERT_SQL = """
+        INSERT INTO physical_store_inventory (product_code, main_inventory_id, quantity_on_shelf, restocked_date)
+        VALUES (?, ?, ?, CURDATE()) AS new
+        ON DUPLICATE KEY UPDATE quantity_on_shelf = quantity_on_shelf + new.quantity_on_shelf, restocked_date = CURDATE()
+        """;
+
+    private final StoreStockSummarySql summarySql =
+        new StoreStockSummarySql(StoreType.PHYSICAL, "physical_store_inventory", "quantity_on_shelf");
+
+    private final StoreBatchKeySql batchKeySql =
+        new StoreBatchKeySql("physical_store_inventory", "physical_store_inventory_id", "quantity_on_shelf", "uk_physical_product_batch");
+
     public PhysicalStoreInventoryRepositoryImpl() {
         super();
     }
@@ -35,6 +53,9 @@ public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository impleme
     }
 
     private PhysicalStoreInventory insert(PhysicalStoreInventory inventory) {
+        List<String> productCodes = List.of(inventory.getProductCodeString());
+        lockSummaries(productCodes);
+
         String sql = """
             INSERT INTO physical_store_inventory (product_code, main_inventory_id, quantity_on_shelf, restocked_date)
             VALUES (?, ?, ?, ?)
@@ -47,10 +68,14 @@ public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository impleme
             inventory.getRestockedDate() != null ? inventory.getRestockedDate() : LocalDate.now()
         );
         inventory.setPhysicalInventoryId(id);
+        refreshSummaries(productCodes);
         return inventory;
     }
 
     private PhysicalStoreInventory update(PhysicalStoreInventory inventory) {
+        List<String> productCodes = List.of(inventory.getProductCodeString());
+        lockSummaries(productCodes);
+
         String sql = """
             UPDATE physical_store_inventory SET quantity_on_shelf = ?, restocked_date = ?
             WHERE physical_store_inventory_id = ?
@@ -61,6 +86,7 @@ public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository impleme
             inventory.getRestockedDate(),
             inventory.getPhysicalInventoryId()
         );
+        refreshSummaries(productCodes);
         return inventory;
     }
 
@@ -114,10 +140,39 @@ public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository impleme
         return executeQuery(sql, rs -> mapToList(rs, this::mapRow), productCode);
     }
 
+    @Override
+    public List<PhysicalStoreInventory> findAllAvailable() {
+        String sql = """
+            SELECT psi.*, p.product_name, mi.expiry_date
+            FROM physical_store_inventory psi
+            JOIN product p ON psi.product_code = p.product_code
+            JOIN main_inventory mi ON psi.main_inventory_id = mi.main_inventory_id
+            WHERE psi.quantity_on_shelf > 0
+            ORDER BY psi.product_code, mi.expiry_date ASC, mi.purchase_date ASC
+            """;
+        return executeQuery(sql, rs -> mapToList(rs, this::mapRow));
+    }
+
+    @Override
+    public List<PhysicalStoreInventory> findAvailableByProductCodes(Collection<String> productCodes) {
+        if (productCodes.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(productCodes.size(), "?"));
+        String sql = """
+            SELECT psi.*, p.product_name, mi.expiry_date
+            FROM physical_store_inventory psi
+            JOIN product p ON psi.product_code = p.product_code
+            JOIN main_inventory mi ON psi.main_inventory_id = mi.main_inventory_id
+            WHERE psi.product_code IN (%s) AND psi.quantity_on_shelf > 0
+            ORDER BY psi.product_code, mi.expiry_date ASC, mi.purchase_date ASC
+            """.formatted(placeholders);
+        return executeQuery(sql, rs -> mapToList(rs, this::mapRow), productCodes.toArray());
+    }
+
     @Override
     public int getTotalQuantityOnShelf(String productCode) {
-        String sql = "SELECT COALESCE(SUM(quantity_on_shelf), 0) FROM physical_store_inventory WHERE product_code = ?";
-        return executeQuery(sql, rs -> {
+        return executeQuery(summarySql.totalQuantitySql(), rs -> {
             if (rs.next()) return rs.getInt(1);
             return 0;
         }, productCode);
@@ -130,42 +185,68 @@ public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository impleme
             SET quantity_on_shelf = quantity_on_shelf - ?
             WHERE product_code = ? AND main_inventory_id = ? AND quantity_on_shelf >= ?
             """;
-        return executeUpdate(sql, amount, productCode, batchId, amount) > 0;
+        List<String> productCodes = List.of(productCode);
+        lockSummaries(productCodes);
+        boolean reduced = executeUpdate(sql, amount, productCode, batchId, amount) > 0;
+        if (reduced) {
+            refreshSummaries(productCodes);
+        }
+        return reduced;
+    }
+
+    @Override
+    public boolean reduceQuantities(List<BatchQuantity> reductions) {
+        String sql = """
+            UPDATE physical_store_inventory
+            SET quantity_on_shelf = quantity_on_shelf - ?
+            WHERE product_code = ? AND main_inventory_id = ? AND quantity_on_shelf >= ?
+            """;
+
+        List<Object[]> paramSets = new ArrayList<>();
+        for (BatchQuantity reduction : reductions) {
+            paramSets.add(new Object[] {
+                reduction.quantity(), reduction.productCode(), reduction.batchId(), reduction.quantity()
+            });
+        }
+
+        List<String> productCodes = StoreStockSummarySql.sorted(
+            reductions.stream().map(BatchQuantity::productCode).toList());
+        lockSummaries(productCodes);
+        int[] counts = executeBatch(sql, paramSets);
+        refreshSummaries(productCodes);
+        for (int count : counts) {
+            if (count == 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public boolean addQuantity(String productCode, Integer batchId, int amount) {
-        // First check if record exists
-        Optional<PhysicalStoreInventory> existing = findByProductCodeAndBatchId(productCode, batchId);
-
-        if (existing.isPresent()) {
-            String sql = """
-                UPDATE physical_store_inventory
-                SET quantity_on_shelf = quantity_on_shelf + ?, restocked_date = CURDATE()
-                WHERE product_code = ? AND main_inventory_id = ?
-                """;
-            return executeUpdate(sql, amount, productCode, batchId) > 0;
-        } else {
-            // Insert new record
-            String sql = """
-                INSERT INTO physical_store_inventory (product_code, main_inventory_id, quantity_on_shelf, restocked_date)
-                VALUES (?, ?, ?, CURDATE())
-                """;
-            return executeUpdate(sql, productCode, batchId, amount) > 0;
+        List<String> productCodes = List.of(productCode);
+        lockSummaries(productCodes);
+        boolean added = executeUpdate(UPSERT_SQL, productCode, batchId, amount) > 0;
+        refreshSummaries(productCodes);
+        return added;
+    }
+
+    @Override
+    public void addQuantities(List<BatchQuantity> additions) {
+        List<Object[]> paramSets = new ArrayList<>();
+        for (BatchQuantity addition : additions) {
+            paramSets.add(new Object[] { addition.productCode(), addition.batchId(), addition.quantity() });
         }
+        List<String> productCodes = StoreStockSummarySql.sorted(
+            additions.stream().map(BatchQuantity::productCode).toList());
+        lockSummaries(productCodes);
+        executeBatch(UPSERT_SQL, paramSets);
+        refreshSummaries(productCodes);
     }
 
     @Override
     public List<PhysicalStoreInventory> findLowStock(int threshold) {
-        String sql = """
-            SELECT psi.product_code, p.product_name, SUM(psi.quantity_on_shelf) as total_qty
-            FROM physical_store_inventory psi
-            JOIN product p ON psi.product_code = p.product_code
-            WHERE p.is_active = TRUE
-            GROUP BY psi.product_code, p.product_name
-            HAVING total_qty < ?
-            ORDER BY total_qty ASC
-            """;
+        String sql = summarySql.lowStockSql();
 
         return executeQuery(sql, rs -> {
             List<PhysicalStoreInventory> results = new ArrayList<>();
@@ -173,7 +254,7 @@ public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository impleme
                 PhysicalStoreInventory inv = new PhysicalStoreInventory();
                 inv.setProductCode(new ProductCode(rs.getString("product_code")));
                 inv.setProductName(rs.getString("product_name"));
-                inv.setQuantityOnShelf(rs.getInt("total_qty"));
+                inv.setQuantityOnShelf(rs.getInt("total_quantity"));
                 results.add(inv);
             }
             return results;
@@ -182,29 +263,29 @@ public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository impleme
 
     @Override
     public List<ProductStockSummary> getStockSummary() {
-        String sql = """
-            SELECT p.product_code, p.product_name,
-                   COALESCE(SUM(psi.quantity_on_shelf), 0) as total_qty,
-                   COUNT(DISTINCT psi.main_inventory_id) as batch_count
-            FROM product p
-            LEFT JOIN physical_store_inventory psi ON p.product_code = psi.product_code
-            WHERE p.is_active = TRUE
-            GROUP BY p.product_code, p.product_name
-            ORDER BY p.product_name
-            """;
+        return findStockLevels().stream()
+            .map(level -> new ProductStockSummary(
+                level.productCode(),
+                level.productName(),
+                level.totalQuantity(),
+                level.batchCount()
+            ))
+            .toList();
+    }
 
-        return executeQuery(sql, rs -> {
-            List<ProductStockSummary> results = new ArrayList<>();
-            while (rs.next()) {
-                results.add(new ProductStockSummary(
-                    rs.getString("product_code"),
-                    rs.getString("product_name"),
-                    rs.getInt("total_qty"),
-                    rs.getInt("batch_count")
-                ));
-            }
-            return results;
-        });
+    @Override
+    public List<StoreStockLevel> findStockLevels() {
+        return executeQuery(summarySql.stockLevelsSql(),
+            rs -> mapToList(rs, StoreStockSummarySql::mapStockLevel));
+    }
+
+    @Override
+    public List<StoreStockLevel> findStockLevels(Collection<String> productCodes) {
+        if (productCodes.isEmpty()) {
+            return List.of();
+        }
+        return executeQuery(summarySql.stockLevelsSql(productCodes.size()),
+            rs -> mapToList(rs, StoreStockSummarySql::mapStockLevel), productCodes.toArray());
     }
 
     @Override
@@ -234,8 +315,19 @@ public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository impleme
 
     @Override
     public boolean deleteById(Integer id) {
+        String findSql = "SELECT product_code FROM physical_store_inventory WHERE physical_store_inventory_id = ?";
+        Optional<String> productCode = executeQuery(findSql,
+            rs -> rs.next() ? Optional.of(rs.getString(1)) : Optional.<String>empty(), id);
+        if (productCode.isEmpty()) {
+            return false;
+        }
+
+        List<String> productCodes = List.of(productCode.get());
+        lockSummaries(productCodes);
         String sql = "DELETE FROM physical_store_inventory WHERE physical_store_inventory_id = ?";
-        return executeUpdate(sql, id) > 0;
+        boolean deleted = executeUpdate(sql, id) > 0;
+        refreshSummaries(productCodes);
+        return deleted;
     }
 
     @Override
@@ -250,6 +342,34 @@ public class PhysicalStoreInventoryRepositoryImpl extends BaseRepository impleme
         return executeQuery(sql, rs -> rs.next() ? rs.getLong(1) : 0L);
     }
 
+    @Override
+    public boolean ensureBatchKey() {
+        if (executeQuery(batchKeySql.keyExistsSql(), rs -> rs.next() && rs.getInt(1) > 0)) {
+            return false;
+        }
+        List<String> productCodes = executeQuery(batchKeySql.duplicatedProductsSql(),
+            rs -> mapToList(rs, r -> r.getString("product_code")));
+        if (!productCodes.isEmpty()) {
+            lockSummaries(productCodes);
+            executeUpdate(batchKeySql.mergeSql());
+            int deleted = executeUpdate(batchKeySql.deleteDuplicatesSql());
+            refreshSummaries(productCodes);
+            logger.warn("Merged {} duplicate physical_store_inventory rows of {} products", deleted, productCodes.size());
+        }
+        // DDL commits on its own, taking the merge with it
+        executeUpdate(batchKeySql.addKeySql());
+        logger.info("Added unique key uk_physical_product_batch to physical_store_inventory");
+        return true;
+    }
+
+    private void lockSummaries(List<String> productCodes) {
+        executeUpdate(summarySql.lockSql(productCodes.size()), summarySql.lockParams(productCodes));
+    }
+
+    private void refreshSummaries(List<String> productCodes) {
+        executeUpdate(summarySql.refreshSql(productCodes.size()), summarySql.refreshParams(productCodes));
+    }
+
     private PhysicalStoreInventory mapRow(ResultSet rs) throws SQLException {
         PhysicalStoreInventory inventory = new PhysicalStoreInventory();
         inventory.setPhysicalInventoryId(rs.getInt("physical_store_inventory_id"));
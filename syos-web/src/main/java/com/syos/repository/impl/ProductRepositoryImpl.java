@@ -1,5 +1,6 @@
 package com.syos.repository.impl;
 
+import com.syos.domain.enums.StoreType;
 import com.syos.domain.enums.UnitOfMeasure;
 import com.syos.domain.models.Product;
 import com.syos.domain.valueobjects.Money;
@@ -10,8 +11,15 @@ import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation of ProductRepository using JDBC.
@@ -331,6 +339,101 @@ public class ProductRepositoryImpl extends BaseRepository implements ProductRepo
         return existsById(productCode);
     }
 
+    @Override
+    public Set<String> findExistingProductCodes(Collection<String> productCodes) {
+        Set<String> existing = new HashSet<>();
+        if (productCodes.isEmpty()) {
+            return existing;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(productCodes.size(), "?"));
+        String sql = "SELECT product_code FROM product WHERE product_code IN (%s)".formatted(placeholders);
+        return executeQuery(sql, rs -> {
+            while (rs.next()) {
+                existing.add(rs.getString("product_code"));
+            }
+            return existing;
+        }, productCodes.toArray());
+    }
+
+    @Override
+    public int findLastCodeSequence(String codePrefix) {
+        // Same numbering as GenerateProductCode: the prefix followed by three digits
+        String sql = """
+            SELECT COALESCE(MAX(CAST(RIGHT(product_code, 3) AS UNSIGNED)), 0) AS last_seq
+            FROM product
+            WHERE product_code LIKE ? ESCAPE '!' AND CHAR_LENGTH(product_code) = ?
+            """;
+        return executeQuery(sql, rs -> rs.next() ? rs.getInt("last_seq") : 0,
+            escapeLike(codePrefix) + "%", codePrefix.length() + 3);
+    }
+
+    /**
+     * Escapes LIKE wildcards so the value matches only itself, for use with ESCAPE '!'.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    @Override
+    public void insertAll(List<Product> products) {
+        String sql = """
+            INSERT INTO product (product_code, product_name, category_id, subcategory_id,
+                brand_id, unit_price, description, unit_of_measure, is_active,
+                min_physical_stock, min_online_stock)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        List<Object[]> paramSets = new ArrayList<>(products.size());
+        for (Product product : products) {
+            paramSets.add(new Object[] {
+                product.getProductCodeString(),
+                product.getProductName(),
+                product.getCategoryId(),
+                product.getSubcategoryId(),
+                product.getBrandId(),
+                product.getUnitPrice().getAmount(),
+                product.getDescription(),
+                product.getUnitOfMeasure().getSymbol(),
+                product.isActive(),
+                product.getMinPhysicalStock(),
+                product.getMinOnlineStock()
+            });
+        }
+        executeBatch(sql, paramSets);
+    }
+
+    @Override
+    public Map<String, StockProbe> probeStock(StoreType storeType, Collection<String> productCodes) {
+        Map<String, StockProbe> probes = new LinkedHashMap<>();
+        if (productCodes.isEmpty()) {
+            return probes;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(productCodes.size(), "?"));
+        String sql = """
+            SELECT p.product_code, p.product_name, p.unit_price, p.is_active,
+                   COALESCE(s.total_quantity, 0) AS available_quantity
+            FROM product p
+            LEFT JOIN store_stock_summary s ON s.product_code = p.product_code AND s.store_type = '%s'
+            WHERE p.product_code IN (%s)
+            """.formatted(storeType.name(), placeholders);
+
+        return executeQuery(sql, rs -> {
+            while (rs.next()) {
+                StockProbe probe = new StockProbe(
+                    rs.getString("product_code"),
+                    rs.getString("product_name"),
+                    rs.getBigDecimal("unit_price"),
+                    rs.getBoolean("is_active"),
+                    rs.getInt("available_quantity")
+                );
+                probes.put(probe.productCode(), probe);
+            }
+            return probes;
+        }, productCodes.toArray());
+    }
+
     @Override
     public List<Product> searchByName(String searchTerm) {
         String sql = """
@@ -0,0 +1,90 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.BillItem;
+import com.syos.repository.interfaces.ReportQueryRepository;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Implementation of ReportQueryRepository using JDBC.
+ */
+public class ReportQueryRepositoryImpl extends BaseRepository implements ReportQueryRepository {
+
+    public ReportQueryRepositoryImpl() {
+        super();
+    }
+
+    public ReportQueryRepositoryImpl(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public List<BatchStockRow> findBatchStock() {
+        String sql = """
+            SELECT mi.product_code, p.product_name, mi.main_inventory_id, mi.purchase_date, mi.expiry_date,
+                   mi.quantity_received, mi.remaining_quantity,
+                   COALESCE(ps.quantity, 0) AS physical_quantity,
+                   COALESCE(os.quantity, 0) AS online_quantity
+            FROM main_inventory mi
+            JOIN product p ON mi.product_code = p.product_code
+            LEFT JOIN (
+                SELECT main_inventory_id, SUM(quantity_on_shelf) AS quantity
+                FROM physical_store_inventory
+                GROUP BY main_inventory_id
+            ) ps ON ps.main_inventory_id = mi.main_inventory_id
+            LEFT JOIN (
+                SELECT main_inventory_id, SUM(quantity_available) AS quantity
+                FROM online_store_inventory
+                GROUP BY main_inventory_id
+            ) os ON os.main_inventory_id = mi.main_inventory_id
+            ORDER BY mi.product_code, mi.main_inventory_id
+            """;
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::batchStock));
+    }
+
+    @Override
+    public List<ProductStockRow> findMainStockBelow(int threshold) {
+        String sql = """
+            SELECT p.product_code, p.product_name, COALESCE(SUM(mi.remaining_quantity), 0) AS total_quantity
+            FROM product p
+            LEFT JOIN main_inventory mi ON mi.product_code = p.product_code
+            WHERE p.is_active = TRUE
+            GROUP BY p.product_code, p.product_name
+            HAVING total_quantity < ?
+            ORDER BY total_quantity, p.product_code
+            """;
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::productStock), threshold);
+    }
+
+    @Override
+    public List<ProductMinimumRow> findStoreStockBelowMinimum(StoreType storeType) {
+        String minimumColumn = storeType == StoreType.PHYSICAL ? "min_physical_stock" : "min_online_stock";
+        String sql = """
+            SELECT p.product_code, p.product_name,
+                   COALESCE(s.total_quantity, 0) AS total_quantity,
+                   p.%1$s AS minimum_stock
+            FROM product p
+            LEFT JOIN store_stock_summary s ON s.product_code = p.product_code AND s.store_type = ?
+            WHERE p.is_active = TRUE AND COALESCE(s.total_quantity, 0) < p.%1$s
+            ORDER BY p.%1$s - COALESCE(s.total_quantity, 0) DESC, p.product_code
+            """.formatted(minimumColumn);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::productMinimum), storeType);
+    }
+
+    @Override
+    public List<BillItem> findBillItems(StoreType storeType, LocalDate startDate, LocalDate endDate) {
+        TimeRange range = TimeRange.ofDays(startDate, endDate);
+        String sql = """
+            SELECT bi.*, p.product_name
+            FROM bill b
+            JOIN bill_item bi ON bi.bill_id = b.bill_id
+            JOIN product p ON bi.product_code = p.product_code
+            WHERE b.store_type = ? AND b.bill_date >= ? AND b.bill_date < ?
+            ORDER BY bi.bill_id, bi.bill_item_id
+            """;
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::billItem), storeType, range.start(), range.end());
+    }
+}
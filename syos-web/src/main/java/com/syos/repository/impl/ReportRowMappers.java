@@ -0,0 +1,149 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.enums.TransactionType;
+import com.syos.domain.models.BillItem;
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.ProductCode;
+import com.syos.repository.interfaces.BillItemRepository.ProductSalesSummary;
+import com.syos.repository.interfaces.ReportQueryRepository.BatchStockRow;
+import com.syos.repository.interfaces.ReportQueryRepository.ProductMinimumRow;
+import com.syos.repository.interfaces.ReportQueryRepository.ProductStockRow;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSales;
+import com.syos.repository.interfaces.SalesRollupRepository.HourlySales;
+import com.syos.repository.interfaces.SalesRollupRepository.ProductSales;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Row mappers shared by the report queries and the repositories whose results
+ * feed reports, so each row shape is read the same way wherever it is queried.
+ * Each mapper reads the columns by the aliases named in its comment.
+ */
+final class ReportRowMappers {
+
+    private ReportRowMappers() {
+    }
+
+    /**
+     * product_code, product_name, total_quantity, total_revenue.
+     */
+    static ProductSalesSummary productSales(ResultSet rs) throws SQLException {
+        return new ProductSalesSummary(
+                rs.getString("product_code"),
+                rs.getString("product_name"),
+                rs.getInt("total_quantity"),
+                rs.getBigDecimal("total_revenue"));
+    }
+
+    /**
+     * bill_item.*, and product_name when selected.
+     */
+    static BillItem billItem(ResultSet rs) throws SQLException {
+        BillItem item = new BillItem();
+        item.setBillItemId(rs.getInt("bill_item_id"));
+        item.setBillId(rs.getInt("bill_id"));
+        item.setProductCode(new ProductCode(rs.getString("product_code")));
+
+        int mainInventoryId = rs.getInt("main_inventory_id");
+        if (!rs.wasNull()) {
+            item.setMainInventoryId(mainInventoryId);
+        }
+
+        item.setQuantity(rs.getInt("quantity"));
+        item.setUnitPrice(new Money(rs.getBigDecimal("unit_price")));
+        item.setLineTotal(new Money(rs.getBigDecimal("line_total")));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        item.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+
+        try {
+            item.setProductName(rs.getString("product_name"));
+        } catch (SQLException e) {
+            // Column not in result set
+        }
+
+        return item;
+    }
+
+    /**
+     * product_code, product_name, main_inventory_id, purchase_date, expiry_date,
+     * quantity_received, remaining_quantity, physical_quantity, online_quantity.
+     */
+    static BatchStockRow batchStock(ResultSet rs) throws SQLException {
+        return new BatchStockRow(
+                rs.getString("product_code"),
+                rs.getString("product_name"),
+                rs.getInt("main_inventory_id"),
+                localDate(rs, "purchase_date"),
+                localDate(rs, "expiry_date"),
+                rs.getInt("quantity_received"),
+                rs.getInt("remaining_quantity"),
+                rs.getInt("physical_quantity"),
+                rs.getInt("online_quantity"));
+    }
+
+    /**
+     * product_code, product_name, total_quantity.
+     */
+    static ProductStockRow productStock(ResultSet rs) throws SQLException {
+        return new ProductStockRow(
+                rs.getString("product_code"),
+                rs.getString("product_name"),
+                rs.getInt("total_quantity"));
+    }
+
+    /**
+     * product_code, product_name, total_quantity, minimum_stock.
+     */
+    static ProductMinimumRow productMinimum(ResultSet rs) throws SQLException {
+        return new ProductMinimumRow(
+                rs.getString("product_code"),
+                rs.getString("product_name"),
+                rs.getInt("total_quantity"),
+                rs.getInt("minimum_stock"));
+    }
+
+    /**
+     * sale_date, store_type, transaction_type, bill_count, total_amount.
+     */
+    static BillSales billSales(ResultSet rs) throws SQLException {
+        return new BillSales(
+                localDate(rs, "sale_date"),
+                StoreType.valueOf(rs.getString("store_type")),
+                TransactionType.valueOf(rs.getString("transaction_type")),
+                rs.getInt("bill_count"),
+                rs.getBigDecimal("total_amount"));
+    }
+
+    /**
+     * store_type, product_code, product_name, total_quantity, total_revenue.
+     */
+    static ProductSales storeProductSales(ResultSet rs) throws SQLException {
+        return new ProductSales(
+                StoreType.valueOf(rs.getString("store_type")),
+                rs.getString("product_code"),
+                rs.getString("product_name"),
+                rs.getInt("total_quantity"),
+                rs.getBigDecimal("total_revenue"));
+    }
+
+    /**
+     * sale_hour (0-23), store_type, total_quantity, total_revenue.
+     */
+    static HourlySales hourlySales(ResultSet rs) throws SQLException {
+        return new HourlySales(
+                rs.getInt("sale_hour"),
+                StoreType.valueOf(rs.getString("store_type")),
+                rs.getInt("total_quantity"),
+                rs.getBigDecimal("total_revenue"));
+    }
+
+    static LocalDate localDate(ResultSet rs, String column) throws SQLException {
+        Date date = rs.getDate(column);
+        return date != null ? date.toLocalDate() : null;
+    }
+}
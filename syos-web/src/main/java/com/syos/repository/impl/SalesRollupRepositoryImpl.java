@@ -0,0 +1,243 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.Bill;
+import com.syos.domain.models.BillItem;
+import com.syos.repository.interfaces.SalesRollupRepository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Implementation of SalesRollupRepository using JDBC.
+ *
+ * A bill counts as finalized once its sale transactions are in the ledger or
+ * its archive, which leaves drafts out of both the rollups and the live totals.
+ * Rollup rows are upserted in key order, so concurrent additions lock them in
+ * the same order.
+ */
+public class SalesRollupRepositoryImpl extends BaseRepository implements SalesRollupRepository {
+
+    private static final String FINALIZED = """
+            (EXISTS (SELECT 1 FROM inventory_transaction t
+                     WHERE t.bill_id = b.bill_id AND t.transaction_type = 'SALE')
+             OR EXISTS (SELECT 1 FROM inventory_transaction_archive a
+                        WHERE a.bill_id = b.bill_id AND a.transaction_type = 'SALE'))""";
+
+    private static final String ADD_DAILY_SQL = """
+            INSERT INTO sales_rollup_daily (sale_date, store_type, cashier_id, product_code, quantity, revenue)
+            VALUES (?, ?, ?, ?, ?, ?) AS new
+            ON DUPLICATE KEY UPDATE quantity = quantity + new.quantity, revenue = revenue + new.revenue
+            """;
+
+    private static final String ADD_HOURLY_SQL = """
+            INSERT INTO sales_rollup_hourly (sale_hour, store_type, cashier_id, product_code, quantity, revenue)
+            VALUES (?, ?, ?, ?, ?, ?) AS new
+            ON DUPLICATE KEY UPDATE quantity = quantity + new.quantity, revenue = revenue + new.revenue
+            """;
+
+    private static final String ADD_BILLS_SQL = """
+            INSERT INTO sales_rollup_bills_daily
+                (sale_date, store_type, cashier_id, transaction_type, bill_count, total_amount)
+            VALUES (?, ?, ?, ?, ?, ?) AS new
+            ON DUPLICATE KEY UPDATE bill_count = bill_count + new.bill_count,
+                                    total_amount = total_amount + new.total_amount
+            """;
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+            .comparing(RollupKey::bucket)
+            .thenComparing(RollupKey::storeType)
+            .thenComparing(RollupKey::cashierId)
+            .thenComparing(RollupKey::dimension);
+
+    public SalesRollupRepositoryImpl() {
+        super();
+    }
+
+    public SalesRollupRepositoryImpl(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public void addSales(List<BillSale> sales) {
+        Map<RollupKey, Totals> daily = new TreeMap<>(KEY_ORDER);
+        Map<RollupKey, Totals> hourly = new TreeMap<>(KEY_ORDER);
+        Map<RollupKey, Totals> bills = new TreeMap<>(KEY_ORDER);
+        for (BillSale sale : sales) {
+            Bill bill = sale.bill();
+            LocalDateTime day = bill.getBillDate().truncatedTo(ChronoUnit.DAYS);
+            LocalDateTime hour = bill.getBillDate().truncatedTo(ChronoUnit.HOURS);
+            String cashierId = bill.getCashierId() != null ? bill.getCashierId() : "";
+            for (BillItem item : sale.items()) {
+                Totals line = new Totals(item.getQuantity(), item.getLineTotal().getAmount());
+                String productCode = item.getProductCodeString();
+                daily.merge(new RollupKey(day, bill.getStoreType(), cashierId, productCode), line, Totals::plus);
+                hourly.merge(new RollupKey(hour, bill.getStoreType(), cashierId, productCode), line, Totals::plus);
+            }
+            bills.merge(new RollupKey(day, bill.getStoreType(), cashierId, bill.getTransactionType().name()),
+                    new Totals(1, bill.getTotalAmount().getAmount()), Totals::plus);
+        }
+
+        executeBatch(ADD_DAILY_SQL, toParams(daily, true));
+        executeBatch(ADD_HOURLY_SQL, toParams(hourly, false));
+        executeBatch(ADD_BILLS_SQL, toParams(bills, true));
+    }
+
+    @Override
+    public int rebuildDay(LocalDate day) {
+        TimeRange range = TimeRange.ofDay(day);
+
+        executeUpdate("DELETE FROM sales_rollup_daily WHERE sale_date = ?", day);
+        executeUpdate("DELETE FROM sales_rollup_hourly WHERE sale_hour >= ? AND sale_hour < ?", range.start(), range.end());
+        executeUpdate("DELETE FROM sales_rollup_bills_daily WHERE sale_date = ?", day);
+
+        executeUpdate("""
+                INSERT INTO sales_rollup_daily (sale_date, store_type, cashier_id, product_code, quantity, revenue)
+                SELECT DATE(b.bill_date), b.store_type, COALESCE(b.cashier_id, ''), bi.product_code,
+                       SUM(bi.quantity), SUM(bi.line_total)
+                FROM bill b
+                JOIN bill_item bi ON bi.bill_id = b.bill_id
+                WHERE b.bill_date >= ? AND b.bill_date < ? AND %s
+                GROUP BY DATE(b.bill_date), b.store_type, COALESCE(b.cashier_id, ''), bi.product_code
+                """.formatted(FINALIZED), range.start(), range.end());
+        executeUpdate("""
+                INSERT INTO sales_rollup_hourly (sale_hour, store_type, cashier_id, product_code, quantity, revenue)
+                SELECT DATE_FORMAT(b.bill_date, '%%Y-%%m-%%d %%H:00:00'), b.store_type, COALESCE(b.cashier_id, ''),
+                       bi.product_code, SUM(bi.quantity), SUM(bi.line_total)
+                FROM bill b
+                JOIN bill_item bi ON bi.bill_id = b.bill_id
+                WHERE b.bill_date >= ? AND b.bill_date < ? AND %s
+                GROUP BY DATE_FORMAT(b.bill_date, '%%Y-%%m-%%d %%H:00:00'), b.store_type,
+                         COALESCE(b.cashier_id, ''), bi.product_code
+                """.formatted(FINALIZED), range.start(), range.end());
+        executeUpdate("""
+                INSERT INTO sales_rollup_bills_daily
+                    (sale_date, store_type, cashier_id, transaction_type, bill_count, total_amount)
+                SELECT DATE(b.bill_date), b.store_type, COALESCE(b.cashier_id, ''), b.transaction_type,
+                       COUNT(*), SUM(b.total_amount)
+                FROM bill b
+                WHERE b.bill_date >= ? AND b.bill_date < ? AND %s
+                GROUP BY DATE(b.bill_date), b.store_type, COALESCE(b.cashier_id, ''), b.transaction_type
+                """.formatted(FINALIZED), range.start(), range.end());
+
+        return executeQuery(
+                "SELECT COALESCE(SUM(bill_count), 0) AS bill_count FROM sales_rollup_bills_daily WHERE sale_date = ?",
+                rs -> rs.next() ? rs.getInt("bill_count") : 0, day);
+    }
+
+    @Override
+    public List<BillSales> findBillSales(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT sale_date, store_type, transaction_type,
+                   SUM(bill_count) AS bill_count, SUM(total_amount) AS total_amount
+            FROM sales_rollup_bills_daily
+            WHERE sale_date >= ? AND sale_date <= ?
+            GROUP BY sale_date, store_type, transaction_type
+            ORDER BY sale_date, store_type, transaction_type
+            """;
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::billSales), startDate, endDate);
+    }
+
+    @Override
+    public List<BillSales> findLiveBillSales(LocalDate day) {
+        TimeRange range = TimeRange.ofDay(day);
+        String sql = """
+            SELECT DATE(b.bill_date) AS sale_date, b.store_type, b.transaction_type,
+                   COUNT(*) AS bill_count, SUM(b.total_amount) AS total_amount
+            FROM bill b
+            WHERE b.bill_date >= ? AND b.bill_date < ? AND %s
+            GROUP BY DATE(b.bill_date), b.store_type, b.transaction_type
+            ORDER BY sale_date, b.store_type, b.transaction_type
+            """.formatted(FINALIZED);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::billSales),
+                range.start(), range.end());
+    }
+
+    @Override
+    public List<ProductSales> findProductSales(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT r.store_type, r.product_code, p.product_name,
+                   SUM(r.quantity) AS total_quantity, SUM(r.revenue) AS total_revenue
+            FROM sales_rollup_daily r
+            JOIN product p ON r.product_code = p.product_code
+            WHERE r.sale_date >= ? AND r.sale_date <= ?
+            GROUP BY r.store_type, r.product_code, p.product_name
+            """;
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::storeProductSales), startDate, endDate);
+    }
+
+    @Override
+    public List<ProductSales> findLiveProductSales(LocalDate day) {
+        TimeRange range = TimeRange.ofDay(day);
+        String sql = """
+            SELECT b.store_type, bi.product_code, p.product_name,
+                   SUM(bi.quantity) AS total_quantity, SUM(bi.line_total) AS total_revenue
+            FROM bill b
+            JOIN bill_item bi ON bi.bill_id = b.bill_id
+            JOIN product p ON bi.product_code = p.product_code
+            WHERE b.bill_date >= ? AND b.bill_date < ? AND %s
+            GROUP BY b.store_type, bi.product_code, p.product_name
+            """.formatted(FINALIZED);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::storeProductSales),
+                range.start(), range.end());
+    }
+
+    @Override
+    public List<HourlySales> findHourlySales(LocalDate day) {
+        TimeRange range = TimeRange.ofDay(day);
+        String sql = """
+            SELECT HOUR(sale_hour) AS sale_hour, store_type,
+                   SUM(quantity) AS total_quantity, SUM(revenue) AS total_revenue
+            FROM sales_rollup_hourly
+            WHERE sale_hour >= ? AND sale_hour < ?
+            GROUP BY HOUR(sale_hour), store_type
+            ORDER BY sale_hour, store_type
+            """;
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::hourlySales),
+                range.start(), range.end());
+    }
+
+    @Override
+    public List<HourlySales> findLiveHourlySales(LocalDate day) {
+        TimeRange range = TimeRange.ofDay(day);
+        String sql = """
+            SELECT HOUR(b.bill_date) AS sale_hour, b.store_type,
+                   SUM(bi.quantity) AS total_quantity, SUM(bi.line_total) AS total_revenue
+            FROM bill b
+            JOIN bill_item bi ON bi.bill_id = b.bill_id
+            WHERE b.bill_date >= ? AND b.bill_date < ? AND %s
+            GROUP BY HOUR(b.bill_date), b.store_type
+            ORDER BY sale_hour, b.store_type
+            """.formatted(FINALIZED);
+        return executeQuery(sql, rs -> mapToList(rs, ReportRowMappers::hourlySales),
+                range.start(), range.end());
+    }
+
+    private static List<Object[]> toParams(Map<RollupKey, Totals> rows, boolean byDay) {
+        List<Object[]> paramSets = new ArrayList<>(rows.size());
+        rows.forEach((key, totals) -> paramSets.add(new Object[]{
+                byDay ? key.bucket().toLocalDate() : key.bucket(),
+                key.storeType(), key.cashierId(), key.dimension(), totals.count(), totals.amount()}));
+        return paramSets;
+    }
+
+    /**
+     * A rollup row's key: the day or hour, store, cashier, and product code or payment type.
+     */
+    private record RollupKey(LocalDateTime bucket, StoreType storeType, String cashierId, String dimension) {
+    }
+
+    private record Totals(int count, BigDecimal amount) {
+        Totals plus(Totals other) {
+            return new Totals(count + other.count, amount.add(other.amount));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.syos.repository.impl;
+
+/**
+ * SQL that brings an existing store inventory table up to one row per
+ * (product, batch), shared by the physical and online store inventory
+ * repositories.
+ *
+ * Restocks upsert on the (product_code, main_inventory_id) unique key, and
+ * without it would insert a second row for the batch. Databases created before
+ * the key was added can hold such rows, so they are merged into the oldest row
+ * of each batch before the key is added.
+ */
+final class StoreBatchKeySql {
+
+    private final String stockTable;
+    private final String idColumn;
+    private final String quantityColumn;
+    private final String keyName;
+
+    StoreBatchKeySql(String stockTable, String idColumn, String quantityColumn, String keyName) {
+        this.stockTable = stockTable;
+        this.idColumn = idColumn;
+        this.quantityColumn = quantityColumn;
+        this.keyName = keyName;
+    }
+
+    /**
+     * Counts the columns of the unique key; zero when the table lacks it.
+     */
+    String keyExistsSql() {
+        return """
+            SELECT COUNT(*) FROM information_schema.STATISTICS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '%s' AND INDEX_NAME = '%s'
+            """.formatted(stockTable, keyName);
+    }
+
+    /**
+     * Finds the products with more than one row for a batch, in product code order.
+     */
+    String duplicatedProductsSql() {
+        return """
+            SELECT DISTINCT product_code FROM (
+                SELECT product_code FROM %s
+                GROUP BY product_code, main_inventory_id
+                HAVING COUNT(*) > 1
+            ) dup
+            ORDER BY product_code
+            """.formatted(stockTable);
+    }
+
+    /**
+     * Adds every duplicate row's quantity to the oldest row of its batch.
+     */
+    String mergeSql() {
+        return """
+            UPDATE %1$s keep
+            JOIN (
+                SELECT MIN(%2$s) AS keep_id, SUM(%3$s) AS quantity, MAX(restocked_date) AS restocked_date
+                FROM %1$s
+                GROUP BY product_code, main_inventory_id
+                HAVING COUNT(*) > 1
+            ) dup ON keep.%2$s = dup.keep_id
+            SET keep.%3$s = dup.quantity, keep.restocked_date = dup.restocked_date
+            """.formatted(stockTable, idColumn, quantityColumn);
+    }
+
+    /**
+     * Deletes every row of a batch but the oldest; run after {@link #mergeSql}.
+     */
+    String deleteDuplicatesSql() {
+        return """
+            DELETE extra FROM %1$s extra
+            JOIN (
+                SELECT product_code, main_inventory_id, MIN(%2$s) AS keep_id
+                FROM %1$s
+                GROUP BY product_code, main_inventory_id
+                HAVING COUNT(*) > 1
+            ) dup ON extra.product_code = dup.product_code
+                 AND extra.main_inventory_id = dup.main_inventory_id
+                 AND extra.%2$s <> dup.keep_id
+            """.formatted(stockTable, idColumn);
+    }
+
+    String addKeySql() {
+        return "ALTER TABLE %s ADD UNIQUE KEY %s (product_code, main_inventory_id)".formatted(stockTable, keyName);
+    }
+}
@@ -0,0 +1,153 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.valueobjects.StoreStockLevel;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL for the store_stock_summary table, shared by the physical and online
+ * store inventory repositories.
+ *
+ * Every shelf change runs in three steps inside the caller's transaction:
+ * {@link #lockSql} takes the product's summary rows (in product code order),
+ * the shelf rows are changed, and {@link #refreshSql} recomputes the summary
+ * rows from that product's shelf rows. Taking the summary row first means two
+ * transactions touching the same product queue on one row instead of
+ * deadlocking on each other's batches.
+ */
+final class StoreStockSummarySql {
+
+    private final StoreType storeType;
+    private final String stockTable;
+    private final String quantityColumn;
+
+    StoreStockSummarySql(StoreType storeType, String stockTable, String quantityColumn) {
+        this.storeType = storeType;
+        this.stockTable = stockTable;
+        this.quantityColumn = quantityColumn;
+    }
+
+    /**
+     * Creates any missing summary rows and locks them all, one (store, product) pair per code.
+     */
+    String lockSql(int productCount) {
+        return """
+            INSERT INTO store_stock_summary (store_type, product_code)
+            VALUES %s
+            ON DUPLICATE KEY UPDATE total_quantity = total_quantity
+            """.formatted(String.join(", ", Collections.nCopies(productCount, "(?, ?)")));
+    }
+
+    /**
+     * Recomputes the summary rows of the given products from their shelf rows.
+     */
+    String refreshSql(int productCount) {
+        return """
+            UPDATE store_stock_summary s
+            LEFT JOIN (
+                SELECT st.product_code,
+                       SUM(st.%2$s) AS total_quantity,
+                       COUNT(*) AS batch_count,
+                       MIN(CASE WHEN st.%2$s > 0 THEN mi.expiry_date END) AS earliest_expiry
+                FROM %1$s st
+                JOIN main_inventory mi ON st.main_inventory_id = mi.main_inventory_id
+                WHERE st.product_code IN (%3$s)
+                GROUP BY st.product_code
+            ) agg ON agg.product_code = s.product_code
+            SET s.total_quantity = COALESCE(agg.total_quantity, 0),
+                s.batch_count = COALESCE(agg.batch_count, 0),
+                s.earliest_expiry = agg.earliest_expiry
+            WHERE s.store_type = ? AND s.product_code IN (%3$s)
+            """.formatted(stockTable, quantityColumn, placeholders(productCount));
+    }
+
+    /**
+     * Parameters for {@link #lockSql}, in product code order.
+     */
+    Object[] lockParams(Collection<String> sortedProductCodes) {
+        Object[] params = new Object[sortedProductCodes.size() * 2];
+        int i = 0;
+        for (String productCode : sortedProductCodes) {
+            params[i++] = storeType.name();
+            params[i++] = productCode;
+        }
+        return params;
+    }
+
+    /**
+     * Parameters for {@link #refreshSql}.
+     */
+    Object[] refreshParams(Collection<String> productCodes) {
+        Object[] params = new Object[productCodes.size() * 2 + 1];
+        int i = 0;
+        for (String productCode : productCodes) {
+            params[i++] = productCode;
+        }
+        params[i++] = storeType.name();
+        for (String productCode : productCodes) {
+            params[i++] = productCode;
+        }
+        return params;
+    }
+
+    String totalQuantitySql() {
+        return "SELECT total_quantity FROM store_stock_summary WHERE store_type = '%s' AND product_code = ?"
+                .formatted(storeType.name());
+    }
+
+    String lowStockSql() {
+        return """
+            SELECT s.product_code, p.product_name, s.total_quantity
+            FROM store_stock_summary s
+            JOIN product p ON s.product_code = p.product_code
+            WHERE s.store_type = '%s' AND s.total_quantity < ? AND p.is_active = TRUE
+            ORDER BY s.total_quantity ASC
+            """.formatted(storeType.name());
+    }
+
+    /**
+     * Every active product with its summary row, if any.
+     */
+    String stockLevelsSql() {
+        return """
+            SELECT p.product_code, p.product_name, s.product_code AS summary_code,
+                   COALESCE(s.total_quantity, 0) AS total_quantity,
+                   COALESCE(s.batch_count, 0) AS batch_count,
+                   s.earliest_expiry
+            FROM product p
+            LEFT JOIN store_stock_summary s
+                ON s.product_code = p.product_code AND s.store_type = '%s'
+            WHERE p.is_active = TRUE
+            ORDER BY p.product_name
+            """.formatted(storeType.name());
+    }
+
+    String stockLevelsSql(int productCount) {
+        return stockLevelsSql().replace("WHERE p.is_active = TRUE",
+                "WHERE p.is_active = TRUE AND p.product_code IN (" + placeholders(productCount) + ")");
+    }
+
+    static StoreStockLevel mapStockLevel(ResultSet rs) throws SQLException {
+        java.sql.Date expiry = rs.getDate("earliest_expiry");
+        return new StoreStockLevel(
+                rs.getString("product_code"),
+                rs.getString("product_name"),
+                rs.getInt("total_quantity"),
+                rs.getInt("batch_count"),
+                expiry != null ? expiry.toLocalDate() : null,
+                rs.getString("summary_code") != null);
+    }
+
+    static List<String> sorted(Collection<String> productCodes) {
+        return productCodes.stream().distinct().sorted().toList();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
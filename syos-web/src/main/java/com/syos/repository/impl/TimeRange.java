@@ -0,0 +1,34 @@
+package com.syos.repository.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A half-open range of timestamps, [start, end), for filtering DATETIME columns
+ * by calendar day.
+ *
+ * Filtering with DATE(column) = ? wraps the column in a function, so MySQL has to
+ * evaluate it on every row instead of seeking an index on the column. Queries
+ * filter with column >= ? AND column < ? bound to {@link #start()} and
+ * {@link #end()} instead, which is an index range scan that still keeps every
+ * instant of the last day.
+ */
+record TimeRange(LocalDateTime start, LocalDateTime end) {
+
+    /**
+     * The range covering one calendar day.
+     */
+    static TimeRange ofDay(LocalDate day) {
+        return ofDays(day, day);
+    }
+
+    /**
+     * The range covering every day from the first to the last, both included.
+     * A last day before the first gives an empty range, like BETWEEN would.
+     */
+    static TimeRange ofDays(LocalDate firstDay, LocalDate lastDay) {
+        LocalDateTime start = firstDay.atStartOfDay();
+        LocalDateTime end = lastDay.plusDays(1).atStartOfDay();
+        return new TimeRange(start, end.isBefore(start) ? start : end);
+    }
+}
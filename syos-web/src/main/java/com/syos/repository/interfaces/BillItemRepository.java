@@ -68,6 +68,11 @@ public interface BillItemRepository extends Repository<BillItem, Integer> {
      */
     int deleteByBillId(Integer billId);
 
+    /**
+     * Writes the quantity and line total of an existing item.
+     */
+    boolean updateQuantity(BillItem item);
+
     /**
      * Saves all items for a bill in batch.
      */
@@ -15,6 +15,16 @@ import java.util.Optional;
  */
 public interface BillRepository extends Repository<Bill, Integer> {
 
+    /**
+     * Writes only the header totals (subtotal, discount, tax, total) of an existing bill.
+     */
+    boolean updateTotals(Bill bill);
+
+    /**
+     * Inserts new bills in one batch, setting their generated IDs.
+     */
+    List<Bill> saveAll(List<Bill> bills);
+
     /**
      * Finds a bill by its serial number.
      */
@@ -0,0 +1,19 @@
+package com.syos.repository.interfaces;
+
+import com.syos.domain.enums.StoreType;
+
+import java.time.LocalDate;
+
+/**
+ * Repository for the bill_sequence table, which tracks the last bill number
+ * handed out per store type per day.
+ */
+public interface BillSequenceRepository {
+
+    /**
+     * Atomically reserves the next block of bill numbers for a store type and day.
+     * Returns the highest number of the reserved block; the block covers
+     * (result - blockSize, result].
+     */
+    int reserveBlock(StoreType storeType, LocalDate date, int blockSize);
+}
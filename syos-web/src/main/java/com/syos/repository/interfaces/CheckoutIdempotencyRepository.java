@@ -0,0 +1,32 @@
+package com.syos.repository.interfaces;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for the checkout_idempotency table, which stores the result of
+ * each checkout submitted with an idempotency key.
+ */
+public interface CheckoutIdempotencyRepository {
+
+    /**
+     * Finds the stored result (as JSON) for a key that has not expired by the given time.
+     */
+    Optional<String> findResult(String idempotencyKey, LocalDateTime now);
+
+    /**
+     * Stores the result for a key, replacing an entry that expired before {@code now}.
+     * Fails with a RepositoryException when a live entry exists, so a checkout
+     * saving its key in the same unit of work rolls back if another request got
+     * there first.
+     */
+    void save(String idempotencyKey, Integer billId, String resultJson,
+              LocalDateTime now, LocalDateTime expiresAt);
+
+    /**
+     * Deletes keys that expired before the given time.
+     *
+     * @return the number of keys deleted
+     */
+    int deleteExpired(LocalDateTime now);
+}
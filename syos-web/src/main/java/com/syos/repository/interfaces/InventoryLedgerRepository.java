@@ -0,0 +1,75 @@
+package com.syos.repository.interfaces;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Retention and point-in-time access for the inventory_transaction ledger:
+ * per-batch stock snapshots in inventory_snapshot, and the monthly partitioned
+ * inventory_transaction_archive that old ledger rows are moved to.
+ *
+ * A batch's stock follows the same rules as reconciliation: main inventory is
+ * the quantity received plus the ledger's main inventory changes, less what was
+ * restocked to either store; each store is the sum of its own ledger changes.
+ * PURCHASE rows are not counted, since the quantity received already is.
+ */
+public interface InventoryLedgerRepository {
+
+    /**
+     * Finds the latest snapshot taken at or before the given time.
+     */
+    Optional<LocalDateTime> findSnapshotAtOrBefore(LocalDateTime time);
+
+    /**
+     * Writes the snapshot at {@code snapshotAt} from the previous snapshot (or
+     * the start of the ledger when null) plus the batches received and ledger
+     * rows dated in between, with one INSERT ... SELECT.
+     *
+     * @return the number of batches in the snapshot
+     */
+    int createSnapshot(LocalDateTime previousSnapshotAt, LocalDateTime snapshotAt);
+
+    /**
+     * Rebuilds the stock of every batch (or of one product's batches) as of the
+     * given time from a snapshot (or the start of the ledger when null) and the
+     * ledger rows, live and archived, dated from the snapshot up to that time.
+     */
+    List<BatchStockLevel> findStockAsOf(LocalDateTime snapshotAt, LocalDateTime asOf, String productCode);
+
+    /**
+     * Deletes the snapshots taken before the given time, except the earliest of
+     * each month, which is the first of the month whenever that day's was taken.
+     *
+     * @return the number of rows deleted
+     */
+    int pruneSnapshots(LocalDateTime before);
+
+    /**
+     * Adds the archive partition for the month if it is after every existing
+     * one. Rows older than the first partition are kept in it.
+     *
+     * @return true if a partition was added
+     */
+    boolean ensureArchivePartition(YearMonth month);
+
+    /**
+     * Moves up to {@code limit} of the oldest ledger rows dated before the cutoff
+     * to the archive. Must run in a unit of work so the copy and delete commit together.
+     *
+     * @return the number of rows moved
+     */
+    int archiveLedgerRows(LocalDateTime before, int limit);
+
+    /**
+     * Stock of one batch at a point in time.
+     */
+    record BatchStockLevel(
+            Integer batchId,
+            String productCode,
+            int mainQuantity,
+            int physicalQuantity,
+            int onlineQuantity) {
+    }
+}
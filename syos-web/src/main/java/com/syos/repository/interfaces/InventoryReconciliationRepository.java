@@ -0,0 +1,72 @@
+package com.syos.repository.interfaces;
+
+import com.syos.domain.enums.InventoryTransactionType;
+import com.syos.domain.enums.StoreType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read access for reconciling batch quantities against the inventory_transaction
+ * ledger, and the inventory_discrepancy table the results are written to.
+ */
+public interface InventoryReconciliationRepository {
+
+    /**
+     * Finds every product code that has at least one batch, in code order.
+     */
+    List<String> findProductCodes();
+
+    /**
+     * Streams the batches, shelf rows and ledger rows of the products from
+     * {@code firstProductCode} to {@code lastProductCode} inclusive to the reader.
+     * All rows come from one consistent snapshot taken with plain non-locking
+     * reads, so sales and restocks carry on while a partition is read.
+     */
+    void readPartition(String firstProductCode, String lastProductCode, PartitionReader reader);
+
+    /**
+     * Inserts the discrepancies found by a run in a single batch.
+     */
+    void saveDiscrepancies(LocalDateTime runStartedAt, List<BatchDiscrepancy> discrepancies);
+
+    /**
+     * Receives the rows of one partition.
+     */
+    interface PartitionReader {
+
+        void batch(Integer batchId, String productCode, int quantityReceived, int remainingQuantity);
+
+        void shelf(StoreType storeType, Integer batchId, int quantity);
+
+        /**
+         * A ledger row; {@code storeType} is null for entries against main inventory
+         * and {@code batchId} is null for entries not tied to a batch.
+         */
+        void ledger(Integer batchId, InventoryTransactionType type, StoreType storeType, int quantityChanged);
+    }
+
+    /**
+     * Where a batch's stock is held.
+     */
+    enum StockLocation {
+        MAIN,
+        PHYSICAL,
+        ONLINE
+    }
+
+    /**
+     * A batch location whose quantity differs from what the ledger adds up to.
+     */
+    record BatchDiscrepancy(
+        Integer batchId,
+        String productCode,
+        StockLocation location,
+        int expectedQuantity,
+        int actualQuantity
+    ) {
+        public int difference() {
+            return actualQuantity - expectedQuantity;
+        }
+    }
+}
@@ -13,6 +13,11 @@ import java.util.List;
  */
 public interface InventoryTransactionRepository extends Repository<InventoryTransaction, Integer> {
 
+    /**
+     * Inserts new transactions in a single batch.
+     */
+    List<InventoryTransaction> saveAll(List<InventoryTransaction> transactions);
+
     /**
      * Finds all transactions for a specific product.
      */
@@ -38,6 +43,12 @@ public interface InventoryTransactionRepository extends Repository<InventoryTran
      */
     List<InventoryTransaction> findByBillId(Integer billId);
 
+    /**
+     * Checks whether any transaction was logged for a bill, including rows
+     * already moved to the ledger archive.
+     */
+    boolean existsForBill(Integer billId);
+
     /**
      * Finds all transactions within a date range.
      */
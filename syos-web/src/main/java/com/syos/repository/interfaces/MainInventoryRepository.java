@@ -1,8 +1,10 @@
 package com.syos.repository.interfaces;
 
 import com.syos.domain.models.MainInventory;
+import com.syos.domain.valueobjects.BatchQuantity;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +24,12 @@ public interface MainInventoryRepository extends Repository<MainInventory, Integ
      */
     List<MainInventory> findAvailableBatchesByProductCode(String productCode);
 
+    /**
+     * Finds all batches with remaining quantity for several products in one query.
+     * Ordered by product code, then FIFO within each product.
+     */
+    List<MainInventory> findAvailableBatchesByProductCodes(Collection<String> productCodes);
+
     /**
      * Finds the next batch to use for a sale (FIFO by expiry date).
      */
@@ -37,6 +45,18 @@ public interface MainInventoryRepository extends Repository<MainInventory, Integ
      */
     List<MainInventory> findExpiredBatches();
 
+    /**
+     * Finds every batch with remaining quantity and an expiry date, soonest expiry first.
+     */
+    List<MainInventory> findAvailableWithExpiry();
+
+    /**
+     * Finds batches that expired before the given date and still hold stock in
+     * main inventory or on either store's shelves, in batch id order after
+     * {@code afterBatchId}. Used to page through expired stock in chunks.
+     */
+    List<ExpiredStock> findExpiredStock(LocalDate expiredBefore, int afterBatchId, int limit);
+
     /**
      * Finds batches by supplier name.
      */
@@ -53,6 +73,12 @@ public interface MainInventoryRepository extends Repository<MainInventory, Integ
      */
     boolean reduceQuantity(Integer batchId, int amount);
 
+    /**
+     * Reduces the remaining quantity of several batches in a single batched statement.
+     * @return true only if every batch had enough quantity and was reduced
+     */
+    boolean reduceQuantities(List<BatchQuantity> reductions);
+
     /**
      * Increases the remaining quantity of a batch (for undo operations).
      */
@@ -62,4 +88,21 @@ public interface MainInventoryRepository extends Repository<MainInventory, Integ
      * Finds batches purchased within a date range.
      */
     List<MainInventory> findByPurchaseDateRange(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Inserts several new batches as one JDBC batch and sets their generated IDs.
+     */
+    List<MainInventory> insertAll(List<MainInventory> batches);
+
+    /**
+     * Stock left in an expired batch, per location.
+     */
+    record ExpiredStock(
+        Integer batchId,
+        String productCode,
+        LocalDate expiryDate,
+        int mainQuantity,
+        int physicalQuantity,
+        int onlineQuantity
+    ) {}
 }
@@ -1,7 +1,10 @@
 package com.syos.repository.interfaces;
 
 import com.syos.domain.models.PhysicalStoreInventory;
+import com.syos.domain.valueobjects.BatchQuantity;
+import com.syos.domain.valueobjects.StoreStockLevel;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +28,17 @@ public interface PhysicalStoreInventoryRepository extends Repository<PhysicalSto
      */
     List<PhysicalStoreInventory> findAvailableByProductCode(String productCode);
 
+    /**
+     * Finds all shelf stock with quantity > 0, grouped by product and ordered by expiry (FIFO).
+     */
+    List<PhysicalStoreInventory> findAllAvailable();
+
+    /**
+     * Finds the shelf stock with quantity > 0 for several products in one query,
+     * grouped by product and ordered by expiry (FIFO).
+     */
+    List<PhysicalStoreInventory> findAvailableByProductCodes(Collection<String> productCodes);
+
     /**
      * Gets total quantity on shelf for a product.
      */
@@ -36,21 +50,51 @@ public interface PhysicalStoreInventoryRepository extends Repository<PhysicalSto
      */
     boolean reduceQuantity(String productCode, Integer batchId, int amount);
 
+    /**
+     * Reduces quantities for several batches in a single batched statement.
+     * @return true only if every batch had enough stock and was reduced
+     */
+    boolean reduceQuantities(List<BatchQuantity> reductions);
+
     /**
      * Adds quantity to shelf for a specific batch (restock operation).
      */
     boolean addQuantity(String productCode, Integer batchId, int amount);
 
     /**
-     * Finds all products with low stock (below threshold).
+     * Adds quantities for several batches in a single batched upsert.
+     */
+    void addQuantities(List<BatchQuantity> additions);
+
+    /**
+     * Finds all products with low stock (below threshold) from the store stock summary.
      */
     List<PhysicalStoreInventory> findLowStock(int threshold);
 
     /**
-     * Gets stock status for all products (aggregated by product).
+     * Gets stock status for all active products from the store stock summary.
      */
     List<ProductStockSummary> getStockSummary();
 
+    /**
+     * Gets the stock level of every active product from the store stock summary.
+     */
+    List<StoreStockLevel> findStockLevels();
+
+    /**
+     * Gets the stock level of the given active products from the store stock summary.
+     */
+    List<StoreStockLevel> findStockLevels(Collection<String> productCodes);
+
+    /**
+     * Adds the (product, batch) unique key that restocks upsert on, if the table
+     * lacks it, first merging the rows of each batch into one. Call inside a
+     * unit of work so the merge is applied whole or not at all.
+     *
+     * @return true if the key was added
+     */
+    boolean ensureBatchKey();
+
     /**
      * Stock summary DTO.
      */
@@ -1,9 +1,14 @@
 package com.syos.repository.interfaces;
 
+import com.syos.domain.enums.StoreType;
 import com.syos.domain.models.Product;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repository interface for Product entity operations.
@@ -75,8 +80,41 @@ public interface ProductRepository extends Repository<Product, String> {
      */
     boolean existsByProductCode(String productCode);
 
+    /**
+     * Finds which of the given product codes already exist, in one query.
+     */
+    Set<String> findExistingProductCodes(Collection<String> productCodes);
+
+    /**
+     * Gets the highest sequence number used by generated product codes with the
+     * given prefix, or 0 if there are none.
+     */
+    int findLastCodeSequence(String codePrefix);
+
+    /**
+     * Inserts several new products as one JDBC batch.
+     */
+    void insertAll(List<Product> products);
+
     /**
      * Searches products by name (partial match).
      */
     List<Product> searchByName(String searchTerm);
+
+    /**
+     * Gets price, active flag and available store quantity for several products
+     * in one query. Products that do not exist are absent from the result.
+     */
+    Map<String, StockProbe> probeStock(StoreType storeType, Collection<String> productCodes);
+
+    /**
+     * Product data and store availability for a stock check.
+     */
+    record StockProbe(
+        String productCode,
+        String productName,
+        BigDecimal unitPrice,
+        boolean active,
+        int availableQuantity
+    ) {}
 }
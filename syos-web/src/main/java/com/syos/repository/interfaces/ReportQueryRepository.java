@@ -0,0 +1,75 @@
+package com.syos.repository.interfaces;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.BillItem;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Set-based queries behind the inventory and bill reports.
+ *
+ * Each method is one aggregated statement over the whole catalog, so a report
+ * costs the same number of queries however many products and batches there
+ * are. Reports that need several of these join the results in memory by key.
+ */
+public interface ReportQueryRepository {
+
+    /**
+     * Gets every main inventory batch with the quantity of it on each store's shelves,
+     * ordered by product code and batch.
+     */
+    List<BatchStockRow> findBatchStock();
+
+    /**
+     * Gets the active products whose total remaining main inventory is below the
+     * threshold, lowest first. Products without batches count as zero.
+     */
+    List<ProductStockRow> findMainStockBelow(int threshold);
+
+    /**
+     * Gets the active products whose stock in the store is below their minimum
+     * stock level for that store. Products never stocked there count as zero.
+     */
+    List<ProductMinimumRow> findStoreStockBelowMinimum(StoreType storeType);
+
+    /**
+     * Gets the items of every bill of a store type dated in the range, with
+     * product names, ordered by bill and item.
+     */
+    List<BillItem> findBillItems(StoreType storeType, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * A main inventory batch with its shelf quantities.
+     */
+    record BatchStockRow(
+            String productCode,
+            String productName,
+            int batchId,
+            LocalDate purchaseDate,
+            LocalDate expiryDate,
+            int quantityReceived,
+            int remainingQuantity,
+            int physicalQuantity,
+            int onlineQuantity) {
+    }
+
+    /**
+     * A product's total quantity.
+     */
+    record ProductStockRow(
+            String productCode,
+            String productName,
+            int totalQuantity) {
+    }
+
+    /**
+     * A product's stock in a store against its minimum stock level.
+     */
+    record ProductMinimumRow(
+            String productCode,
+            String productName,
+            int currentStock,
+            int minimumStock) {
+    }
+}
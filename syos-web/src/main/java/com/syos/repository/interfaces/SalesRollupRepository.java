@@ -0,0 +1,100 @@
+package com.syos.repository.interfaces;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.enums.TransactionType;
+import com.syos.domain.models.Bill;
+import com.syos.domain.models.BillItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Pre-aggregated sales of finalized bills, per day and per hour.
+ *
+ * Rollup rows are added to as bills are finalized and can be rebuilt for a day
+ * from the bills themselves. The live queries aggregate the bills of a day the
+ * same way without the rollups, for the day still in progress.
+ */
+public interface SalesRollupRepository {
+
+    /**
+     * Adds finalized bills to the daily, hourly and bill rollups.
+     */
+    void addSales(List<BillSale> sales);
+
+    /**
+     * Replaces a day's rollup rows with totals computed from its finalized bills.
+     *
+     * @return the number of bills counted
+     */
+    int rebuildDay(LocalDate day);
+
+    /**
+     * Gets rolled-up bill counts and totals per day, store and payment type for the range.
+     */
+    List<BillSales> findBillSales(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Gets the same as {@link #findBillSales} for one day, computed from the bills.
+     */
+    List<BillSales> findLiveBillSales(LocalDate day);
+
+    /**
+     * Gets rolled-up units and revenue per store and product for the range.
+     */
+    List<ProductSales> findProductSales(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Gets the same as {@link #findProductSales} for one day, computed from the bills.
+     */
+    List<ProductSales> findLiveProductSales(LocalDate day);
+
+    /**
+     * Gets rolled-up units and revenue per hour and store for a day.
+     */
+    List<HourlySales> findHourlySales(LocalDate day);
+
+    /**
+     * Gets the same as {@link #findHourlySales}, computed from the bills.
+     */
+    List<HourlySales> findLiveHourlySales(LocalDate day);
+
+    /**
+     * A finalized bill with its items.
+     */
+    record BillSale(Bill bill, List<BillItem> items) {
+    }
+
+    /**
+     * Bills of one payment type in a store on a day.
+     */
+    record BillSales(
+            LocalDate date,
+            StoreType storeType,
+            TransactionType transactionType,
+            int billCount,
+            BigDecimal totalAmount) {
+    }
+
+    /**
+     * A product's sales in a store.
+     */
+    record ProductSales(
+            StoreType storeType,
+            String productCode,
+            String productName,
+            int quantity,
+            BigDecimal revenue) {
+    }
+
+    /**
+     * A store's sales in one hour of the day (0-23).
+     */
+    record HourlySales(
+            int hour,
+            StoreType storeType,
+            int quantity,
+            BigDecimal revenue) {
+    }
+}
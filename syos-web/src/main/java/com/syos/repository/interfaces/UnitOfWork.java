@@ -0,0 +1,62 @@
+package com.syos.repository.interfaces;
+
+/**
+ * Groups several repository calls into a single database transaction.
+ * Repositories invoked inside {@link #execute(Work)} share one connection and
+ * are committed (or rolled back) together.
+ */
+public interface UnitOfWork {
+
+    /**
+     * Runs the given work inside one transaction and returns its result.
+     * A RuntimeException thrown by the work rolls back every change made inside it.
+     * Nested calls join the outer transaction.
+     */
+    <T> T execute(Work<T> work);
+
+    /**
+     * Runs the given work inside one transaction without a result.
+     */
+    default void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the work outside any transaction active on this thread, so that its
+     * statements use their own auto-committed connections and only see committed data.
+     */
+    default <T> T suspend(Work<T> work) {
+        return work.perform();
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or immediately when no
+     * transaction is active. Actions registered in a transaction that rolls back are
+     * discarded. Used to keep in-memory state in step with committed data.
+     */
+    default void afterCommit(Runnable action) {
+        action.run();
+    }
+
+    /**
+     * Unit of work that runs repository calls directly, each in its own
+     * auto-committed statement. Used where no transactional DataSource is available.
+     */
+    UnitOfWork AUTO_COMMIT = new UnitOfWork() {
+        @Override
+        public <T> T execute(Work<T> work) {
+            return work.perform();
+        }
+    };
+
+    /**
+     * A piece of work executed within a unit of work.
+     */
+    @FunctionalInterface
+    interface Work<T> {
+        T perform();
+    }
+}
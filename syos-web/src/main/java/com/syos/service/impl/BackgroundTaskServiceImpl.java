@@ -1,10 +1,17 @@
 package com.syos.service.impl;
 
+import com.syos.config.AppConfig;
 import com.syos.config.ThreadPoolConfig;
 import com.syos.domain.models.MainInventory;
 import com.syos.service.interfaces.BackgroundTaskService;
+import com.syos.service.interfaces.BillingService;
+import com.syos.service.interfaces.ExpiredStockWriteOffService;
+import com.syos.service.interfaces.InventoryHistoryService;
+import com.syos.service.interfaces.InventoryReconciliationService;
 import com.syos.service.interfaces.InventoryService;
+import com.syos.service.interfaces.OfflineCheckoutService;
 import com.syos.service.interfaces.ReportService;
+import com.syos.service.interfaces.SalesRollupService;
 import com.syos.service.interfaces.StoreInventoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,27 +32,68 @@ public class BackgroundTaskServiceImpl implements BackgroundTaskService {
 
     private static final Logger logger = LoggerFactory.getLogger(BackgroundTaskServiceImpl.class);
 
-    private static final int LOW_STOCK_CHECK_INTERVAL_MINUTES = 60; // Every hour
     private static final int EXPIRED_CLEANUP_INTERVAL_HOURS = 24; // Daily
     private static final int INVENTORY_SYNC_INTERVAL_MINUTES = 30; // Every 30 minutes
+    private static final int BILL_SWEEP_INTERVAL_MINUTES = 5; // Every 5 minutes
+    private static final int OFFLINE_REPLAY_INTERVAL_SECONDS = 30; // Every 30 seconds
+    private static final int EXPIRY_TICK_INTERVAL_MINUTES = 1; // Every minute
+    private static final int RECONCILIATION_INTERVAL_HOURS = 24; // Daily
+    private static final int CART_RESERVATION_SWEEP_INTERVAL_SECONDS = 10; // Every 10 seconds
+    private static final int LEDGER_MAINTENANCE_INTERVAL_MINUTES = 60; // Hourly
+    private static final int SALES_ROLLUP_CLOSE_INTERVAL_MINUTES = 60; // Hourly
     private static final int LOW_STOCK_THRESHOLD = 10;
     private static final int EXPIRING_SOON_DAYS = 7;
 
     private final InventoryService inventoryService;
     private final StoreInventoryService storeInventoryService;
     private final ReportService reportService;
+    private final BillingService billingService;
+    private final OfflineCheckoutService offlineCheckoutService;
+    private final BatchExpiryScheduler expiryScheduler;
+    private final ExpiredStockWriteOffService writeOffService;
+    private final InventoryReconciliationService reconciliationService;
+    private final CartReservationTable cartReservations;
+    private final InventoryHistoryService inventoryHistoryService;
+    private final SalesRollupService salesRollupService;
 
-    private ScheduledFuture<?> lowStockCheckTask;
     private ScheduledFuture<?> expiredCleanupTask;
     private ScheduledFuture<?> inventorySyncTask;
+    private ScheduledFuture<?> billSweepTask;
+    private ScheduledFuture<?> offlineReplayTask;
+    private ScheduledFuture<?> expiryTickTask;
+    private ScheduledFuture<?> reconciliationTask;
+    private ScheduledFuture<?> reservationSweepTask;
+    private ScheduledFuture<?> ledgerMaintenanceTask;
+    private ScheduledFuture<?> salesRollupCloseTask;
     private final AtomicBoolean running = new AtomicBoolean(false);
 
+    /**
+     * Creates the service. Every collaborator after the report service is optional:
+     * a null one leaves its task unscheduled, and without the write-off service
+     * the expired cleanup only lists the expired batches.
+     */
     public BackgroundTaskServiceImpl(InventoryService inventoryService,
             StoreInventoryService storeInventoryService,
-            ReportService reportService) {
+            ReportService reportService,
+            BillingService billingService,
+            OfflineCheckoutService offlineCheckoutService,
+            BatchExpiryScheduler expiryScheduler,
+            ExpiredStockWriteOffService writeOffService,
+            InventoryReconciliationService reconciliationService,
+            CartReservationTable cartReservations,
+            InventoryHistoryService inventoryHistoryService,
+            SalesRollupService salesRollupService) {
         this.inventoryService = inventoryService;
         this.storeInventoryService = storeInventoryService;
         this.reportService = reportService;
+        this.billingService = billingService;
+        this.offlineCheckoutService = offlineCheckoutService;
+        this.expiryScheduler = expiryScheduler;
+        this.writeOffService = writeOffService;
+        this.reconciliationService = reconciliationService;
+        this.cartReservations = cartReservations;
+        this.inventoryHistoryService = inventoryHistoryService;
+        this.salesRollupService = salesRollupService;
     }
 
     @Override
@@ -54,13 +102,7 @@ public class BackgroundTaskServiceImpl implements BackgroundTaskService {
             logger.info("Starting background scheduled tasks");
             ScheduledExecutorService executor = ThreadPoolConfig.getBackgroundTaskExecutor();
 
-            // Schedule low stock check - every hour
-            lowStockCheckTask = executor.scheduleAtFixedRate(
-                    this::performLowStockCheck,
-                    1, // Initial delay - 1 minute to let app start
-                    LOW_STOCK_CHECK_INTERVAL_MINUTES,
-                    TimeUnit.MINUTES);
-            logger.info("Low stock check scheduled every {} minutes", LOW_STOCK_CHECK_INTERVAL_MINUTES);
+            // Low stock is not polled: StockAlertService raises alerts as stock changes
 
             // Schedule expired product cleanup - daily
             expiredCleanupTask = executor.scheduleAtFixedRate(
@@ -78,6 +120,78 @@ public class BackgroundTaskServiceImpl implements BackgroundTaskService {
                     TimeUnit.MINUTES);
             logger.info("Inventory sync check scheduled every {} minutes", INVENTORY_SYNC_INTERVAL_MINUTES);
 
+            // Schedule in-progress bill sweep - every 5 minutes
+            if (billingService != null) {
+                billSweepTask = executor.scheduleAtFixedRate(
+                        this::performBillSweep,
+                        BILL_SWEEP_INTERVAL_MINUTES,
+                        BILL_SWEEP_INTERVAL_MINUTES,
+                        TimeUnit.MINUTES);
+                logger.info("In-progress bill sweep scheduled every {} minutes", BILL_SWEEP_INTERVAL_MINUTES);
+            }
+
+            // Schedule offline checkout replay - every 30 seconds
+            if (offlineCheckoutService != null) {
+                offlineReplayTask = executor.scheduleWithFixedDelay(
+                        this::performOfflineReplay,
+                        OFFLINE_REPLAY_INTERVAL_SECONDS,
+                        OFFLINE_REPLAY_INTERVAL_SECONDS,
+                        TimeUnit.SECONDS);
+                logger.info("Offline checkout replay scheduled every {} seconds", OFFLINE_REPLAY_INTERVAL_SECONDS);
+            }
+
+            // Move the batch expiry scheduler to the current day - every minute
+            if (expiryScheduler != null) {
+                expiryTickTask = executor.scheduleWithFixedDelay(
+                        this::performExpiryTick,
+                        EXPIRY_TICK_INTERVAL_MINUTES,
+                        EXPIRY_TICK_INTERVAL_MINUTES,
+                        TimeUnit.MINUTES);
+                logger.info("Batch expiry tick scheduled every {} minutes", EXPIRY_TICK_INTERVAL_MINUTES);
+            }
+
+            // Schedule inventory reconciliation against the ledger - daily
+            if (reconciliationService != null) {
+                reconciliationTask = executor.scheduleWithFixedDelay(
+                        this::performReconciliation,
+                        30, // Initial delay - 30 minutes
+                        RECONCILIATION_INTERVAL_HOURS * 60,
+                        TimeUnit.MINUTES);
+                logger.info("Inventory reconciliation scheduled every {} hours", RECONCILIATION_INTERVAL_HOURS);
+            }
+
+            // Release expired cart reservations - every 10 seconds
+            if (cartReservations != null) {
+                reservationSweepTask = executor.scheduleWithFixedDelay(
+                        this::performReservationSweep,
+                        CART_RESERVATION_SWEEP_INTERVAL_SECONDS,
+                        CART_RESERVATION_SWEEP_INTERVAL_SECONDS,
+                        TimeUnit.SECONDS);
+                logger.info("Cart reservation sweep scheduled every {} seconds",
+                        CART_RESERVATION_SWEEP_INTERVAL_SECONDS);
+            }
+
+            // Take the daily inventory snapshot and archive old ledger rows - hourly
+            if (inventoryHistoryService != null) {
+                ledgerMaintenanceTask = executor.scheduleWithFixedDelay(
+                        this::performLedgerMaintenance,
+                        15, // Initial delay - 15 minutes
+                        LEDGER_MAINTENANCE_INTERVAL_MINUTES,
+                        TimeUnit.MINUTES);
+                logger.info("Inventory ledger maintenance scheduled every {} minutes",
+                        LEDGER_MAINTENANCE_INTERVAL_MINUTES);
+            }
+
+            // Rebuild yesterday's sales rollups once it has closed - hourly
+            if (salesRollupService != null) {
+                salesRollupCloseTask = executor.scheduleWithFixedDelay(
+                        this::performSalesRollupClose,
+                        5, // Initial delay - 5 minutes
+                        SALES_ROLLUP_CLOSE_INTERVAL_MINUTES,
+                        TimeUnit.MINUTES);
+                logger.info("Sales rollup close scheduled every {} minutes", SALES_ROLLUP_CLOSE_INTERVAL_MINUTES);
+            }
+
             logger.info("All background tasks started successfully");
         } else {
             logger.warn("Background tasks are already running");
@@ -89,10 +203,6 @@ public class BackgroundTaskServiceImpl implements BackgroundTaskService {
         if (running.compareAndSet(true, false)) {
             logger.info("Stopping background scheduled tasks");
 
-            if (lowStockCheckTask != null) {
-                lowStockCheckTask.cancel(false);
-                logger.info("Low stock check task stopped");
-            }
             if (expiredCleanupTask != null) {
                 expiredCleanupTask.cancel(false);
                 logger.info("Expired cleanup task stopped");
@@ -101,6 +211,36 @@ public class BackgroundTaskServiceImpl implements BackgroundTaskService {
                 inventorySyncTask.cancel(false);
                 logger.info("Inventory sync task stopped");
             }
+            if (billSweepTask != null) {
+                billSweepTask.cancel(false);
+                logger.info("Bill sweep task stopped");
+            }
+            if (offlineReplayTask != null) {
+                offlineReplayTask.cancel(false);
+                logger.info("Offline replay task stopped");
+            }
+
+            if (expiryTickTask != null) {
+                expiryTickTask.cancel(false);
+                logger.info("Batch expiry tick stopped");
+            }
+
+            if (reconciliationTask != null) {
+                reconciliationTask.cancel(false);
+                logger.info("Inventory reconciliation task stopped");
+            }
+            if (reservationSweepTask != null) {
+                reservationSweepTask.cancel(false);
+                logger.info("Cart reservation sweep stopped");
+            }
+            if (ledgerMaintenanceTask != null) {
+                ledgerMaintenanceTask.cancel(false);
+                logger.info("Inventory ledger maintenance stopped");
+            }
+            if (salesRollupCloseTask != null) {
+                salesRollupCloseTask.cancel(false);
+                logger.info("Sales rollup close stopped");
+            }
 
             logger.info("All background tasks stopped");
         } else {
@@ -171,6 +311,14 @@ public class BackgroundTaskServiceImpl implements BackgroundTaskService {
         logger.info("[{}] Running expired product cleanup...", threadName);
 
         try {
+            if (writeOffService != null) {
+                var report = writeOffService.writeOff(AppConfig.isExpiredWriteOffDryRun());
+                logger.info("[{}] Expired product cleanup{}: {} batches, {} units written off, {} skipped",
+                        threadName, report.dryRun() ? " (dry run)" : "", report.batches(), report.totalQuantity(),
+                        report.skippedBatches());
+                return;
+            }
+
             List<MainInventory> expiredBatches = inventoryService.findExpiredBatches();
 
             if (expiredBatches.isEmpty()) {
@@ -185,15 +333,6 @@ public class BackgroundTaskServiceImpl implements BackgroundTaskService {
                         batch.getProductCodeString(),
                         batch.getRemainingQuantity(),
                         batch.getExpiryDate()));
-
-                // Note: Actual cleanup (zeroing out quantities) would require business decision
-                // For now, we just log alerts. Implement actual cleanup if needed:
-                // expiredBatches.forEach(batch -> {
-                // if (batch.getRemainingQuantity() > 0) {
-                // inventoryService.reduceQuantity(batch.getMainInventoryId(),
-                // batch.getRemainingQuantity());
-                // }
-                // });
             }
 
             logger.info("[{}] Expired product cleanup completed", threadName);
@@ -222,8 +361,106 @@ public class BackgroundTaskServiceImpl implements BackgroundTaskService {
             logger.info("[{}] Inventory sync: {} products, {} in stock, {} low stock, {} out of stock",
                     threadName, totalProducts, totalProducts - outOfStock - lowStock, lowStock, outOfStock);
 
+            // Catch the in-memory availability up with changes it missed
+            int drifted = storeInventoryService.reconcileAvailability();
+            if (drifted > 0) {
+                logger.warn("[{}] Inventory sync: {} store products reloaded after drifting", threadName, drifted);
+            }
+
         } catch (Exception e) {
             logger.error("[{}] Error during inventory sync check: {}", threadName, e.getMessage(), e);
         }
     }
+
+    private void performBillSweep() {
+        String threadName = Thread.currentThread().getName();
+        logger.debug("[{}] Running in-progress bill sweep...", threadName);
+
+        try {
+            int retired = billingService.sweepExpiredBills();
+            int purgedKeys = billingService.purgeExpiredCheckoutKeys();
+            var stats = billingService.getInProgressStats();
+            logger.info("[{}] Bill sweep: {} retired, {} in progress (hits {}, misses {}, evictions {}), "
+                    + "{} expired checkout keys purged",
+                    threadName, retired, stats.size(), stats.hits(), stats.misses(), stats.evictions(), purgedKeys);
+
+        } catch (Exception e) {
+            logger.error("[{}] Error during bill sweep: {}", threadName, e.getMessage(), e);
+        }
+    }
+
+    private void performOfflineReplay() {
+        if (offlineCheckoutService.getPendingCount() == 0) {
+            return;
+        }
+        String threadName = Thread.currentThread().getName();
+        logger.info("[{}] Replaying {} offline checkouts...", threadName, offlineCheckoutService.getPendingCount());
+
+        try {
+            var report = offlineCheckoutService.replay();
+            logger.info("[{}] Offline replay: {} completed, {} conflicts, {} still pending",
+                    threadName, report.completed(), report.conflicts(), report.remaining());
+
+        } catch (Exception e) {
+            logger.error("[{}] Error during offline replay: {}", threadName, e.getMessage(), e);
+        }
+    }
+
+    private void performExpiryTick() {
+        try {
+            expiryScheduler.advance();
+        } catch (Exception e) {
+            logger.error("[{}] Error during batch expiry tick: {}",
+                    Thread.currentThread().getName(), e.getMessage(), e);
+        }
+    }
+
+    private void performReservationSweep() {
+        try {
+            cartReservations.advance();
+        } catch (Exception e) {
+            logger.error("[{}] Error during cart reservation sweep: {}",
+                    Thread.currentThread().getName(), e.getMessage(), e);
+        }
+    }
+
+    private void performReconciliation() {
+        String threadName = Thread.currentThread().getName();
+        logger.info("[{}] Running inventory reconciliation...", threadName);
+
+        try {
+            var report = reconciliationService.reconcile();
+            logger.info("[{}] Inventory reconciliation: {} batches, {} discrepancies",
+                    threadName, report.batchesChecked(), report.discrepancies().size());
+
+        } catch (Exception e) {
+            logger.error("[{}] Error during inventory reconciliation: {}", threadName, e.getMessage(), e);
+        }
+    }
+
+    private void performLedgerMaintenance() {
+        String threadName = Thread.currentThread().getName();
+        try {
+            inventoryHistoryService.takeSnapshot()
+                    .ifPresent(at -> logger.info("[{}] Inventory snapshot taken at {}", threadName, at));
+            var report = inventoryHistoryService.archiveLedger();
+            if (report.rowsArchived() > 0) {
+                logger.info("[{}] Archived {} inventory ledger rows before {}",
+                        threadName, report.rowsArchived(), report.cutoff());
+            }
+
+        } catch (Exception e) {
+            logger.error("[{}] Error during inventory ledger maintenance: {}", threadName, e.getMessage(), e);
+        }
+    }
+
+    private void performSalesRollupClose() {
+        String threadName = Thread.currentThread().getName();
+        try {
+            salesRollupService.closeDay()
+                    .ifPresent(day -> logger.info("[{}] Sales rollups closed for {}", threadName, day));
+        } catch (Exception e) {
+            logger.error("[{}] Error closing sales rollups: {}", threadName, e.getMessage(), e);
+        }
+    }
 }
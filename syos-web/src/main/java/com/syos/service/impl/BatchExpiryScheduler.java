@@ -0,0 +1,303 @@
+package com.syos.service.impl;
+
+import com.syos.domain.models.MainInventory;
+import com.syos.repository.interfaces.MainInventoryRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the expiry of every main inventory batch that still holds stock, so
+ * expiry counts are answered from memory and expiry events fire on the day
+ * they happen instead of being found by date range scans.
+ *
+ * Batches are loaded once by {@link #rebuild()} and then kept current by
+ * {@link #track}, {@link #reduced} and {@link #increased} as batches are
+ * received and drawn down. Each batch has at most two pending timers: one for
+ * the day it starts expiring soon and one for the day after its expiry date.
+ * Timers live in a two-level timing wheel keyed by day: 64 daily slots, 64
+ * slots of 64 days each, and an overflow list for anything further out. Moving
+ * to a new day only touches that day's slot, plus a cascade every 64 days.
+ */
+public class BatchExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchExpiryScheduler.class);
+
+    private static final int DEFAULT_EXPIRING_SOON_DAYS = 7;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    public enum ExpiryState {
+        FRESH,
+        EXPIRING_SOON,
+        EXPIRED
+    }
+
+    /**
+     * Raised when a batch with stock starts expiring soon or expires.
+     */
+    public record ExpiryEvent(
+            ExpiryState state,
+            Integer batchId,
+            String productCode,
+            String productName,
+            LocalDate expiryDate,
+            int remainingQuantity) {
+    }
+
+    private final MainInventoryRepository mainInventoryRepository;
+    private final UnitOfWork unitOfWork;
+    private final int expiringSoonDays;
+    private final Clock clock;
+    private final List<Consumer<ExpiryEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Map<Integer, TrackedBatch> batches = new HashMap<>();
+    private final List<List<Timer>> days = newWheel();
+    private final List<List<Timer>> blocks = newWheel();
+    private final List<Timer> overflow = new ArrayList<>();
+    private long currentDay;
+    private int expiringSoonCount;
+    private int expiredCount;
+
+    public BatchExpiryScheduler(MainInventoryRepository mainInventoryRepository, UnitOfWork unitOfWork) {
+        this(mainInventoryRepository, unitOfWork, DEFAULT_EXPIRING_SOON_DAYS, Clock.systemDefaultZone());
+    }
+
+    public BatchExpiryScheduler(MainInventoryRepository mainInventoryRepository,
+                                UnitOfWork unitOfWork,
+                                int expiringSoonDays,
+                                Clock clock) {
+        this.mainInventoryRepository = mainInventoryRepository;
+        this.unitOfWork = unitOfWork;
+        this.expiringSoonDays = expiringSoonDays;
+        this.clock = clock;
+        this.currentDay = LocalDate.now(clock).toEpochDay();
+    }
+
+    /**
+     * Registers a listener for expiry events. Listeners run on the thread that
+     * moved the batch into its new state, outside the scheduler's lock.
+     */
+    public void addListener(Consumer<ExpiryEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Reloads every batch with stock and an expiry date. Raises no events.
+     */
+    public void rebuild() {
+        List<MainInventory> loaded = unitOfWork.suspend(mainInventoryRepository::findAvailableWithExpiry);
+        synchronized (this) {
+            batches.clear();
+            days.forEach(List::clear);
+            blocks.forEach(List::clear);
+            overflow.clear();
+            expiringSoonCount = 0;
+            expiredCount = 0;
+            currentDay = LocalDate.now(clock).toEpochDay();
+            loaded.forEach(batch -> add(batch, new ArrayList<>()));
+            logger.info("Batch expiry scheduler loaded: {} batches, {} expiring soon, {} expired",
+                    batches.size(), expiringSoonCount, expiredCount);
+        }
+    }
+
+    /**
+     * Moves the scheduler to today, raising the events of every day passed.
+     */
+    public void advance() {
+        List<ExpiryEvent> events = new ArrayList<>();
+        synchronized (this) {
+            long today = LocalDate.now(clock).toEpochDay();
+            while (currentDay < today) {
+                currentDay++;
+                if ((currentDay & WHEEL_MASK) == 0) {
+                    cascade(events);
+                }
+                List<Timer> due = days.get((int) (currentDay & WHEEL_MASK));
+                List<Timer> timers = new ArrayList<>(due);
+                due.clear();
+                timers.forEach(timer -> schedule(timer, events));
+            }
+        }
+        publish(events);
+    }
+
+    /**
+     * Starts tracking a newly received batch.
+     */
+    public void track(MainInventory batch) {
+        List<ExpiryEvent> events = new ArrayList<>();
+        synchronized (this) {
+            add(batch, events);
+        }
+        publish(events);
+    }
+
+    /**
+     * Records a committed reduction; a batch drawn down to zero is no longer tracked.
+     */
+    public synchronized void reduced(Integer batchId, int amount) {
+        TrackedBatch tracked = batches.get(batchId);
+        if (tracked == null) {
+            return;
+        }
+        tracked.remaining -= amount;
+        if (tracked.remaining <= 0) {
+            batches.remove(batchId);
+            count(tracked.state, -1);
+        }
+    }
+
+    /**
+     * Records a committed increase, loading the batch again if it had been drawn down to zero.
+     */
+    public void increased(Integer batchId, int amount) {
+        synchronized (this) {
+            TrackedBatch tracked = batches.get(batchId);
+            if (tracked != null) {
+                tracked.remaining += amount;
+                return;
+            }
+        }
+        unitOfWork.suspend(() -> mainInventoryRepository.findById(batchId)).ifPresent(this::track);
+    }
+
+    public synchronized int getExpiringSoonCount() {
+        return expiringSoonCount;
+    }
+
+    public synchronized int getExpiredCount() {
+        return expiredCount;
+    }
+
+    public synchronized int size() {
+        return batches.size();
+    }
+
+    private void add(MainInventory batch, List<ExpiryEvent> events) {
+        if (batch.getExpiryDate() == null || batch.getRemainingQuantity() <= 0
+                || batches.containsKey(batch.getMainInventoryId())) {
+            return;
+        }
+        TrackedBatch tracked = new TrackedBatch(batch.getMainInventoryId(), batch.getProductCodeString(),
+                batch.getProductName(), batch.getExpiryDate(), batch.getRemainingQuantity());
+        batches.put(tracked.batchId, tracked);
+        count(ExpiryState.FRESH, 1);
+        long expiredDay = tracked.expiryDate.toEpochDay() + 1;
+        if (currentDay >= expiredDay) {
+            // Already past its expiry date: straight to expired, with a single event
+            schedule(new Timer(tracked.batchId, expiredDay, ExpiryState.EXPIRED), events);
+        } else {
+            schedule(new Timer(tracked.batchId, expiredDay - 1 - expiringSoonDays, ExpiryState.EXPIRING_SOON),
+                    events);
+        }
+    }
+
+    /**
+     * Places a timer in the wheel, or applies it now if its day has come.
+     */
+    private void schedule(Timer timer, List<ExpiryEvent> events) {
+        long delay = timer.day() - currentDay;
+        if (delay <= 0) {
+            fire(timer, events);
+        } else if (delay < WHEEL_SIZE) {
+            days.get((int) (timer.day() & WHEEL_MASK)).add(timer);
+        } else if (delay < (long) WHEEL_SIZE * WHEEL_SIZE) {
+            blocks.get((int) ((timer.day() >> WHEEL_BITS) & WHEEL_MASK)).add(timer);
+        } else {
+            overflow.add(timer);
+        }
+    }
+
+    /**
+     * Called on the first day of each 64-day block: moves that block's timers
+     * down to the daily slots, and on each full turn re-places the overflow.
+     */
+    private void cascade(List<ExpiryEvent> events) {
+        long block = currentDay >> WHEEL_BITS;
+        List<Timer> timers = new ArrayList<>(blocks.get((int) (block & WHEEL_MASK)));
+        blocks.get((int) (block & WHEEL_MASK)).clear();
+        if ((block & WHEEL_MASK) == 0) {
+            timers.addAll(overflow);
+            overflow.clear();
+        }
+        timers.forEach(timer -> schedule(timer, events));
+    }
+
+    private void fire(Timer timer, List<ExpiryEvent> events) {
+        TrackedBatch tracked = batches.get(timer.batchId());
+        // Timers of batches drawn down since they were placed are dropped here
+        if (tracked == null || tracked.state.ordinal() >= timer.state().ordinal()) {
+            return;
+        }
+        count(tracked.state, -1);
+        tracked.state = timer.state();
+        count(tracked.state, 1);
+        events.add(new ExpiryEvent(tracked.state, tracked.batchId, tracked.productCode, tracked.productName,
+                tracked.expiryDate, tracked.remaining));
+        if (tracked.state == ExpiryState.EXPIRING_SOON) {
+            schedule(new Timer(tracked.batchId, tracked.expiryDate.toEpochDay() + 1, ExpiryState.EXPIRED), events);
+        }
+    }
+
+    private void count(ExpiryState state, int delta) {
+        if (state == ExpiryState.EXPIRING_SOON) {
+            expiringSoonCount += delta;
+        } else if (state == ExpiryState.EXPIRED) {
+            expiredCount += delta;
+        }
+    }
+
+    private void publish(List<ExpiryEvent> events) {
+        for (ExpiryEvent event : events) {
+            logger.warn("Batch {} of {} ({}) is {}: {} left, expiry {}", event.batchId(), event.productName(),
+                    event.productCode(), event.state(), event.remainingQuantity(), event.expiryDate());
+            for (Consumer<ExpiryEvent> listener : listeners) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    logger.error("Expiry listener failed for batch {}: {}", event.batchId(), e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static List<List<Timer>> newWheel() {
+        List<List<Timer>> wheel = new ArrayList<>(WHEEL_SIZE);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        return wheel;
+    }
+
+    private record Timer(Integer batchId, long day, ExpiryState state) {
+    }
+
+    private static final class TrackedBatch {
+        private final Integer batchId;
+        private final String productCode;
+        private final String productName;
+        private final LocalDate expiryDate;
+        private int remaining;
+        private ExpiryState state = ExpiryState.FRESH;
+
+        private TrackedBatch(Integer batchId, String productCode, String productName,
+                             LocalDate expiryDate, int remaining) {
+            this.batchId = batchId;
+            this.productCode = productCode;
+            this.productName = productName;
+            this.expiryDate = expiryDate;
+            this.remaining = remaining;
+        }
+    }
+}
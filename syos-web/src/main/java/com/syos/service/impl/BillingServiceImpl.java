@@ -11,27 +11,46 @@ import com.syos.domain.valueobjects.BillSerialNumber;
 import com.syos.domain.valueobjects.Money;
 import com.syos.domain.valueobjects.ProductCode;
 import com.syos.exception.BillNotFoundException;
+import com.syos.exception.BillingException;
 import com.syos.exception.InsufficientStockException;
 import com.syos.exception.InvalidPaymentException;
 import com.syos.exception.ProductNotFoundException;
+import com.syos.exception.RepositoryException;
 import com.syos.exception.ValidationException;
 import com.syos.repository.interfaces.BillItemRepository;
 import com.syos.repository.interfaces.BillRepository;
+import com.syos.repository.interfaces.CheckoutIdempotencyRepository;
 import com.syos.repository.interfaces.InventoryTransactionRepository;
 import com.syos.repository.interfaces.ProductRepository;
+import com.syos.repository.interfaces.ProductRepository.StockProbe;
+import com.syos.repository.interfaces.SalesRollupRepository;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSale;
+import com.syos.repository.interfaces.UnitOfWork;
 import com.syos.service.interfaces.BillingService;
 import com.syos.service.interfaces.StoreInventoryService;
 import com.syos.service.interfaces.StoreInventoryService.BatchAllocation;
+import com.syos.util.JsonUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -41,26 +60,70 @@ public class BillingServiceImpl implements BillingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BillingServiceImpl.class);
 
+    private static final int BATCH_CHECKOUT_CHUNK_SIZE = 50;
+
     private final BillRepository billRepository;
     private final BillItemRepository billItemRepository;
     private final ProductRepository productRepository;
     private final StoreInventoryService storeInventoryService;
     private final InventoryTransactionRepository transactionRepository;
 
-    // In-memory storage for bills in progress (before finalization)
-    private final Map<Integer, Bill> billsInProgress = new ConcurrentHashMap<>();
+    private final UnitOfWork unitOfWork;
+    private final ProductStockLocks stockLocks;
+
+    // Bounded in-memory storage for bills in progress (before finalization)
+    private final InProgressBillStore billsInProgress;
+
+    // Results of checkouts submitted with an idempotency key
+    private final CheckoutIdempotencyRepository idempotencyRepository;
+    private final CheckoutResultCache checkoutResults;
+    private final Map<String, CompletableFuture<CheckoutResult>> checkoutsInFlight = new ConcurrentHashMap<>();
+
+    // Optional: pre-aggregated sales fed by finalized bills
+    private final SalesRollupRepository salesRollupRepository;
 
+    // Optional: cached reports dropped as bills are finalized
+    private final ReportCache reportCache;
+
+    // Optional: today's sales counted in memory for the dashboard
+    private final LiveDashboardCounters dashboardCounters;
+
+    // Optional: online stock held by carts, which online checkouts leave to its holders
+    private final CartReservationTable cartReservations;
+
+    /**
+     * Creates the service. The idempotency repository, sales rollups, report
+     * cache, dashboard counters and cart reservations are optional and may be null.
+     */
     public BillingServiceImpl(
             BillRepository billRepository,
             BillItemRepository billItemRepository,
             ProductRepository productRepository,
             StoreInventoryService storeInventoryService,
-            InventoryTransactionRepository transactionRepository) {
+            InventoryTransactionRepository transactionRepository,
+            UnitOfWork unitOfWork,
+            ProductStockLocks stockLocks,
+            InProgressBillStore billsInProgress,
+            CheckoutIdempotencyRepository idempotencyRepository,
+            CheckoutResultCache checkoutResults,
+            SalesRollupRepository salesRollupRepository,
+            ReportCache reportCache,
+            LiveDashboardCounters dashboardCounters,
+            CartReservationTable cartReservations) {
         this.billRepository = billRepository;
         this.billItemRepository = billItemRepository;
         this.productRepository = productRepository;
         this.storeInventoryService = storeInventoryService;
         this.transactionRepository = transactionRepository;
+        this.unitOfWork = unitOfWork;
+        this.stockLocks = stockLocks;
+        this.billsInProgress = billsInProgress;
+        this.idempotencyRepository = idempotencyRepository;
+        this.checkoutResults = checkoutResults;
+        this.salesRollupRepository = salesRollupRepository;
+        this.reportCache = reportCache;
+        this.dashboardCounters = dashboardCounters;
+        this.cartReservations = cartReservations;
     }
 
     @Override
@@ -92,7 +155,7 @@ public class BillingServiceImpl implements BillingService {
 
         // Save to get an ID
         Bill saved = billRepository.save(bill);
-        billsInProgress.put(saved.getBillId(), saved);
+        billsInProgress.put(saved);
 
         logger.info("Bill created: {} (ID: {})", serialNumber, saved.getBillId());
         return saved;
@@ -143,9 +206,8 @@ public class BillingServiceImpl implements BillingService {
             bill.addItem(saved);
         }
 
-        // Update bill totals
-        bill.calculateTotals();
-        billRepository.save(bill);
+        // Running totals already include the new lines; write the header only
+        billRepository.updateTotals(bill);
 
         logger.info("Added {} item(s) to bill {}: {} x {} (from {} batches)",
                 createdItems.size(), billId, productCode, quantity, allocations.size());
@@ -178,16 +240,14 @@ public class BillingServiceImpl implements BillingService {
             }
         }
 
-        item.updateQuantity(newQuantity);
-        BillItem updated = billItemRepository.save(item);
-
-        // Update bill totals
-        refreshBillItems(bill);
-        bill.calculateTotals();
-        billRepository.save(bill);
+        // Move the running totals by the line difference and write only what changed
+        BillItem line = findLine(bill, item);
+        bill.updateItemQuantity(line, newQuantity);
+        billItemRepository.updateQuantity(line);
+        billRepository.updateTotals(bill);
 
         logger.info("Updated bill item {} quantity to {}", billItemId, newQuantity);
-        return updated;
+        return line;
     }
 
     @Override
@@ -198,13 +258,13 @@ public class BillingServiceImpl implements BillingService {
                 .orElseThrow(() -> new ValidationException("Bill item not found: " + billItemId));
 
         Bill bill = getBillInProgress(item.getBillId());
+        BillItem line = findLine(bill, item);
 
         billItemRepository.deleteById(billItemId);
 
-        // Update bill
-        refreshBillItems(bill);
-        bill.calculateTotals();
-        billRepository.save(bill);
+        // Take the line off the running totals and write the header only
+        bill.removeItem(line);
+        billRepository.updateTotals(bill);
 
         logger.info("Removed bill item {}", billItemId);
         return true;
@@ -218,7 +278,7 @@ public class BillingServiceImpl implements BillingService {
 
         billItemRepository.deleteByBillId(billId);
         bill.clearItems();
-        billRepository.save(bill);
+        billRepository.updateTotals(bill);
 
         logger.info("Cleared all items from bill {}", billId);
     }
@@ -292,15 +352,32 @@ public class BillingServiceImpl implements BillingService {
         logger.debug("Finalizing bill {}", billId);
 
         Bill bill = getBillInProgress(billId);
+        List<BillItem> items = billItemRepository.findByBillId(billId);
+        List<String> productCodes = items.stream().map(BillItem::getProductCodeString).toList();
 
-        // Validate
-        ValidationResult validation = validateBillForFinalization(billId);
-        if (!validation.isValid()) {
-            throw new ValidationException("Bill validation failed: " + String.join(", ", validation.errors()));
+        // Validation and deduction form one critical section per product
+        try (ProductStockLocks.Held held = stockLocks.lockAll(bill.getStoreType(), productCodes)) {
+            ValidationResult validation = validateBillForFinalization(billId);
+            if (!validation.isValid()) {
+                throw new ValidationException("Bill validation failed: " + String.join(", ", validation.errors()));
+            }
+            unitOfWork.run(() -> {
+                deductBillStock(bill, items);
+                publishSales(List.of(new BillSale(bill, items)));
+            });
         }
 
-        // Deduct stock for each item
-        List<BillItem> items = billItemRepository.findByBillId(billId);
+        // Remove from in-progress
+        billsInProgress.remove(billId);
+
+        logger.info("Bill finalized: {} (ID: {})", bill.getSerialNumberString(), billId);
+        return bill;
+    }
+
+    /**
+     * Deducts store stock and logs a sale transaction for every item of the bill.
+     */
+    private void deductBillStock(Bill bill, List<BillItem> items) {
         for (BillItem item : items) {
             boolean deducted;
             if (bill.getStoreType() == StoreType.PHYSICAL) {
@@ -318,12 +395,39 @@ public class BillingServiceImpl implements BillingService {
             // Log transaction
             logSaleTransaction(bill, item);
         }
+    }
 
-        // Remove from in-progress
-        billsInProgress.remove(billId);
+    /**
+     * Passes finalized bills on to the sales rollups and the live dashboard
+     * counters, then drops the cached sales reports, once the current transaction
+     * commits.
+     */
+    private void publishSales(List<BillSale> sales) {
+        addToSalesRollups(sales);
+        if (dashboardCounters != null) {
+            unitOfWork.afterCommit(() -> dashboardCounters.recordSales(sales));
+        }
+        if (reportCache != null) {
+            unitOfWork.afterCommit(reportCache::salesChanged);
+        }
+    }
 
-        logger.info("Bill finalized: {} (ID: {})", bill.getSerialNumberString(), billId);
-        return bill;
+    /**
+     * Adds finalized bills to the sales rollups once the current transaction commits.
+     * Every bill of the day updates the same rollup rows, so they are kept out of the
+     * bill's own transaction; a failed update is put right when the day is rebuilt.
+     */
+    private void addToSalesRollups(List<BillSale> sales) {
+        if (salesRollupRepository == null) {
+            return;
+        }
+        unitOfWork.afterCommit(() -> {
+            try {
+                unitOfWork.run(() -> salesRollupRepository.addSales(sales));
+            } catch (RuntimeException e) {
+                logger.warn("Could not add {} bills to the sales rollups: {}", sales.size(), e.getMessage());
+            }
+        });
     }
 
     @Override
@@ -332,12 +436,14 @@ public class BillingServiceImpl implements BillingService {
 
         Bill bill = billsInProgress.get(billId);
         if (bill == null) {
-            // Check if it's a finalized bill
+            // Not held in memory: either finalized or an evicted draft
             Optional<Bill> existing = billRepository.findById(billId);
-            if (existing.isPresent()) {
+            if (existing.isEmpty()) {
+                throw new BillNotFoundException(billId);
+            }
+            if (isFinalized(billId)) {
                 throw new ValidationException("Cannot cancel a finalized bill");
             }
-            throw new BillNotFoundException(billId);
         }
 
         // Clear items and delete bill
@@ -409,6 +515,9 @@ public class BillingServiceImpl implements BillingService {
         List<String> errors = new ArrayList<>();
 
         Bill bill = billsInProgress.get(billId);
+        if (bill == null) {
+            bill = recoverDraft(billId);
+        }
         if (bill == null) {
             errors.add("Bill not found or already finalized");
             return ValidationResult.invalid(errors);
@@ -427,19 +536,21 @@ public class BillingServiceImpl implements BillingService {
             }
         }
 
-        // Verify stock availability for each item
+        // Pre-check stock for all items from memory; checkout re-checks under its locks
+        Map<String, Integer> required = new LinkedHashMap<>();
+        Map<String, String> productNames = new LinkedHashMap<>();
         for (BillItem item : items) {
-            boolean hasStock;
-            if (bill.getStoreType() == StoreType.PHYSICAL) {
-                hasStock = storeInventoryService.hasAvailableStock(
-                        item.getProductCodeString(), StoreType.PHYSICAL, item.getQuantity());
-            } else {
-                hasStock = storeInventoryService.hasAvailableStock(
-                        item.getProductCodeString(), StoreType.ONLINE, item.getQuantity());
-            }
-            if (!hasStock) {
-                errors.add("Insufficient stock for " + item.getProductName());
-            }
+            required.merge(item.getProductCodeString(), item.getQuantity(), Integer::sum);
+            productNames.putIfAbsent(item.getProductCodeString(), item.getProductName());
+        }
+        if (!required.isEmpty()) {
+            Map<String, Integer> available = storeInventoryService.getAvailableQuantities(
+                    required.keySet(), bill.getStoreType());
+            required.forEach((productCode, quantity) -> {
+                if (available.getOrDefault(productCode, 0) < quantity) {
+                    errors.add("Insufficient stock for " + productNames.get(productCode));
+                }
+            });
         }
 
         if (errors.isEmpty()) {
@@ -448,25 +559,101 @@ public class BillingServiceImpl implements BillingService {
         return ValidationResult.invalid(errors);
     }
 
+    @Override
+    public int sweepExpiredBills() {
+        List<Bill> expired = billsInProgress.removeExpired();
+        int retired = 0;
+        for (Bill bill : expired) {
+            try {
+                if (billItemRepository.findByBillId(bill.getBillId()).isEmpty()) {
+                    // Abandoned before anything was rung up
+                    billRepository.deleteById(bill.getBillId());
+                    logger.info("Expired empty bill cancelled: {}", bill.getBillId());
+                } else {
+                    // Keep the draft so it can be reopened from the database
+                    billRepository.save(bill);
+                    logger.info("Expired bill saved and released from memory: {}", bill.getBillId());
+                }
+                retired++;
+            } catch (RuntimeException e) {
+                logger.error("Failed to retire expired bill {}: {}", bill.getBillId(), e.getMessage());
+            }
+        }
+        return retired;
+    }
+
+    @Override
+    public InProgressStats getInProgressStats() {
+        return billsInProgress.stats();
+    }
+
     // ==================== Helper Methods ====================
 
     private Bill getBillInProgress(Integer billId) {
         Bill bill = billsInProgress.get(billId);
         if (bill == null) {
-            // Try to load from database
+            // Evicted or never held: recover from database
             bill = billRepository.findById(billId)
                     .orElseThrow(() -> new BillNotFoundException(billId));
-            billsInProgress.put(billId, bill);
+            billsInProgress.put(bill);
         }
         return bill;
     }
 
-    private void refreshBillItems(Bill bill) {
-        List<BillItem> items = billItemRepository.findByBillId(bill.getBillId());
-        bill.setItems(items);
+    /**
+     * Reloads an evicted draft from the database, or returns null when the bill
+     * does not exist or has already been finalized.
+     */
+    private Bill recoverDraft(Integer billId) {
+        Optional<Bill> stored = billRepository.findById(billId);
+        if (stored.isEmpty() || isFinalized(billId)) {
+            return null;
+        }
+        billsInProgress.put(stored.get());
+        return stored.get();
+    }
+
+    /**
+     * A bill is finalized once its sale transactions have been logged. They may
+     * since have been moved to the ledger archive, which counts as well.
+     */
+    private boolean isFinalized(Integer billId) {
+        return transactionRepository.existsForBill(billId);
+    }
+
+    /**
+     * Finds the bill's own copy of a stored item. A bill reloaded from the database
+     * starts without its lines, so they are loaded once on first use.
+     *
+     * @throws BillingException if the item is not on the bill, since moving the
+     *         totals by a line the bill does not hold would corrupt them
+     */
+    private BillItem findLine(Bill bill, BillItem stored) {
+        BillItem line = lineById(bill, stored.getBillItemId());
+        if (line == null) {
+            bill.setItems(billItemRepository.findByBillId(bill.getBillId()));
+            line = lineById(bill, stored.getBillItemId());
+        }
+        if (line == null) {
+            throw new BillingException("Item " + stored.getBillItemId() + " is no longer on bill " + bill.getBillId());
+        }
+        return line;
+    }
+
+    private BillItem lineById(Bill bill, Integer billItemId) {
+        for (BillItem line : bill.getItems()) {
+            if (billItemId.equals(line.getBillItemId())) {
+                return line;
+            }
+        }
+        return null;
     }
 
     private void logSaleTransaction(Bill bill, BillItem item) {
+        transactionRepository.save(createSaleTransaction(bill, item));
+    }
+
+    private InventoryTransaction createSaleTransaction(Bill bill, BillItem item) {
         InventoryTransaction transaction = new InventoryTransaction();
         transaction.setProductCode(item.getProductCode());
         transaction.setMainInventoryId(item.getMainInventoryId());
@@ -475,7 +662,7 @@ public class BillingServiceImpl implements BillingService {
         transaction.setQuantityChanged(-item.getQuantity()); // Negative for sales
         transaction.setBillId(bill.getBillId());
         transaction.setRemarks("Sale: Bill " + bill.getSerialNumberString());
-        transactionRepository.save(transaction);
+        return transaction;
     }
 
     // ==================== POS Checkout (Single Atomic Transaction)
@@ -510,14 +697,376 @@ public class BillingServiceImpl implements BillingService {
                 available);
     }
 
+    /**
+     * Builds the stock check for one request line from a bulk probe result.
+     * Availability is compared against the total requested for the product.
+     */
+    private StockCheckResult toStockCheckResult(String productCode, StockProbe probe,
+            int lineQuantity, int totalQuantity) {
+        if (probe == null) {
+            return StockCheckResult.notFound(productCode);
+        }
+        if (!probe.active()) {
+            return StockCheckResult.notFound(productCode + " (inactive)");
+        }
+        if (probe.availableQuantity() < totalQuantity) {
+            return StockCheckResult.unavailable(productCode, totalQuantity, probe.availableQuantity());
+        }
+        return StockCheckResult.available(
+                productCode,
+                probe.productName(),
+                probe.unitPrice(),
+                lineQuantity,
+                probe.availableQuantity());
+    }
+
     @Override
     public CheckoutResult checkout(CheckoutRequest request) {
+        return performCheckout(request, null);
+    }
+
+    @Override
+    public CheckoutResult checkout(CheckoutRequest request, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return checkout(request);
+        }
+
+        CheckoutResult cached = checkoutResults.get(idempotencyKey);
+        if (cached != null) {
+            logger.info("Checkout replayed for idempotency key {}", idempotencyKey);
+            return cached;
+        }
+
+        // A retry arriving while the original attempt is still running waits for its result
+        CompletableFuture<CheckoutResult> attempt = new CompletableFuture<>();
+        CompletableFuture<CheckoutResult> running = checkoutsInFlight.putIfAbsent(idempotencyKey, attempt);
+        if (running != null) {
+            return awaitCheckout(running);
+        }
+
+        try {
+            CheckoutResult result = findStoredCheckout(idempotencyKey)
+                    .orElseGet(() -> performIdempotentCheckout(request, idempotencyKey));
+            if (result.success()) {
+                checkoutResults.put(idempotencyKey, result);
+            }
+            attempt.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        } finally {
+            checkoutsInFlight.remove(idempotencyKey);
+        }
+    }
+
+    @Override
+    public int purgeExpiredCheckoutKeys() {
+        if (idempotencyRepository == null) {
+            return 0;
+        }
+        return idempotencyRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    @Override
+    public List<CheckoutResult> checkoutBatch(List<BatchCheckoutEntry> entries) {
+        logger.info("Processing batch checkout of {} bills", entries.size());
+
+        CheckoutResult[] results = new CheckoutResult[entries.size()];
+        Map<String, Integer> firstIndexByKey = new HashMap<>();
+        Map<Integer, Integer> repeatedKeys = new LinkedHashMap<>();
+        Map<StoreType, List<Integer>> byStore = new EnumMap<>(StoreType.class);
+
+        for (int i = 0; i < entries.size(); i++) {
+            BatchCheckoutEntry entry = entries.get(i);
+            String key = entry.idempotencyKey() != null && !entry.idempotencyKey().isBlank()
+                    ? entry.idempotencyKey()
+                    : null;
+            if (key != null) {
+                Integer first = firstIndexByKey.putIfAbsent(key, i);
+                if (first != null) {
+                    repeatedKeys.put(i, first);
+                    continue;
+                }
+                CheckoutResult stored = checkoutResults.get(key);
+                if (stored == null) {
+                    stored = findStoredCheckout(key).orElse(null);
+                }
+                if (stored != null) {
+                    results[i] = stored;
+                    continue;
+                }
+            }
+
+            CheckoutRequest request = entry.request();
+            List<String> errors = request != null
+                    ? validateCheckoutRequest(request)
+                    : List.of("Checkout request is required");
+            if (!errors.isEmpty()) {
+                results[i] = CheckoutResult.failure(errors);
+                continue;
+            }
+            byStore.computeIfAbsent(request.storeType(), t -> new ArrayList<>()).add(i);
+        }
+
+        byStore.forEach((storeType, indexes) -> checkoutStoreBatch(storeType, indexes, entries, results));
+        repeatedKeys.forEach((index, first) -> results[index] = results[first]);
+
+        long succeeded = Arrays.stream(results).filter(CheckoutResult::success).count();
+        logger.info("Batch checkout complete: {} of {} bills succeeded", succeeded, entries.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Checks out one store's share of a batch. The products of every basket are
+     * locked once, in product order, and probed with one query; each bill is then
+     * checked against what the bills before it have left, and accepted bills are
+     * written in chunks with batched inserts.
+     */
+    private void checkoutStoreBatch(StoreType storeType, List<Integer> indexes,
+            List<BatchCheckoutEntry> entries, CheckoutResult[] results) {
+        Set<String> productCodes = new TreeSet<>();
+        for (int index : indexes) {
+            productCodes.addAll(requestedQuantities(entries.get(index).request()).keySet());
+        }
+
+        try (ProductStockLocks.Held held = stockLocks.lockAll(storeType, productCodes)) {
+            Map<String, StockProbe> probes = new HashMap<>(storeInventoryService.probeStock(storeType, productCodes));
+
+            List<BatchBill> accepted = new ArrayList<>();
+            for (int index : indexes) {
+                BatchCheckoutEntry entry = entries.get(index);
+                PricedCheckout priced = priceCheckout(entry.request(), probes);
+                if (priced.failure() != null) {
+                    results[index] = priced.failure();
+                    continue;
+                }
+                // Later bills in the batch only see what this one leaves
+                requestedQuantities(entry.request()).forEach((productCode, quantity) -> {
+                    StockProbe probe = probes.get(productCode);
+                    probes.put(productCode, new StockProbe(probe.productCode(), probe.productName(),
+                            probe.unitPrice(), probe.active(), probe.availableQuantity() - quantity));
+                });
+                accepted.add(new BatchBill(index, entry.idempotencyKey(), priced));
+            }
+
+            for (int from = 0; from < accepted.size(); from += BATCH_CHECKOUT_CHUNK_SIZE) {
+                List<BatchBill> chunk = accepted.subList(from,
+                        Math.min(from + BATCH_CHECKOUT_CHUNK_SIZE, accepted.size()));
+                persistBatchChunk(storeType, chunk, results);
+            }
+        }
+    }
+
+    private void persistBatchChunk(StoreType storeType, List<BatchBill> chunk, CheckoutResult[] results) {
+        LocalDateTime billDate = LocalDateTime.now();
+        try {
+            List<CheckoutResult> chunkResults = unitOfWork.execute(() -> persistBatch(storeType, chunk, billDate));
+            for (int i = 0; i < chunk.size(); i++) {
+                results[chunk.get(i).index()] = chunkResults.get(i);
+            }
+        } catch (RuntimeException e) {
+            // One bad bill must not sink the rest of the chunk, so retry each on its own
+            logger.warn("Batch of {} bills rolled back, checking out one by one: {}", chunk.size(), e.getMessage());
+            for (BatchBill bill : chunk) {
+                results[bill.index()] = checkoutAlone(bill);
+            }
+        }
+    }
+
+    private CheckoutResult checkoutAlone(BatchBill bill) {
+        CheckoutRequest request = bill.priced().request();
+        try {
+            return bill.idempotencyKey() != null && !bill.idempotencyKey().isBlank()
+                    ? checkout(request, bill.idempotencyKey())
+                    : checkout(request);
+        } catch (RuntimeException e) {
+            logger.error("Checkout in batch failed: {}", e.getMessage(), e);
+            return CheckoutResult.failure("Checkout failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a chunk of bills with one batched insert per table. Stock is
+     * allocated once per product for the whole chunk and split across the
+     * bills in order, so two bills never claim the same units.
+     */
+    private List<CheckoutResult> persistBatch(StoreType storeType, List<BatchBill> chunk, LocalDateTime billDate) {
+        List<Bill> bills = new ArrayList<>();
+        Map<String, Integer> totals = new LinkedHashMap<>();
+        for (BatchBill bill : chunk) {
+            bills.add(buildCheckoutBill(bill.priced(), billDate));
+            requestedQuantities(bill.priced().request()).forEach((code, qty) -> totals.merge(code, qty, Integer::sum));
+        }
+        billRepository.saveAll(bills);
+
+        List<BatchAllocation> allAllocations = new ArrayList<>();
+        Map<String, Deque<BatchAllocation>> pools = new HashMap<>();
+        totals.forEach((productCode, quantity) -> {
+            List<BatchAllocation> allocations = storeInventoryService.allocateStockForSale(
+                    productCode, storeType, quantity);
+            allAllocations.addAll(allocations);
+            pools.put(productCode, new ArrayDeque<>(allocations));
+        });
+
+        List<BillItem> allItems = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            PricedCheckout priced = chunk.get(i).priced();
+            Bill bill = bills.get(i);
+            List<BillItem> billItems = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : requestedQuantities(priced.request()).entrySet()) {
+                List<BatchAllocation> share = takeAllocations(pools.get(entry.getKey()), entry.getKey(), entry.getValue());
+                billItems.addAll(buildBillItems(bill, priced.stockResultFor(entry.getKey()), share));
+            }
+            bill.setItems(billItems);
+            allItems.addAll(billItems);
+        }
+        billItemRepository.saveAll(allItems);
+
+        if (!storeInventoryService.reduceStoreStock(storeType, allAllocations)) {
+            throw new InsufficientStockException(
+                    "Stock changed during checkout - one or more items are no longer available", 0, 0);
+        }
+
+        List<InventoryTransaction> transactions = new ArrayList<>();
+        for (Bill bill : bills) {
+            for (BillItem billItem : bill.getItems()) {
+                transactions.add(createSaleTransaction(bill, billItem));
+            }
+        }
+        transactionRepository.saveAll(transactions);
+        publishSales(bills.stream().map(bill -> new BillSale(bill, bill.getItems())).toList());
+
+        List<CheckoutResult> chunkResults = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BatchBill batchBill = chunk.get(i);
+            CheckoutResult success = batchBill.priced().toResult(bills.get(i), billDate);
+            if (batchBill.idempotencyKey() != null && !batchBill.idempotencyKey().isBlank()) {
+                storeCheckoutResult(batchBill.idempotencyKey(), success);
+            }
+            chunkResults.add(success);
+        }
+        return chunkResults;
+    }
+
+    /**
+     * Takes a bill's share of a product's allocations, oldest batches first.
+     */
+    private static List<BatchAllocation> takeAllocations(Deque<BatchAllocation> pool, String productCode,
+            int quantity) {
+        List<BatchAllocation> share = new ArrayList<>();
+        int needed = quantity;
+        while (needed > 0) {
+            BatchAllocation next = pool.pollFirst();
+            if (next == null) {
+                throw InsufficientStockException.forProduct(productCode, quantity - needed, quantity);
+            }
+            int taken = Math.min(next.quantity(), needed);
+            share.add(new BatchAllocation(next.batchId(), next.productCode(), taken, next.expiryDate()));
+            if (taken < next.quantity()) {
+                pool.addFirst(new BatchAllocation(next.batchId(), next.productCode(),
+                        next.quantity() - taken, next.expiryDate()));
+            }
+            needed -= taken;
+        }
+        return share;
+    }
+
+    private record BatchBill(int index, String idempotencyKey, PricedCheckout priced) {
+    }
+
+    /**
+     * Runs a keyed checkout. If another node stored the same key first, the
+     * insert fails, this checkout rolls back and the stored result is returned.
+     */
+    private CheckoutResult performIdempotentCheckout(CheckoutRequest request, String idempotencyKey) {
+        try {
+            return performCheckout(request, idempotencyKey);
+        } catch (RepositoryException e) {
+            Optional<CheckoutResult> stored = findStoredCheckout(idempotencyKey);
+            if (stored.isPresent()) {
+                logger.info("Checkout for idempotency key {} already completed elsewhere", idempotencyKey);
+                return stored.get();
+            }
+            throw e;
+        }
+    }
+
+    private Optional<CheckoutResult> findStoredCheckout(String idempotencyKey) {
+        if (idempotencyRepository == null) {
+            return Optional.empty();
+        }
+        return idempotencyRepository.findResult(idempotencyKey, LocalDateTime.now())
+                .map(json -> JsonUtil.fromJson(json, CheckoutResult.class));
+    }
+
+    private void storeCheckoutResult(String idempotencyKey, CheckoutResult result) {
+        if (idempotencyRepository == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRepository.save(idempotencyKey, result.billId(), JsonUtil.toJsonCompact(result),
+                now, now.plus(checkoutResults.getTtl()));
+    }
+
+    private CheckoutResult awaitCheckout(CompletableFuture<CheckoutResult> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CheckoutResult performCheckout(CheckoutRequest request, String idempotencyKey) {
         logger.info("Processing checkout: {} items, storeType={}, transactionType={}",
-                request.items().size(), request.storeType(), request.transactionType());
+                request.items() != null ? request.items().size() : 0,
+                request.storeType(), request.transactionType());
 
-        List<String> errors = new ArrayList<>();
+        List<String> errors = validateCheckoutRequest(request);
+        if (!errors.isEmpty()) {
+            return CheckoutResult.failure(errors);
+        }
+
+        // One bulk probe for the whole basket; lines for the same product are checked together
+        Map<String, StockProbe> probes = storeInventoryService.probeStock(
+                request.storeType(), requestedQuantities(request).keySet());
+        PricedCheckout priced = priceCheckout(request, probes);
+        if (priced.failure() != null) {
+            return priced.failure();
+        }
+
+        // === All validations passed - persist the whole bill in one unit of work ===
+
+        LocalDateTime billDate = LocalDateTime.now();
+        List<String> productCodes = request.items().stream().map(ItemRequest::productCode).toList();
+        CheckoutResult result;
+        // Allocation, deduction and commit run under the products' stock locks, so a
+        // concurrent checkout always sees the stock this one has taken
+        try (ProductStockLocks.Held held = stockLocks.lockAll(request.storeType(), productCodes)) {
+            result = unitOfWork.execute(() -> {
+                Bill savedBill = persistCheckout(priced, billDate);
+                CheckoutResult success = priced.toResult(savedBill, billDate);
+                // The key commits together with the bill, or not at all
+                if (idempotencyKey != null) {
+                    storeCheckoutResult(idempotencyKey, success);
+                }
+                return success;
+            });
+        } catch (InsufficientStockException e) {
+            logger.warn("Checkout rolled back: {}", e.getMessage());
+            return CheckoutResult.failure(e.getMessage());
+        }
+
+        logger.info("Checkout complete: Bill {} (ID: {}), Total: {}, Items: {}",
+                result.serialNumber(), result.billId(), priced.total(), priced.itemDetails().size());
+        return result;
+    }
 
-        // Validate basic request
+    private List<String> validateCheckoutRequest(CheckoutRequest request) {
+        List<String> errors = new ArrayList<>();
         if (request.storeType() == null) {
             errors.add("Store type is required");
         }
@@ -526,29 +1075,51 @@ public class BillingServiceImpl implements BillingService {
         }
         if (request.items() == null || request.items().isEmpty()) {
             errors.add("Cart is empty - add items before checkout");
+        } else {
+            // Every line is checked here, so a bad one fails only its own bill in a batch
+            for (ItemRequest item : request.items()) {
+                if (item == null || item.productCode() == null || item.productCode().isBlank()) {
+                    errors.add("Product code is required for every item");
+                } else if (item.quantity() <= 0) {
+                    errors.add("Quantity must be positive for " + item.productCode());
+                }
+            }
         }
         if (request.storeType() == StoreType.ONLINE && request.customerId() == null) {
             errors.add("Customer ID is required for online orders");
         }
+        return errors;
+    }
 
-        if (!errors.isEmpty()) {
-            return CheckoutResult.failure(errors);
+    private static Map<String, Integer> requestedQuantities(CheckoutRequest request) {
+        Map<String, Integer> requested = new LinkedHashMap<>();
+        for (ItemRequest item : request.items()) {
+            requested.merge(item.productCode(), item.quantity(), Integer::sum);
         }
+        return requested;
+    }
 
-        // Use parallel stream for concurrent stock validation
-        List<StockCheckResult> stockResults = request.items().parallelStream()
-                .map(item -> checkStock(item.productCode(), item.quantity(), request.storeType()))
+    /**
+     * Checks a basket against probed stock and works out its totals and change.
+     */
+    private PricedCheckout priceCheckout(CheckoutRequest request, Map<String, StockProbe> probes) {
+        Map<String, Integer> requested = requestedQuantities(request);
+        List<StockCheckResult> stockResults = request.items().stream()
+                .map(item -> toStockCheckResult(item.productCode(), unreserved(request, probes.get(item.productCode())),
+                        item.quantity(), requested.get(item.productCode())))
                 .toList();
 
-        // Collect any stock errors
+        // Collect any stock errors (once per product)
+        List<String> errors = new ArrayList<>();
+        Set<String> reported = new HashSet<>();
         for (StockCheckResult result : stockResults) {
-            if (!result.available()) {
+            if (!result.available() && reported.add(result.productCode())) {
                 errors.add(result.message());
             }
         }
 
         if (!errors.isEmpty()) {
-            return CheckoutResult.failure(errors);
+            return PricedCheckout.failed(CheckoutResult.failure(errors));
         }
 
         // Calculate subtotal from stock results (which have prices)
@@ -559,7 +1130,7 @@ public class BillingServiceImpl implements BillingService {
         // Validate discount
         BigDecimal discount = request.discount() != null ? request.discount() : BigDecimal.ZERO;
         if (discount.compareTo(subtotal) > 0) {
-            return CheckoutResult.failure("Discount cannot exceed subtotal of " + subtotal);
+            return PricedCheckout.failed(CheckoutResult.failure("Discount cannot exceed subtotal of " + subtotal));
         }
 
         BigDecimal tax = BigDecimal.ZERO; // Tax calculation can be added later
@@ -569,8 +1140,8 @@ public class BillingServiceImpl implements BillingService {
         BigDecimal cashTendered = request.cashTendered() != null ? request.cashTendered() : BigDecimal.ZERO;
         if (request.transactionType() == TransactionType.CASH) {
             if (cashTendered.compareTo(total) < 0) {
-                return CheckoutResult
-                        .failure("Insufficient cash tendered. Required: " + total + ", Tendered: " + cashTendered);
+                return PricedCheckout.failed(CheckoutResult
+                        .failure("Insufficient cash tendered. Required: " + total + ", Tendered: " + cashTendered));
             }
         } else {
             // For online/credit, tendered equals total
@@ -579,91 +1150,148 @@ public class BillingServiceImpl implements BillingService {
 
         BigDecimal change = cashTendered.subtract(total);
 
-        // === All validations passed - Create the bill atomically ===
+        // Receipt lines (aggregated by product for display)
+        List<ItemDetail> itemDetails = new ArrayList<>();
+        for (int i = 0; i < request.items().size(); i++) {
+            ItemRequest itemReq = request.items().get(i);
+            StockCheckResult stockResult = stockResults.get(i);
+            BigDecimal lineTotal = stockResult.unitPrice().multiply(BigDecimal.valueOf(itemReq.quantity()));
+            itemDetails.add(new ItemDetail(
+                    stockResult.productName(), // Name only, no code
+                    itemReq.quantity(),
+                    stockResult.unitPrice(),
+                    lineTotal));
+        }
 
-        String serialNumber = generateSerialNumber(request.storeType());
-        LocalDateTime billDate = LocalDateTime.now();
+        return new PricedCheckout(null, request, stockResults, itemDetails,
+                subtotal, discount, tax, total, cashTendered, change);
+    }
+
+    /**
+     * Leaves out of an online probe the stock that other customers' carts hold;
+     * the buyer's own reservation stays available to them.
+     */
+    private StockProbe unreserved(CheckoutRequest request, StockProbe probe) {
+        if (probe == null || cartReservations == null || request.storeType() != StoreType.ONLINE) {
+            return probe;
+        }
+        int held = cartReservations.getReservedByOthers(probe.productCode(), request.customerId());
+        if (held == 0) {
+            return probe;
+        }
+        return new StockProbe(probe.productCode(), probe.productName(), probe.unitPrice(), probe.active(),
+                Math.max(0, probe.availableQuantity() - held));
+    }
 
+    /**
+     * Writes the bill header, its items, the stock deductions and the ledger entries.
+     * Runs inside the checkout unit of work, so a failure at any step leaves no
+     * partial bill behind.
+     */
+    private Bill persistCheckout(PricedCheckout priced, LocalDateTime billDate) {
+        CheckoutRequest request = priced.request();
+
+        // Totals are known up front, so the header is inserted once with its final amounts
+        Bill savedBill = billRepository.save(buildCheckoutBill(priced, billDate));
+
+        // Lines for the same product are allocated together so they never claim the same units
+        List<BatchAllocation> allAllocations = new ArrayList<>();
+        List<BillItem> billItems = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : requestedQuantities(request).entrySet()) {
+            List<BatchAllocation> allocations = storeInventoryService.allocateStockForSale(
+                    entry.getKey(), request.storeType(), entry.getValue());
+            billItems.addAll(buildBillItems(savedBill, priced.stockResultFor(entry.getKey()), allocations));
+            allAllocations.addAll(allocations);
+        }
+
+        billItemRepository.saveAll(billItems);
+
+        if (!storeInventoryService.reduceStoreStock(request.storeType(), allAllocations)) {
+            throw new InsufficientStockException(
+                    "Stock changed during checkout - one or more items are no longer available", 0, 0);
+        }
+
+        List<InventoryTransaction> transactions = new ArrayList<>();
+        for (BillItem billItem : billItems) {
+            transactions.add(createSaleTransaction(savedBill, billItem));
+        }
+        transactionRepository.saveAll(transactions);
+
+        savedBill.setItems(billItems);
+        publishSales(List.of(new BillSale(savedBill, billItems)));
+        return savedBill;
+    }
+
+    private Bill buildCheckoutBill(PricedCheckout priced, LocalDateTime billDate) {
+        CheckoutRequest request = priced.request();
         Bill bill = new Bill();
-        bill.setSerialNumber(new BillSerialNumber(serialNumber));
+        bill.setSerialNumber(new BillSerialNumber(generateSerialNumber(request.storeType())));
         bill.setStoreType(request.storeType());
         bill.setTransactionType(request.transactionType());
         bill.setCustomerId(request.customerId());
         bill.setCashierId(request.cashierId());
         bill.setBillDate(billDate);
-        bill.setTenderedAmount(new Money(cashTendered));
-        bill.setChangeAmount(new Money(change));
-        bill.setDiscountAmount(new Money(discount));
-
-        Bill savedBill = billRepository.save(bill);
-        Integer billId = savedBill.getBillId();
+        bill.setTenderedAmount(new Money(priced.tendered()));
+        bill.setChangeAmount(new Money(priced.change()));
+        bill.setDiscountAmount(new Money(priced.discount()));
+        bill.setSubtotal(new Money(priced.subtotal()));
+        bill.setTaxAmount(new Money(priced.tax()));
+        bill.setTotalAmount(new Money(priced.total()));
+        return bill;
+    }
 
-        // Create bill items and deduct stock
-        List<ItemDetail> itemDetails = new ArrayList<>();
+    /**
+     * Builds one bill item per allocated batch.
+     */
+    private List<BillItem> buildBillItems(Bill bill, StockCheckResult stockResult,
+            List<BatchAllocation> allocations) {
+        List<BillItem> billItems = new ArrayList<>();
+        for (BatchAllocation allocation : allocations) {
+            BillItem billItem = new BillItem();
+            billItem.setBillId(bill.getBillId());
+            billItem.setProductCode(new ProductCode(stockResult.productCode()));
+            billItem.setProductName(stockResult.productName());
+            billItem.setMainInventoryId(allocation.batchId());
+            billItem.setQuantity(allocation.quantity());
+            billItem.setUnitPrice(new Money(stockResult.unitPrice()));
+            billItem.recalculateTotal();
+            billItems.add(billItem);
+        }
+        return billItems;
+    }
 
-        for (int i = 0; i < request.items().size(); i++) {
-            ItemRequest itemReq = request.items().get(i);
-            StockCheckResult stockResult = stockResults.get(i);
+    /**
+     * A basket that passed the stock, discount and payment checks, or the
+     * failure that stopped it.
+     */
+    private record PricedCheckout(
+            CheckoutResult failure,
+            CheckoutRequest request,
+            List<StockCheckResult> stockResults,
+            List<ItemDetail> itemDetails,
+            BigDecimal subtotal,
+            BigDecimal discount,
+            BigDecimal tax,
+            BigDecimal total,
+            BigDecimal tendered,
+            BigDecimal change) {
+
+        static PricedCheckout failed(CheckoutResult failure) {
+            return new PricedCheckout(failure, null, null, null, null, null, null, null, null, null);
+        }
 
-            // Get batch allocations (FIFO)
-            List<BatchAllocation> allocations = storeInventoryService.allocateStockForSale(
-                    itemReq.productCode(), request.storeType(), itemReq.quantity());
-
-            for (BatchAllocation allocation : allocations) {
-                BillItem billItem = new BillItem();
-                billItem.setBillId(billId);
-                billItem.setProductCode(new ProductCode(itemReq.productCode()));
-                billItem.setProductName(stockResult.productName());
-                billItem.setMainInventoryId(allocation.batchId());
-                billItem.setQuantity(allocation.quantity());
-                billItem.setUnitPrice(new Money(stockResult.unitPrice()));
-                billItem.recalculateTotal();
-
-                BillItem savedItem = billItemRepository.save(billItem);
-                savedBill.addItem(savedItem);
-
-                // Deduct stock immediately
-                if (request.storeType() == StoreType.PHYSICAL) {
-                    storeInventoryService.reducePhysicalStoreStock(
-                            itemReq.productCode(), allocation.batchId(), allocation.quantity());
-                } else {
-                    storeInventoryService.reduceOnlineStoreStock(
-                            itemReq.productCode(), allocation.batchId(), allocation.quantity());
+        StockCheckResult stockResultFor(String productCode) {
+            for (StockCheckResult result : stockResults) {
+                if (result.productCode().equals(productCode)) {
+                    return result;
                 }
-
-                // Log transaction
-                logSaleTransaction(savedBill, savedItem);
             }
-
-            // Add to receipt details (aggregate by product for display)
-            BigDecimal lineTotal = stockResult.unitPrice().multiply(BigDecimal.valueOf(itemReq.quantity()));
-            itemDetails.add(new ItemDetail(
-                    stockResult.productName(), // Name only, no code
-                    itemReq.quantity(),
-                    stockResult.unitPrice(),
-                    lineTotal));
+            throw new IllegalStateException("No stock result for " + productCode);
         }
 
-        // Set bill totals explicitly (calculateTotals may not work if items list isn't
-        // in memory)
-        savedBill.setSubtotal(new Money(subtotal));
-        savedBill.setTaxAmount(new Money(tax));
-        savedBill.setTotalAmount(new Money(total));
-        billRepository.save(savedBill);
-
-        logger.info("Checkout complete: Bill {} (ID: {}), Total: {}, Items: {}",
-                serialNumber, billId, total, itemDetails.size());
-
-        return CheckoutResult.success(
-                billId,
-                serialNumber,
-                subtotal,
-                discount,
-                tax,
-                total,
-                cashTendered,
-                change,
-                billDate,
-                itemDetails);
+        CheckoutResult toResult(Bill bill, LocalDateTime billDate) {
+            return CheckoutResult.success(bill.getBillId(), bill.getSerialNumberString(),
+                    subtotal, discount, tax, total, tendered, change, billDate, itemDetails);
+        }
     }
 }
@@ -0,0 +1,200 @@
+package com.syos.service.impl;
+
+import com.syos.config.ThreadPoolConfig;
+import com.syos.domain.enums.StoreType;
+import com.syos.service.impl.ReportCache.ReportType;
+import com.syos.service.interfaces.ReportService;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * ReportService that answers from a {@link ReportCache}, computing misses with
+ * the wrapped service.
+ *
+ * Reports that depend on the current date, such as the dashboard and the
+ * expiry reports, are keyed by it as well, so they are recomputed after
+ * midnight. Bill reports carry every bill of the day with its items and are
+ * passed through uncached.
+ */
+public class CachingReportService implements ReportService {
+
+    private final ReportService delegate;
+    private final ReportCache cache;
+    private final Clock clock;
+
+    public CachingReportService(ReportService delegate, ReportCache cache) {
+        this(delegate, cache, Clock.systemDefaultZone());
+    }
+
+    public CachingReportService(ReportService delegate, ReportCache cache, Clock clock) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.clock = clock;
+    }
+
+    // ==================== Sales Reports ====================
+
+    @Override
+    public List<DailySalesReport> getDailySalesReport(LocalDate startDate, LocalDate endDate) {
+        return cachedList(ReportType.DAILY_SALES, params(startDate, endDate),
+                () -> delegate.getDailySalesReport(startDate, endDate));
+    }
+
+    @Override
+    public List<StoreTypeSalesReport> getSalesByStoreType(LocalDate startDate, LocalDate endDate) {
+        return cachedList(ReportType.SALES_BY_STORE_TYPE, params(startDate, endDate),
+                () -> delegate.getSalesByStoreType(startDate, endDate));
+    }
+
+    @Override
+    public List<ProductSalesReport> getTopSellingProducts(LocalDate startDate, LocalDate endDate, int limit) {
+        return cachedList(ReportType.TOP_PRODUCTS, params(startDate, endDate, limit),
+                () -> delegate.getTopSellingProducts(startDate, endDate, limit));
+    }
+
+    @Override
+    public List<ProductSalesReport> getTopSellingProductsByStoreType(LocalDate startDate, LocalDate endDate, int limit,
+                                                                     StoreType storeType) {
+        return cachedList(ReportType.TOP_PRODUCTS, params(startDate, endDate, limit, storeType),
+                () -> delegate.getTopSellingProductsByStoreType(startDate, endDate, limit, storeType));
+    }
+
+    @Override
+    public SalesSummary getSalesSummary(LocalDate date) {
+        return cache.get(ReportType.SALES_SUMMARY, params(date),
+                () -> delegate.getSalesSummary(date));
+    }
+
+    @Override
+    public SalesSummary getSalesSummaryByStoreType(LocalDate date, StoreType storeType) {
+        return cache.get(ReportType.SALES_SUMMARY, params(date, storeType),
+                () -> delegate.getSalesSummaryByStoreType(date, storeType));
+    }
+
+    @Override
+    public SalesSummary getSalesSummaryForRange(LocalDate startDate, LocalDate endDate) {
+        return cache.get(ReportType.SALES_SUMMARY, params(startDate, endDate),
+                () -> delegate.getSalesSummaryForRange(startDate, endDate));
+    }
+
+    @Override
+    public List<HourlySalesReport> getHourlySalesReport(LocalDate date, StoreType storeType) {
+        return cachedList(ReportType.HOURLY_SALES, params(date, storeType),
+                () -> delegate.getHourlySalesReport(date, storeType));
+    }
+
+    // ==================== Inventory Reports ====================
+
+    @Override
+    public List<StockLevelReport> getCurrentStockLevels(StoreType storeType) {
+        return cachedList(ReportType.STOCK_LEVELS, params(storeType),
+                () -> delegate.getCurrentStockLevels(storeType));
+    }
+
+    @Override
+    public List<LowStockReport> getLowStockReport(StoreType storeType, int threshold) {
+        return cachedList(ReportType.LOW_STOCK, params(storeType, threshold),
+                () -> delegate.getLowStockReport(storeType, threshold));
+    }
+
+    @Override
+    public List<ExpiringStockReport> getExpiringStockReport(int days) {
+        return cachedList(ReportType.EXPIRING_STOCK, params(today(), days),
+                () -> delegate.getExpiringStockReport(days));
+    }
+
+    @Override
+    public List<ExpiringStockReport> getExpiredStockReport() {
+        return cachedList(ReportType.EXPIRED_STOCK, params(today()),
+                delegate::getExpiredStockReport);
+    }
+
+    @Override
+    public List<RestockRecommendation> getRestockRecommendations(StoreType storeType, int daysOfSalesData) {
+        return cachedList(ReportType.RESTOCK_RECOMMENDATIONS, params(today(), storeType, daysOfSalesData),
+                () -> delegate.getRestockRecommendations(storeType, daysOfSalesData));
+    }
+
+    @Override
+    public List<ReshelveReport> getReshelveReport(StoreType storeType) {
+        return cachedList(ReportType.RESHELVE, params(storeType),
+                () -> delegate.getReshelveReport(storeType));
+    }
+
+    @Override
+    public List<ReorderLevelReport> getReorderLevelReport(int threshold) {
+        return cachedList(ReportType.REORDER_LEVEL, params(threshold),
+                () -> delegate.getReorderLevelReport(threshold));
+    }
+
+    @Override
+    public List<BatchStockReport> getBatchStockReport() {
+        return cachedList(ReportType.BATCH_STOCK, params(), delegate::getBatchStockReport);
+    }
+
+    // ==================== Dashboard Reports ====================
+
+    @Override
+    public DashboardSummary getDashboardSummary() {
+        return cache.get(ReportType.DASHBOARD, params(today()), () -> {
+            DashboardSummary summary = delegate.getDashboardSummary();
+            return new DashboardSummary(summary.todaySales(), summary.todayBillCount(),
+                    summary.lowStockProductCount(), summary.expiringProductCount(), summary.weekSales(),
+                    summary.monthSales(), Collections.unmodifiableList(summary.topProducts()));
+        });
+    }
+
+    @Override
+    public BillReport getBillReport(LocalDate date, StoreType storeType) {
+        return delegate.getBillReport(date, storeType);
+    }
+
+    // ==================== Async Operations (using ApiThreadPool)
+    // ====================
+
+    @Override
+    public CompletableFuture<DashboardSummary> getDashboardSummaryAsync() {
+        return CompletableFuture.supplyAsync(this::getDashboardSummary, ThreadPoolConfig.getApiThreadPool());
+    }
+
+    @Override
+    public CompletableFuture<List<DailySalesReport>> getDailySalesReportAsync(LocalDate startDate, LocalDate endDate) {
+        return CompletableFuture.supplyAsync(() -> getDailySalesReport(startDate, endDate),
+                ThreadPoolConfig.getApiThreadPool());
+    }
+
+    @Override
+    public CompletableFuture<List<StockLevelReport>> getCurrentStockLevelsAsync(StoreType storeType) {
+        return CompletableFuture.supplyAsync(() -> getCurrentStockLevels(storeType),
+                ThreadPoolConfig.getApiThreadPool());
+    }
+
+    @Override
+    public CompletableFuture<BillReport> getBillReportAsync(LocalDate date, StoreType storeType) {
+        return delegate.getBillReportAsync(date, storeType);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    // Store types may be null, which List.of rejects
+    private static List<Object> params(Object... values) {
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Caches a list report; callers share the cached list, so it is made read-only.
+     */
+    private <T> List<T> cachedList(ReportType type, List<?> params, Supplier<List<T>> loader) {
+        return cache.get(type, params, () -> Collections.unmodifiableList(loader.get()));
+    }
+}
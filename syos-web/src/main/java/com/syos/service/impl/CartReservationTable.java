@@ -0,0 +1,248 @@
+package com.syos.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Soft reservations of online stock held by carts, per product and customer.
+ *
+ * A reservation is granted only if the quantity fits in the available stock
+ * less what other carts hold, checked and recorded atomically per product, so
+ * carts racing for the last units cannot both win. Reservations live only in
+ * memory: they hold nothing in the database and are released when the cart
+ * changes, when the order is placed (by then the bill has deducted the stock),
+ * or when they reach their TTL.
+ *
+ * The per-customer index of reserved products is updated inside the same
+ * per-product update as the hold itself, so a cart cleared while a reservation
+ * is being made never leaves a hold the index does not know about.
+ *
+ * Expiry uses a hashed timing wheel of fixed ticks. Renewing a reservation adds
+ * a new timer and leaves the old one to be ignored, so {@link #advance()} only
+ * touches the slots of the ticks that passed.
+ */
+public class CartReservationTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartReservationTable.class);
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(15);
+    public static final Duration DEFAULT_TICK = Duration.ofSeconds(10);
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final long tickMillis;
+    private final long ttlTicks;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, ProductHolds> products = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<String>> customerProducts = new ConcurrentHashMap<>();
+    private final List<ConcurrentLinkedQueue<Timer>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private long currentTick;
+
+    public CartReservationTable() {
+        this(DEFAULT_TTL, DEFAULT_TICK, Clock.systemDefaultZone());
+    }
+
+    public CartReservationTable(Duration ttl, Duration tick, Clock clock) {
+        if (tick == null || tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive: " + tick);
+        }
+        if (ttl == null || ttl.compareTo(tick) < 0) {
+            throw new IllegalArgumentException("TTL must be at least one tick: " + ttl);
+        }
+        this.tickMillis = tick.toMillis();
+        this.ttlTicks = ttl.toMillis() / tickMillis;
+        this.clock = clock;
+        this.currentTick = clock.millis() / tickMillis;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Sets a customer's reservation for a product to the given quantity and
+     * restarts its TTL, if the quantity fits in the available stock less what
+     * other customers hold. Otherwise the existing reservation is left as it is.
+     *
+     * @param available the product's available stock, before any reservation
+     * @return true if the reservation was granted
+     */
+    public boolean reserve(Integer customerId, String productCode, int quantity, int available) {
+        long deadline = clock.millis() / tickMillis + ttlTicks;
+        boolean[] granted = new boolean[1];
+        products.compute(productCode, (code, current) -> {
+            ProductHolds holds = current != null ? current : ProductHolds.EMPTY;
+            if (quantity > available - holds.heldByOthers(customerId)) {
+                return current;
+            }
+            granted[0] = true;
+            index(customerId, code);
+            return holds.with(customerId, new Hold(quantity, deadline));
+        });
+        if (granted[0]) {
+            wheel.get((int) (deadline & WHEEL_MASK)).add(new Timer(customerId, productCode, deadline));
+        }
+        return granted[0];
+    }
+
+    /**
+     * Releases a customer's reservation for a product, if any.
+     */
+    public void release(Integer customerId, String productCode) {
+        products.computeIfPresent(productCode, (code, holds) -> {
+            unindex(customerId, code);
+            return holds.without(customerId);
+        });
+    }
+
+    /**
+     * Releases every reservation of a customer.
+     */
+    public void releaseAll(Integer customerId) {
+        Set<String> codes = customerProducts.remove(customerId);
+        if (codes != null) {
+            // A reservation made since the index was removed is indexed again, so unindex it too
+            codes.forEach(code -> products.computeIfPresent(code, (k, holds) -> {
+                unindex(customerId, k);
+                return holds.without(customerId);
+            }));
+        }
+    }
+
+    /**
+     * Gets the quantity of a product held by all carts.
+     */
+    public int getReserved(String productCode) {
+        ProductHolds holds = products.get(productCode);
+        return holds != null ? holds.total() : 0;
+    }
+
+    /**
+     * Gets the quantity of a product held by carts other than the customer's.
+     */
+    public int getReservedByOthers(String productCode, Integer customerId) {
+        ProductHolds holds = products.get(productCode);
+        return holds != null ? holds.heldByOthers(customerId) : 0;
+    }
+
+    /**
+     * Gets the quantity of a product held by the customer's cart.
+     */
+    public int getReservation(Integer customerId, String productCode) {
+        ProductHolds holds = products.get(productCode);
+        Hold hold = holds != null ? holds.holds().get(customerId) : null;
+        return hold != null ? hold.quantity() : 0;
+    }
+
+    /**
+     * Moves the wheel to the current time, releasing the reservations whose TTL
+     * ran out and that were not renewed since.
+     *
+     * @return the number of reservations released
+     */
+    public synchronized int advance() {
+        long now = clock.millis() / tickMillis;
+        int released = 0;
+        // A long pause only needs one turn of the wheel
+        long from = Math.max(currentTick + 1, now - WHEEL_MASK);
+        for (long tick = from; tick <= now; tick++) {
+            ConcurrentLinkedQueue<Timer> slot = wheel.get((int) (tick & WHEEL_MASK));
+            for (Timer timer : slot) {
+                if (timer.deadline() <= now && slot.remove(timer) && expire(timer)) {
+                    released++;
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, now);
+        if (released > 0) {
+            logger.debug("Released {} expired cart reservations", released);
+        }
+        return released;
+    }
+
+    private boolean expire(Timer timer) {
+        boolean[] expired = new boolean[1];
+        products.computeIfPresent(timer.productCode(), (code, holds) -> {
+            Hold hold = holds.holds().get(timer.customerId());
+            if (hold == null || hold.deadline() != timer.deadline()) {
+                // Released or renewed since this timer was set
+                return holds;
+            }
+            expired[0] = true;
+            unindex(timer.customerId(), code);
+            return holds.without(timer.customerId());
+        });
+        return expired[0];
+    }
+
+    // Called only while the product's entry in products is being computed
+    private void index(Integer customerId, String productCode) {
+        customerProducts.compute(customerId, (id, codes) -> {
+            Set<String> updated = codes != null ? codes : new HashSet<>();
+            updated.add(productCode);
+            return updated;
+        });
+    }
+
+    private void unindex(Integer customerId, String productCode) {
+        customerProducts.computeIfPresent(customerId, (id, codes) -> {
+            codes.remove(productCode);
+            return codes.isEmpty() ? null : codes;
+        });
+    }
+
+    /**
+     * A customer's reservation and the tick it expires at.
+     */
+    private record Hold(int quantity, long deadline) {
+    }
+
+    /**
+     * A pending expiry in the wheel.
+     */
+    private record Timer(Integer customerId, String productCode, long deadline) {
+    }
+
+    /**
+     * Immutable reservations of one product with their total; null when none are left.
+     */
+    private record ProductHolds(Map<Integer, Hold> holds, int total) {
+
+        static final ProductHolds EMPTY = new ProductHolds(Map.of(), 0);
+
+        int heldByOthers(Integer customerId) {
+            Hold own = holds.get(customerId);
+            return total - (own != null ? own.quantity() : 0);
+        }
+
+        ProductHolds with(Integer customerId, Hold hold) {
+            Map<Integer, Hold> updated = new HashMap<>(holds);
+            Hold previous = updated.put(customerId, hold);
+            int delta = hold.quantity() - (previous != null ? previous.quantity() : 0);
+            return new ProductHolds(Map.copyOf(updated), total + delta);
+        }
+
+        ProductHolds without(Integer customerId) {
+            Hold previous = holds.get(customerId);
+            if (previous == null) {
+                return this;
+            }
+            if (holds.size() == 1) {
+                return null;
+            }
+            Map<Integer, Hold> updated = new HashMap<>(holds);
+            updated.remove(customerId);
+            return new ProductHolds(Map.copyOf(updated), total - previous.quantity());
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.syos.service.impl;
 
+import com.syos.domain.enums.StoreType;
 import com.syos.domain.models.Cart;
 import com.syos.domain.models.CartItem;
 import com.syos.domain.models.Product;
+import com.syos.exception.InsufficientStockException;
 import com.syos.exception.ProductNotFoundException;
 import com.syos.exception.ValidationException;
 import com.syos.service.interfaces.CartService;
@@ -21,6 +23,9 @@ import java.util.concurrent.ConcurrentHashMap;
  * Implementation of CartService.
  * Uses in-memory storage for cart data (session-based).
  * For production, this should be backed by a database or Redis.
+ *
+ * With a reservation table, every cart holds a soft reservation of the online
+ * stock it contains, so carts cannot collectively claim more than is on sale.
  */
 public class CartServiceImpl implements CartService {
 
@@ -28,14 +33,26 @@ public class CartServiceImpl implements CartService {
 
     private final ProductService productService;
     private final StoreInventoryService storeInventoryService;
+    private final CartReservationTable reservations;
 
     // In-memory cart storage (keyed by customerId)
     // In production, this should be database-backed or use Redis
     private final Map<Integer, Cart> cartStore = new ConcurrentHashMap<>();
 
     public CartServiceImpl(ProductService productService, StoreInventoryService storeInventoryService) {
+        this(productService, storeInventoryService, null);
+    }
+
+    /**
+     * Creates the service with soft stock reservations. Adding or raising an item
+     * fails when the stock not held by other carts is short; a null table turns
+     * reservations off.
+     */
+    public CartServiceImpl(ProductService productService, StoreInventoryService storeInventoryService,
+                           CartReservationTable reservations) {
         this.productService = productService;
         this.storeInventoryService = storeInventoryService;
+        this.reservations = reservations;
     }
 
     @Override
@@ -63,6 +80,8 @@ public class CartServiceImpl implements CartService {
         }
 
         Cart cart = getOrCreateCart(customerId);
+        int inCart = cart.getItem(productCode).map(CartItem::getQuantity).orElse(0);
+        reserve(customerId, productCode, inCart + quantity);
         cart.addItem(product, quantity);
 
         logger.info("Added {} x {} to cart for customer {}",
@@ -80,8 +99,13 @@ public class CartServiceImpl implements CartService {
 
         if (quantity <= 0) {
             cart.removeItem(productCode);
+            releaseReservation(customerId, productCode);
             logger.info("Removed {} from cart for customer {}", productCode, customerId);
         } else {
+            if (!cart.containsProduct(productCode)) {
+                throw new IllegalArgumentException("Product not in cart: " + productCode);
+            }
+            reserve(customerId, productCode, quantity);
             cart.updateItemQuantity(productCode, quantity);
             logger.info("Updated {} quantity to {} for customer {}",
                 productCode, quantity, customerId);
@@ -98,6 +122,7 @@ public class CartServiceImpl implements CartService {
             .orElseThrow(() -> new ValidationException("Cart not found", "customerId"));
 
         cart.removeItem(productCode);
+        releaseReservation(customerId, productCode);
         logger.info("Removed {} from cart for customer {}", productCode, customerId);
 
         return cart;
@@ -107,6 +132,9 @@ public class CartServiceImpl implements CartService {
     public void clearCart(Integer customerId) {
         validateCustomerId(customerId);
 
+        if (reservations != null) {
+            reservations.releaseAll(customerId);
+        }
         Cart cart = cartStore.get(customerId);
         if (cart != null) {
             cart.clear();
@@ -136,8 +164,19 @@ public class CartServiceImpl implements CartService {
         Cart cart = cartOpt.get();
         List<StockIssue> issues = new ArrayList<>();
 
+        List<String> productCodes = cart.getItems().stream().map(CartItem::getProductCodeString).toList();
+        Map<String, Integer> quantities = storeInventoryService.getAvailableQuantities(productCodes, StoreType.ONLINE);
+
         for (CartItem item : cart.getItems()) {
-            int available = storeInventoryService.getOnlineStoreQuantity(item.getProductCodeString());
+            String productCode = item.getProductCodeString();
+            int available = quantities.getOrDefault(productCode, 0);
+            if (reservations != null) {
+                // Renews the cart's reservation, or takes it again if it had expired
+                if (reservations.reserve(customerId, productCode, item.getQuantity(), available)) {
+                    continue;
+                }
+                available = Math.max(0, available - reservations.getReservedByOthers(productCode, customerId));
+            }
             if (available < item.getQuantity()) {
                 issues.add(new StockIssue(
                     item.getProductCodeString(),
@@ -156,6 +195,23 @@ public class CartServiceImpl implements CartService {
         return new StockValidationResult(false, issues);
     }
 
+    private void reserve(Integer customerId, String productCode, int quantity) {
+        if (reservations == null) {
+            return;
+        }
+        int available = storeInventoryService.getAvailableQuantity(productCode, StoreType.ONLINE);
+        if (!reservations.reserve(customerId, productCode, quantity, available)) {
+            int unreserved = Math.max(0, available - reservations.getReservedByOthers(productCode, customerId));
+            throw InsufficientStockException.forProduct(productCode, unreserved, quantity);
+        }
+    }
+
+    private void releaseReservation(Integer customerId, String productCode) {
+        if (reservations != null) {
+            reservations.release(customerId, productCode);
+        }
+    }
+
     private void validateCustomerId(Integer customerId) {
         if (customerId == null) {
             throw new ValidationException("Customer ID is required", "customerId");
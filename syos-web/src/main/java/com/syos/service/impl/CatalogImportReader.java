@@ -0,0 +1,239 @@
+package com.syos.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.syos.exception.ValidationException;
+import com.syos.service.interfaces.CatalogImportService.ImportFormat;
+import com.syos.util.JsonUtil;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an import file one row at a time, so a file of any size is read in
+ * constant memory. Field names are normalized to lower case without dashes,
+ * underscores or spaces, so "sub-category" and "subCategory" are the same field.
+ */
+abstract class CatalogImportReader implements Closeable {
+
+    private long rowNumber;
+
+    static CatalogImportReader open(InputStream input, ImportFormat format) {
+        return format == ImportFormat.CSV ? new CsvReader(input) : new JsonReader(input);
+    }
+
+    /**
+     * Reads the next row, or returns null at the end of the file.
+     *
+     * @throws ValidationException if the file is malformed
+     */
+    RawRow next() {
+        try {
+            Map<String, String> fields = readFields();
+            return fields == null ? null : new RawRow(++rowNumber, fields);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Malformed JSON after row " + rowNumber + ": " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import file", e);
+        }
+    }
+
+    protected abstract Map<String, String> readFields() throws IOException;
+
+    static String normalize(String fieldName) {
+        return fieldName.replaceAll("[-_\\s]", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A row as read from the file, numbered from 1.
+     */
+    record RawRow(long row, Map<String, String> fields) {
+
+        String get(String field) {
+            String value = fields.get(field);
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+
+    /**
+     * Streams the rows of a JSON array, or of the "products" array of a JSON object.
+     */
+    private static final class JsonReader extends CatalogImportReader {
+        private final JsonParser parser;
+        private final Map<String, String> defaults = new HashMap<>();
+        private boolean started;
+        private boolean finished;
+
+        private JsonReader(InputStream input) {
+            try {
+                this.parser = JsonUtil.getMapper().getFactory().createParser(input);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open import file", e);
+            }
+        }
+
+        @Override
+        protected Map<String, String> readFields() throws IOException {
+            if (!started) {
+                started = true;
+                finished = !moveToRows();
+            }
+            if (finished) {
+                return null;
+            }
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY || token == null) {
+                finished = true;
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new ValidationException("Import rows must be JSON objects");
+            }
+            Map<String, String> fields = new HashMap<>(defaults);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = normalize(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (value.isScalarValue()) {
+                    fields.put(name, value == JsonToken.VALUE_NULL ? null : parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return fields;
+        }
+
+        /**
+         * Positions the parser at the start of the row array, collecting the
+         * defaults that precede it. Returns false if the file has no rows.
+         */
+        private boolean moveToRows() throws IOException {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                return true;
+            }
+            if (first != JsonToken.START_OBJECT) {
+                throw new ValidationException("Import file must hold a JSON array or object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = normalize(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if ("products".equals(name) && value == JsonToken.START_ARRAY) {
+                    return true;
+                }
+                if (value.isScalarValue()) {
+                    defaults.put(name, value == JsonToken.VALUE_NULL ? null : parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    /**
+     * Reads CSV with a header row. Quoted values may contain commas, doubled
+     * quotes and line breaks.
+     */
+    private static final class CsvReader extends CatalogImportReader {
+        private final BufferedReader reader;
+        private List<String> header;
+
+        private CsvReader(InputStream input) {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        protected Map<String, String> readFields() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord();
+                if (names == null) {
+                    return null;
+                }
+                header = new ArrayList<>(names.size());
+                for (String name : names) {
+                    header.add(normalize(name));
+                }
+            }
+            List<String> values;
+            do {
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            return fields;
+        }
+
+        private List<String> readRecord() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // A quoted value continues on the next line
+                    line = reader.readLine();
+                    if (line == null) {
+                        throw new ValidationException("Unterminated quoted value in CSV file");
+                    }
+                    value.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            values.add(value.toString());
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package com.syos.service.impl;
+
+import com.syos.domain.enums.UnitOfMeasure;
+import com.syos.domain.models.Brand;
+import com.syos.domain.models.Category;
+import com.syos.domain.models.MainInventory;
+import com.syos.domain.models.Product;
+import com.syos.domain.models.Subcategory;
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.ProductCode;
+import com.syos.exception.BusinessRuleException;
+import com.syos.exception.RepositoryException;
+import com.syos.exception.ValidationException;
+import com.syos.repository.interfaces.BrandRepository;
+import com.syos.repository.interfaces.CategoryRepository;
+import com.syos.repository.interfaces.MainInventoryRepository;
+import com.syos.repository.interfaces.ProductRepository;
+import com.syos.repository.interfaces.SubcategoryRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.impl.CatalogImportReader.RawRow;
+import com.syos.service.interfaces.CatalogImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of CatalogImportService.
+ *
+ * The file is read as a stream and handled one chunk of rows at a time: the
+ * chunk's rows are validated in parallel, the product codes they mention are
+ * checked in one query, new codes are handed out from a block per code prefix,
+ * and the chunk's products and batches are written as two JDBC batches in one
+ * transaction. Memory use follows the chunk size, not the file size.
+ */
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportServiceImpl.class);
+
+    static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_CODE_SEQUENCE = 999;
+    private static final int MAX_PRODUCT_NAME_LENGTH = 200;
+
+    private final ProductRepository productRepository;
+    private final MainInventoryRepository mainInventoryRepository;
+    private final CategoryRepository categoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final BrandRepository brandRepository;
+    private final BatchExpiryScheduler expiryScheduler;
+    private final UnitOfWork unitOfWork;
+    private final ForkJoinPool validationPool;
+    private final int chunkSize;
+    private final Clock clock;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile ImportReport progress;
+
+    public CatalogImportServiceImpl(ProductRepository productRepository,
+                                    MainInventoryRepository mainInventoryRepository,
+                                    CategoryRepository categoryRepository,
+                                    SubcategoryRepository subcategoryRepository,
+                                    BrandRepository brandRepository,
+                                    BatchExpiryScheduler expiryScheduler,
+                                    UnitOfWork unitOfWork,
+                                    ForkJoinPool validationPool,
+                                    int chunkSize) {
+        this(productRepository, mainInventoryRepository, categoryRepository, subcategoryRepository,
+                brandRepository, expiryScheduler, unitOfWork, validationPool, chunkSize, Clock.systemDefaultZone());
+    }
+
+    public CatalogImportServiceImpl(ProductRepository productRepository,
+                                    MainInventoryRepository mainInventoryRepository,
+                                    CategoryRepository categoryRepository,
+                                    SubcategoryRepository subcategoryRepository,
+                                    BrandRepository brandRepository,
+                                    BatchExpiryScheduler expiryScheduler,
+                                    UnitOfWork unitOfWork,
+                                    ForkJoinPool validationPool,
+                                    int chunkSize,
+                                    Clock clock) {
+        this.productRepository = productRepository;
+        this.mainInventoryRepository = mainInventoryRepository;
+        this.categoryRepository = categoryRepository;
+        this.subcategoryRepository = subcategoryRepository;
+        this.brandRepository = brandRepository;
+        this.expiryScheduler = expiryScheduler;
+        this.unitOfWork = unitOfWork != null ? unitOfWork : UnitOfWork.AUTO_COMMIT;
+        this.validationPool = validationPool;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.clock = clock;
+    }
+
+    @Override
+    public ImportReport importCatalog(InputStream input, ImportFormat format, ImportOptions options) {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessRuleException("A catalog import is already running");
+        }
+        ImportRun run = new ImportRun(format, options, new Catalog(), LocalDateTime.now(clock));
+        progress = run.report(false);
+        logger.info("Catalog import started ({}{})", format, options.dryRun() ? ", dry run" : "");
+        try (CatalogImportReader reader = CatalogImportReader.open(input, format)) {
+            List<RawRow> chunk = new ArrayList<>(chunkSize);
+            RawRow row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(run, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(run, chunk);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close import file: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            progress = run.report(false);
+            throw e;
+        } finally {
+            running.set(false);
+        }
+
+        ImportReport report = run.report(true);
+        progress = report;
+        logger.info("Catalog import finished: {} rows read, {} imported, {} rejected, {} products and {} batches created",
+                report.rowsRead(), report.rowsImported(), report.rowsRejected(),
+                report.productsCreated(), report.batchesCreated());
+        return report;
+    }
+
+    @Override
+    public Optional<ImportReport> getProgress() {
+        return Optional.ofNullable(progress);
+    }
+
+    private void importChunk(ImportRun run, List<RawRow> rows) {
+        run.chunks++;
+        run.rowsRead += rows.size();
+
+        // Validation only reads the reference data, so the rows can be checked in parallel
+        List<Candidate> candidates = validationPool.submit(
+                () -> rows.parallelStream().map(row -> validate(row, run)).toList()).join();
+
+        Set<String> unknownCodes = new LinkedHashSet<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.error() == null && candidate.productCode() != null
+                    && !run.knownCodes.contains(candidate.productCode())) {
+                unknownCodes.add(candidate.productCode());
+            }
+        }
+        run.knownCodes.addAll(productRepository.findExistingProductCodes(unknownCodes));
+
+        List<Product> products = new ArrayList<>();
+        List<MainInventory> batches = new ArrayList<>();
+        List<Candidate> accepted = new ArrayList<>();
+        Set<String> chunkCodes = new HashSet<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.error() != null) {
+                run.reject(candidate.row(), candidate.error());
+                continue;
+            }
+            String productCode = candidate.productCode();
+            boolean exists = productCode != null && run.knownCodes.contains(productCode);
+            if (!exists) {
+                if (candidate.product() == null) {
+                    run.reject(candidate.row(), candidate.productError());
+                    continue;
+                }
+                if (productCode == null) {
+                    productCode = run.allocateCode(candidate.codePrefix());
+                    if (productCode == null) {
+                        run.reject(candidate.row(), "No product codes left for prefix " + candidate.codePrefix());
+                        continue;
+                    }
+                }
+                candidate.product().setProductCode(new ProductCode(productCode));
+                products.add(candidate.product());
+                run.knownCodes.add(productCode);
+                chunkCodes.add(productCode);
+            } else if (candidate.batch() == null) {
+                run.reject(candidate.row(), "Product " + productCode + " already exists and the row has no quantity");
+                continue;
+            }
+            if (candidate.batch() != null) {
+                candidate.batch().setProductCode(new ProductCode(productCode));
+                batches.add(candidate.batch());
+            }
+            accepted.add(candidate);
+        }
+
+        if (!run.options.dryRun() && !accepted.isEmpty()) {
+            try {
+                unitOfWork.run(() -> {
+                    productRepository.insertAll(products);
+                    List<MainInventory> saved = mainInventoryRepository.insertAll(batches);
+                    if (expiryScheduler != null) {
+                        unitOfWork.afterCommit(() -> saved.forEach(expiryScheduler::track));
+                    }
+                });
+            } catch (RepositoryException e) {
+                logger.error("Catalog import chunk {} failed: {}", run.chunks, e.getMessage());
+                // Codes handed out for this chunk may now be taken; read the sequences again
+                run.knownCodes.removeAll(chunkCodes);
+                run.lastSequences.clear();
+                for (Candidate candidate : accepted) {
+                    run.reject(candidate.row(), "Chunk failed: " + e.getMessage());
+                }
+                progress = run.report(false);
+                return;
+            }
+        }
+        run.rowsImported += accepted.size();
+        run.productsCreated += products.size();
+        run.batchesCreated += batches.size();
+        progress = run.report(false);
+        logger.info("Catalog import chunk {}: {} rows read, {} imported, {} rejected",
+                run.chunks, run.rowsRead, run.rowsImported, run.rowsRejected);
+    }
+
+    /**
+     * Checks one row against the reference data, without touching the database.
+     */
+    private Candidate validate(RawRow row, ImportRun run) {
+        try {
+            String productCode = row.get("productcode");
+            if (productCode != null) {
+                productCode = new ProductCode(productCode).getCode();
+            }
+            BigDecimal price = parseAmount(row, "price");
+            int quantity = parseQuantity(row);
+
+            // The product fields only matter if the product does not exist yet
+            Product product = null;
+            String codePrefix = null;
+            String productError = null;
+            try {
+                product = buildProduct(row, price, run);
+                codePrefix = run.catalog.codePrefix(product);
+                if (productCode == null && codePrefix.length() + 3 > 15) {
+                    throw new ValidationException("Generated product code would be too long for " + codePrefix);
+                }
+            } catch (ValidationException e) {
+                product = null;
+                productError = e.getMessage();
+                if (productCode == null) {
+                    return Candidate.rejected(row.row(), productError);
+                }
+            }
+
+            MainInventory batch = quantity > 0 ? buildBatch(row, quantity, price) : null;
+            return new Candidate(row.row(), productCode, product, codePrefix, productError, batch, null);
+        } catch (ValidationException | IllegalArgumentException e) {
+            return Candidate.rejected(row.row(), e.getMessage());
+        }
+    }
+
+    private Product buildProduct(RawRow row, BigDecimal price, ImportRun run) {
+        String name = row.get("name");
+        if (name == null) {
+            name = row.get("productname");
+        }
+        if (name == null) {
+            throw new ValidationException("Product name is required");
+        }
+        if (name.length() > MAX_PRODUCT_NAME_LENGTH) {
+            throw new ValidationException("Product name is longer than " + MAX_PRODUCT_NAME_LENGTH + " characters");
+        }
+        if (price == null) {
+            throw new ValidationException("Price is required");
+        }
+        Category category = run.catalog.category(row.get("category"));
+        Subcategory subcategory = run.catalog.subcategory(category, row.get("subcategory"));
+        String brandName = row.get("brand");
+        Brand brand = run.catalog.brand(brandName != null ? brandName : run.options.defaultBrand());
+
+        Product product = new Product(null, name, category.getCategoryId(), subcategory.getSubcategoryId(),
+                brand.getBrandId(), new Money(price));
+        product.setDescription(row.get("description"));
+        product.setUnitOfMeasure(UnitOfMeasure.fromString(row.get("unit")));
+        return product;
+    }
+
+    private MainInventory buildBatch(RawRow row, int quantity, BigDecimal price) {
+        BigDecimal purchasePrice = parseAmount(row, "purchaseprice");
+        if (purchasePrice == null) {
+            purchasePrice = price;
+        }
+        if (purchasePrice == null) {
+            throw new ValidationException("Purchase price is required to add stock");
+        }
+        LocalDate purchaseDate = parseDate(row, "purchasedate");
+        if (purchaseDate == null) {
+            purchaseDate = LocalDate.now(clock);
+        }
+        LocalDate expiryDate = parseDate(row, "expirydate");
+        if (expiryDate != null && expiryDate.isBefore(purchaseDate)) {
+            throw new ValidationException("Expiry date cannot be before purchase date");
+        }
+
+        MainInventory batch = new MainInventory();
+        batch.setQuantityReceived(quantity);
+        batch.setRemainingQuantity(quantity);
+        batch.setPurchasePrice(new Money(purchasePrice));
+        batch.setPurchaseDate(purchaseDate);
+        batch.setExpiryDate(expiryDate);
+        batch.setSupplierName(row.get("supplier"));
+        return batch;
+    }
+
+    private static BigDecimal parseAmount(RawRow row, String field) {
+        String value = row.get(field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            BigDecimal amount = new BigDecimal(value.replace(",", ""));
+            if (amount.signum() < 0) {
+                throw new ValidationException(field + " must be non-negative");
+            }
+            return amount;
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static int parseQuantity(RawRow row) {
+        String value = row.get("quantity");
+        if (value == null) {
+            return 0;
+        }
+        try {
+            int quantity = Integer.parseInt(value);
+            if (quantity < 0) {
+                throw new ValidationException("Quantity must be non-negative");
+            }
+            return quantity;
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid quantity: " + value);
+        }
+    }
+
+    private static LocalDate parseDate(RawRow row, String field) {
+        String value = row.get(field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid " + field + " (expected yyyy-MM-dd): " + value);
+        }
+    }
+
+    /**
+     * A validated row. A row that names an existing product may carry a
+     * product error, which only matters if the product turns out to be new.
+     */
+    private record Candidate(
+            long row,
+            String productCode,
+            Product product,
+            String codePrefix,
+            String productError,
+            MainInventory batch,
+            String error) {
+
+        static Candidate rejected(long row, String error) {
+            return new Candidate(row, null, null, null, null, null, error);
+        }
+    }
+
+    /**
+     * Categories, subcategories and brands, looked up by code or name.
+     */
+    private final class Catalog {
+        private final Map<String, Category> categories = new HashMap<>();
+        private final Map<String, Subcategory> subcategories = new HashMap<>();
+        private final Map<String, Brand> brands = new HashMap<>();
+        private final Map<Integer, Category> categoriesById = new HashMap<>();
+        private final Map<Integer, Subcategory> subcategoriesById = new HashMap<>();
+        private final Map<Integer, Brand> brandsById = new HashMap<>();
+
+        private Catalog() {
+            for (Category category : categoryRepository.findAll()) {
+                categories.put(key(category.getCategoryCode()), category);
+                categories.putIfAbsent(key(category.getCategoryName()), category);
+                categoriesById.put(category.getCategoryId(), category);
+            }
+            for (Subcategory subcategory : subcategoryRepository.findAll()) {
+                subcategories.put(subcategory.getCategoryId() + ":" + key(subcategory.getSubcategoryCode()), subcategory);
+                subcategories.putIfAbsent(subcategory.getCategoryId() + ":" + key(subcategory.getSubcategoryName()),
+                        subcategory);
+                subcategoriesById.put(subcategory.getSubcategoryId(), subcategory);
+            }
+            for (Brand brand : brandRepository.findAll()) {
+                brands.put(key(brand.getBrandCode()), brand);
+                brands.putIfAbsent(key(brand.getBrandName()), brand);
+                brandsById.put(brand.getBrandId(), brand);
+            }
+        }
+
+        private Category category(String value) {
+            Category category = value == null ? null : categories.get(key(value));
+            if (category == null) {
+                throw new ValidationException(value == null ? "Category is required" : "Unknown category: " + value);
+            }
+            return category;
+        }
+
+        private Subcategory subcategory(Category category, String value) {
+            Subcategory subcategory = value == null ? null
+                    : subcategories.get(category.getCategoryId() + ":" + key(value));
+            if (subcategory == null) {
+                throw new ValidationException(value == null ? "Subcategory is required"
+                        : "Unknown subcategory of " + category.getCategoryName() + ": " + value);
+            }
+            return subcategory;
+        }
+
+        private Brand brand(String value) {
+            Brand brand = value == null ? null : brands.get(key(value));
+            if (brand == null) {
+                throw new ValidationException(value == null ? "Brand is required" : "Unknown brand: " + value);
+            }
+            return brand;
+        }
+
+        /**
+         * Prefix of generated codes, built exactly as GenerateProductCode builds it:
+         * the category, subcategory and brand codes as stored.
+         */
+        private String codePrefix(Product product) {
+            return categoriesById.get(product.getCategoryId()).getCategoryCode()
+                    + subcategoriesById.get(product.getSubcategoryId()).getSubcategoryCode()
+                    + brandsById.get(product.getBrandId()).getBrandCode();
+        }
+
+        private static String key(String value) {
+            return value == null ? "" : value.trim().toLowerCase();
+        }
+    }
+
+    /**
+     * State of one import. Only the importing thread changes it.
+     */
+    private final class ImportRun {
+        private final ImportFormat format;
+        private final ImportOptions options;
+        private final Catalog catalog;
+        private final LocalDateTime startedAt;
+        private final Set<String> knownCodes = new HashSet<>();
+        private final Map<String, Integer> lastSequences = new HashMap<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private int chunks;
+        private long rowsRead;
+        private long rowsImported;
+        private long rowsRejected;
+        private long productsCreated;
+        private long batchesCreated;
+
+        private ImportRun(ImportFormat format, ImportOptions options, Catalog catalog, LocalDateTime startedAt) {
+            this.format = format;
+            this.options = options;
+            this.catalog = catalog;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Hands out the next code for a prefix. The last sequence in use is read
+         * once per prefix; later codes are counted on from it in memory.
+         */
+        private String allocateCode(String prefix) {
+            int next = lastSequences.computeIfAbsent(prefix, productRepository::findLastCodeSequence) + 1;
+            if (next > MAX_CODE_SEQUENCE) {
+                return null;
+            }
+            lastSequences.put(prefix, next);
+            return prefix + String.format("%03d", next);
+        }
+
+        private void reject(long row, String message) {
+            rowsRejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+
+        private ImportReport report(boolean complete) {
+            return new ImportReport(startedAt, complete ? LocalDateTime.now(clock) : null, format,
+                    options.dryRun(), chunks, rowsRead, rowsImported, rowsRejected, productsCreated,
+                    batchesCreated, List.copyOf(errors), complete);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.syos.service.impl;
+
+import com.syos.service.interfaces.BillingService.CheckoutRequest;
+import com.syos.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of checkouts taken while the database was unreachable.
+ *
+ * Each record is framed as a length, a CRC32 and the entry as JSON, written
+ * through a {@link FileChannel}. {@link #append} returns only once the record
+ * is on disk; appends that arrive while another thread is syncing are covered
+ * by the next single {@code force}, so a burst of offline sales costs a few
+ * syncs rather than one each. A torn record left by a crash is cut off when
+ * the journal is opened.
+ *
+ * Replayed entries are not rewritten out of the file: the offset of the first
+ * entry still to replay is kept in a checkpoint file next to the journal, so
+ * {@link #discard} costs one small write. The journal is truncated once
+ * everything in it has been replayed.
+ */
+public class CheckoutJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutJournal.class);
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private final Path file;
+    private final Path checkpointFile;
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+    private final Deque<Long> recordEnds = new ArrayDeque<>();
+    private long replayPosition;
+    private long writtenPosition;
+    private volatile long syncedPosition;
+    private volatile int size;
+    private long nextSequence;
+
+    public CheckoutJournal(Path file) throws IOException {
+        this.file = file;
+        this.checkpointFile = file.resolveSibling(file.getFileName() + ".checkpoint");
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        open();
+    }
+
+    /**
+     * Appends a checkout and waits until it is durable.
+     */
+    public Entry append(String idempotencyKey, CheckoutRequest request, LocalDateTime queuedAt) {
+        Entry entry;
+        long end;
+        synchronized (writeLock) {
+            entry = new Entry(nextSequence++, idempotencyKey, queuedAt, request);
+            ByteBuffer record = encode(entry);
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to append to checkout journal " + file, e);
+            }
+            writtenPosition += record.limit();
+            end = writtenPosition;
+            recordEnds.addLast(end);
+            size++;
+        }
+        sync(end);
+        return entry;
+    }
+
+    /**
+     * Reads every entry still in the journal, oldest first.
+     */
+    public List<Entry> readAll() {
+        synchronized (writeLock) {
+            try {
+                ByteBuffer content = ByteBuffer.allocate(Math.toIntExact(writtenPosition - replayPosition));
+                while (content.hasRemaining()) {
+                    if (channel.read(content, replayPosition + content.position()) < 0) {
+                        break;
+                    }
+                }
+                content.flip();
+                return scan(content).entries;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read checkout journal " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest entries once they have been replayed. Entries appended
+     * after the caller's read are kept.
+     */
+    public void discard(int count) {
+        if (count <= 0) {
+            return;
+        }
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                try {
+                    for (int i = 0; i < count && !recordEnds.isEmpty(); i++) {
+                        replayPosition = recordEnds.pollFirst();
+                        size--;
+                    }
+                    if (recordEnds.isEmpty()) {
+                        // Fully drained: start the journal over
+                        channel.truncate(0);
+                        channel.position(0);
+                        channel.force(true);
+                        Files.deleteIfExists(checkpointFile);
+                        replayPosition = 0;
+                        writtenPosition = 0;
+                        syncedPosition = 0;
+                    } else {
+                        writeCheckpoint(replayPosition);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to checkpoint checkout journal " + file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries waiting to be replayed.
+     */
+    public int size() {
+        return size;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            channel.close();
+        }
+    }
+
+    private void sync(long end) {
+        synchronized (syncLock) {
+            if (syncedPosition >= end) {
+                // Another thread's force already covered this record
+                return;
+            }
+            long target;
+            synchronized (writeLock) {
+                target = writtenPosition;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to sync checkout journal " + file, e);
+            }
+            syncedPosition = target;
+        }
+    }
+
+    private void open() throws IOException {
+        byte[] content = Files.exists(file) ? Files.readAllBytes(file) : new byte[0];
+        long checkpoint = readCheckpoint();
+        if (checkpoint > content.length) {
+            // The journal was truncated after a full drain but the checkpoint was not removed
+            checkpoint = content.length;
+        }
+        Scan scan = scan(ByteBuffer.wrap(content, (int) checkpoint, content.length - (int) checkpoint));
+        long validBytes = checkpoint + scan.validBytes;
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (validBytes < content.length) {
+            logger.warn("Checkout journal {} has a torn record at byte {}; truncating {} bytes",
+                    file, validBytes, content.length - validBytes);
+            channel.truncate(validBytes);
+            channel.force(true);
+        }
+        channel.position(validBytes);
+
+        recordEnds.clear();
+        for (int end : scan.recordEnds) {
+            recordEnds.addLast(checkpoint + end);
+        }
+        replayPosition = checkpoint;
+        writtenPosition = validBytes;
+        syncedPosition = validBytes;
+        size = scan.entries.size();
+        nextSequence = scan.entries.isEmpty() ? 1 : scan.entries.get(scan.entries.size() - 1).sequence() + 1;
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(checkpointFile);
+        if (bytes.length != Long.BYTES) {
+            logger.warn("Ignoring unreadable checkout journal checkpoint {}", checkpointFile);
+            return 0;
+        }
+        return Math.max(0, ByteBuffer.wrap(bytes).getLong());
+    }
+
+    private void writeCheckpoint(long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(position).flip();
+        try (FileChannel out = FileChannel.open(checkpointFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer, buffer.position());
+            }
+            out.force(false);
+        }
+    }
+
+    private static ByteBuffer encode(Entry entry) {
+        byte[] payload = JsonUtil.toJsonCompact(entry).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putInt(checksum(payload));
+        record.put(payload);
+        record.flip();
+        return record;
+    }
+
+    private static Scan scan(ByteBuffer content) {
+        ByteBuffer buffer = content.slice();
+        List<Entry> entries = new ArrayList<>();
+        List<Integer> recordEnds = new ArrayList<>();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (checksum(payload) != crc) {
+                buffer.position(start);
+                break;
+            }
+            entries.add(JsonUtil.fromJson(new String(payload, StandardCharsets.UTF_8), Entry.class));
+            recordEnds.add(buffer.position());
+        }
+        return new Scan(entries, recordEnds, buffer.position());
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A journaled checkout.
+     */
+    public record Entry(long sequence, String idempotencyKey, LocalDateTime queuedAt, CheckoutRequest request) {
+    }
+
+    private record Scan(List<Entry> entries, List<Integer> recordEnds, int validBytes) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.syos.service.impl;
+
+import com.syos.service.interfaces.BillingService.CheckoutResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded cache of checkout results by idempotency key.
+ *
+ * Entries expire a fixed time after they are stored, and the least recently
+ * used entry is dropped once the cache is full. The checkout_idempotency table
+ * holds the same results, so a dropped entry is still found on a retry.
+ */
+public class CheckoutResultCache {
+
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+    private final int maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public CheckoutResultCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL, Clock.systemDefaultZone());
+    }
+
+    public CheckoutResultCache(int maxSize, Duration ttl, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive: " + ttl);
+        }
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the result stored for a key, or null when absent or expired.
+     */
+    public synchronized CheckoutResult get(String idempotencyKey) {
+        Entry entry = entries.get(idempotencyKey);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.expiresAt.isAfter(clock.instant())) {
+            entries.remove(idempotencyKey);
+            return null;
+        }
+        return entry.result;
+    }
+
+    /**
+     * Stores a result for a key, dropping the least recently used entry when full.
+     */
+    public synchronized void put(String idempotencyKey, CheckoutResult result) {
+        entries.put(idempotencyKey, new Entry(result, clock.instant().plus(ttl)));
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Gets how long a stored result stays valid.
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(CheckoutResult result, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,286 @@
+package com.syos.service.impl;
+
+import com.syos.domain.enums.InventoryTransactionType;
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.InventoryTransaction;
+import com.syos.domain.valueobjects.BatchQuantity;
+import com.syos.domain.valueobjects.ProductCode;
+import com.syos.exception.InsufficientStockException;
+import com.syos.repository.interfaces.InventoryTransactionRepository;
+import com.syos.repository.interfaces.MainInventoryRepository;
+import com.syos.repository.interfaces.MainInventoryRepository.ExpiredStock;
+import com.syos.repository.interfaces.OnlineStoreInventoryRepository;
+import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.interfaces.ExpiredStockWriteOffService;
+import com.syos.service.interfaces.StockAlertService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of ExpiredStockWriteOffService.
+ *
+ * Each chunk zeroes the shelves before main inventory, the same lock order as
+ * a restock. The quantities to remove are read just before the chunk's
+ * transaction; if a sale or restock changed one of them meanwhile the chunk
+ * rolls back and is read again. After commit, the in-memory store stock views
+ * and the expiry scheduler are told about the removed stock.
+ */
+public class ExpiredStockWriteOffServiceImpl implements ExpiredStockWriteOffService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredStockWriteOffServiceImpl.class);
+
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+    private static final String REMARKS = "Written off after expiry";
+
+    private final MainInventoryRepository mainInventoryRepository;
+    private final PhysicalStoreInventoryRepository physicalStoreRepository;
+    private final OnlineStoreInventoryRepository onlineStoreRepository;
+    private final InventoryTransactionRepository transactionRepository;
+    private final StoreBatchIndex batchIndex;
+    private final StoreStockSummaryMirror summaryMirror;
+    private final StockAlertService stockAlertService;
+    private final BatchExpiryScheduler expiryScheduler;
+    private final ReportCache reportCache;
+    private final UnitOfWork unitOfWork;
+    private final int chunkSize;
+    private final Clock clock;
+
+    private volatile WriteOffReport lastReport;
+    // Where an interrupted run stopped, so the next run with the same cut-off continues from there
+    private LocalDate resumeExpiredBefore;
+    private int resumeAfterBatchId;
+
+    /**
+     * Creates the service with the in-memory views and the report cache to bring
+     * up to date after each chunk commits; any of them may be null.
+     */
+    public ExpiredStockWriteOffServiceImpl(MainInventoryRepository mainInventoryRepository,
+                                           PhysicalStoreInventoryRepository physicalStoreRepository,
+                                           OnlineStoreInventoryRepository onlineStoreRepository,
+                                           InventoryTransactionRepository transactionRepository,
+                                           StoreBatchIndex batchIndex,
+                                           StoreStockSummaryMirror summaryMirror,
+                                           StockAlertService stockAlertService,
+                                           BatchExpiryScheduler expiryScheduler,
+                                           ReportCache reportCache,
+                                           UnitOfWork unitOfWork,
+                                           int chunkSize,
+                                           Clock clock) {
+        this.mainInventoryRepository = mainInventoryRepository;
+        this.physicalStoreRepository = physicalStoreRepository;
+        this.onlineStoreRepository = onlineStoreRepository;
+        this.transactionRepository = transactionRepository;
+        this.batchIndex = batchIndex;
+        this.summaryMirror = summaryMirror;
+        this.stockAlertService = stockAlertService;
+        this.expiryScheduler = expiryScheduler;
+        this.reportCache = reportCache;
+        this.unitOfWork = unitOfWork;
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized WriteOffReport writeOff(boolean dryRun) {
+        LocalDate expiredBefore = LocalDate.now(clock);
+        int afterBatchId = !dryRun && expiredBefore.equals(resumeExpiredBefore) ? resumeAfterBatchId : 0;
+        if (afterBatchId > 0) {
+            logger.info("Resuming expired stock write-off after batch {}", afterBatchId);
+        }
+
+        Progress progress = new Progress(afterBatchId);
+        try {
+            while (true) {
+                List<ExpiredStock> chunk = readChunk(expiredBefore, progress.lastBatchId);
+                if (chunk.isEmpty()) {
+                    progress.complete = true;
+                    break;
+                }
+                if (!dryRun) {
+                    chunk = writeOffChunk(expiredBefore, progress.lastBatchId, chunk);
+                }
+                progress.add(chunk);
+                progress.lastBatchId = chunk.get(chunk.size() - 1).batchId();
+                if (!dryRun) {
+                    resumeExpiredBefore = expiredBefore;
+                    resumeAfterBatchId = progress.lastBatchId;
+                }
+            }
+        } finally {
+            if (progress.complete && !dryRun) {
+                resumeExpiredBefore = null;
+                resumeAfterBatchId = 0;
+            }
+            lastReport = progress.toReport(expiredBefore, dryRun);
+        }
+
+        logger.info("Expired stock write-off{}: {} batches in {} chunks, quantity {} (main {}, physical {}, "
+                + "online {}), {} skipped", dryRun ? " (dry run)" : "", lastReport.batches(), lastReport.chunks(),
+                lastReport.totalQuantity(), lastReport.mainQuantity(), lastReport.physicalQuantity(),
+                lastReport.onlineQuantity(), lastReport.skippedBatches());
+        return lastReport;
+    }
+
+    @Override
+    public Optional<WriteOffReport> getLastReport() {
+        return Optional.ofNullable(lastReport);
+    }
+
+    private List<ExpiredStock> readChunk(LocalDate expiredBefore, int afterBatchId) {
+        return unitOfWork.suspend(() -> mainInventoryRepository.findExpiredStock(expiredBefore, afterBatchId,
+                chunkSize));
+    }
+
+    /**
+     * Writes off one chunk, reading it again if its quantities changed before
+     * the transaction took its locks. Returns the batches written off; a chunk
+     * that keeps conflicting is skipped and left for the next run.
+     */
+    private List<ExpiredStock> writeOffChunk(LocalDate expiredBefore, int afterBatchId, List<ExpiredStock> chunk) {
+        for (int attempt = 1;; attempt++) {
+            List<ExpiredStock> current = chunk;
+            try {
+                unitOfWork.run(() -> applyChunk(current));
+                return current;
+            } catch (InsufficientStockException e) {
+                if (attempt == MAX_CHUNK_ATTEMPTS) {
+                    logger.warn("Skipping {} expired batches after batch {}: stock kept changing ({})",
+                            current.size(), afterBatchId, e.getMessage());
+                    return skipped(current);
+                }
+                logger.debug("Expired stock changed during write-off, reading chunk again: {}", e.getMessage());
+                chunk = readChunk(expiredBefore, afterBatchId);
+                if (chunk.isEmpty()) {
+                    return skipped(current);
+                }
+            }
+        }
+    }
+
+    private void applyChunk(List<ExpiredStock> chunk) {
+        List<BatchQuantity> physical = new ArrayList<>();
+        List<BatchQuantity> online = new ArrayList<>();
+        List<BatchQuantity> main = new ArrayList<>();
+        List<InventoryTransaction> transactions = new ArrayList<>();
+        for (ExpiredStock stock : chunk) {
+            if (stock.physicalQuantity() > 0) {
+                physical.add(new BatchQuantity(stock.productCode(), stock.batchId(), stock.physicalQuantity()));
+                transactions.add(newTransaction(stock, StoreType.PHYSICAL, stock.physicalQuantity()));
+            }
+            if (stock.onlineQuantity() > 0) {
+                online.add(new BatchQuantity(stock.productCode(), stock.batchId(), stock.onlineQuantity()));
+                transactions.add(newTransaction(stock, StoreType.ONLINE, stock.onlineQuantity()));
+            }
+            if (stock.mainQuantity() > 0) {
+                main.add(new BatchQuantity(stock.productCode(), stock.batchId(), stock.mainQuantity()));
+                transactions.add(newTransaction(stock, null, stock.mainQuantity()));
+            }
+        }
+
+        if (!physical.isEmpty() && !physicalStoreRepository.reduceQuantities(physical)) {
+            throw conflict(physical);
+        }
+        if (!online.isEmpty() && !onlineStoreRepository.reduceQuantities(online)) {
+            throw conflict(online);
+        }
+        if (!main.isEmpty() && !mainInventoryRepository.reduceQuantities(main)) {
+            throw conflict(main);
+        }
+        transactionRepository.saveAll(transactions);
+
+        publishStockChange(StoreType.PHYSICAL, physical);
+        publishStockChange(StoreType.ONLINE, online);
+        if (expiryScheduler != null && !main.isEmpty()) {
+            unitOfWork.afterCommit(() -> main.forEach(move -> expiryScheduler.reduced(move.batchId(), move.quantity())));
+        }
+        if (reportCache != null) {
+            unitOfWork.afterCommit(reportCache::stockChanged);
+        }
+    }
+
+    private void publishStockChange(StoreType storeType, List<BatchQuantity> reductions) {
+        if (reductions.isEmpty()) {
+            return;
+        }
+        List<String> productCodes = reductions.stream().map(BatchQuantity::productCode).distinct().toList();
+        if (batchIndex != null) {
+            unitOfWork.afterCommit(() -> productCodes.forEach(code -> batchIndex.invalidate(storeType, code)));
+        }
+        if (summaryMirror != null) {
+            unitOfWork.afterCommit(() -> summaryMirror.invalidate(storeType, productCodes));
+        }
+        if (stockAlertService != null) {
+            unitOfWork.afterCommit(() -> stockAlertService.stockChanged(storeType, productCodes));
+        }
+    }
+
+    private static InsufficientStockException conflict(List<BatchQuantity> reductions) {
+        return new InsufficientStockException("Expired batch no longer holds the quantity read",
+                0, reductions.stream().mapToInt(BatchQuantity::quantity).sum());
+    }
+
+    private static InventoryTransaction newTransaction(ExpiredStock stock, StoreType storeType, int quantity) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setProductCode(new ProductCode(stock.productCode()));
+        transaction.setMainInventoryId(stock.batchId());
+        transaction.setTransactionType(InventoryTransactionType.EXPIRED);
+        transaction.setStoreType(storeType);
+        transaction.setQuantityChanged(-quantity);
+        transaction.setRemarks(REMARKS + " " + stock.expiryDate());
+        return transaction;
+    }
+
+    /**
+     * Marks a chunk as skipped by returning it with no quantities, so the
+     * cursor still moves past it.
+     */
+    private static List<ExpiredStock> skipped(List<ExpiredStock> chunk) {
+        return chunk.stream()
+                .map(stock -> new ExpiredStock(stock.batchId(), stock.productCode(), stock.expiryDate(), 0, 0, 0))
+                .toList();
+    }
+
+    /**
+     * Running totals of one write-off run.
+     */
+    private static final class Progress {
+        private int lastBatchId;
+        private int chunks;
+        private int batches;
+        private int mainQuantity;
+        private int physicalQuantity;
+        private int onlineQuantity;
+        private int skippedBatches;
+        private boolean complete;
+
+        private Progress(int lastBatchId) {
+            this.lastBatchId = lastBatchId;
+        }
+
+        private void add(List<ExpiredStock> chunk) {
+            chunks++;
+            for (ExpiredStock stock : chunk) {
+                if (stock.mainQuantity() + stock.physicalQuantity() + stock.onlineQuantity() == 0) {
+                    skippedBatches++;
+                    continue;
+                }
+                batches++;
+                mainQuantity += stock.mainQuantity();
+                physicalQuantity += stock.physicalQuantity();
+                onlineQuantity += stock.onlineQuantity();
+            }
+        }
+
+        private WriteOffReport toReport(LocalDate expiredBefore, boolean dryRun) {
+            return new WriteOffReport(expiredBefore, dryRun, chunks, batches, mainQuantity, physicalQuantity,
+                    onlineQuantity, skippedBatches, lastBatchId, complete);
+        }
+    }
+}
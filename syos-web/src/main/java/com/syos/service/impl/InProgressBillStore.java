@@ -0,0 +1,129 @@
+package com.syos.service.impl;
+
+import com.syos.domain.models.Bill;
+import com.syos.service.interfaces.BillingService.InProgressStats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Bounded store for bills that are still being built.
+ *
+ * Entries are kept in access order. A bill idle for longer than the TTL is
+ * handed back by {@link #removeExpired()} so the caller can retire it, and
+ * the least recently used bill is dropped once the store is full. Every
+ * change to a bill is already saved to the database, so a dropped bill can
+ * be loaded again on its next use.
+ */
+public class InProgressBillStore {
+
+    public static final int DEFAULT_MAX_SIZE = 500;
+    public static final Duration DEFAULT_IDLE_TTL = Duration.ofMinutes(30);
+
+    private final int maxSize;
+    private final Duration idleTtl;
+    private final Clock clock;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public InProgressBillStore() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_IDLE_TTL, Clock.systemDefaultZone());
+    }
+
+    public InProgressBillStore(int maxSize, Duration idleTtl, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+        if (idleTtl == null || idleTtl.isNegative() || idleTtl.isZero()) {
+            throw new IllegalArgumentException("Idle TTL must be positive: " + idleTtl);
+        }
+        this.maxSize = maxSize;
+        this.idleTtl = idleTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets a bill and marks it as used, or null when it is not held.
+     */
+    public synchronized Bill get(Integer billId) {
+        Entry entry = entries.get(billId);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        entry.lastAccess = clock.instant();
+        return entry.bill;
+    }
+
+    /**
+     * Adds or replaces a bill, dropping the least recently used bill when full.
+     */
+    public synchronized void put(Bill bill) {
+        entries.put(bill.getBillId(), new Entry(bill, clock.instant()));
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes a bill, returning it or null when it was not held.
+     */
+    public synchronized Bill remove(Integer billId) {
+        Entry entry = entries.remove(billId);
+        return entry != null ? entry.bill : null;
+    }
+
+    /**
+     * Removes and returns every bill idle for longer than the TTL.
+     */
+    public synchronized List<Bill> removeExpired() {
+        Instant cutoff = clock.instant().minus(idleTtl);
+        List<Bill> expired = new ArrayList<>();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            // Access order: everything after the first live entry is live too
+            if (entry.lastAccess.isAfter(cutoff)) {
+                break;
+            }
+            expired.add(entry.bill);
+            it.remove();
+        }
+        expirations += expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets a snapshot of the store's size and counters.
+     */
+    public synchronized InProgressStats stats() {
+        return new InProgressStats(entries.size(), maxSize, hits, misses, evictions, expirations);
+    }
+
+    private static final class Entry {
+        private final Bill bill;
+        private Instant lastAccess;
+
+        private Entry(Bill bill, Instant lastAccess) {
+            this.bill = bill;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.syos.service.impl;
+
+import com.syos.exception.BusinessRuleException;
+import com.syos.exception.ValidationException;
+import com.syos.repository.interfaces.InventoryLedgerRepository;
+import com.syos.repository.interfaces.InventoryLedgerRepository.BatchStockLevel;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.interfaces.InventoryHistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of InventoryHistoryService.
+ *
+ * Snapshots are built from the previous snapshot and the ledger, not from the
+ * live stock tables, so a sale committing while one is taken cannot make it
+ * disagree with the ledger. Only rows older than both the retention cutoff and
+ * the latest snapshot are archived, so taking a snapshot never reads the archive.
+ * Snapshots behind the archive cutoff are thinned to one a month, which bounds
+ * the replay of an older as-of query to a month rather than a day.
+ */
+public class InventoryHistoryServiceImpl implements InventoryHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryHistoryServiceImpl.class);
+
+    private static final int DEFAULT_RETENTION_MONTHS = 12;
+    private static final int DEFAULT_CHUNK_SIZE = 5000;
+    // Leaves time for transactions dated just before midnight to commit
+    private static final Duration SNAPSHOT_DELAY = Duration.ofMinutes(10);
+
+    private final InventoryLedgerRepository ledgerRepository;
+    private final UnitOfWork unitOfWork;
+    private final int retentionMonths;
+    private final int chunkSize;
+    private final Clock clock;
+
+    private final AtomicBoolean archiving = new AtomicBoolean(false);
+
+    public InventoryHistoryServiceImpl(InventoryLedgerRepository ledgerRepository, UnitOfWork unitOfWork) {
+        this(ledgerRepository, unitOfWork, DEFAULT_RETENTION_MONTHS, DEFAULT_CHUNK_SIZE, Clock.systemDefaultZone());
+    }
+
+    public InventoryHistoryServiceImpl(InventoryLedgerRepository ledgerRepository, UnitOfWork unitOfWork,
+                                       int retentionMonths, int chunkSize, Clock clock) {
+        this.ledgerRepository = ledgerRepository;
+        this.unitOfWork = unitOfWork;
+        this.retentionMonths = retentionMonths;
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+    }
+
+    @Override
+    public StockAsOf getStockAsOf(LocalDateTime asOf, String productCode) {
+        if (asOf == null) {
+            throw new ValidationException("at", "Timestamp is required");
+        }
+        if (asOf.isAfter(LocalDateTime.now(clock))) {
+            throw new ValidationException("at", "Timestamp cannot be in the future");
+        }
+        String code = productCode != null && !productCode.isBlank() ? productCode.trim() : null;
+
+        LocalDateTime snapshotAt = ledgerRepository.findSnapshotAtOrBefore(asOf).orElse(null);
+        List<BatchStockLevel> batches = ledgerRepository.findStockAsOf(snapshotAt, asOf, code);
+        int main = 0;
+        int physical = 0;
+        int online = 0;
+        for (BatchStockLevel batch : batches) {
+            main += batch.mainQuantity();
+            physical += batch.physicalQuantity();
+            online += batch.onlineQuantity();
+        }
+        return new StockAsOf(asOf, snapshotAt, batches, main, physical, online);
+    }
+
+    @Override
+    public synchronized Optional<LocalDateTime> takeSnapshot() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime snapshotAt = now.minus(SNAPSHOT_DELAY).toLocalDate().atStartOfDay();
+        Optional<LocalDateTime> previous = ledgerRepository.findSnapshotAtOrBefore(now);
+        if (previous.isPresent() && !previous.get().isBefore(snapshotAt)) {
+            return Optional.empty();
+        }
+
+        int batches = unitOfWork.execute(() -> ledgerRepository.createSnapshot(previous.orElse(null), snapshotAt));
+        logger.info("Took inventory snapshot at {}: {} batches", snapshotAt, batches);
+        return Optional.of(snapshotAt);
+    }
+
+    @Override
+    public ArchiveReport archiveLedger() {
+        if (!archiving.compareAndSet(false, true)) {
+            throw new BusinessRuleException("Ledger archiving is already running");
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now(clock);
+            LocalDateTime retentionCutoff = YearMonth.from(now).minusMonths(retentionMonths).atDay(1).atStartOfDay();
+            Optional<LocalDateTime> latest = ledgerRepository.findSnapshotAtOrBefore(now);
+            if (latest.isEmpty()) {
+                // The first snapshot replays the live ledger from its start
+                logger.debug("No inventory snapshot yet, nothing archived");
+                return new ArchiveReport(retentionCutoff, 0, 0);
+            }
+            LocalDateTime cutoff = latest.get().isBefore(retentionCutoff) ? latest.get() : retentionCutoff;
+
+            LocalDate lastArchivedDay = cutoff.toLocalDate().minusDays(1);
+            ledgerRepository.ensureArchivePartition(YearMonth.from(lastArchivedDay));
+            int archived = 0;
+            int moved;
+            do {
+                moved = unitOfWork.execute(() -> ledgerRepository.archiveLedgerRows(cutoff, chunkSize));
+                archived += moved;
+            } while (moved == chunkSize);
+
+            int pruned = ledgerRepository.pruneSnapshots(cutoff);
+            if (archived > 0 || pruned > 0) {
+                logger.info("Archived {} inventory ledger rows before {}, pruned {} snapshot rows",
+                        archived, cutoff, pruned);
+            }
+            return new ArchiveReport(cutoff, archived, pruned);
+        } finally {
+            archiving.set(false);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.syos.service.impl;
+
+import com.syos.domain.enums.InventoryTransactionType;
+import com.syos.domain.enums.StoreType;
+import com.syos.exception.BusinessRuleException;
+import com.syos.repository.interfaces.InventoryReconciliationRepository;
+import com.syos.repository.interfaces.InventoryReconciliationRepository.BatchDiscrepancy;
+import com.syos.repository.interfaces.InventoryReconciliationRepository.PartitionReader;
+import com.syos.repository.interfaces.InventoryReconciliationRepository.StockLocation;
+import com.syos.service.interfaces.InventoryReconciliationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of InventoryReconciliationService.
+ *
+ * Products are split into partitions of consecutive product codes, which a
+ * fork/join pool reads in parallel. Each partition streams its batches, shelf
+ * rows and ledger rows from one snapshot and totals them per batch in memory,
+ * so memory use follows the partition size, not the size of the ledger.
+ */
+public class InventoryReconciliationServiceImpl implements InventoryReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReconciliationServiceImpl.class);
+
+    private final InventoryReconciliationRepository reconciliationRepository;
+    private final ForkJoinPool pool;
+    private final int partitionSize;
+    private final Clock clock;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile ReconciliationReport lastReport;
+
+    public InventoryReconciliationServiceImpl(InventoryReconciliationRepository reconciliationRepository,
+                                              ForkJoinPool pool,
+                                              int partitionSize) {
+        this(reconciliationRepository, pool, partitionSize, Clock.systemDefaultZone());
+    }
+
+    public InventoryReconciliationServiceImpl(InventoryReconciliationRepository reconciliationRepository,
+                                              ForkJoinPool pool,
+                                              int partitionSize,
+                                              Clock clock) {
+        this.reconciliationRepository = reconciliationRepository;
+        this.pool = pool;
+        this.partitionSize = Math.max(1, partitionSize);
+        this.clock = clock;
+    }
+
+    @Override
+    public ReconciliationReport reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessRuleException("Inventory reconciliation is already running");
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now(clock);
+            List<String> productCodes = reconciliationRepository.findProductCodes();
+            logger.info("Reconciling {} products in partitions of {}", productCodes.size(), partitionSize);
+
+            PartitionResult result = productCodes.isEmpty()
+                    ? new PartitionResult()
+                    : pool.invoke(new PartitionTask(productCodes, 0, productCodes.size()));
+            List<BatchDiscrepancy> discrepancies = new ArrayList<>(result.discrepancies);
+            discrepancies.sort(Comparator.comparing(BatchDiscrepancy::batchId)
+                    .thenComparing(BatchDiscrepancy::location));
+            if (!discrepancies.isEmpty()) {
+                reconciliationRepository.saveDiscrepancies(startedAt, discrepancies);
+            }
+
+            ReconciliationReport report = new ReconciliationReport(startedAt, LocalDateTime.now(clock),
+                    result.partitions, productCodes.size(), result.batches, result.ledgerRows,
+                    result.unbatchedLedgerRows, List.copyOf(discrepancies));
+            lastReport = report;
+            if (discrepancies.isEmpty()) {
+                logger.info("Inventory reconciled: {} batches, {} ledger rows, no discrepancies",
+                        report.batchesChecked(), report.ledgerRows());
+            } else {
+                logger.warn("Inventory reconciliation found {} discrepancies across {} batches ({} ledger rows)",
+                        discrepancies.size(), report.batchesChecked(), report.ledgerRows());
+            }
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public Optional<ReconciliationReport> getLastReport() {
+        return Optional.ofNullable(lastReport);
+    }
+
+    private PartitionResult reconcilePartition(String firstProductCode, String lastProductCode) {
+        PartitionTotals totals = new PartitionTotals();
+        reconciliationRepository.readPartition(firstProductCode, lastProductCode, totals);
+        return totals.compare();
+    }
+
+    /**
+     * Splits a range of the product list in half until it fits one partition.
+     */
+    private final class PartitionTask extends RecursiveTask<PartitionResult> {
+        private final List<String> productCodes;
+        private final int from;
+        private final int to;
+
+        private PartitionTask(List<String> productCodes, int from, int to) {
+            this.productCodes = productCodes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PartitionResult compute() {
+            if (to - from <= partitionSize) {
+                return reconcilePartition(productCodes.get(from), productCodes.get(to - 1));
+            }
+            int middle = (from + to) >>> 1;
+            PartitionTask left = new PartitionTask(productCodes, from, middle);
+            left.fork();
+            PartitionResult right = new PartitionTask(productCodes, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Running totals of one partition, per batch.
+     */
+    private static final class PartitionTotals implements PartitionReader {
+        private final Map<Integer, BatchTotals> batches = new HashMap<>();
+        private long ledgerRows;
+        private long unbatchedLedgerRows;
+
+        @Override
+        public void batch(Integer batchId, String productCode, int quantityReceived, int remainingQuantity) {
+            BatchTotals totals = totals(batchId);
+            totals.productCode = productCode;
+            totals.quantityReceived = quantityReceived;
+            totals.remainingQuantity = remainingQuantity;
+        }
+
+        @Override
+        public void shelf(StoreType storeType, Integer batchId, int quantity) {
+            BatchTotals totals = totals(batchId);
+            if (storeType == StoreType.PHYSICAL) {
+                totals.physicalQuantity += quantity;
+            } else {
+                totals.onlineQuantity += quantity;
+            }
+        }
+
+        @Override
+        public void ledger(Integer batchId, InventoryTransactionType type, StoreType storeType, int quantityChanged) {
+            ledgerRows++;
+            if (batchId == null) {
+                unbatchedLedgerRows++;
+                return;
+            }
+            if (type == InventoryTransactionType.PURCHASE) {
+                return;
+            }
+            BatchTotals totals = totals(batchId);
+            if (storeType == null) {
+                totals.mainLedger += quantityChanged;
+                return;
+            }
+            if (type == InventoryTransactionType.RESTOCK_PHYSICAL || type == InventoryTransactionType.RESTOCK_ONLINE) {
+                // A restock moves stock out of main inventory onto the shelf
+                totals.mainLedger -= quantityChanged;
+            }
+            if (storeType == StoreType.PHYSICAL) {
+                totals.physicalLedger += quantityChanged;
+            } else {
+                totals.onlineLedger += quantityChanged;
+            }
+        }
+
+        private BatchTotals totals(Integer batchId) {
+            return batches.computeIfAbsent(batchId, id -> new BatchTotals());
+        }
+
+        private PartitionResult compare() {
+            PartitionResult result = new PartitionResult();
+            result.partitions = 1;
+            result.ledgerRows = ledgerRows;
+            result.unbatchedLedgerRows = unbatchedLedgerRows;
+            for (Map.Entry<Integer, BatchTotals> entry : batches.entrySet()) {
+                BatchTotals totals = entry.getValue();
+                if (totals.productCode == null) {
+                    // Shelf or ledger rows of a batch outside this partition's main inventory read
+                    continue;
+                }
+                result.batches++;
+                check(result, entry.getKey(), totals, StockLocation.MAIN,
+                        totals.quantityReceived + totals.mainLedger, totals.remainingQuantity);
+                check(result, entry.getKey(), totals, StockLocation.PHYSICAL,
+                        totals.physicalLedger, totals.physicalQuantity);
+                check(result, entry.getKey(), totals, StockLocation.ONLINE,
+                        totals.onlineLedger, totals.onlineQuantity);
+            }
+            return result;
+        }
+
+        private static void check(PartitionResult result, Integer batchId, BatchTotals totals,
+                                  StockLocation location, int expected, int actual) {
+            if (expected != actual) {
+                result.discrepancies.add(new BatchDiscrepancy(batchId, totals.productCode, location, expected, actual));
+            }
+        }
+    }
+
+    private static final class BatchTotals {
+        private String productCode;
+        private int quantityReceived;
+        private int remainingQuantity;
+        private int physicalQuantity;
+        private int onlineQuantity;
+        private int mainLedger;
+        private int physicalLedger;
+        private int onlineLedger;
+    }
+
+    private static final class PartitionResult {
+        private final List<BatchDiscrepancy> discrepancies = new ArrayList<>();
+        private int partitions;
+        private int batches;
+        private long ledgerRows;
+        private long unbatchedLedgerRows;
+
+        private PartitionResult merge(PartitionResult other) {
+            discrepancies.addAll(other.discrepancies);
+            partitions += other.partitions;
+            batches += other.batches;
+            ledgerRows += other.ledgerRows;
+            unbatchedLedgerRows += other.unbatchedLedgerRows;
+            return this;
+        }
+    }
+}
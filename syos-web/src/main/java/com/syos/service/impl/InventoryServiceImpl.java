@@ -30,11 +30,22 @@ public class InventoryServiceImpl implements InventoryService {
 
     private final MainInventoryRepository mainInventoryRepository;
     private final ProductRepository productRepository;
-
+    private final BatchExpiryScheduler expiryScheduler;
+    private final ReportCache reportCache;
+
+    /**
+     * Creates the service. The expiry scheduler is told about every batch received
+     * and every change to a batch's remaining quantity, and the report cache's stock
+     * reports are dropped on the same events; either may be null.
+     */
     public InventoryServiceImpl(MainInventoryRepository mainInventoryRepository,
-                                 ProductRepository productRepository) {
+                                 ProductRepository productRepository,
+                                 BatchExpiryScheduler expiryScheduler,
+                                 ReportCache reportCache) {
         this.mainInventoryRepository = mainInventoryRepository;
         this.productRepository = productRepository;
+        this.expiryScheduler = expiryScheduler;
+        this.reportCache = reportCache;
     }
 
     @Override
@@ -71,6 +82,10 @@ public class InventoryServiceImpl implements InventoryService {
         batch.setSupplierName(supplierName);
 
         MainInventory saved = mainInventoryRepository.save(batch);
+        if (expiryScheduler != null) {
+            expiryScheduler.track(saved);
+        }
+        stockChanged();
         logger.info("Batch added for product: {}, batch ID: {}, quantity: {}",
             productCode, saved.getMainInventoryId(), quantity);
         return saved;
@@ -112,6 +127,10 @@ public class InventoryServiceImpl implements InventoryService {
         boolean success = mainInventoryRepository.reduceQuantity(batchId, amount);
         if (success) {
             logger.info("Reduced quantity for batch: {} by {}", batchId, amount);
+            if (expiryScheduler != null) {
+                expiryScheduler.reduced(batchId, amount);
+            }
+            stockChanged();
         } else {
             logger.warn("Failed to reduce quantity for batch: {} by {} - insufficient stock", batchId, amount);
         }
@@ -129,6 +148,10 @@ public class InventoryServiceImpl implements InventoryService {
         boolean success = mainInventoryRepository.increaseQuantity(batchId, amount);
         if (success) {
             logger.info("Increased quantity for batch: {} by {}", batchId, amount);
+            if (expiryScheduler != null) {
+                expiryScheduler.increased(batchId, amount);
+            }
+            stockChanged();
         }
         return success;
     }
@@ -217,4 +240,10 @@ public class InventoryServiceImpl implements InventoryService {
 
         return summaries;
     }
+
+    private void stockChanged() {
+        if (reportCache != null) {
+            reportCache.stockChanged();
+        }
+    }
 }
@@ -0,0 +1,202 @@
+package com.syos.service.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.BillItem;
+import com.syos.repository.interfaces.SalesRollupRepository;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSale;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSales;
+import com.syos.repository.interfaces.SalesRollupRepository.HourlySales;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Today's sales per store type, counted in memory as bills are finalized, so
+ * the dashboard does not aggregate the day's bills on every request.
+ *
+ * The counters are striped ({@link LongAdder}), so concurrent checkouts do not
+ * contend on them, and start again from zero when the date changes. They are
+ * loaded from the day's finalized bills on startup. The low stock count is read
+ * from the {@link StoreStockSummaryMirror} when the counts are taken.
+ */
+public class LiveDashboardCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveDashboardCounters.class);
+
+    // Same threshold as the dashboard's low stock count
+    public static final int DEFAULT_LOW_STOCK_THRESHOLD = 10;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final StoreStockSummaryMirror stockSummaryMirror;
+    private final int lowStockThreshold;
+    private final Clock clock;
+    private final AtomicReference<Day> current;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public LiveDashboardCounters(SalesRollupRepository salesRollupRepository,
+                                 StoreStockSummaryMirror stockSummaryMirror,
+                                 int lowStockThreshold,
+                                 Clock clock) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.stockSummaryMirror = stockSummaryMirror;
+        this.lowStockThreshold = lowStockThreshold;
+        this.clock = clock;
+        this.current = new AtomicReference<>(new Day(LocalDate.now(clock)));
+    }
+
+    /**
+     * Loads today's counts from the finalized bills, replacing what was counted.
+     * Bills finalized while loading may be missed; call before checkouts start.
+     */
+    public void load() {
+        if (salesRollupRepository == null) {
+            return;
+        }
+        Day day = new Day(LocalDate.now(clock));
+        for (BillSales sales : salesRollupRepository.findLiveBillSales(day.date)) {
+            StoreCounters store = day.stores.get(sales.storeType());
+            store.bills.add(sales.billCount());
+            store.revenueCents.add(toCents(sales.totalAmount()));
+        }
+        for (HourlySales sales : salesRollupRepository.findLiveHourlySales(day.date)) {
+            day.stores.get(sales.storeType()).items.add(sales.quantity());
+        }
+        current.set(day);
+        logger.info("Live dashboard counters loaded for {}", day.date);
+    }
+
+    /**
+     * Counts finalized bills; call once they have been committed. Bills dated
+     * before today are left out.
+     */
+    public void recordSales(List<BillSale> sales) {
+        Day day = today();
+        for (BillSale sale : sales) {
+            LocalDate billDate = sale.bill().getBillDate() != null
+                    ? sale.bill().getBillDate().toLocalDate()
+                    : day.date;
+            if (!billDate.equals(day.date)) {
+                continue;
+            }
+            StoreCounters store = day.stores.get(sale.bill().getStoreType());
+            store.bills.increment();
+            store.revenueCents.add(toCents(sale.bill().getTotalAmount().getAmount()));
+            store.items.add(sale.items().stream().mapToLong(BillItem::getQuantity).sum());
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Registers an action run after every change to the counts, on the thread
+     * that made it. Listeners should hand the work off rather than block.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Gets today's counts.
+     */
+    public DashboardCounts snapshot() {
+        Day day = today();
+        List<StoreCounts> stores = new ArrayList<>();
+        BigDecimal revenue = BigDecimal.ZERO;
+        long bills = 0;
+        long items = 0;
+        for (Map.Entry<StoreType, StoreCounters> entry : day.stores.entrySet()) {
+            StoreCounters store = entry.getValue();
+            StoreCounts counts = new StoreCounts(entry.getKey(), fromCents(store.revenueCents.sum()),
+                    store.bills.sum(), store.items.sum());
+            stores.add(counts);
+            revenue = revenue.add(counts.revenue());
+            bills += counts.billCount();
+            items += counts.itemsSold();
+        }
+        int lowStock = stockSummaryMirror != null
+                ? stockSummaryMirror.getLowStock(StoreType.PHYSICAL, lowStockThreshold).size()
+                : 0;
+        return new DashboardCounts(day.date, revenue, bills, items, lowStock, stores);
+    }
+
+    private Day today() {
+        LocalDate date = LocalDate.now(clock);
+        Day day = current.get();
+        while (date.isAfter(day.date)) {
+            // Only one caller swaps in the new day; the others pick it up
+            if (current.compareAndSet(day, new Day(date))) {
+                logger.info("Live dashboard counters reset for {}", date);
+            }
+            day = current.get();
+        }
+        return day;
+    }
+
+    private void notifyListeners() {
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                logger.warn("Dashboard counter listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Today's counts across both stores, with each store's own.
+     */
+    public record DashboardCounts(
+            LocalDate date,
+            BigDecimal revenue,
+            long billCount,
+            long itemsSold,
+            int lowStockCount,
+            List<StoreCounts> stores) {
+    }
+
+    /**
+     * Today's counts in one store.
+     */
+    public record StoreCounts(
+            StoreType storeType,
+            BigDecimal revenue,
+            long billCount,
+            long itemsSold) {
+    }
+
+    private static final class Day {
+        private final LocalDate date;
+        private final Map<StoreType, StoreCounters> stores = new EnumMap<>(StoreType.class);
+
+        private Day(LocalDate date) {
+            this.date = date;
+            for (StoreType storeType : StoreType.values()) {
+                stores.put(storeType, new StoreCounters());
+            }
+        }
+    }
+
+    private static final class StoreCounters {
+        private final LongAdder revenueCents = new LongAdder();
+        private final LongAdder bills = new LongAdder();
+        private final LongAdder items = new LongAdder();
+    }
+}
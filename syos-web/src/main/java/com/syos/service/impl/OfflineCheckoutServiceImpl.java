@@ -0,0 +1,216 @@
+package com.syos.service.impl;
+
+import com.syos.exception.RepositoryException;
+import com.syos.service.interfaces.BillingService;
+import com.syos.service.interfaces.BillingService.CheckoutRequest;
+import com.syos.service.interfaces.BillingService.CheckoutResult;
+import com.syos.service.interfaces.OfflineCheckoutService;
+import com.syos.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of OfflineCheckoutService backed by a {@link CheckoutJournal}.
+ *
+ * Every journaled checkout carries an idempotency key, so an entry replayed
+ * twice after a crash still produces one bill.
+ */
+public class OfflineCheckoutServiceImpl implements OfflineCheckoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfflineCheckoutServiceImpl.class);
+
+    private static final DateTimeFormatter PROVISIONAL_FORMAT = DateTimeFormatter.ofPattern("yyMMdd-HHmmss");
+    private static final int REPLAY_CHECKPOINT = 50;
+    private static final int MAX_CONFLICTS_HELD = 500;
+
+    private final BillingService billingService;
+    private final CheckoutJournal journal;
+    private final Path conflictLog;
+    private final Clock clock;
+    private final ReentrantLock replayLock = new ReentrantLock();
+    private final Deque<ReplayConflict> conflicts = new ArrayDeque<>();
+
+    private volatile boolean offline;
+
+    public OfflineCheckoutServiceImpl(BillingService billingService, CheckoutJournal journal) {
+        this(billingService, journal, Clock.systemDefaultZone());
+    }
+
+    public OfflineCheckoutServiceImpl(BillingService billingService, CheckoutJournal journal, Clock clock) {
+        this.billingService = billingService;
+        this.journal = journal;
+        this.conflictLog = journal.getFile().resolveSibling(journal.getFile().getFileName() + ".conflicts");
+        this.clock = clock;
+        // Entries left from before a restart keep later sales queued behind them
+        this.offline = journal.size() > 0;
+    }
+
+    @Override
+    public CheckoutOutcome checkout(CheckoutRequest request, String idempotencyKey) {
+        // While anything is queued, new sales queue behind it so replay keeps their order
+        if (!offline && journal.size() == 0) {
+            try {
+                return CheckoutOutcome.completed(billingService.checkout(request, idempotencyKey));
+            } catch (RepositoryException e) {
+                if (!isConnectionFailure(e)) {
+                    throw e;
+                }
+                offline = true;
+                logger.warn("Database unavailable, journaling checkouts offline: {}", e.getMessage());
+            }
+        }
+        return journal(request, idempotencyKey);
+    }
+
+    @Override
+    public ReplayReport replay() {
+        if (!replayLock.tryLock()) {
+            return new ReplayReport(0, 0, journal.size(), offline);
+        }
+        try {
+            int completed = 0;
+            int conflicted = 0;
+            List<CheckoutJournal.Entry> pending = journal.readAll();
+            while (!pending.isEmpty()) {
+                int replayed = 0;
+                for (CheckoutJournal.Entry entry : pending) {
+                    CheckoutResult result;
+                    try {
+                        result = billingService.checkout(entry.request(), entry.idempotencyKey());
+                    } catch (RepositoryException e) {
+                        if (isConnectionFailure(e)) {
+                            journal.discard(replayed);
+                            logger.warn("Replay paused, database still unavailable: {} checkouts pending",
+                                    journal.size());
+                            return new ReplayReport(completed, conflicted, journal.size(), true);
+                        }
+                        result = CheckoutResult.failure(e.getMessage());
+                    } catch (RuntimeException e) {
+                        result = CheckoutResult.failure(e.getMessage());
+                    }
+
+                    if (result.success()) {
+                        completed++;
+                        logger.info("Replayed offline checkout {} as bill {}",
+                                provisionalNumber(entry), result.serialNumber());
+                    } else {
+                        conflicted++;
+                        recordConflict(entry, result.errors());
+                    }
+                    replayed++;
+                    // Checkpoint so a crash mid-replay repeats at most one batch
+                    if (replayed == REPLAY_CHECKPOINT) {
+                        journal.discard(replayed);
+                        replayed = 0;
+                    }
+                }
+                if (replayed > 0) {
+                    journal.discard(replayed);
+                }
+                // Pick up anything journaled while this batch was replaying
+                pending = journal.readAll();
+            }
+            offline = false;
+            if (completed > 0 || conflicted > 0) {
+                logger.info("Offline journal replayed: {} completed, {} conflicts", completed, conflicted);
+            }
+            return new ReplayReport(completed, conflicted, 0, false);
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isOffline() {
+        return offline;
+    }
+
+    @Override
+    public int getPendingCount() {
+        return journal.size();
+    }
+
+    @Override
+    public List<ReplayConflict> getConflicts() {
+        synchronized (conflicts) {
+            return new ArrayList<>(conflicts);
+        }
+    }
+
+    private CheckoutOutcome journal(CheckoutRequest request, String idempotencyKey) {
+        String key = idempotencyKey != null && !idempotencyKey.isBlank()
+                ? idempotencyKey
+                : "offline-" + UUID.randomUUID();
+        CheckoutJournal.Entry entry = journal.append(key, request, LocalDateTime.now(clock));
+        String provisionalNumber = provisionalNumber(entry);
+        logger.info("Checkout journaled offline as {} ({} pending)", provisionalNumber, journal.size());
+        return CheckoutOutcome.provisional(provisionalNumber, entry.queuedAt());
+    }
+
+    private void recordConflict(CheckoutJournal.Entry entry, List<String> errors) {
+        CheckoutRequest request = entry.request();
+        ReplayConflict conflict = new ReplayConflict(
+                provisionalNumber(entry),
+                entry.idempotencyKey(),
+                entry.queuedAt(),
+                LocalDateTime.now(clock),
+                request.cashierId(),
+                request.items(),
+                errors);
+        logger.warn("Offline checkout {} could not be completed on replay: {}",
+                conflict.provisionalNumber(), String.join("; ", errors));
+
+        synchronized (conflicts) {
+            conflicts.addLast(conflict);
+            while (conflicts.size() > MAX_CONFLICTS_HELD) {
+                conflicts.removeFirst();
+            }
+        }
+        try {
+            Files.writeString(conflictLog, JsonUtil.toJsonCompact(conflict) + System.lineSeparator(),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.error("Failed to record replay conflict {}: {}", conflict.provisionalNumber(), e.getMessage());
+        }
+    }
+
+    private static String provisionalNumber(CheckoutJournal.Entry entry) {
+        return "OFF-" + entry.queuedAt().format(PROVISIONAL_FORMAT) + "-" + entry.sequence();
+    }
+
+    /**
+     * Checks if a repository failure means the database could not be reached,
+     * as opposed to a failure of the checkout itself.
+     */
+    static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
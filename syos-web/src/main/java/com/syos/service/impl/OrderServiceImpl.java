@@ -53,7 +53,7 @@ public class OrderServiceImpl implements OrderService {
             throw new ValidationException("Cart is empty", "cart");
         }
 
-        // Validate stock availability
+        // Validate stock availability, renewing the cart's reservations
         CartService.StockValidationResult stockResult = cartService.validateCartStockDetails(customerId);
         if (!stockResult.isValid()) {
             StringBuilder message = new StringBuilder("Insufficient stock for: ");
@@ -97,7 +97,8 @@ public class OrderServiceImpl implements OrderService {
         // Save order
         Order savedOrder = orderRepository.save(order);
 
-        // Clear the cart after successful order
+        // Clear the cart after successful order; this releases its stock reservations,
+        // which the finalized bill has now turned into real deductions
         cartService.clearCart(customerId);
 
         logger.info("Order created: {} for customer {} with {} items, total: {}",
@@ -0,0 +1,106 @@
+package com.syos.service.impl;
+
+import com.syos.domain.enums.StoreType;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks guarding the stock of each product per store type.
+ * A sale holds the locks of all its products while it checks, allocates and
+ * deducts stock, so two sales can never allocate the same units. Products map
+ * onto a fixed number of stripes, so unrelated products only contend when they
+ * happen to share a stripe. Stripes are always taken in ascending order, which
+ * rules out deadlocks between sales that lock several products.
+ */
+public class ProductStockLocks {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public ProductStockLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ProductStockLocks(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripeCount);
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Locks the stripes of all given products and returns a handle that releases
+     * them when closed.
+     */
+    public Held lockAll(StoreType storeType, Collection<String> productCodes) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String productCode : productCodes) {
+            indexes.add(stripeIndex(storeType, productCode));
+        }
+        int[] locked = new int[indexes.size()];
+        int count = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked[count++] = index;
+            }
+        } catch (RuntimeException | Error e) {
+            unlock(locked, count);
+            throw e;
+        }
+        return new Held(locked, count);
+    }
+
+    /**
+     * Gets the number of stripes.
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    int stripeIndex(StoreType storeType, String productCode) {
+        int h = productCode.hashCode() * 31 + storeType.ordinal();
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    private void unlock(int[] locked, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[locked[i]].unlock();
+        }
+    }
+
+    /**
+     * Locks held for one sale.
+     */
+    public final class Held implements AutoCloseable {
+        private final int[] locked;
+        private final int count;
+        private boolean released;
+
+        private Held(int[] locked, int count) {
+            this.locked = locked;
+            this.count = count;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                unlock(locked, count);
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.syos.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache of report results, keyed by report type and parameters.
+ *
+ * Each report type has its own time to live, and its entries are dropped as
+ * soon as the data it is computed from changes: sales reports when a bill is
+ * finalized, inventory reports when stock changes. Concurrent misses on one key
+ * share a single load instead of each running the report's queries. Entries
+ * dropped while still loading are handed to the callers already waiting for
+ * them, but later callers start a fresh load.
+ */
+public class ReportCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    /**
+     * The data reports are computed from.
+     */
+    public enum Source {
+        SALES,
+        STOCK
+    }
+
+    /**
+     * The cached reports, with their default time to live and the data they read.
+     */
+    public enum ReportType {
+        DASHBOARD(Duration.ofMinutes(1), Source.SALES, Source.STOCK),
+        DAILY_SALES(Duration.ofMinutes(10), Source.SALES),
+        SALES_BY_STORE_TYPE(Duration.ofMinutes(10), Source.SALES),
+        TOP_PRODUCTS(Duration.ofMinutes(10), Source.SALES),
+        SALES_SUMMARY(Duration.ofMinutes(10), Source.SALES),
+        HOURLY_SALES(Duration.ofMinutes(5), Source.SALES),
+        STOCK_LEVELS(Duration.ofMinutes(5), Source.STOCK),
+        LOW_STOCK(Duration.ofMinutes(5), Source.STOCK),
+        EXPIRING_STOCK(Duration.ofMinutes(30), Source.STOCK),
+        EXPIRED_STOCK(Duration.ofMinutes(30), Source.STOCK),
+        RESTOCK_RECOMMENDATIONS(Duration.ofMinutes(10), Source.SALES, Source.STOCK),
+        RESHELVE(Duration.ofMinutes(5), Source.STOCK),
+        REORDER_LEVEL(Duration.ofMinutes(10), Source.STOCK),
+        BATCH_STOCK(Duration.ofMinutes(10), Source.STOCK);
+
+        private final Duration defaultTtl;
+        private final Set<Source> sources;
+
+        ReportType(Duration defaultTtl, Source... sources) {
+            this.defaultTtl = defaultTtl;
+            this.sources = Set.of(sources);
+        }
+
+        public Duration getDefaultTtl() {
+            return defaultTtl;
+        }
+
+        public boolean readsFrom(Source source) {
+            return sources.contains(source);
+        }
+    }
+
+    private final Map<ReportType, Duration> ttls = new EnumMap<>(ReportType.class);
+    private final int maxSize;
+    private final Clock clock;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<ReportType, Counters> counters = new EnumMap<>(ReportType.class);
+
+    public ReportCache() {
+        this(Map.of(), DEFAULT_MAX_SIZE, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a cache with the given times to live; report types left out keep
+     * their default.
+     */
+    public ReportCache(Map<ReportType, Duration> ttls, int maxSize, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+        for (ReportType type : ReportType.values()) {
+            Duration ttl = ttls.getOrDefault(type, type.getDefaultTtl());
+            if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("TTL of " + type + " must be positive: " + ttl);
+            }
+            this.ttls.put(type, ttl);
+            counters.put(type, new Counters());
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the cached report for the parameters, loading it on a miss. Callers
+     * that miss while another caller is loading the same report wait for that
+     * load. A failed load is not cached; its exception is thrown to every caller
+     * that waited for it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ReportType type, List<?> params, Supplier<T> loader) {
+        Key key = new Key(type, Collections.unmodifiableList(new ArrayList<>(params)));
+        Counters count = counters.get(type);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isExpired(clock.instant())) {
+                entries.remove(key, entry);
+                entry = null;
+            }
+            if (entry != null) {
+                count.hits.increment();
+                return (T) await(entry);
+            }
+
+            Entry loading = new Entry();
+            if (entries.putIfAbsent(key, loading) == null) {
+                count.misses.increment();
+                return load(key, loading, loader);
+            }
+        }
+    }
+
+    /**
+     * Gets the cached report for a report type without parameters.
+     */
+    public <T> T get(ReportType type, Supplier<T> loader) {
+        return get(type, List.of(), loader);
+    }
+
+    /**
+     * Drops every report computed from sales; call once a bill has been finalized.
+     */
+    public void salesChanged() {
+        invalidate(Source.SALES);
+    }
+
+    /**
+     * Drops every report computed from stock; call once a stock change has been committed.
+     */
+    public void stockChanged() {
+        invalidate(Source.STOCK);
+    }
+
+    /**
+     * Drops every report computed from the given data.
+     */
+    public void invalidate(Source source) {
+        entries.entrySet().removeIf(e -> {
+            if (!e.getKey().type().readsFrom(source)) {
+                return false;
+            }
+            counters.get(e.getKey().type()).invalidations.increment();
+            return true;
+        });
+    }
+
+    /**
+     * Drops every cached report.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets how long reports of the given type are kept.
+     */
+    public Duration getTtl(ReportType type) {
+        return ttls.get(type);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the hit and miss counts of every report type since startup.
+     */
+    public List<ReportStats> getStats() {
+        Map<ReportType, Integer> sizes = new EnumMap<>(ReportType.class);
+        entries.keySet().forEach(key -> sizes.merge(key.type(), 1, Integer::sum));
+
+        List<ReportStats> stats = new ArrayList<>();
+        for (ReportType type : ReportType.values()) {
+            Counters count = counters.get(type);
+            stats.add(new ReportStats(type, count.hits.sum(), count.misses.sum(), count.failures.sum(),
+                    count.invalidations.sum(), sizes.getOrDefault(type, 0)));
+        }
+        return stats;
+    }
+
+    private <T> T load(Key key, Entry loading, Supplier<T> loader) {
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, loading);
+            counters.get(key.type()).failures.increment();
+            loading.result.completeExceptionally(e);
+            throw e;
+        }
+        loading.expiresAt = clock.instant().plus(ttls.get(key.type()));
+        loading.result.complete(value);
+        evictIfFull();
+        return value;
+    }
+
+    private static Object await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        Instant now = clock.instant();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+
+        // Still full: drop the loaded entries closest to expiring
+        int excess = entries.size() - maxSize;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .filter(e -> e.getValue().expiresAt != null)
+                    .sorted(Comparator.comparing(e -> e.getValue().expiresAt))
+                    .limit(excess)
+                    .toList()
+                    .forEach(e -> entries.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    /**
+     * Cache statistics of one report type.
+     */
+    public record ReportStats(
+            ReportType type,
+            long hits,
+            long misses,
+            long loadFailures,
+            long invalidations,
+            int entries) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private record Key(ReportType type, List<Object> params) {
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        // Set once loaded; an entry still loading never expires
+        private volatile Instant expiresAt;
+
+        private boolean isExpired(Instant now) {
+            Instant expiry = expiresAt;
+            return expiry != null && !now.isBefore(expiry);
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+    }
+}
@@ -1,18 +1,24 @@
 package com.syos.service.impl;
 
 import com.syos.domain.enums.StoreType;
+import com.syos.domain.enums.TransactionType;
 import com.syos.domain.models.Bill;
 import com.syos.domain.models.BillItem;
 import com.syos.domain.models.MainInventory;
 import com.syos.domain.models.OnlineStoreInventory;
 import com.syos.domain.models.PhysicalStoreInventory;
-import com.syos.domain.models.Product;
+import com.syos.domain.valueobjects.StoreStockLevel;
 import com.syos.repository.interfaces.BillItemRepository;
 import com.syos.repository.interfaces.BillRepository;
 import com.syos.repository.interfaces.MainInventoryRepository;
 import com.syos.repository.interfaces.OnlineStoreInventoryRepository;
 import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
-import com.syos.repository.interfaces.ProductRepository;
+import com.syos.repository.interfaces.ReportQueryRepository;
+import com.syos.repository.interfaces.SalesRollupRepository;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSales;
+import com.syos.repository.interfaces.SalesRollupRepository.HourlySales;
+import com.syos.repository.interfaces.SalesRollupRepository.ProductSales;
+import com.syos.service.impl.LiveDashboardCounters.DashboardCounts;
 import com.syos.service.interfaces.ReportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,13 +28,26 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 
 import com.syos.config.ThreadPoolConfig;
 
 /**
  * Implementation of ReportService.
+ *
+ * Inventory and bill reports take a fixed number of set-based queries whatever
+ * the catalog size: each source is read once in bulk and the results are joined
+ * in memory by product code or bill id.
+ *
+ * With the sales rollups configured, sales reports read the rollups for the days
+ * before today and aggregate today's finalized bills live, instead of scanning
+ * every bill in the range.
  */
 public class ReportServiceImpl implements ReportService {
 
@@ -42,21 +61,36 @@ public class ReportServiceImpl implements ReportService {
     private final MainInventoryRepository mainInventoryRepository;
     private final PhysicalStoreInventoryRepository physicalStoreRepository;
     private final OnlineStoreInventoryRepository onlineStoreRepository;
-    private final ProductRepository productRepository;
-
+    private final ReportQueryRepository reportQueryRepository;
+    private final BatchExpiryScheduler expiryScheduler;
+    private final SalesRollupRepository salesRollupRepository;
+    private final LiveDashboardCounters dashboardCounters;
+
+    /**
+     * Creates the service. The expiry scheduler gives the dashboard its live count
+     * of batches expiring soon, the sales rollups are read by sales reports instead
+     * of the bills, and the live counters give the dashboard today's sales and low
+     * stock count; any of them may be null.
+     */
     public ReportServiceImpl(
             BillRepository billRepository,
             BillItemRepository billItemRepository,
             MainInventoryRepository mainInventoryRepository,
             PhysicalStoreInventoryRepository physicalStoreRepository,
             OnlineStoreInventoryRepository onlineStoreRepository,
-            ProductRepository productRepository) {
+            ReportQueryRepository reportQueryRepository,
+            BatchExpiryScheduler expiryScheduler,
+            SalesRollupRepository salesRollupRepository,
+            LiveDashboardCounters dashboardCounters) {
         this.billRepository = billRepository;
         this.billItemRepository = billItemRepository;
         this.mainInventoryRepository = mainInventoryRepository;
         this.physicalStoreRepository = physicalStoreRepository;
         this.onlineStoreRepository = onlineStoreRepository;
-        this.productRepository = productRepository;
+        this.reportQueryRepository = reportQueryRepository;
+        this.expiryScheduler = expiryScheduler;
+        this.salesRollupRepository = salesRollupRepository;
+        this.dashboardCounters = dashboardCounters;
     }
 
     // ==================== Sales Reports ====================
@@ -65,6 +99,21 @@ public class ReportServiceImpl implements ReportService {
     public List<DailySalesReport> getDailySalesReport(LocalDate startDate, LocalDate endDate) {
         logger.debug("Generating daily sales report: {} to {}", startDate, endDate);
 
+        if (salesRollupRepository != null) {
+            // Newest day first, as from the bills
+            Map<LocalDate, DailySalesReport> byDay = new TreeMap<>(Comparator.reverseOrder());
+            for (BillSales sales : billSales(startDate, endDate)) {
+                BigDecimal amount = sales.totalAmount();
+                byDay.merge(sales.date(), new DailySalesReport(sales.date(), sales.billCount(), amount,
+                        sales.transactionType() == TransactionType.CASH ? amount : BigDecimal.ZERO,
+                        sales.transactionType() == TransactionType.ONLINE ? amount : BigDecimal.ZERO),
+                        (a, b) -> new DailySalesReport(a.date(), a.billCount() + b.billCount(),
+                                a.totalSales().add(b.totalSales()), a.cashSales().add(b.cashSales()),
+                                a.onlineSales().add(b.onlineSales())));
+            }
+            return List.copyOf(byDay.values());
+        }
+
         List<BillRepository.DailySalesSummary> summaries = billRepository.getDailySalesSummary(startDate, endDate);
 
         return summaries.stream()
@@ -81,6 +130,17 @@ public class ReportServiceImpl implements ReportService {
     public List<StoreTypeSalesReport> getSalesByStoreType(LocalDate startDate, LocalDate endDate) {
         logger.debug("Generating sales by store type report: {} to {}", startDate, endDate);
 
+        if (salesRollupRepository != null) {
+            Map<StoreType, StoreTypeSalesReport> byStore = new EnumMap<>(StoreType.class);
+            for (BillSales sales : billSales(startDate, endDate)) {
+                byStore.merge(sales.storeType(),
+                        new StoreTypeSalesReport(sales.storeType(), sales.billCount(), sales.totalAmount()),
+                        (a, b) -> new StoreTypeSalesReport(a.storeType(), a.billCount() + b.billCount(),
+                                a.totalSales().add(b.totalSales())));
+            }
+            return List.copyOf(byStore.values());
+        }
+
         List<BillRepository.StoreTypeSalesSummary> summaries = billRepository.getSalesByStoreType(startDate, endDate);
 
         return summaries.stream()
@@ -95,6 +155,10 @@ public class ReportServiceImpl implements ReportService {
     public List<ProductSalesReport> getTopSellingProducts(LocalDate startDate, LocalDate endDate, int limit) {
         logger.debug("Generating top selling products report: {} to {}, limit {}", startDate, endDate, limit);
 
+        if (salesRollupRepository != null) {
+            return topSelling(productSales(startDate, endDate, null), limit);
+        }
+
         List<BillItemRepository.ProductSalesSummary> summaries = billItemRepository.getTopSellingProducts(startDate,
                 endDate, limit);
 
@@ -113,6 +177,10 @@ public class ReportServiceImpl implements ReportService {
         logger.debug("Generating top selling products report for {}: {} to {}, limit {}", storeType, startDate, endDate,
                 limit);
 
+        if (salesRollupRepository != null) {
+            return topSelling(productSales(startDate, endDate, storeType), limit);
+        }
+
         List<BillItemRepository.ProductSalesSummary> summaries = billItemRepository
                 .getTopSellingProductsByStoreType(startDate, endDate, limit, storeType);
 
@@ -134,6 +202,10 @@ public class ReportServiceImpl implements ReportService {
     public SalesSummary getSalesSummaryByStoreType(LocalDate date, StoreType storeType) {
         logger.debug("Generating sales summary for {} on {}", storeType, date);
 
+        if (salesRollupRepository != null) {
+            return summarize(date, date, storeType);
+        }
+
         // Get store type sales
         List<BillRepository.StoreTypeSalesSummary> storeTypeSummaries = billRepository.getSalesByStoreType(date, date);
 
@@ -170,6 +242,10 @@ public class ReportServiceImpl implements ReportService {
     public SalesSummary getSalesSummaryForRange(LocalDate startDate, LocalDate endDate) {
         logger.debug("Generating sales summary: {} to {}", startDate, endDate);
 
+        if (salesRollupRepository != null) {
+            return summarize(startDate, endDate, null);
+        }
+
         BigDecimal totalSales = billRepository.getTotalSalesForDateRange(startDate, endDate);
         int totalBills = 0;
 
@@ -198,59 +274,123 @@ public class ReportServiceImpl implements ReportService {
                 totalItemsSold);
     }
 
-    // ==================== Inventory Reports ====================
-
     @Override
-    public List<StockLevelReport> getCurrentStockLevels(StoreType storeType) {
-        logger.debug("Generating stock level report for store type: {}", storeType);
+    public List<HourlySalesReport> getHourlySalesReport(LocalDate date, StoreType storeType) {
+        logger.debug("Generating hourly sales report for {} on {}", storeType, date);
 
-        List<StockLevelReport> reports = new ArrayList<>();
+        if (salesRollupRepository == null) {
+            return List.of();
+        }
+        List<HourlySales> rows = date.equals(LocalDate.now())
+                ? salesRollupRepository.findLiveHourlySales(date)
+                : salesRollupRepository.findHourlySales(date);
+
+        Map<Integer, HourlySalesReport> byHour = new TreeMap<>();
+        for (HourlySales sales : rows) {
+            if (storeType == null || sales.storeType() == storeType) {
+                byHour.merge(sales.hour(), new HourlySalesReport(sales.hour(), sales.quantity(), sales.revenue()),
+                        (a, b) -> new HourlySalesReport(a.hour(), a.quantitySold() + b.quantitySold(),
+                                a.revenue().add(b.revenue())));
+            }
+        }
+        return List.copyOf(byHour.values());
+    }
 
-        if (storeType == StoreType.PHYSICAL) {
-            List<PhysicalStoreInventoryRepository.ProductStockSummary> summaries = physicalStoreRepository
-                    .getStockSummary();
-
-            for (PhysicalStoreInventoryRepository.ProductStockSummary summary : summaries) {
-                // Get earliest expiry for this product
-                List<PhysicalStoreInventory> batches = physicalStoreRepository
-                        .findAvailableByProductCode(summary.productCode());
-                LocalDate earliestExpiry = batches.stream()
-                        .filter(b -> b.getExpiryDate() != null)
-                        .map(PhysicalStoreInventory::getExpiryDate)
-                        .min(LocalDate::compareTo)
-                        .orElse(null);
-
-                reports.add(new StockLevelReport(
-                        summary.productCode(),
-                        summary.productName(),
-                        summary.totalQuantity(),
-                        summary.batchCount(),
-                        earliestExpiry));
+    /**
+     * Bill totals per day, store and payment type: rolled up for the days before
+     * today, aggregated from the bills for today.
+     */
+    private List<BillSales> billSales(LocalDate startDate, LocalDate endDate) {
+        LocalDate today = LocalDate.now();
+        LocalDate lastRolledUp = endDate.isBefore(today) ? endDate : today.minusDays(1);
+        List<BillSales> rows = new ArrayList<>();
+        if (!startDate.isAfter(lastRolledUp)) {
+            rows.addAll(salesRollupRepository.findBillSales(startDate, lastRolledUp));
+        }
+        if (!today.isBefore(startDate) && !today.isAfter(endDate)) {
+            rows.addAll(salesRollupRepository.findLiveBillSales(today));
+        }
+        return rows;
+    }
+
+    /**
+     * Units and revenue per product, for one store type or both when null, merged
+     * across the rolled-up days and today.
+     */
+    private Map<String, ProductSalesReport> productSales(LocalDate startDate, LocalDate endDate,
+            StoreType storeType) {
+        LocalDate today = LocalDate.now();
+        LocalDate lastRolledUp = endDate.isBefore(today) ? endDate : today.minusDays(1);
+        List<ProductSales> rows = new ArrayList<>();
+        if (!startDate.isAfter(lastRolledUp)) {
+            rows.addAll(salesRollupRepository.findProductSales(startDate, lastRolledUp));
+        }
+        if (!today.isBefore(startDate) && !today.isAfter(endDate)) {
+            rows.addAll(salesRollupRepository.findLiveProductSales(today));
+        }
+
+        Map<String, ProductSalesReport> byProduct = new HashMap<>();
+        for (ProductSales sales : rows) {
+            if (storeType == null || sales.storeType() == storeType) {
+                byProduct.merge(sales.productCode(),
+                        new ProductSalesReport(sales.productCode(), sales.productName(), sales.quantity(),
+                                sales.revenue()),
+                        (a, b) -> new ProductSalesReport(a.productCode(), a.productName(),
+                                a.totalQuantitySold() + b.totalQuantitySold(), a.totalRevenue().add(b.totalRevenue())));
             }
-        } else {
-            List<OnlineStoreInventoryRepository.ProductStockSummary> summaries = onlineStoreRepository
-                    .getStockSummary();
-
-            for (OnlineStoreInventoryRepository.ProductStockSummary summary : summaries) {
-                // Get earliest expiry for this product
-                List<OnlineStoreInventory> batches = onlineStoreRepository
-                        .findAvailableByProductCode(summary.productCode());
-                LocalDate earliestExpiry = batches.stream()
-                        .filter(b -> b.getExpiryDate() != null)
-                        .map(OnlineStoreInventory::getExpiryDate)
-                        .min(LocalDate::compareTo)
-                        .orElse(null);
-
-                reports.add(new StockLevelReport(
-                        summary.productCode(),
-                        summary.productName(),
-                        summary.totalQuantity(),
-                        summary.batchCount(),
-                        earliestExpiry));
+        }
+        return byProduct;
+    }
+
+    private static List<ProductSalesReport> topSelling(Map<String, ProductSalesReport> byProduct, int limit) {
+        return byProduct.values().stream()
+                .sorted(Comparator.comparingInt(ProductSalesReport::totalQuantitySold).reversed()
+                        .thenComparing(ProductSalesReport::productCode))
+                .limit(Math.max(limit, 0))
+                .toList();
+    }
+
+    /**
+     * Sales summary from the rollups, for one store type or both when null.
+     */
+    private SalesSummary summarize(LocalDate startDate, LocalDate endDate, StoreType storeType) {
+        int totalBills = 0;
+        BigDecimal totalSales = BigDecimal.ZERO;
+        for (BillSales sales : billSales(startDate, endDate)) {
+            if (storeType == null || sales.storeType() == storeType) {
+                totalBills += sales.billCount();
+                totalSales = totalSales.add(sales.totalAmount());
             }
         }
+        int totalItemsSold = productSales(startDate, endDate, storeType).values().stream()
+                .mapToInt(ProductSalesReport::totalQuantitySold)
+                .sum();
 
-        return reports;
+        BigDecimal averageBillValue = totalBills > 0
+                ? totalSales.divide(BigDecimal.valueOf(totalBills), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        return new SalesSummary(startDate, endDate, totalBills, totalSales, averageBillValue, totalItemsSold);
+    }
+
+    // ==================== Inventory Reports ====================
+
+    @Override
+    public List<StockLevelReport> getCurrentStockLevels(StoreType storeType) {
+        logger.debug("Generating stock level report for store type: {}", storeType);
+
+        // The store stock summary already carries each product's earliest expiry
+        List<StoreStockLevel> levels = storeType == StoreType.PHYSICAL
+                ? physicalStoreRepository.findStockLevels()
+                : onlineStoreRepository.findStockLevels();
+
+        return levels.stream()
+                .map(level -> new StockLevelReport(
+                        level.productCode(),
+                        level.productName(),
+                        level.totalQuantity(),
+                        level.batchCount(),
+                        level.earliestExpiry()))
+                .toList();
     }
 
     @Override
@@ -326,19 +466,23 @@ public class ReportServiceImpl implements ReportService {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(daysOfSalesData);
 
-        // Get sales data
-        List<BillItemRepository.ProductSalesSummary> salesData = billItemRepository.getProductSalesSummary(startDate,
-                endDate);
-
         // Get current stock levels
         List<StockLevelReport> stockLevels = getCurrentStockLevels(storeType);
 
+        // Get sales data
+        Map<String, Integer> soldByProduct = new HashMap<>();
+        if (salesRollupRepository != null) {
+            productSales(startDate, endDate, null)
+                    .forEach((code, sales) -> soldByProduct.put(code, sales.totalQuantitySold()));
+        } else {
+            for (BillItemRepository.ProductSalesSummary sales : billItemRepository.getProductSalesSummary(startDate,
+                    endDate)) {
+                soldByProduct.merge(sales.productCode(), sales.totalQuantity(), Integer::sum);
+            }
+        }
+
         for (StockLevelReport stockLevel : stockLevels) {
-            // Find matching sales data
-            int totalSold = salesData.stream()
-                    .filter(s -> s.productCode().equals(stockLevel.productCode()))
-                    .mapToInt(BillItemRepository.ProductSalesSummary::totalQuantity)
-                    .sum();
+            int totalSold = soldByProduct.getOrDefault(stockLevel.productCode(), 0);
 
             int avgDailySales = totalSold / Math.max(daysOfSalesData, 1);
             int daysOfStock = avgDailySales > 0 ? stockLevel.currentStock() / avgDailySales : Integer.MAX_VALUE;
@@ -368,176 +512,49 @@ public class ReportServiceImpl implements ReportService {
     public List<ReshelveReport> getReshelveReport(StoreType storeType) {
         logger.debug("Generating reshelve report for store type: {}", storeType);
 
-        List<ReshelveReport> reports = new ArrayList<>();
-
-        if (storeType == StoreType.PHYSICAL) {
-            // Get stock summary for physical store
-            List<PhysicalStoreInventoryRepository.ProductStockSummary> stockSummaries = physicalStoreRepository
-                    .getStockSummary();
-
-            for (PhysicalStoreInventoryRepository.ProductStockSummary summary : stockSummaries) {
-                // Get the product to find its minimum stock level
-                Product product = productRepository.findByProductCode(summary.productCode()).orElse(null);
-                if (product == null)
-                    continue;
-
-                int minStock = product.getMinPhysicalStock();
-                int currentStock = summary.totalQuantity();
-
-                if (currentStock < minStock) {
-                    int quantityToReshelve = minStock - currentStock;
-                    reports.add(new ReshelveReport(
-                            summary.productCode(),
-                            summary.productName(),
-                            currentStock,
-                            minStock,
-                            quantityToReshelve));
-                }
-            }
-
-            // Also check for products with zero stock that have a minimum > 0
-            List<Product> allProducts = productRepository.findAllActive();
-            for (Product product : allProducts) {
-                if (product.getMinPhysicalStock() > 0) {
-                    boolean hasStock = stockSummaries.stream()
-                            .anyMatch(s -> s.productCode().equals(product.getProductCodeString()));
-                    if (!hasStock) {
-                        reports.add(new ReshelveReport(
-                                product.getProductCodeString(),
-                                product.getProductName(),
-                                0,
-                                product.getMinPhysicalStock(),
-                                product.getMinPhysicalStock()));
-                    }
-                }
-            }
-        } else {
-            // Get stock summary for online store
-            List<OnlineStoreInventoryRepository.ProductStockSummary> stockSummaries = onlineStoreRepository
-                    .getStockSummary();
-
-            for (OnlineStoreInventoryRepository.ProductStockSummary summary : stockSummaries) {
-                // Get the product to find its minimum stock level
-                Product product = productRepository.findByProductCode(summary.productCode()).orElse(null);
-                if (product == null)
-                    continue;
-
-                int minStock = product.getMinOnlineStock();
-                int currentStock = summary.totalQuantity();
-
-                if (currentStock < minStock) {
-                    int quantityToReshelve = minStock - currentStock;
-                    reports.add(new ReshelveReport(
-                            summary.productCode(),
-                            summary.productName(),
-                            currentStock,
-                            minStock,
-                            quantityToReshelve));
-                }
-            }
-
-            // Also check for products with zero stock that have a minimum > 0
-            List<Product> allProducts = productRepository.findAllActive();
-            for (Product product : allProducts) {
-                if (product.getMinOnlineStock() > 0) {
-                    boolean hasStock = stockSummaries.stream()
-                            .anyMatch(s -> s.productCode().equals(product.getProductCodeString()));
-                    if (!hasStock) {
-                        reports.add(new ReshelveReport(
-                                product.getProductCodeString(),
-                                product.getProductName(),
-                                0,
-                                product.getMinOnlineStock(),
-                                product.getMinOnlineStock()));
-                    }
-                }
-            }
-        }
-
-        // Sort by quantity to reshelve (descending - most urgent first)
-        reports.sort((a, b) -> Integer.compare(b.quantityToReshelve(), a.quantityToReshelve()));
-
-        return reports;
+        // Sorted by quantity to reshelve (descending - most urgent first)
+        return reportQueryRepository.findStoreStockBelowMinimum(storeType).stream()
+                .map(row -> new ReshelveReport(
+                        row.productCode(),
+                        row.productName(),
+                        row.currentStock(),
+                        row.minimumStock(),
+                        row.minimumStock() - row.currentStock()))
+                .toList();
     }
 
     @Override
     public List<ReorderLevelReport> getReorderLevelReport(int threshold) {
         logger.debug("Generating reorder level report with threshold: {}", threshold);
 
-        List<ReorderLevelReport> reports = new ArrayList<>();
-
-        // Get all active products
-        List<Product> allProducts = productRepository.findAllActive();
-
-        for (Product product : allProducts) {
-            // Get total remaining quantity in main inventory for this product
-            List<MainInventory> batches = mainInventoryRepository.findByProductCode(product.getProductCodeString());
-
-            int totalRemaining = batches.stream()
-                    .mapToInt(MainInventory::getRemainingQuantity)
-                    .sum();
-
-            if (totalRemaining < threshold) {
-                int quantityToReorder = threshold - totalRemaining;
-                reports.add(new ReorderLevelReport(
-                        product.getProductCodeString(),
-                        product.getProductName(),
-                        totalRemaining,
+        // Sorted by total remaining quantity (ascending - lowest stock first)
+        return reportQueryRepository.findMainStockBelow(threshold).stream()
+                .map(row -> new ReorderLevelReport(
+                        row.productCode(),
+                        row.productName(),
+                        row.totalQuantity(),
                         threshold,
-                        quantityToReorder));
-            }
-        }
-
-        // Sort by total remaining quantity (ascending - lowest stock first)
-        reports.sort((a, b) -> Integer.compare(a.totalRemainingQuantity(), b.totalRemainingQuantity()));
-
-        return reports;
+                        threshold - row.totalQuantity()))
+                .toList();
     }
 
     @Override
     public List<BatchStockReport> getBatchStockReport() {
         logger.debug("Generating batch-wise stock report");
 
-        List<BatchStockReport> reports = new ArrayList<>();
-
-        // Get all batches from main inventory
-        List<MainInventory> allBatches = mainInventoryRepository.findAll();
-
-        for (MainInventory batch : allBatches) {
-            String productCode = batch.getProductCodeString();
-            int batchId = batch.getMainInventoryId();
-
-            // Get quantity in physical store for this batch
-            int physicalQty = physicalStoreRepository.findByProductCodeAndBatchId(productCode, batchId)
-                    .map(inv -> inv.getQuantityOnShelf())
-                    .orElse(0);
-
-            // Get quantity in online store for this batch
-            int onlineQty = onlineStoreRepository.findByProductCodeAndBatchId(productCode, batchId)
-                    .map(inv -> inv.getQuantityAvailable())
-                    .orElse(0);
-
-            reports.add(new BatchStockReport(
-                    productCode,
-                    batch.getProductName(),
-                    batchId,
-                    batch.getPurchaseDate(),
-                    batch.getExpiryDate(),
-                    batch.getQuantityReceived(),
-                    batch.getRemainingQuantity(),
-                    physicalQty,
-                    onlineQty));
-        }
-
-        // Sort by product code, then by batch number
-        reports.sort((a, b) -> {
-            int codeCompare = a.productCode().compareTo(b.productCode());
-            if (codeCompare != 0)
-                return codeCompare;
-            return Integer.compare(a.batchNumber(), b.batchNumber());
-        });
-
-        return reports;
+        // Sorted by product code, then by batch number
+        return reportQueryRepository.findBatchStock().stream()
+                .map(row -> new BatchStockReport(
+                        row.productCode(),
+                        row.productName(),
+                        row.batchId(),
+                        row.purchaseDate(),
+                        row.expiryDate(),
+                        row.quantityReceived(),
+                        row.remainingQuantity(),
+                        row.physicalQuantity(),
+                        row.onlineQuantity()))
+                .toList();
     }
 
     // ==================== Dashboard Reports ====================
@@ -547,15 +564,12 @@ public class ReportServiceImpl implements ReportService {
         // Fetch all bills for the day and store type
         List<Bill> bills = billRepository.findByStoreTypeAndDateRange(storeType, date, date);
 
-        // Concurrently fetch items for each bill
-        bills.parallelStream().forEach(bill -> {
-            try {
-                List<BillItem> items = billItemRepository.findByBillId(bill.getBillId());
-                bill.setItems(items);
-            } catch (Exception e) {
-                logger.error("Failed to fetch items for bill " + bill.getBillId(), e);
-            }
-        });
+        // Fetch the items of all those bills at once and hand them out by bill id
+        Map<Integer, List<BillItem>> itemsByBill = new HashMap<>();
+        for (BillItem item : reportQueryRepository.findBillItems(storeType, date, date)) {
+            itemsByBill.computeIfAbsent(item.getBillId(), id -> new ArrayList<>()).add(item);
+        }
+        bills.forEach(bill -> bill.setItems(itemsByBill.getOrDefault(bill.getBillId(), new ArrayList<>())));
 
         // Calculate totals
         int totalBills = bills.size();
@@ -574,17 +588,65 @@ public class ReportServiceImpl implements ReportService {
         LocalDate weekAgo = today.minusDays(7);
         LocalDate monthAgo = today.minusDays(30);
 
-        BigDecimal todaySales = billRepository.getTotalSalesForDate(today);
-        int todayBillCount = billRepository.getBillCountForDate(today);
+        BigDecimal todaySales;
+        int todayBillCount;
+        BigDecimal weekSales;
+        BigDecimal monthSales;
+        int lowStockCount;
+        if (dashboardCounters != null) {
+            // Today from the live counters, so only the days before it are read
+            DashboardCounts counts = dashboardCounters.snapshot();
+            todaySales = counts.revenue();
+            todayBillCount = (int) counts.billCount();
+            lowStockCount = counts.lowStockCount();
+            LocalDate yesterday = today.minusDays(1);
+            if (salesRollupRepository != null) {
+                weekSales = BigDecimal.ZERO;
+                monthSales = BigDecimal.ZERO;
+                for (BillSales sales : salesRollupRepository.findBillSales(monthAgo, yesterday)) {
+                    monthSales = monthSales.add(sales.totalAmount());
+                    if (!sales.date().isBefore(weekAgo)) {
+                        weekSales = weekSales.add(sales.totalAmount());
+                    }
+                }
+            } else {
+                weekSales = billRepository.getTotalSalesForDateRange(weekAgo, yesterday);
+                monthSales = billRepository.getTotalSalesForDateRange(monthAgo, yesterday);
+            }
+            weekSales = weekSales.add(todaySales);
+            monthSales = monthSales.add(todaySales);
+        } else {
+            if (salesRollupRepository != null) {
+                // One read of the month covers the day and the week as well
+                todaySales = BigDecimal.ZERO;
+                todayBillCount = 0;
+                weekSales = BigDecimal.ZERO;
+                monthSales = BigDecimal.ZERO;
+                for (BillSales sales : billSales(monthAgo, today)) {
+                    monthSales = monthSales.add(sales.totalAmount());
+                    if (!sales.date().isBefore(weekAgo)) {
+                        weekSales = weekSales.add(sales.totalAmount());
+                    }
+                    if (sales.date().equals(today)) {
+                        todaySales = todaySales.add(sales.totalAmount());
+                        todayBillCount += sales.billCount();
+                    }
+                }
+            } else {
+                todaySales = billRepository.getTotalSalesForDate(today);
+                todayBillCount = billRepository.getBillCountForDate(today);
+                weekSales = billRepository.getTotalSalesForDateRange(weekAgo, today);
+                monthSales = billRepository.getTotalSalesForDateRange(monthAgo, today);
+            }
 
-        // Low stock count (physical store by default)
-        int lowStockCount = physicalStoreRepository.findLowStock(DEFAULT_LOW_STOCK_THRESHOLD).size();
+            // Low stock count (physical store by default)
+            lowStockCount = physicalStoreRepository.findLowStock(DEFAULT_LOW_STOCK_THRESHOLD).size();
+        }
 
         // Expiring within 7 days
-        int expiringCount = mainInventoryRepository.findExpiringWithinDays(7).size();
-
-        BigDecimal weekSales = billRepository.getTotalSalesForDateRange(weekAgo, today);
-        BigDecimal monthSales = billRepository.getTotalSalesForDateRange(monthAgo, today);
+        int expiringCount = expiryScheduler != null
+                ? expiryScheduler.getExpiringSoonCount()
+                : mainInventoryRepository.findExpiringWithinDays(7).size();
 
         List<ProductSalesReport> topProducts = getTopSellingProducts(weekAgo, today, 5);
 
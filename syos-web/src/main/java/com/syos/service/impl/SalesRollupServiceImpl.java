@@ -0,0 +1,94 @@
+package com.syos.service.impl;
+
+import com.syos.exception.BusinessRuleException;
+import com.syos.exception.ValidationException;
+import com.syos.repository.interfaces.SalesRollupRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.interfaces.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of SalesRollupService.
+ *
+ * Each day is rebuilt in its own transaction, so a long backfill never holds
+ * locks on more than one day of rollup rows at a time.
+ */
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupServiceImpl.class);
+
+    // Leaves time for bills dated just before midnight to be finalized
+    private static final Duration CLOSE_DELAY = Duration.ofMinutes(10);
+
+    private final SalesRollupRepository rollupRepository;
+    private final UnitOfWork unitOfWork;
+    private final Clock clock;
+
+    private final AtomicBoolean backfilling = new AtomicBoolean(false);
+    private LocalDate lastClosedDay;
+
+    public SalesRollupServiceImpl(SalesRollupRepository rollupRepository, UnitOfWork unitOfWork) {
+        this(rollupRepository, unitOfWork, Clock.systemDefaultZone());
+    }
+
+    public SalesRollupServiceImpl(SalesRollupRepository rollupRepository, UnitOfWork unitOfWork, Clock clock) {
+        this.rollupRepository = rollupRepository;
+        this.unitOfWork = unitOfWork;
+        this.clock = clock;
+    }
+
+    @Override
+    public BackfillReport backfill(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new ValidationException("Start and end dates are required");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new ValidationException("Start date cannot be after end date");
+        }
+        if (endDate.isAfter(LocalDate.now(clock))) {
+            throw new ValidationException("endDate", "End date cannot be in the future");
+        }
+        if (!backfilling.compareAndSet(false, true)) {
+            throw new BusinessRuleException("A sales rollup backfill is already running");
+        }
+        try {
+            int days = 0;
+            int bills = 0;
+            for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                LocalDate current = day;
+                bills += unitOfWork.execute(() -> rollupRepository.rebuildDay(current));
+                days++;
+            }
+            logger.info("Backfilled sales rollups from {} to {}: {} days, {} bills", startDate, endDate, days, bills);
+            return new BackfillReport(startDate, endDate, days, bills);
+        } finally {
+            backfilling.set(false);
+        }
+    }
+
+    @Override
+    public boolean isBackfillRunning() {
+        return backfilling.get();
+    }
+
+    @Override
+    public synchronized Optional<LocalDate> closeDay() {
+        LocalDate day = LocalDateTime.now(clock).minus(CLOSE_DELAY).toLocalDate().minusDays(1);
+        if (lastClosedDay != null && !lastClosedDay.isBefore(day)) {
+            return Optional.empty();
+        }
+
+        int bills = unitOfWork.execute(() -> rollupRepository.rebuildDay(day));
+        lastClosedDay = day;
+        logger.info("Closed sales rollups for {}: {} bills", day, bills);
+        return Optional.of(day);
+    }
+}
@@ -0,0 +1,209 @@
+package com.syos.service.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.Product;
+import com.syos.domain.valueobjects.StoreStockLevel;
+import com.syos.repository.interfaces.ProductRepository;
+import com.syos.service.interfaces.StockAlertService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of StockAlertService.
+ *
+ * Changed products are queued per store and checked together by one task on
+ * the executor, reading their levels from the {@link StoreStockSummaryMirror}
+ * and their minimums from an in-memory copy of the product catalog. The outbox
+ * keeps the most recent alerts only.
+ */
+public class StockAlertServiceImpl implements StockAlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockAlertServiceImpl.class);
+
+    private static final int DEFAULT_OUTBOX_CAPACITY = 5000;
+    private static final Duration THRESHOLD_MAX_AGE = Duration.ofMinutes(10);
+
+    private final StoreStockSummaryMirror stockSummaryMirror;
+    private final ProductRepository productRepository;
+    private final Executor executor;
+    private final Clock clock;
+    private final int outboxCapacity;
+
+    private final Map<StoreType, Set<String>> pending = new EnumMap<>(StoreType.class);
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    private final Map<AlertKey, StockAlert> openAlerts = new ConcurrentHashMap<>();
+    private final Deque<StockAlert> outbox = new ArrayDeque<>();
+    private long lastAlertId;
+
+    private volatile Thresholds thresholds;
+
+    public StockAlertServiceImpl(StoreStockSummaryMirror stockSummaryMirror,
+                                 ProductRepository productRepository,
+                                 Executor executor) {
+        this(stockSummaryMirror, productRepository, executor, Clock.systemDefaultZone(), DEFAULT_OUTBOX_CAPACITY);
+    }
+
+    public StockAlertServiceImpl(StoreStockSummaryMirror stockSummaryMirror,
+                                 ProductRepository productRepository,
+                                 Executor executor,
+                                 Clock clock,
+                                 int outboxCapacity) {
+        this.stockSummaryMirror = stockSummaryMirror;
+        this.productRepository = productRepository;
+        this.executor = executor;
+        this.clock = clock;
+        this.outboxCapacity = outboxCapacity;
+        for (StoreType storeType : StoreType.values()) {
+            pending.put(storeType, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @Override
+    public void stockChanged(StoreType storeType, Collection<String> productCodes) {
+        pending.get(storeType).addAll(productCodes);
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    @Override
+    public void checkAll() {
+        for (StoreType storeType : StoreType.values()) {
+            stockSummaryMirror.getStockLevels(storeType).forEach(level -> check(storeType, level));
+        }
+        logger.info("Stock alert check complete: {} products low or out of stock", openAlerts.size());
+    }
+
+    @Override
+    public AlertPage getAlerts(long afterId, int limit) {
+        List<StockAlert> alerts = new ArrayList<>();
+        boolean hasMore = false;
+        synchronized (outbox) {
+            for (StockAlert alert : outbox) {
+                if (alert.id() <= afterId) {
+                    continue;
+                }
+                if (alerts.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                alerts.add(alert);
+            }
+        }
+        long nextAfterId = alerts.isEmpty() ? afterId : alerts.get(alerts.size() - 1).id();
+        return new AlertPage(alerts, nextAfterId, hasMore);
+    }
+
+    @Override
+    public List<StockAlert> getOpenAlerts(StoreType storeType) {
+        return openAlerts.values().stream()
+                .filter(alert -> alert.storeType() == storeType)
+                .sorted(Comparator.comparingInt(StockAlert::quantity))
+                .toList();
+    }
+
+    private void drain() {
+        // Cleared before reading so that changes queued meanwhile schedule another run
+        drainScheduled.set(false);
+        for (StoreType storeType : StoreType.values()) {
+            Set<String> queued = pending.get(storeType);
+            if (queued.isEmpty()) {
+                continue;
+            }
+            List<String> productCodes = new ArrayList<>(queued);
+            queued.removeAll(productCodes);
+            try {
+                stockSummaryMirror.getStockLevels(storeType, productCodes).forEach(level -> check(storeType, level));
+            } catch (RuntimeException e) {
+                logger.error("Could not check stock alerts for {} {} products: {}",
+                        productCodes.size(), storeType, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void check(StoreType storeType, StoreStockLevel level) {
+        Product product = currentThresholds().products().get(level.productCode());
+        if (product == null) {
+            return;
+        }
+        int minimumStock = storeType == StoreType.PHYSICAL
+                ? product.getMinPhysicalStock()
+                : product.getMinOnlineStock();
+
+        AlertType type = null;
+        if (level.stocked() && level.totalQuantity() <= 0) {
+            type = AlertType.OUT_OF_STOCK;
+        } else if (level.totalQuantity() < minimumStock) {
+            type = AlertType.LOW_STOCK;
+        }
+
+        AlertKey key = new AlertKey(storeType, level.productCode());
+        synchronized (outbox) {
+            StockAlert open = openAlerts.get(key);
+            AlertType openType = open != null ? open.type() : null;
+            if (type == openType) {
+                return;
+            }
+            StockAlert alert = append(storeType, level, type != null ? type : AlertType.BACK_IN_STOCK, minimumStock);
+            if (type != null) {
+                openAlerts.put(key, alert);
+            } else {
+                openAlerts.remove(key);
+            }
+        }
+    }
+
+    private StockAlert append(StoreType storeType, StoreStockLevel level, AlertType type, int minimumStock) {
+        StockAlert alert = new StockAlert(++lastAlertId, storeType, level.productCode(), level.productName(),
+                type, level.totalQuantity(), minimumStock, LocalDateTime.now(clock));
+        outbox.addLast(alert);
+        if (outbox.size() > outboxCapacity) {
+            outbox.removeFirst();
+        }
+        if (type == AlertType.BACK_IN_STOCK) {
+            logger.info("Stock alert - {} store: {} ({}) back in stock, Qty: {}",
+                    storeType, level.productName(), level.productCode(), level.totalQuantity());
+        } else {
+            logger.warn("Stock alert - {} store: {} ({}) {}, Qty: {}, Min: {}",
+                    storeType, level.productName(), level.productCode(), type, level.totalQuantity(), minimumStock);
+        }
+        return alert;
+    }
+
+    private Thresholds currentThresholds() {
+        Thresholds current = thresholds;
+        Instant now = clock.instant();
+        if (current == null || !now.isBefore(current.loadedAt().plus(THRESHOLD_MAX_AGE))) {
+            Map<String, Product> products = new HashMap<>();
+            productRepository.findAllActive().forEach(p -> products.put(p.getProductCodeString(), p));
+            current = new Thresholds(products, now);
+            thresholds = current;
+        }
+        return current;
+    }
+
+    private record AlertKey(StoreType storeType, String productCode) {
+    }
+
+    private record Thresholds(Map<String, Product> products, Instant loadedAt) {
+    }
+}
@@ -0,0 +1,303 @@
+package com.syos.service.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.OnlineStoreInventory;
+import com.syos.domain.models.PhysicalStoreInventory;
+import com.syos.repository.interfaces.OnlineStoreInventoryRepository;
+import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.interfaces.StoreInventoryService.BatchAllocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of store batches per product and store type, kept in FIFO
+ * order (expiry date, then purchase date) exactly as the store repositories
+ * return them.
+ *
+ * Each product entry is an immutable snapshot replaced atomically, so reads
+ * never lock. The database stays the source of truth: entries are loaded on
+ * first use (or in bulk by {@link #rebuild()}), reduced after a committed sale
+ * and dropped whenever the database may have moved on without the index.
+ * {@link #reconcile} catches up with changes the index missed.
+ */
+public class StoreBatchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreBatchIndex.class);
+
+    private final PhysicalStoreInventoryRepository physicalStoreRepository;
+    private final OnlineStoreInventoryRepository onlineStoreRepository;
+    private final UnitOfWork unitOfWork;
+    private final Map<StoreType, ConcurrentHashMap<String, ProductBatches>> entries = new EnumMap<>(StoreType.class);
+    private final Map<StoreType, AtomicLong> changeStamps = new EnumMap<>(StoreType.class);
+
+    public StoreBatchIndex(PhysicalStoreInventoryRepository physicalStoreRepository,
+                           OnlineStoreInventoryRepository onlineStoreRepository) {
+        this(physicalStoreRepository, onlineStoreRepository, UnitOfWork.AUTO_COMMIT);
+    }
+
+    /**
+     * Creates an index whose loads run outside any active unit of work, so that
+     * uncommitted changes never end up in the index.
+     */
+    public StoreBatchIndex(PhysicalStoreInventoryRepository physicalStoreRepository,
+                           OnlineStoreInventoryRepository onlineStoreRepository,
+                           UnitOfWork unitOfWork) {
+        this.physicalStoreRepository = physicalStoreRepository;
+        this.onlineStoreRepository = onlineStoreRepository;
+        this.unitOfWork = unitOfWork;
+        for (StoreType storeType : StoreType.values()) {
+            entries.put(storeType, new ConcurrentHashMap<>());
+            changeStamps.put(storeType, new AtomicLong());
+        }
+    }
+
+    /**
+     * Reloads every product for both store types from the database.
+     * Products not loaded here are still loaded lazily on first use.
+     */
+    public void rebuild() {
+        Map<String, List<ShelfBatch>> physical = new LinkedHashMap<>();
+        for (PhysicalStoreInventory inv : unitOfWork.suspend(physicalStoreRepository::findAllAvailable)) {
+            physical.computeIfAbsent(inv.getProductCodeString(), k -> new ArrayList<>())
+                    .add(new ShelfBatch(inv.getMainInventoryId(), inv.getExpiryDate(), inv.getQuantityOnShelf()));
+        }
+        Map<String, List<ShelfBatch>> online = new LinkedHashMap<>();
+        for (OnlineStoreInventory inv : unitOfWork.suspend(onlineStoreRepository::findAllAvailable)) {
+            online.computeIfAbsent(inv.getProductCodeString(), k -> new ArrayList<>())
+                    .add(new ShelfBatch(inv.getMainInventoryId(), inv.getExpiryDate(), inv.getQuantityAvailable()));
+        }
+
+        replaceAll(StoreType.PHYSICAL, physical);
+        replaceAll(StoreType.ONLINE, online);
+        logger.info("Store batch index rebuilt: {} physical and {} online products",
+                physical.size(), online.size());
+    }
+
+    /**
+     * Gets the total quantity available for a product in a store.
+     */
+    public int getAvailableQuantity(StoreType storeType, String productCode) {
+        return get(storeType, productCode).total();
+    }
+
+    /**
+     * Gets the total quantity available in a store for several products, loading
+     * the products not yet held with a single query.
+     */
+    public Map<String, Integer> getAvailableQuantities(StoreType storeType, Collection<String> productCodes) {
+        ConcurrentHashMap<String, ProductBatches> store = entries.get(storeType);
+        List<String> missing = productCodes.stream()
+                .distinct()
+                .filter(code -> !store.containsKey(code))
+                .toList();
+        if (missing.size() > 1) {
+            preload(storeType, missing);
+        }
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (String code : productCodes) {
+            quantities.put(code, get(storeType, code).total());
+        }
+        return quantities;
+    }
+
+    /**
+     * Drops every held product whose total differs from the database's, so the
+     * next use reloads it. Products missing from the given totals are left alone.
+     *
+     * @param databaseTotals available quantity per product as read from the database
+     * @return the number of products dropped
+     */
+    public int reconcile(StoreType storeType, Map<String, Integer> databaseTotals) {
+        ConcurrentHashMap<String, ProductBatches> store = entries.get(storeType);
+        int dropped = 0;
+        for (Map.Entry<String, ProductBatches> entry : store.entrySet()) {
+            Integer total = databaseTotals.get(entry.getKey());
+            if (total != null && total != entry.getValue().total()
+                    && store.remove(entry.getKey(), entry.getValue())) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            changeStamps.get(storeType).incrementAndGet();
+            logger.warn("Store batch index dropped {} {} products that drifted from the database",
+                    dropped, storeType);
+        }
+        return dropped;
+    }
+
+    /**
+     * Plans a FIFO allocation of the requested quantity without changing the index.
+     * The returned allocations may cover less than the requested quantity when
+     * stock is short.
+     */
+    public List<BatchAllocation> allocate(StoreType storeType, String productCode, int quantity) {
+        List<BatchAllocation> allocations = new ArrayList<>();
+        int remaining = quantity;
+        for (ShelfBatch batch : get(storeType, productCode).batches()) {
+            if (remaining <= 0) {
+                break;
+            }
+            int toAllocate = Math.min(batch.quantity(), remaining);
+            if (toAllocate > 0) {
+                allocations.add(new BatchAllocation(batch.batchId(), productCode, toAllocate, batch.expiryDate()));
+                remaining -= toAllocate;
+            }
+        }
+        return allocations;
+    }
+
+    /**
+     * Applies committed deductions to the index. A product whose entry no longer
+     * matches (unknown batch or not enough quantity) is dropped and reloaded later.
+     */
+    public void deduct(StoreType storeType, Collection<BatchAllocation> allocations) {
+        ConcurrentHashMap<String, ProductBatches> store = entries.get(storeType);
+        changeStamps.get(storeType).incrementAndGet();
+        for (BatchAllocation allocation : allocations) {
+            store.computeIfPresent(allocation.productCode(),
+                    (code, current) -> current.minus(allocation.batchId(), allocation.quantity()));
+        }
+    }
+
+    /**
+     * Drops a product so that its next use reloads it from the database.
+     */
+    public void invalidate(StoreType storeType, String productCode) {
+        changeStamps.get(storeType).incrementAndGet();
+        entries.get(storeType).remove(productCode);
+    }
+
+    /**
+     * Gets the number of products currently held for a store type.
+     */
+    public int size(StoreType storeType) {
+        return entries.get(storeType).size();
+    }
+
+    /**
+     * Gets a product's entry, loading it if not held. The query runs outside the
+     * map so no lock is held across it; as with {@link #preload}, the result is
+     * only stored if nothing changed the store while it ran.
+     */
+    private ProductBatches get(StoreType storeType, String productCode) {
+        ConcurrentHashMap<String, ProductBatches> store = entries.get(storeType);
+        ProductBatches current = store.get(productCode);
+        if (current != null) {
+            return current;
+        }
+        AtomicLong changeStamp = changeStamps.get(storeType);
+        long stamp = changeStamp.get();
+        ProductBatches loaded = unitOfWork.suspend(() -> load(storeType, productCode));
+        ProductBatches stored = store.compute(productCode, (k, existing) ->
+                existing != null || changeStamp.get() != stamp ? existing : loaded);
+        return stored != null ? stored : loaded;
+    }
+
+    /**
+     * Loads several products with one query. An entry is only stored if nothing
+     * changed the store since the query started; otherwise the products are left
+     * to load one at a time.
+     */
+    private void preload(StoreType storeType, List<String> productCodes) {
+        AtomicLong changeStamp = changeStamps.get(storeType);
+        long stamp = changeStamp.get();
+        Map<String, List<ShelfBatch>> loaded = unitOfWork.suspend(() -> loadAll(storeType, productCodes));
+        ConcurrentHashMap<String, ProductBatches> store = entries.get(storeType);
+        for (String code : productCodes) {
+            ProductBatches batches = ProductBatches.of(loaded.getOrDefault(code, List.of()));
+            store.compute(code, (k, current) ->
+                    current != null || changeStamp.get() != stamp ? current : batches);
+        }
+    }
+
+    private Map<String, List<ShelfBatch>> loadAll(StoreType storeType, List<String> productCodes) {
+        Map<String, List<ShelfBatch>> loaded = new LinkedHashMap<>();
+        if (storeType == StoreType.PHYSICAL) {
+            for (PhysicalStoreInventory inv : physicalStoreRepository.findAvailableByProductCodes(productCodes)) {
+                loaded.computeIfAbsent(inv.getProductCodeString(), k -> new ArrayList<>())
+                        .add(new ShelfBatch(inv.getMainInventoryId(), inv.getExpiryDate(), inv.getQuantityOnShelf()));
+            }
+        } else {
+            for (OnlineStoreInventory inv : onlineStoreRepository.findAvailableByProductCodes(productCodes)) {
+                loaded.computeIfAbsent(inv.getProductCodeString(), k -> new ArrayList<>())
+                        .add(new ShelfBatch(inv.getMainInventoryId(), inv.getExpiryDate(), inv.getQuantityAvailable()));
+            }
+        }
+        return loaded;
+    }
+
+    private ProductBatches load(StoreType storeType, String productCode) {
+        List<ShelfBatch> batches = new ArrayList<>();
+        if (storeType == StoreType.PHYSICAL) {
+            for (PhysicalStoreInventory inv : physicalStoreRepository.findAvailableByProductCode(productCode)) {
+                batches.add(new ShelfBatch(inv.getMainInventoryId(), inv.getExpiryDate(), inv.getQuantityOnShelf()));
+            }
+        } else {
+            for (OnlineStoreInventory inv : onlineStoreRepository.findAvailableByProductCode(productCode)) {
+                batches.add(new ShelfBatch(inv.getMainInventoryId(), inv.getExpiryDate(), inv.getQuantityAvailable()));
+            }
+        }
+        return ProductBatches.of(batches);
+    }
+
+    private void replaceAll(StoreType storeType, Map<String, List<ShelfBatch>> loaded) {
+        ConcurrentHashMap<String, ProductBatches> store = entries.get(storeType);
+        changeStamps.get(storeType).incrementAndGet();
+        store.clear();
+        loaded.forEach((code, batches) -> store.put(code, ProductBatches.of(batches)));
+    }
+
+    /**
+     * One batch of a product in a store.
+     */
+    private record ShelfBatch(Integer batchId, LocalDate expiryDate, int quantity) {
+    }
+
+    /**
+     * Immutable FIFO-ordered batches of one product with their running total.
+     */
+    private record ProductBatches(List<ShelfBatch> batches, int total) {
+
+        static ProductBatches of(List<ShelfBatch> batches) {
+            int total = 0;
+            for (ShelfBatch batch : batches) {
+                total += batch.quantity();
+            }
+            return new ProductBatches(List.copyOf(batches), total);
+        }
+
+        /**
+         * Returns a copy with the quantity taken from the batch, or null (dropping
+         * the entry) when the batch is unknown or short.
+         */
+        ProductBatches minus(Integer batchId, int quantity) {
+            List<ShelfBatch> updated = new ArrayList<>(batches.size());
+            boolean found = false;
+            for (ShelfBatch batch : batches) {
+                if (!found && batch.batchId().equals(batchId)) {
+                    if (batch.quantity() < quantity) {
+                        return null;
+                    }
+                    found = true;
+                    if (batch.quantity() > quantity) {
+                        updated.add(new ShelfBatch(batchId, batch.expiryDate(), batch.quantity() - quantity));
+                    }
+                } else {
+                    updated.add(batch);
+                }
+            }
+            return found ? new ProductBatches(List.copyOf(updated), total - quantity) : null;
+        }
+    }
+}
@@ -6,7 +6,9 @@ import com.syos.domain.models.InventoryTransaction;
 import com.syos.domain.models.MainInventory;
 import com.syos.domain.models.OnlineStoreInventory;
 import com.syos.domain.models.PhysicalStoreInventory;
+import com.syos.domain.valueobjects.BatchQuantity;
 import com.syos.domain.valueobjects.ProductCode;
+import com.syos.domain.valueobjects.StoreStockLevel;
 import com.syos.exception.InsufficientStockException;
 import com.syos.exception.ProductNotFoundException;
 import com.syos.exception.ValidationException;
@@ -16,15 +18,24 @@ import com.syos.repository.interfaces.OnlineStoreInventoryRepository;
 import com.syos.repository.interfaces.OnlineStoreInventoryRepository.ProductStockSummary;
 import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
 import com.syos.repository.interfaces.ProductRepository;
+import com.syos.repository.interfaces.ProductRepository.StockProbe;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.interfaces.StockAlertService;
 import com.syos.service.interfaces.StoreInventoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import com.syos.config.ThreadPoolConfig;
 
@@ -36,23 +47,49 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
 
     private static final Logger logger = LoggerFactory.getLogger(StoreInventoryServiceImpl.class);
 
+    private static final int MAX_RESTOCK_ATTEMPTS = 3;
+
     private final PhysicalStoreInventoryRepository physicalStoreRepository;
     private final OnlineStoreInventoryRepository onlineStoreRepository;
     private final MainInventoryRepository mainInventoryRepository;
     private final InventoryTransactionRepository transactionRepository;
     private final ProductRepository productRepository;
-
+    private final StoreBatchIndex batchIndex;
+    private final StoreStockSummaryMirror summaryMirror;
+    private final StockAlertService stockAlertService;
+    private final BatchExpiryScheduler expiryScheduler;
+    private final ReportCache reportCache;
+    private final UnitOfWork unitOfWork;
+
+    /**
+     * Creates the service. The batch index, summary mirror, alert service, expiry
+     * scheduler and report cache are brought up to date after the surrounding unit
+     * of work commits; any of them may be null. Without the batch index every stock
+     * query and FIFO allocation goes to the database.
+     */
     public StoreInventoryServiceImpl(
             PhysicalStoreInventoryRepository physicalStoreRepository,
             OnlineStoreInventoryRepository onlineStoreRepository,
             MainInventoryRepository mainInventoryRepository,
             InventoryTransactionRepository transactionRepository,
-            ProductRepository productRepository) {
+            ProductRepository productRepository,
+            StoreBatchIndex batchIndex,
+            StoreStockSummaryMirror summaryMirror,
+            StockAlertService stockAlertService,
+            BatchExpiryScheduler expiryScheduler,
+            ReportCache reportCache,
+            UnitOfWork unitOfWork) {
         this.physicalStoreRepository = physicalStoreRepository;
         this.onlineStoreRepository = onlineStoreRepository;
         this.mainInventoryRepository = mainInventoryRepository;
         this.transactionRepository = transactionRepository;
         this.productRepository = productRepository;
+        this.batchIndex = batchIndex;
+        this.summaryMirror = summaryMirror;
+        this.stockAlertService = stockAlertService;
+        this.expiryScheduler = expiryScheduler;
+        this.reportCache = reportCache;
+        this.unitOfWork = unitOfWork;
     }
 
     // ==================== Physical Store Operations ====================
@@ -66,54 +103,7 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
             throw new ValidationException("Quantity must be positive");
         }
 
-        List<MainInventory> availableBatches = mainInventoryRepository.findAvailableBatchesByProductCode(productCode);
-        if (availableBatches.isEmpty()) {
-            return RestockResult.failure("No available batches in main inventory");
-        }
-
-        int totalRestocked = 0;
-        int batchesUsed = 0;
-        int remainingQuantity = quantity;
-
-        // FIFO - process batches in order (already sorted by expiry date)
-        for (MainInventory batch : availableBatches) {
-            if (remainingQuantity <= 0)
-                break;
-
-            int available = batch.getRemainingQuantity();
-            int toRestock = Math.min(available, remainingQuantity);
-
-            if (toRestock > 0) {
-                // Reduce from main inventory
-                boolean reduced = mainInventoryRepository.reduceQuantity(batch.getMainInventoryId(), toRestock);
-                if (reduced) {
-                    // Add to physical store
-                    physicalStoreRepository.addQuantity(productCode, batch.getMainInventoryId(), toRestock);
-
-                    // Log transaction
-                    logTransaction(productCode, batch.getMainInventoryId(), InventoryTransactionType.RESTOCK_PHYSICAL,
-                            StoreType.PHYSICAL, toRestock, "Restocked to physical store shelves");
-
-                    totalRestocked += toRestock;
-                    remainingQuantity -= toRestock;
-                    batchesUsed++;
-                }
-            }
-        }
-
-        if (totalRestocked == 0) {
-            return RestockResult.failure("Failed to restock - no stock available");
-        }
-
-        if (totalRestocked < quantity) {
-            logger.warn("Partial restock for {}: requested {}, restocked {}", productCode, quantity, totalRestocked);
-            return RestockResult.partial(totalRestocked, batchesUsed,
-                    "Partial restock: only " + totalRestocked + " of " + quantity + " units available");
-        }
-
-        logger.info("Restocked physical store: {} quantity: {} from {} batches", productCode, totalRestocked,
-                batchesUsed);
-        return RestockResult.success(totalRestocked, batchesUsed);
+        return restockProduct(StoreType.PHYSICAL, productCode, quantity);
     }
 
     @Override
@@ -125,18 +115,18 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
             throw new ValidationException("Quantity must be positive");
         }
 
-        // Reduce from main inventory
-        boolean reduced = mainInventoryRepository.reduceQuantity(batchId, quantity);
-        if (!reduced) {
-            throw InsufficientStockException.forProduct(productCode, 0, quantity);
-        }
-
-        // Add to physical store
-        physicalStoreRepository.addQuantity(productCode, batchId, quantity);
+        unitOfWork.run(() -> {
+            // Shelf before main inventory, matching the lock order of a sale
+            physicalStoreRepository.addQuantity(productCode, batchId, quantity);
+            if (!mainInventoryRepository.reduceQuantity(batchId, quantity)) {
+                throw InsufficientStockException.forProduct(productCode, 0, quantity);
+            }
+            publishBatchReductions(List.of(new BatchQuantity(productCode, batchId, quantity)));
+            refreshIndexedProduct(StoreType.PHYSICAL, productCode);
 
-        // Log transaction
-        logTransaction(productCode, batchId, InventoryTransactionType.RESTOCK_PHYSICAL,
-                StoreType.PHYSICAL, quantity, "Restocked to physical store from batch " + batchId);
+            logTransaction(productCode, batchId, InventoryTransactionType.RESTOCK_PHYSICAL,
+                    StoreType.PHYSICAL, quantity, "Restocked to physical store from batch " + batchId);
+        });
 
         logger.info("Restocked physical store from batch {}: {} quantity: {}", batchId, productCode, quantity);
         return true;
@@ -149,16 +139,25 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
 
     @Override
     public int getPhysicalStoreQuantity(String productCode) {
+        if (batchIndex != null) {
+            return batchIndex.getAvailableQuantity(StoreType.PHYSICAL, productCode);
+        }
         return physicalStoreRepository.getTotalQuantityOnShelf(productCode);
     }
 
     @Override
     public boolean reducePhysicalStoreStock(String productCode, Integer batchId, int quantity) {
-        return physicalStoreRepository.reduceQuantity(productCode, batchId, quantity);
+        boolean reduced = physicalStoreRepository.reduceQuantity(productCode, batchId, quantity);
+        syncIndexAfterReduction(StoreType.PHYSICAL, reduced,
+                List.of(new BatchAllocation(batchId, productCode, quantity, null)));
+        return reduced;
     }
 
     @Override
     public List<ProductStockSummary> getPhysicalStoreStockSummary() {
+        if (summaryMirror != null) {
+            return toStockSummaries(summaryMirror.getStockLevels(StoreType.PHYSICAL));
+        }
         // Convert from PhysicalStoreInventoryRepository.ProductStockSummary to common
         // type
         return physicalStoreRepository.getStockSummary().stream()
@@ -168,6 +167,17 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
 
     @Override
     public List<PhysicalStoreInventory> getPhysicalStoreLowStock(int threshold) {
+        if (summaryMirror != null) {
+            return summaryMirror.getLowStock(StoreType.PHYSICAL, threshold).stream()
+                    .map(level -> {
+                        PhysicalStoreInventory inv = new PhysicalStoreInventory();
+                        inv.setProductCode(new ProductCode(level.productCode()));
+                        inv.setProductName(level.productName());
+                        inv.setQuantityOnShelf(level.totalQuantity());
+                        return inv;
+                    })
+                    .toList();
+        }
         return physicalStoreRepository.findLowStock(threshold);
     }
 
@@ -182,54 +192,7 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
             throw new ValidationException("Quantity must be positive");
         }
 
-        List<MainInventory> availableBatches = mainInventoryRepository.findAvailableBatchesByProductCode(productCode);
-        if (availableBatches.isEmpty()) {
-            return RestockResult.failure("No available batches in main inventory");
-        }
-
-        int totalRestocked = 0;
-        int batchesUsed = 0;
-        int remainingQuantity = quantity;
-
-        // FIFO - process batches in order (already sorted by expiry date)
-        for (MainInventory batch : availableBatches) {
-            if (remainingQuantity <= 0)
-                break;
-
-            int available = batch.getRemainingQuantity();
-            int toRestock = Math.min(available, remainingQuantity);
-
-            if (toRestock > 0) {
-                // Reduce from main inventory
-                boolean reduced = mainInventoryRepository.reduceQuantity(batch.getMainInventoryId(), toRestock);
-                if (reduced) {
-                    // Add to online store
-                    onlineStoreRepository.addQuantity(productCode, batch.getMainInventoryId(), toRestock);
-
-                    // Log transaction
-                    logTransaction(productCode, batch.getMainInventoryId(), InventoryTransactionType.RESTOCK_ONLINE,
-                            StoreType.ONLINE, toRestock, "Restocked to online store");
-
-                    totalRestocked += toRestock;
-                    remainingQuantity -= toRestock;
-                    batchesUsed++;
-                }
-            }
-        }
-
-        if (totalRestocked == 0) {
-            return RestockResult.failure("Failed to restock - no stock available");
-        }
-
-        if (totalRestocked < quantity) {
-            logger.warn("Partial restock for {}: requested {}, restocked {}", productCode, quantity, totalRestocked);
-            return RestockResult.partial(totalRestocked, batchesUsed,
-                    "Partial restock: only " + totalRestocked + " of " + quantity + " units available");
-        }
-
-        logger.info("Restocked online store: {} quantity: {} from {} batches", productCode, totalRestocked,
-                batchesUsed);
-        return RestockResult.success(totalRestocked, batchesUsed);
+        return restockProduct(StoreType.ONLINE, productCode, quantity);
     }
 
     @Override
@@ -241,18 +204,18 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
             throw new ValidationException("Quantity must be positive");
         }
 
-        // Reduce from main inventory
-        boolean reduced = mainInventoryRepository.reduceQuantity(batchId, quantity);
-        if (!reduced) {
-            throw InsufficientStockException.forProduct(productCode, 0, quantity);
-        }
-
-        // Add to online store
-        onlineStoreRepository.addQuantity(productCode, batchId, quantity);
+        unitOfWork.run(() -> {
+            // Shelf before main inventory, matching the lock order of a sale
+            onlineStoreRepository.addQuantity(productCode, batchId, quantity);
+            if (!mainInventoryRepository.reduceQuantity(batchId, quantity)) {
+                throw InsufficientStockException.forProduct(productCode, 0, quantity);
+            }
+            publishBatchReductions(List.of(new BatchQuantity(productCode, batchId, quantity)));
+            refreshIndexedProduct(StoreType.ONLINE, productCode);
 
-        // Log transaction
-        logTransaction(productCode, batchId, InventoryTransactionType.RESTOCK_ONLINE,
-                StoreType.ONLINE, quantity, "Restocked to online store from batch " + batchId);
+            logTransaction(productCode, batchId, InventoryTransactionType.RESTOCK_ONLINE,
+                    StoreType.ONLINE, quantity, "Restocked to online store from batch " + batchId);
+        });
 
         logger.info("Restocked online store from batch {}: {} quantity: {}", batchId, productCode, quantity);
         return true;
@@ -265,26 +228,78 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
 
     @Override
     public int getOnlineStoreQuantity(String productCode) {
+        if (batchIndex != null) {
+            return batchIndex.getAvailableQuantity(StoreType.ONLINE, productCode);
+        }
         return onlineStoreRepository.getTotalQuantityAvailable(productCode);
     }
 
     @Override
     public boolean reduceOnlineStoreStock(String productCode, Integer batchId, int quantity) {
-        return onlineStoreRepository.reduceQuantity(productCode, batchId, quantity);
+        boolean reduced = onlineStoreRepository.reduceQuantity(productCode, batchId, quantity);
+        syncIndexAfterReduction(StoreType.ONLINE, reduced,
+                List.of(new BatchAllocation(batchId, productCode, quantity, null)));
+        return reduced;
     }
 
     @Override
     public List<ProductStockSummary> getOnlineStoreStockSummary() {
+        if (summaryMirror != null) {
+            return toStockSummaries(summaryMirror.getStockLevels(StoreType.ONLINE));
+        }
         return onlineStoreRepository.getStockSummary();
     }
 
     @Override
     public List<OnlineStoreInventory> getOnlineStoreLowStock(int threshold) {
+        if (summaryMirror != null) {
+            return summaryMirror.getLowStock(StoreType.ONLINE, threshold).stream()
+                    .map(level -> {
+                        OnlineStoreInventory inv = new OnlineStoreInventory();
+                        inv.setProductCode(new ProductCode(level.productCode()));
+                        inv.setProductName(level.productName());
+                        inv.setQuantityAvailable(level.totalQuantity());
+                        return inv;
+                    })
+                    .toList();
+        }
         return onlineStoreRepository.findLowStock(threshold);
     }
 
     // ==================== Common Operations ====================
 
+    @Override
+    public Map<String, RestockResult> restockStore(StoreType storeType, Map<String, Integer> quantities) {
+        logger.debug("Bulk restocking {} store: {} products", storeType, quantities.size());
+
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new ValidationException("Quantity must be positive for product " + entry.getKey());
+            }
+        }
+        if (quantities.isEmpty()) {
+            return Map.of();
+        }
+
+        // One query tells us which products exist; unknown codes fail on their own
+        Set<String> known = productRepository.probeStock(storeType, quantities.keySet()).keySet();
+        Map<String, Integer> restockable = new LinkedHashMap<>();
+        quantities.forEach((code, quantity) -> {
+            if (known.contains(code)) {
+                restockable.put(code, quantity);
+            }
+        });
+
+        Map<String, RestockResult> planned = restock(storeType, restockable, () -> groupByProduct(
+                mainInventoryRepository.findAvailableBatchesByProductCodes(restockable.keySet())));
+
+        Map<String, RestockResult> results = new LinkedHashMap<>();
+        for (String code : quantities.keySet()) {
+            results.put(code, planned.getOrDefault(code, RestockResult.failure("Product not found: " + code)));
+        }
+        return results;
+    }
+
     @Override
     public int getAvailableQuantity(String productCode, StoreType storeType) {
         return switch (storeType) {
@@ -299,6 +314,53 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
         return available >= requiredQuantity;
     }
 
+    @Override
+    public Map<String, Integer> getAvailableQuantities(Collection<String> productCodes, StoreType storeType) {
+        if (batchIndex != null) {
+            return batchIndex.getAvailableQuantities(storeType, productCodes);
+        }
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (String code : productCodes) {
+            quantities.computeIfAbsent(code, c -> getAvailableQuantity(c, storeType));
+        }
+        return quantities;
+    }
+
+    @Override
+    public int reconcileAvailability() {
+        if (batchIndex == null) {
+            return 0;
+        }
+        int dropped = 0;
+        for (StoreType storeType : StoreType.values()) {
+            List<StoreStockLevel> levels = unitOfWork.suspend(() -> storeType == StoreType.PHYSICAL
+                    ? physicalStoreRepository.findStockLevels()
+                    : onlineStoreRepository.findStockLevels());
+            Map<String, Integer> totals = new HashMap<>();
+            levels.forEach(level -> totals.put(level.productCode(), level.totalQuantity()));
+            dropped += batchIndex.reconcile(storeType, totals);
+        }
+        return dropped;
+    }
+
+    @Override
+    public Map<String, StockProbe> probeStock(StoreType storeType, Collection<String> productCodes) {
+        return productRepository.probeStock(storeType, productCodes);
+    }
+
+    @Override
+    public boolean reduceStoreStock(StoreType storeType, List<BatchAllocation> allocations) {
+        List<BatchQuantity> reductions = allocations.stream()
+                .map(a -> new BatchQuantity(a.productCode(), a.batchId(), a.quantity()))
+                .toList();
+        boolean reduced = switch (storeType) {
+            case PHYSICAL -> physicalStoreRepository.reduceQuantities(reductions);
+            case ONLINE -> onlineStoreRepository.reduceQuantities(reductions);
+        };
+        syncIndexAfterReduction(storeType, reduced, allocations);
+        return reduced;
+    }
+
     @Override
     public Optional<BatchAllocation> getNextBatchForSale(String productCode, StoreType storeType,
             int requiredQuantity) {
@@ -310,6 +372,10 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
     public List<BatchAllocation> allocateStockForSale(String productCode, StoreType storeType, int quantity) {
         logger.debug("Allocating stock for sale: {} store: {} quantity: {}", productCode, storeType, quantity);
 
+        if (batchIndex != null) {
+            return allocateFromIndex(productCode, storeType, quantity);
+        }
+
         List<BatchAllocation> allocations = new ArrayList<>();
         int remainingQuantity = quantity;
 
@@ -398,6 +464,193 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
 
     // ==================== Helper Methods ====================
 
+    private RestockResult restockProduct(StoreType storeType, String productCode, int quantity) {
+        RestockResult result = restock(storeType, Map.of(productCode, quantity), () -> Map.of(productCode,
+                mainInventoryRepository.findAvailableBatchesByProductCode(productCode))).get(productCode);
+        if (result.success() && result.quantityRestocked() < quantity) {
+            logger.warn("Partial restock for {}: requested {}, restocked {}", productCode, quantity,
+                    result.quantityRestocked());
+        } else if (result.success()) {
+            logger.info("Restocked {} store: {} quantity: {} from {} batches", storeType, productCode,
+                    result.quantityRestocked(), result.batchesUsed());
+        }
+        return result;
+    }
+
+    /**
+     * Plans the FIFO split of every product across its main inventory batches in
+     * memory, then applies the whole plan in one transaction with batched statements.
+     * If a batch was drawn down elsewhere between planning and applying, the
+     * transaction rolls back and the plan is rebuilt from fresh batches.
+     */
+    private Map<String, RestockResult> restock(StoreType storeType, Map<String, Integer> quantities,
+            Supplier<Map<String, List<MainInventory>>> batchLoader) {
+        for (int attempt = 1;; attempt++) {
+            RestockPlan plan = planRestock(quantities, batchLoader.get());
+            if (plan.moves().isEmpty()) {
+                return plan.results();
+            }
+            try {
+                unitOfWork.run(() -> applyRestock(storeType, plan.moves()));
+                return plan.results();
+            } catch (InsufficientStockException e) {
+                if (attempt == MAX_RESTOCK_ATTEMPTS) {
+                    logger.warn("Restock of {} store abandoned after {} attempts: {}", storeType, attempt,
+                            e.getMessage());
+                    Map<String, RestockResult> results = new LinkedHashMap<>(plan.results());
+                    plan.moves().forEach(move -> results.put(move.productCode(),
+                            RestockResult.failure("Main inventory changed during restock, please retry")));
+                    return results;
+                }
+                logger.debug("Main inventory changed during restock, replanning: {}", e.getMessage());
+            }
+        }
+    }
+
+    private RestockPlan planRestock(Map<String, Integer> quantities, Map<String, List<MainInventory>> batches) {
+        Map<String, RestockResult> results = new LinkedHashMap<>();
+        List<BatchQuantity> moves = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            String productCode = entry.getKey();
+            int quantity = entry.getValue();
+            List<MainInventory> available = batches.getOrDefault(productCode, List.of());
+            if (available.isEmpty()) {
+                results.put(productCode, RestockResult.failure("No available batches in main inventory"));
+                continue;
+            }
+
+            int remainingQuantity = quantity;
+            int batchesUsed = 0;
+            // FIFO - batches arrive sorted by expiry date
+            for (MainInventory batch : available) {
+                if (remainingQuantity <= 0)
+                    break;
+
+                int toRestock = Math.min(batch.getRemainingQuantity(), remainingQuantity);
+                if (toRestock > 0) {
+                    moves.add(new BatchQuantity(productCode, batch.getMainInventoryId(), toRestock));
+                    remainingQuantity -= toRestock;
+                    batchesUsed++;
+                }
+            }
+
+            int restocked = quantity - remainingQuantity;
+            if (restocked == 0) {
+                results.put(productCode, RestockResult.failure("Failed to restock - no stock available"));
+            } else if (restocked < quantity) {
+                results.put(productCode, RestockResult.partial(restocked, batchesUsed,
+                        "Partial restock: only " + restocked + " of " + quantity + " units available"));
+            } else {
+                results.put(productCode, RestockResult.success(restocked, batchesUsed));
+            }
+        }
+        return new RestockPlan(results, moves);
+    }
+
+    private void applyRestock(StoreType storeType, List<BatchQuantity> moves) {
+        // Shelf first: it takes the products' summary rows before any main inventory
+        // row, the same order a sale takes them in
+        InventoryTransactionType type;
+        String remarks;
+        if (storeType == StoreType.PHYSICAL) {
+            physicalStoreRepository.addQuantities(moves);
+            type = InventoryTransactionType.RESTOCK_PHYSICAL;
+            remarks = "Restocked to physical store shelves";
+        } else {
+            onlineStoreRepository.addQuantities(moves);
+            type = InventoryTransactionType.RESTOCK_ONLINE;
+            remarks = "Restocked to online store";
+        }
+
+        if (!mainInventoryRepository.reduceQuantities(moves)) {
+            throw new InsufficientStockException("Main inventory batch no longer holds the planned quantity",
+                    0, moves.stream().mapToInt(BatchQuantity::quantity).sum());
+        }
+        publishBatchReductions(moves);
+
+        transactionRepository.saveAll(moves.stream()
+                .map(move -> newTransaction(move.productCode(), move.batchId(), type, storeType,
+                        move.quantity(), remarks))
+                .toList());
+        refreshIndexedProducts(storeType, moves.stream().map(BatchQuantity::productCode).distinct().toList());
+    }
+
+    private static Map<String, List<MainInventory>> groupByProduct(List<MainInventory> batches) {
+        Map<String, List<MainInventory>> grouped = new HashMap<>();
+        for (MainInventory batch : batches) {
+            grouped.computeIfAbsent(batch.getProductCode().getCode(), code -> new ArrayList<>()).add(batch);
+        }
+        return grouped;
+    }
+
+    private List<BatchAllocation> allocateFromIndex(String productCode, StoreType storeType, int quantity) {
+        List<BatchAllocation> allocations = batchIndex.allocate(storeType, productCode, quantity);
+        int allocated = allocations.stream().mapToInt(BatchAllocation::quantity).sum();
+        if (allocated < quantity) {
+            // The index may lag behind the database; confirm the shortfall before failing
+            batchIndex.invalidate(storeType, productCode);
+            allocations = batchIndex.allocate(storeType, productCode, quantity);
+            allocated = allocations.stream().mapToInt(BatchAllocation::quantity).sum();
+            if (allocated < quantity) {
+                throw InsufficientStockException.forProduct(productCode, allocated, quantity);
+            }
+        }
+        return allocations;
+    }
+
+    private void syncIndexAfterReduction(StoreType storeType, boolean reduced, List<BatchAllocation> allocations) {
+        if (reduced) {
+            publishStockChange(storeType,
+                    allocations.stream().map(BatchAllocation::productCode).distinct().toList());
+        }
+        if (batchIndex == null) {
+            return;
+        }
+        if (reduced) {
+            unitOfWork.afterCommit(() -> batchIndex.deduct(storeType, allocations));
+        } else {
+            // The database refused the deduction, so the index was out of date
+            allocations.forEach(a -> batchIndex.invalidate(storeType, a.productCode()));
+        }
+    }
+
+    private void refreshIndexedProduct(StoreType storeType, String productCode) {
+        refreshIndexedProducts(storeType, List.of(productCode));
+    }
+
+    private void refreshIndexedProducts(StoreType storeType, List<String> productCodes) {
+        if (batchIndex != null) {
+            unitOfWork.afterCommit(() -> productCodes.forEach(code -> batchIndex.invalidate(storeType, code)));
+        }
+        publishStockChange(storeType, productCodes);
+    }
+
+    private void publishStockChange(StoreType storeType, List<String> productCodes) {
+        if (summaryMirror != null) {
+            unitOfWork.afterCommit(() -> summaryMirror.invalidate(storeType, productCodes));
+        }
+        if (stockAlertService != null) {
+            unitOfWork.afterCommit(() -> stockAlertService.stockChanged(storeType, productCodes));
+        }
+        if (reportCache != null) {
+            unitOfWork.afterCommit(reportCache::stockChanged);
+        }
+    }
+
+    private void publishBatchReductions(List<BatchQuantity> moves) {
+        if (expiryScheduler != null) {
+            unitOfWork.afterCommit(() -> moves.forEach(move -> expiryScheduler.reduced(move.batchId(), move.quantity())));
+        }
+    }
+
+    private static List<ProductStockSummary> toStockSummaries(List<StoreStockLevel> levels) {
+        return levels.stream()
+                .map(level -> new ProductStockSummary(level.productCode(), level.productName(),
+                        level.totalQuantity(), level.batchCount()))
+                .toList();
+    }
+
     private void validateProductExists(String productCode) {
         if (!productRepository.existsByProductCode(productCode)) {
             throw new ProductNotFoundException(productCode);
@@ -406,6 +659,11 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
 
     private void logTransaction(String productCode, Integer batchId, InventoryTransactionType type,
             StoreType storeType, int quantity, String remarks) {
+        transactionRepository.save(newTransaction(productCode, batchId, type, storeType, quantity, remarks));
+    }
+
+    private static InventoryTransaction newTransaction(String productCode, Integer batchId,
+            InventoryTransactionType type, StoreType storeType, int quantity, String remarks) {
         InventoryTransaction transaction = new InventoryTransaction();
         transaction.setProductCode(new ProductCode(productCode));
         transaction.setMainInventoryId(batchId);
@@ -413,6 +671,12 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
         transaction.setStoreType(storeType);
         transaction.setQuantityChanged(type == InventoryTransactionType.SALE ? -quantity : quantity);
         transaction.setRemarks(remarks);
-        transactionRepository.save(transaction);
+        return transaction;
+    }
+
+    /**
+     * Per-product outcomes and the batch moves that achieve them.
+     */
+    private record RestockPlan(Map<String, RestockResult> results, List<BatchQuantity> moves) {
     }
 }
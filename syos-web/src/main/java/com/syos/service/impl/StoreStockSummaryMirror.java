@@ -0,0 +1,183 @@
+package com.syos.service.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.valueobjects.StoreStockLevel;
+import com.syos.repository.interfaces.OnlineStoreInventoryRepository;
+import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the store stock summary, so stock summary pages and low
+ * stock checks are served without touching the database.
+ *
+ * Products changed by a committed shelf change are marked dirty and reloaded
+ * together, with one query, by the next read. Each store is also reloaded in
+ * full once it is older than the maximum age, which picks up catalog changes
+ * such as new or deactivated products.
+ */
+public class StoreStockSummaryMirror {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreStockSummaryMirror.class);
+
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(10);
+
+    private final PhysicalStoreInventoryRepository physicalStoreRepository;
+    private final OnlineStoreInventoryRepository onlineStoreRepository;
+    private final UnitOfWork unitOfWork;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final Map<StoreType, StoreLevels> stores = new EnumMap<>(StoreType.class);
+
+    public StoreStockSummaryMirror(PhysicalStoreInventoryRepository physicalStoreRepository,
+                                   OnlineStoreInventoryRepository onlineStoreRepository,
+                                   UnitOfWork unitOfWork) {
+        this(physicalStoreRepository, onlineStoreRepository, unitOfWork, DEFAULT_MAX_AGE, Clock.systemUTC());
+    }
+
+    public StoreStockSummaryMirror(PhysicalStoreInventoryRepository physicalStoreRepository,
+                                   OnlineStoreInventoryRepository onlineStoreRepository,
+                                   UnitOfWork unitOfWork,
+                                   Duration maxAge,
+                                   Clock clock) {
+        this.physicalStoreRepository = physicalStoreRepository;
+        this.onlineStoreRepository = onlineStoreRepository;
+        this.unitOfWork = unitOfWork;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        for (StoreType storeType : StoreType.values()) {
+            stores.put(storeType, new StoreLevels());
+        }
+    }
+
+    /**
+     * Reloads both stores in full.
+     */
+    public void rebuild() {
+        for (StoreType storeType : StoreType.values()) {
+            StoreLevels store = stores.get(storeType);
+            synchronized (store) {
+                store.dirty.clear();
+                store.snapshot = new Snapshot(index(loadAll(storeType)), clock.instant());
+            }
+            logger.info("Store stock summary mirror loaded: {} {} products",
+                    store.snapshot.levels().size(), storeType);
+        }
+    }
+
+    /**
+     * Gets the stock level of every active product, ordered by product name.
+     */
+    public List<StoreStockLevel> getStockLevels(StoreType storeType) {
+        return List.copyOf(current(storeType).levels().values());
+    }
+
+    /**
+     * Gets the stock levels of the given products; inactive products are left out.
+     */
+    public List<StoreStockLevel> getStockLevels(StoreType storeType, Collection<String> productCodes) {
+        Map<String, StoreStockLevel> levels = current(storeType).levels();
+        return productCodes.stream()
+                .map(levels::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Gets the products stocked in the store whose total is below the threshold,
+     * lowest first.
+     */
+    public List<StoreStockLevel> getLowStock(StoreType storeType, int threshold) {
+        return current(storeType).levels().values().stream()
+                .filter(level -> level.stocked() && level.totalQuantity() < threshold)
+                .sorted(Comparator.comparingInt(StoreStockLevel::totalQuantity))
+                .toList();
+    }
+
+    /**
+     * Marks products as changed; they are reloaded on the next read.
+     * Call only after the change has been committed.
+     */
+    public void invalidate(StoreType storeType, Collection<String> productCodes) {
+        stores.get(storeType).dirty.addAll(productCodes);
+    }
+
+    private Snapshot current(StoreType storeType) {
+        StoreLevels store = stores.get(storeType);
+        Snapshot snapshot = store.snapshot;
+        if (snapshot != null && store.dirty.isEmpty() && !isExpired(snapshot)) {
+            return snapshot;
+        }
+        synchronized (store) {
+            snapshot = store.snapshot;
+            if (snapshot == null || isExpired(snapshot)) {
+                // Cleared before loading so that changes committed meanwhile stay dirty
+                store.dirty.clear();
+                snapshot = new Snapshot(index(loadAll(storeType)), clock.instant());
+            } else if (!store.dirty.isEmpty()) {
+                List<String> changed = new ArrayList<>(store.dirty);
+                store.dirty.removeAll(changed);
+                snapshot = merge(snapshot, changed, load(storeType, changed));
+            }
+            store.snapshot = snapshot;
+            return snapshot;
+        }
+    }
+
+    private boolean isExpired(Snapshot snapshot) {
+        return !clock.instant().isBefore(snapshot.loadedAt().plus(maxAge));
+    }
+
+    private List<StoreStockLevel> loadAll(StoreType storeType) {
+        return unitOfWork.suspend(() -> storeType == StoreType.PHYSICAL
+                ? physicalStoreRepository.findStockLevels()
+                : onlineStoreRepository.findStockLevels());
+    }
+
+    private List<StoreStockLevel> load(StoreType storeType, List<String> productCodes) {
+        return unitOfWork.suspend(() -> storeType == StoreType.PHYSICAL
+                ? physicalStoreRepository.findStockLevels(productCodes)
+                : onlineStoreRepository.findStockLevels(productCodes));
+    }
+
+    private static Snapshot merge(Snapshot snapshot, List<String> changed, List<StoreStockLevel> reloaded) {
+        Map<String, StoreStockLevel> levels = new LinkedHashMap<>(snapshot.levels());
+        // A changed product missing from the reload is no longer active
+        levels.keySet().removeAll(changed);
+        reloaded.forEach(level -> levels.put(level.productCode(), level));
+
+        List<StoreStockLevel> ordered = new ArrayList<>(levels.values());
+        ordered.sort(Comparator.comparing(StoreStockLevel::productName,
+                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return new Snapshot(index(ordered), snapshot.loadedAt());
+    }
+
+    private static Map<String, StoreStockLevel> index(List<StoreStockLevel> levels) {
+        Map<String, StoreStockLevel> indexed = new LinkedHashMap<>();
+        levels.forEach(level -> indexed.put(level.productCode(), level));
+        return indexed;
+    }
+
+    private static final class StoreLevels {
+        private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+        private volatile Snapshot snapshot;
+    }
+
+    private record Snapshot(Map<String, StoreStockLevel> levels, Instant loadedAt) {
+    }
+}
@@ -123,6 +123,31 @@ public interface BillingService {
      */
     ValidationResult validateBillForFinalization(Integer billId);
 
+    /**
+     * Retires bills in progress that have been idle past their TTL.
+     * Empty drafts are cancelled; drafts with items stay saved and can be reopened.
+     *
+     * @return the number of bills retired
+     */
+    int sweepExpiredBills();
+
+    /**
+     * Gets the size and hit/miss/eviction counters of the in-progress bill store.
+     */
+    InProgressStats getInProgressStats();
+
+    /**
+     * In-progress bill store statistics.
+     */
+    record InProgressStats(
+            int size,
+            int maxSize,
+            long hits,
+            long misses,
+            long evictions,
+            long expirations) {
+    }
+
     /**
      * Bill validation result.
      */
@@ -152,12 +177,39 @@ public interface BillingService {
      */
     CheckoutResult checkout(CheckoutRequest request);
 
+    /**
+     * Checks out a request identified by a client-supplied idempotency key.
+     * A retry with the same key returns the original result instead of creating
+     * another bill. A blank key behaves like {@link #checkout(CheckoutRequest)}.
+     */
+    CheckoutResult checkout(CheckoutRequest request, String idempotencyKey);
+
+    /**
+     * Deletes stored checkout results whose idempotency keys have expired.
+     *
+     * @return the number of keys deleted
+     */
+    int purgeExpiredCheckoutKeys();
+
     /**
      * Validates if a product has sufficient stock for the requested quantity.
      * Used by POS to validate before adding to cart.
      */
     StockCheckResult checkStock(String productCode, int quantity, StoreType storeType);
 
+    /**
+     * Checks out many baskets in one pass, such as sales buffered by a lane
+     * terminal. Each bill succeeds or fails on its own; results come back in
+     * request order.
+     */
+    List<CheckoutResult> checkoutBatch(List<BatchCheckoutEntry> entries);
+
+    /**
+     * One basket in a batch checkout, with its optional idempotency key.
+     */
+    record BatchCheckoutEntry(CheckoutRequest request, String idempotencyKey) {
+    }
+
     /**
      * Request DTO for POS checkout.
      */
@@ -0,0 +1,81 @@
+package com.syos.service.interfaces;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bulk import of products and main inventory batches from a supplier file.
+ *
+ * A JSON file is either an array of rows, or an object whose scalar fields are
+ * defaults for every row and whose "products" array holds the rows (the layout
+ * of products.json). A CSV file has a header row naming the fields. Field names
+ * are matched ignoring case, dashes and underscores:
+ * productCode, name, price, category, subcategory, brand, unit, description,
+ * quantity, purchasePrice, purchaseDate, expiryDate and supplier.
+ *
+ * A row whose product code already exists only adds a batch. Any other row
+ * creates the product, generating its code from the category, subcategory and
+ * brand codes when none is given. A batch is added when quantity is positive;
+ * its purchase price defaults to the product's price.
+ */
+public interface CatalogImportService {
+
+    /**
+     * Imports every row of the file, committing one chunk of rows at a time.
+     * Invalid rows are reported and skipped.
+     *
+     * @throws com.syos.exception.BusinessRuleException if an import is already running
+     * @throws com.syos.exception.ValidationException if the file cannot be parsed; chunks
+     *         committed before the error are kept
+     */
+    ImportReport importCatalog(InputStream input, ImportFormat format, ImportOptions options);
+
+    /**
+     * Gets the progress of the running import, or the report of the last one.
+     */
+    Optional<ImportReport> getProgress();
+
+    /**
+     * Supported file formats.
+     */
+    enum ImportFormat {
+        JSON,
+        CSV
+    }
+
+    /**
+     * Options for one import.
+     *
+     * @param defaultBrand brand code or name for rows that name no brand, or null
+     * @param dryRun validate and count the rows without writing anything
+     */
+    record ImportOptions(String defaultBrand, boolean dryRun) {
+    }
+
+    /**
+     * A row that was not imported.
+     */
+    record RowError(long row, String message) {
+    }
+
+    /**
+     * Progress or outcome of an import. Only the first errors are listed;
+     * rowsRejected counts all of them.
+     */
+    record ImportReport(
+            LocalDateTime startedAt,
+            LocalDateTime completedAt,
+            ImportFormat format,
+            boolean dryRun,
+            int chunks,
+            long rowsRead,
+            long rowsImported,
+            long rowsRejected,
+            long productsCreated,
+            long batchesCreated,
+            List<RowError> errors,
+            boolean complete) {
+    }
+}
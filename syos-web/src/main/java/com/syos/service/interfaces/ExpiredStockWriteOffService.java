@@ -0,0 +1,47 @@
+package com.syos.service.interfaces;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Writes off stock whose batch has passed its expiry date.
+ *
+ * Expired quantities are zeroed in main inventory and on both stores' shelves
+ * in chunks of batches, each chunk in its own short transaction together with
+ * its {@code EXPIRED} inventory transactions. A written-off batch no longer
+ * matches, so a run that stops part way is finished by the next one.
+ */
+public interface ExpiredStockWriteOffService {
+
+    /**
+     * Writes off every batch that expired before today. A dry run pages through
+     * the same batches and reports what would be written off without changing anything.
+     */
+    WriteOffReport writeOff(boolean dryRun);
+
+    /**
+     * Gets the report of the most recent run, if any.
+     */
+    Optional<WriteOffReport> getLastReport();
+
+    /**
+     * Outcome of a write-off run. Quantities are totals across the batches
+     * written off (or that would be, for a dry run).
+     */
+    record WriteOffReport(
+            LocalDate expiredBefore,
+            boolean dryRun,
+            int chunks,
+            int batches,
+            int mainQuantity,
+            int physicalQuantity,
+            int onlineQuantity,
+            int skippedBatches,
+            int lastBatchId,
+            boolean complete) {
+
+        public int totalQuantity() {
+            return mainQuantity + physicalQuantity + onlineQuantity;
+        }
+    }
+}
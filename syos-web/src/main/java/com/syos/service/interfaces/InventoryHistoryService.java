@@ -0,0 +1,62 @@
+package com.syos.service.interfaces;
+
+import com.syos.repository.interfaces.InventoryLedgerRepository.BatchStockLevel;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Point-in-time stock and retention of the inventory ledger.
+ *
+ * Stock as of a past time is rebuilt from the nearest snapshot before it plus
+ * the ledger rows dated in between. Within the retention period snapshots are
+ * daily, so a query replays at most a day of the ledger. Ledger rows past the
+ * retention period are moved to the monthly partitioned archive, where they
+ * still count towards history, and only the first snapshot of each month is
+ * kept for them: a query that far back replays up to a month of the archive.
+ */
+public interface InventoryHistoryService {
+
+    /**
+     * Gets the stock of every batch, or of one product's batches, as of the given time.
+     *
+     * @param productCode the product to report, or null for all products
+     */
+    StockAsOf getStockAsOf(LocalDateTime asOf, String productCode);
+
+    /**
+     * Takes today's snapshot at midnight, if not taken yet.
+     *
+     * @return the time of the snapshot taken, or empty if it already existed
+     */
+    Optional<LocalDateTime> takeSnapshot();
+
+    /**
+     * Moves the ledger rows older than the retention period to the archive, in
+     * chunks, and prunes the snapshots no longer needed.
+     */
+    ArchiveReport archiveLedger();
+
+    /**
+     * Stock as of a point in time, with the snapshot it was rebuilt from
+     * (null when replayed from the start of the ledger).
+     */
+    record StockAsOf(
+            LocalDateTime asOf,
+            LocalDateTime snapshotAt,
+            List<BatchStockLevel> batches,
+            int mainQuantity,
+            int physicalQuantity,
+            int onlineQuantity) {
+    }
+
+    /**
+     * Outcome of an archive run.
+     */
+    record ArchiveReport(
+            LocalDateTime cutoff,
+            int rowsArchived,
+            int snapshotsPruned) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.syos.service.interfaces;
+
+import com.syos.repository.interfaces.InventoryReconciliationRepository.BatchDiscrepancy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checks every batch's main, shelf and online quantities against the
+ * inventory_transaction ledger.
+ *
+ * Per batch, the shelf quantity of a store should equal the sum of the
+ * ledger's changes for that store (restocks in, sales and write-offs out), and
+ * the main quantity should equal the quantity received, less what was restocked
+ * to either store, plus the ledger's changes against main inventory.
+ * PURCHASE entries are not counted, since the quantity received already is.
+ */
+public interface InventoryReconciliationService {
+
+    /**
+     * Reconciles every batch and records the discrepancies found.
+     *
+     * @throws com.syos.exception.BusinessRuleException if a run is already in progress
+     */
+    ReconciliationReport reconcile();
+
+    /**
+     * Checks if a run is in progress.
+     */
+    boolean isRunning();
+
+    /**
+     * Gets the report of the most recent completed run, if any.
+     */
+    Optional<ReconciliationReport> getLastReport();
+
+    /**
+     * Outcome of a reconciliation run.
+     */
+    record ReconciliationReport(
+            LocalDateTime startedAt,
+            LocalDateTime completedAt,
+            int partitions,
+            int productsChecked,
+            int batchesChecked,
+            long ledgerRows,
+            long unbatchedLedgerRows,
+            List<BatchDiscrepancy> discrepancies) {
+    }
+}
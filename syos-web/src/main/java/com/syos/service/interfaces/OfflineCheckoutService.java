@@ -0,0 +1,85 @@
+package com.syos.service.interfaces;
+
+import com.syos.service.interfaces.BillingService.CheckoutRequest;
+import com.syos.service.interfaces.BillingService.CheckoutResult;
+import com.syos.service.interfaces.BillingService.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * POS checkout that keeps selling while the database is unreachable.
+ *
+ * Checkouts go straight to {@link BillingService} while the database is up.
+ * When it cannot be reached they are journaled locally and a provisional
+ * receipt is returned; the journal is replayed in order through the normal
+ * checkout once the database is back.
+ */
+public interface OfflineCheckoutService {
+
+    /**
+     * Checks out a basket, journaling it when the database is unavailable.
+     */
+    CheckoutOutcome checkout(CheckoutRequest request, String idempotencyKey);
+
+    /**
+     * Replays journaled checkouts in order until the journal is empty or the
+     * database becomes unavailable again.
+     */
+    ReplayReport replay();
+
+    /**
+     * Checks if checkouts are currently being journaled.
+     */
+    boolean isOffline();
+
+    /**
+     * Gets the number of journaled checkouts waiting to be replayed.
+     */
+    int getPendingCount();
+
+    /**
+     * Gets the journaled checkouts that could not be completed on replay.
+     */
+    List<ReplayConflict> getConflicts();
+
+    /**
+     * Result of a checkout: either a completed checkout or a provisional receipt.
+     */
+    record CheckoutOutcome(
+            CheckoutResult result,
+            String provisionalNumber,
+            LocalDateTime queuedAt) {
+        public static CheckoutOutcome completed(CheckoutResult result) {
+            return new CheckoutOutcome(result, null, null);
+        }
+
+        public static CheckoutOutcome provisional(String provisionalNumber, LocalDateTime queuedAt) {
+            return new CheckoutOutcome(null, provisionalNumber, queuedAt);
+        }
+
+        public boolean isProvisional() {
+            return provisionalNumber != null;
+        }
+    }
+
+    /**
+     * Summary of one replay run.
+     */
+    record ReplayReport(int completed, int conflicts, int remaining, boolean offline) {
+    }
+
+    /**
+     * A journaled checkout that failed on replay, such as a stock shortfall
+     * caused by sales made elsewhere while this terminal was offline.
+     */
+    record ReplayConflict(
+            String provisionalNumber,
+            String idempotencyKey,
+            LocalDateTime queuedAt,
+            LocalDateTime replayedAt,
+            String cashierId,
+            List<ItemRequest> items,
+            List<String> errors) {
+    }
+}
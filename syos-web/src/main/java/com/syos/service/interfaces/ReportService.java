@@ -50,6 +50,11 @@ public interface ReportService {
          */
         SalesSummary getSalesSummaryForRange(LocalDate startDate, LocalDate endDate);
 
+        /**
+         * Gets units sold and revenue per hour of a day, for one store type or both when null.
+         */
+        List<HourlySalesReport> getHourlySalesReport(LocalDate date, StoreType storeType);
+
         // ==================== Inventory Reports ====================
 
         /**
@@ -171,6 +176,12 @@ public interface ReportService {
                         int totalItemsSold) {
         }
 
+        record HourlySalesReport(
+                        int hour,
+                        int quantitySold,
+                        BigDecimal revenue) {
+        }
+
         record StockLevelReport(
                         String productCode,
                         String productName,
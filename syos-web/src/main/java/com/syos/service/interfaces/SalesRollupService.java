@@ -0,0 +1,42 @@
+package com.syos.service.interfaces;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Backfill and daily close of the sales rollups.
+ *
+ * Finalized bills are added to the rollups as they happen. A day is rebuilt
+ * from its bills once it has closed, which also puts right any update that
+ * failed during the day, and a backfill rebuilds the days sold before the
+ * rollups existed.
+ */
+public interface SalesRollupService {
+
+    /**
+     * Rebuilds the rollups of every day in the range, one day per transaction.
+     */
+    BackfillReport backfill(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Checks whether a backfill is running.
+     */
+    boolean isBackfillRunning();
+
+    /**
+     * Rebuilds yesterday's rollups, if not done yet since it closed.
+     *
+     * @return the day rebuilt, or empty if it already was
+     */
+    Optional<LocalDate> closeDay();
+
+    /**
+     * Outcome of a backfill.
+     */
+    record BackfillReport(
+            LocalDate startDate,
+            LocalDate endDate,
+            int daysRebuilt,
+            int billsCounted) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.syos.service.interfaces;
+
+import com.syos.domain.enums.StoreType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Low stock and reshelve alerts raised as store stock changes.
+ *
+ * Each committed shelf change is checked against the product's minimum stock
+ * for that store ({@code min_physical_stock} / {@code min_online_stock}). An
+ * alert is added to the outbox only when a product moves between in stock, low
+ * and out of stock, so a product that stays low raises one alert, not one per
+ * sale. Readers page through the outbox with the id of the last alert they saw.
+ */
+public interface StockAlertService {
+
+    /**
+     * Records that the stock of the given products changed in a committed
+     * transaction. Alerts are raised shortly after, off the caller's thread.
+     */
+    void stockChanged(StoreType storeType, Collection<String> productCodes);
+
+    /**
+     * Checks every product of both stores, raising alerts for any that are
+     * already low. Used once at startup; later alerts come from stock changes.
+     */
+    void checkAll();
+
+    /**
+     * Gets up to {@code limit} alerts raised after the given alert id, oldest first.
+     */
+    AlertPage getAlerts(long afterId, int limit);
+
+    /**
+     * Gets the latest alert of every product that is still low or out of stock.
+     */
+    List<StockAlert> getOpenAlerts(StoreType storeType);
+
+    enum AlertType {
+        LOW_STOCK,
+        OUT_OF_STOCK,
+        BACK_IN_STOCK
+    }
+
+    /**
+     * An alert in the outbox.
+     */
+    record StockAlert(
+            long id,
+            StoreType storeType,
+            String productCode,
+            String productName,
+            AlertType type,
+            int quantity,
+            int minimumStock,
+            LocalDateTime raisedAt) {
+    }
+
+    /**
+     * A page of alerts; pass {@code nextAfterId} to get the next page.
+     */
+    record AlertPage(
+            List<StockAlert> alerts,
+            long nextAfterId,
+            boolean hasMore) {
+    }
+}
@@ -4,8 +4,11 @@ import com.syos.domain.enums.StoreType;
 import com.syos.domain.models.OnlineStoreInventory;
 import com.syos.domain.models.PhysicalStoreInventory;
 import com.syos.repository.interfaces.OnlineStoreInventoryRepository.ProductStockSummary;
+import com.syos.repository.interfaces.ProductRepository.StockProbe;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -94,6 +97,13 @@ public interface StoreInventoryService {
 
     // ==================== Common Operations ====================
 
+    /**
+     * Restocks several products into a store from main inventory in one transaction,
+     * FIFO across each product's batches. Results follow the order of the request;
+     * an unknown product or one without main inventory stock fails on its own.
+     */
+    Map<String, RestockResult> restockStore(StoreType storeType, Map<String, Integer> quantities);
+
     /**
      * Gets available stock quantity for a product by store type.
      */
@@ -104,6 +114,33 @@ public interface StoreInventoryService {
      */
     boolean hasAvailableStock(String productCode, StoreType storeType, int requiredQuantity);
 
+    /**
+     * Gets the available quantity of several products in a store, keyed in the
+     * order given. Served from memory where possible; a pre-check only, since
+     * checkout re-checks stock under its locks.
+     */
+    Map<String, Integer> getAvailableQuantities(Collection<String> productCodes, StoreType storeType);
+
+    /**
+     * Compares the in-memory availability with the store stock summary and drops
+     * whatever has drifted, so it is reloaded on next use.
+     *
+     * @return the number of products dropped
+     */
+    int reconcileAvailability();
+
+    /**
+     * Gets price, active flag and available quantity for a whole basket of products
+     * with a single query per store type.
+     */
+    Map<String, StockProbe> probeStock(StoreType storeType, Collection<String> productCodes);
+
+    /**
+     * Reduces store stock for several batch allocations in one batched update.
+     * @return true only if every allocation was deducted
+     */
+    boolean reduceStoreStock(StoreType storeType, List<BatchAllocation> allocations);
+
     /**
      * Gets the next batch to use for a sale (FIFO based on expiry date).
      */
@@ -0,0 +1,100 @@
+package com.syos.util;
+
+import com.syos.config.AppConfig;
+import com.syos.config.DataSourceConfig;
+import com.syos.repository.impl.BrandRepositoryImpl;
+import com.syos.repository.impl.CategoryRepositoryImpl;
+import com.syos.repository.impl.JdbcUnitOfWork;
+import com.syos.repository.impl.MainInventoryRepositoryImpl;
+import com.syos.repository.impl.ProductRepositoryImpl;
+import com.syos.repository.impl.SubcategoryRepositoryImpl;
+import com.syos.service.impl.CatalogImportServiceImpl;
+import com.syos.service.interfaces.CatalogImportService;
+import com.syos.service.interfaces.CatalogImportService.ImportFormat;
+import com.syos.service.interfaces.CatalogImportService.ImportOptions;
+import com.syos.service.interfaces.CatalogImportService.ImportReport;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line entry point for the bulk catalog import, using the database
+ * settings of application.properties.
+ *
+ * Usage: CatalogImportTool [--csv|--json] [--brand=CODE] [--dry-run] FILE
+ *
+ * The format defaults from the file extension. Exits with 0 when every row was
+ * imported, 2 when some rows were rejected and 1 when the import failed.
+ */
+public class CatalogImportTool {
+
+    private CatalogImportTool() {
+        // Prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        ImportFormat format = null;
+        String brand = null;
+        boolean dryRun = false;
+        Path file = null;
+        for (String arg : args) {
+            if (arg.equals("--csv")) {
+                format = ImportFormat.CSV;
+            } else if (arg.equals("--json")) {
+                format = ImportFormat.JSON;
+            } else if (arg.startsWith("--brand=")) {
+                brand = arg.substring("--brand=".length());
+            } else if (arg.equals("--dry-run")) {
+                dryRun = true;
+            } else if (!arg.startsWith("--") && file == null) {
+                file = Path.of(arg);
+            } else {
+                usage("Unknown argument: " + arg);
+                return;
+            }
+        }
+        if (file == null) {
+            usage("No import file given");
+            return;
+        }
+        if (format == null) {
+            format = file.toString().toLowerCase().endsWith(".csv") ? ImportFormat.CSV : ImportFormat.JSON;
+        }
+
+        DataSource dataSource = DataSourceConfig.getDataSource();
+        CatalogImportService importService = new CatalogImportServiceImpl(
+                new ProductRepositoryImpl(dataSource),
+                new MainInventoryRepositoryImpl(dataSource),
+                new CategoryRepositoryImpl(dataSource),
+                new SubcategoryRepositoryImpl(dataSource),
+                new BrandRepositoryImpl(dataSource),
+                null,
+                new JdbcUnitOfWork(dataSource),
+                ForkJoinPool.commonPool(),
+                AppConfig.getCatalogImportChunkSize());
+
+        int status;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+            ImportReport report = importService.importCatalog(input, format, new ImportOptions(brand, dryRun));
+            System.out.println(JsonUtil.toJson(report));
+            status = report.rowsRejected() == 0 ? 0 : 2;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Catalog import failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            DataSourceConfig.closeDataSource();
+        }
+        System.exit(status);
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: CatalogImportTool [--csv|--json] [--brand=CODE] [--dry-run] FILE");
+        System.exit(1);
+    }
+}
@@ -10,7 +10,7 @@ import java.io.IOException;
 /**
  * Filter to set character encoding for all requests and responses.
  */
-@WebFilter(urlPatterns = "/*")
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
 public class EncodingFilter implements Filter {
 
     private static final String ENCODING = "UTF-8";
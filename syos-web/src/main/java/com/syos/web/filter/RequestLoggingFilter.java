@@ -15,7 +15,7 @@ import java.util.UUID;
  * Filter for logging HTTP requests and responses.
  * Adds request IDs for tracing.
  */
-@WebFilter(urlPatterns = "/*")
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
 public class RequestLoggingFilter implements Filter {
 
     private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
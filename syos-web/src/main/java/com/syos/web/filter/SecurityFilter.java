@@ -22,7 +22,7 @@ import java.util.Set;
  * - MANAGER: View all reports, NO inventory functions
  * - ADMIN: Assign roles + full access
  */
-@WebFilter(urlPatterns = "/*")
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
 public class SecurityFilter implements Filter {
 
     private static final Logger logger = LoggerFactory.getLogger(SecurityFilter.class);
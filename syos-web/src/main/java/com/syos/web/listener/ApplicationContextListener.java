@@ -1,5 +1,6 @@
 package com.syos.web.listener;
 
+import com.syos.config.AppConfig;
 import com.syos.config.DataSourceConfig;
 import com.syos.config.ServiceRegistry;
 import com.syos.config.ThreadPoolConfig;
@@ -7,6 +8,7 @@ import com.syos.repository.impl.*;
 import com.syos.repository.interfaces.*;
 import com.syos.service.impl.*;
 import com.syos.service.interfaces.*;
+import com.syos.web.stream.DashboardEventStream;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
@@ -82,6 +84,18 @@ public class ApplicationContextListener implements ServletContextListener {
                 backgroundTaskService.stopScheduledTasks();
             }
 
+            // Close open dashboard streams
+            DashboardEventStream dashboardStream = ServiceRegistry.getOrNull(DashboardEventStream.class);
+            if (dashboardStream != null) {
+                dashboardStream.stop();
+            }
+
+            // Close the offline checkout journal
+            CheckoutJournal journal = ServiceRegistry.getOrNull(CheckoutJournal.class);
+            if (journal != null) {
+                journal.close();
+            }
+
             // Shutdown thread pools
             logger.info("Shutting down Thread Pools...");
             ThreadPoolConfig.shutdownAll();
@@ -138,17 +152,51 @@ public class ApplicationContextListener implements ServletContextListener {
         InventoryTransactionRepository transactionRepository = new InventoryTransactionRepositoryImpl(dataSource);
         ServiceRegistry.register(InventoryTransactionRepository.class, transactionRepository);
 
+        InventoryReconciliationRepository reconciliationRepository =
+                new InventoryReconciliationRepositoryImpl(dataSource);
+        ServiceRegistry.register(InventoryReconciliationRepository.class, reconciliationRepository);
+
+        InventoryLedgerRepository ledgerRepository = new InventoryLedgerRepositoryImpl(dataSource);
+        ServiceRegistry.register(InventoryLedgerRepository.class, ledgerRepository);
+
+        ReportQueryRepository reportQueryRepository = new ReportQueryRepositoryImpl(dataSource);
+        ServiceRegistry.register(ReportQueryRepository.class, reportQueryRepository);
+
+        SalesRollupRepository salesRollupRepository = new SalesRollupRepositoryImpl(dataSource);
+        ServiceRegistry.register(SalesRollupRepository.class, salesRollupRepository);
+
         // Billing repositories
-        BillRepository billRepository = new BillRepositoryImpl(dataSource);
+        BillSequenceRepository billSequenceRepository = new BillSequenceRepositoryImpl(dataSource);
+        ServiceRegistry.register(BillSequenceRepository.class, billSequenceRepository);
+
+        BillRepository billRepository = new BillRepositoryImpl(dataSource,
+                new BillSerialNumberAllocator(billSequenceRepository, AppConfig.getBillSerialBlockSize()));
         ServiceRegistry.register(BillRepository.class, billRepository);
 
         BillItemRepository billItemRepository = new BillItemRepositoryImpl(dataSource);
         ServiceRegistry.register(BillItemRepository.class, billItemRepository);
 
+        CheckoutIdempotencyRepository checkoutIdempotencyRepository =
+                new CheckoutIdempotencyRepositoryImpl(dataSource);
+        ServiceRegistry.register(CheckoutIdempotencyRepository.class, checkoutIdempotencyRepository);
+
         // Customer repository
         CustomerRepository customerRepository = new CustomerRepositoryImpl(dataSource);
         ServiceRegistry.register(CustomerRepository.class, customerRepository);
 
+        // Transaction support (shares one connection across repositories)
+        UnitOfWork unitOfWork = new JdbcUnitOfWork(dataSource);
+        ServiceRegistry.register(UnitOfWork.class, unitOfWork);
+
+        // Restocks upsert on the (product, batch) key; databases created without it get it now
+        try {
+            unitOfWork.execute(physicalStoreRepository::ensureBatchKey);
+            unitOfWork.execute(onlineStoreRepository::ensureBatchKey);
+        } catch (RuntimeException e) {
+            logger.error("Could not add the store inventory batch keys; restocks may duplicate batch rows: {}",
+                    e.getMessage());
+        }
+
         logger.info("Repositories registered: {}", ServiceRegistry.getServiceCount());
 
         // ==================== Register Services ====================
@@ -158,51 +206,231 @@ public class ApplicationContextListener implements ServletContextListener {
         ProductService productService = new ProductServiceImpl(productRepository);
         ServiceRegistry.register(ProductService.class, productService);
 
+        // Batch expiry scheduler
+        BatchExpiryScheduler expiryScheduler = new BatchExpiryScheduler(mainInventoryRepository, unitOfWork);
+        try {
+            expiryScheduler.rebuild();
+        } catch (RuntimeException e) {
+            // Expiry counts then only cover batches received or restocked from after startup
+            logger.warn("Could not preload batch expiry scheduler: {}", e.getMessage());
+        }
+        ServiceRegistry.register(BatchExpiryScheduler.class, expiryScheduler);
+
+        // Report results, dropped as bills are finalized and stock changes
+        java.util.Map<ReportCache.ReportType, java.time.Duration> reportTtls =
+                new java.util.EnumMap<>(ReportCache.ReportType.class);
+        for (ReportCache.ReportType type : ReportCache.ReportType.values()) {
+            reportTtls.put(type, java.time.Duration.ofSeconds(AppConfig.getReportCacheTtlSeconds(
+                    type.name().toLowerCase(), type.getDefaultTtl().toSeconds())));
+        }
+        ReportCache reportCache = new ReportCache(
+                reportTtls, AppConfig.getReportCacheMaxSize(), java.time.Clock.systemUTC());
+        ServiceRegistry.register(ReportCache.class, reportCache);
+
         // Inventory service
-        InventoryService inventoryService = new InventoryServiceImpl(mainInventoryRepository, productRepository);
+        InventoryService inventoryService = new InventoryServiceImpl(
+                mainInventoryRepository, productRepository, expiryScheduler, reportCache);
         ServiceRegistry.register(InventoryService.class, inventoryService);
 
+        // Bulk catalog import
+        CatalogImportService catalogImportService = new CatalogImportServiceImpl(
+                productRepository,
+                mainInventoryRepository,
+                categoryRepository,
+                subcategoryRepository,
+                brandRepository,
+                expiryScheduler,
+                unitOfWork,
+                java.util.concurrent.ForkJoinPool.commonPool(),
+                AppConfig.getCatalogImportChunkSize());
+        ServiceRegistry.register(CatalogImportService.class, catalogImportService);
+
         // Store inventory service
+        StoreBatchIndex storeBatchIndex = new StoreBatchIndex(
+                physicalStoreRepository, onlineStoreRepository, unitOfWork);
+        try {
+            storeBatchIndex.rebuild();
+        } catch (RuntimeException e) {
+            // Products are loaded lazily on first use if the bulk load fails
+            logger.warn("Could not preload store batch index: {}", e.getMessage());
+        }
+        ServiceRegistry.register(StoreBatchIndex.class, storeBatchIndex);
+
+        StoreStockSummaryMirror stockSummaryMirror = new StoreStockSummaryMirror(
+                physicalStoreRepository, onlineStoreRepository, unitOfWork);
+        try {
+            stockSummaryMirror.rebuild();
+        } catch (RuntimeException e) {
+            // Each store is loaded on its first read if the bulk load fails
+            logger.warn("Could not preload store stock summary mirror: {}", e.getMessage());
+        }
+        ServiceRegistry.register(StoreStockSummaryMirror.class, stockSummaryMirror);
+
+        StockAlertService stockAlertService = new StockAlertServiceImpl(
+                stockSummaryMirror, productRepository, ThreadPoolConfig.getBackgroundTaskExecutor());
+        try {
+            stockAlertService.checkAll();
+        } catch (RuntimeException e) {
+            // Alerts still follow stock changes; products already low are picked up when they next change
+            logger.warn("Could not run initial stock alert check: {}", e.getMessage());
+        }
+        ServiceRegistry.register(StockAlertService.class, stockAlertService);
+
         StoreInventoryService storeInventoryService = new StoreInventoryServiceImpl(
                 physicalStoreRepository,
                 onlineStoreRepository,
                 mainInventoryRepository,
                 transactionRepository,
-                productRepository);
+                productRepository,
+                storeBatchIndex,
+                stockSummaryMirror,
+                stockAlertService,
+                expiryScheduler,
+                reportCache,
+                unitOfWork);
         ServiceRegistry.register(StoreInventoryService.class, storeInventoryService);
 
+        // Expired stock write-off
+        ExpiredStockWriteOffService writeOffService = new ExpiredStockWriteOffServiceImpl(
+                mainInventoryRepository,
+                physicalStoreRepository,
+                onlineStoreRepository,
+                transactionRepository,
+                storeBatchIndex,
+                stockSummaryMirror,
+                stockAlertService,
+                expiryScheduler,
+                reportCache,
+                unitOfWork,
+                AppConfig.getExpiredWriteOffChunkSize(),
+                java.time.Clock.systemDefaultZone());
+        ServiceRegistry.register(ExpiredStockWriteOffService.class, writeOffService);
+
+        // Inventory reconciliation against the ledger
+        InventoryReconciliationService reconciliationService = new InventoryReconciliationServiceImpl(
+                reconciliationRepository,
+                ThreadPoolConfig.getReconciliationPool(),
+                AppConfig.getReconciliationPartitionSize());
+        ServiceRegistry.register(InventoryReconciliationService.class, reconciliationService);
+
+        // Point-in-time stock from daily snapshots, and archiving of old ledger rows
+        InventoryHistoryService inventoryHistoryService = new InventoryHistoryServiceImpl(
+                ledgerRepository,
+                unitOfWork,
+                AppConfig.getLedgerRetentionMonths(),
+                AppConfig.getLedgerArchiveChunkSize(),
+                java.time.Clock.systemDefaultZone());
+        ServiceRegistry.register(InventoryHistoryService.class, inventoryHistoryService);
+
+        // Daily close and backfill of the sales rollups
+        SalesRollupService salesRollupService = new SalesRollupServiceImpl(salesRollupRepository, unitOfWork);
+        ServiceRegistry.register(SalesRollupService.class, salesRollupService);
+
+        // Today's sales counted in memory for the dashboard
+        LiveDashboardCounters dashboardCounters = new LiveDashboardCounters(
+                salesRollupRepository,
+                stockSummaryMirror,
+                LiveDashboardCounters.DEFAULT_LOW_STOCK_THRESHOLD,
+                java.time.Clock.systemDefaultZone());
+        try {
+            dashboardCounters.load();
+        } catch (RuntimeException e) {
+            // Counting starts from zero; the dashboard catches up at midnight
+            logger.warn("Could not load today's dashboard counts: {}", e.getMessage());
+        }
+        ServiceRegistry.register(LiveDashboardCounters.class, dashboardCounters);
+
+        // Soft reservations of online stock held by carts, swept by the background tasks
+        CartReservationTable cartReservations = new CartReservationTable(
+                java.time.Duration.ofMinutes(AppConfig.getCartReservationTtlMinutes()),
+                CartReservationTable.DEFAULT_TICK,
+                java.time.Clock.systemDefaultZone());
+        ServiceRegistry.register(CartReservationTable.class, cartReservations);
+
         // Billing service
+        ProductStockLocks stockLocks = new ProductStockLocks(AppConfig.getStockLockStripes());
+        ServiceRegistry.register(ProductStockLocks.class, stockLocks);
+
         BillingService billingService = new BillingServiceImpl(
                 billRepository,
                 billItemRepository,
                 productRepository,
                 storeInventoryService,
-                transactionRepository);
+                transactionRepository,
+                unitOfWork,
+                stockLocks,
+                new InProgressBillStore(
+                        AppConfig.getInProgressBillMaxSize(),
+                        java.time.Duration.ofMinutes(AppConfig.getInProgressBillIdleMinutes()),
+                        java.time.Clock.systemDefaultZone()),
+                checkoutIdempotencyRepository,
+                new CheckoutResultCache(
+                        AppConfig.getCheckoutIdempotencyCacheSize(),
+                        java.time.Duration.ofHours(AppConfig.getCheckoutIdempotencyTtlHours()),
+                        java.time.Clock.systemDefaultZone()),
+                salesRollupRepository,
+                reportCache,
+                dashboardCounters,
+                cartReservations);
         ServiceRegistry.register(BillingService.class, billingService);
 
+        // Offline checkout journal; without it POS checkout fails while the database is down
+        OfflineCheckoutService offlineCheckoutService = null;
+        try {
+            CheckoutJournal journal = new CheckoutJournal(java.nio.file.Path.of(AppConfig.getOfflineJournalPath()));
+            offlineCheckoutService = new OfflineCheckoutServiceImpl(billingService, journal);
+            ServiceRegistry.register(CheckoutJournal.class, journal);
+            ServiceRegistry.register(OfflineCheckoutService.class, offlineCheckoutService);
+        } catch (java.io.IOException e) {
+            logger.error("Offline checkout journal unavailable: {}", e.getMessage(), e);
+        }
+
         // Customer service
         CustomerService customerService = new CustomerServiceImpl(customerRepository);
         ServiceRegistry.register(CustomerService.class, customerService);
 
-        // Report service
-        ReportService reportService = new ReportServiceImpl(
-                billRepository,
-                billItemRepository,
-                mainInventoryRepository,
-                physicalStoreRepository,
-                onlineStoreRepository,
-                productRepository);
+        // Report service, answered from the report cache
+        ReportService reportService = new CachingReportService(
+                new ReportServiceImpl(
+                        billRepository,
+                        billItemRepository,
+                        mainInventoryRepository,
+                        physicalStoreRepository,
+                        onlineStoreRepository,
+                        reportQueryRepository,
+                        expiryScheduler,
+                        salesRollupRepository,
+                        dashboardCounters),
+                reportCache);
         ServiceRegistry.register(ReportService.class, reportService);
 
+        // Live dashboard counts pushed to open dashboards
+        DashboardEventStream dashboardStream = new DashboardEventStream(
+                dashboardCounters,
+                ThreadPoolConfig.getBackgroundTaskExecutor(),
+                java.time.Duration.ofMillis(AppConfig.getDashboardStreamPushIntervalMillis()),
+                java.time.Duration.ofSeconds(AppConfig.getDashboardStreamHeartbeatSeconds()),
+                AppConfig.getDashboardStreamMaxClients());
+        dashboardStream.start();
+        ServiceRegistry.register(DashboardEventStream.class, dashboardStream);
+
         // Background task service
         BackgroundTaskService backgroundTaskService = new BackgroundTaskServiceImpl(
                 inventoryService,
                 storeInventoryService,
-                reportService);
+                reportService,
+                billingService,
+                offlineCheckoutService,
+                expiryScheduler,
+                writeOffService,
+                reconciliationService,
+                cartReservations,
+                inventoryHistoryService,
+                salesRollupService);
         ServiceRegistry.register(BackgroundTaskService.class, backgroundTaskService);
 
         // Cart service (for online shopping)
-        CartService cartService = new CartServiceImpl(productService, storeInventoryService);
+        CartService cartService = new CartServiceImpl(productService, storeInventoryService, cartReservations);
         ServiceRegistry.register(CartService.class, cartService);
 
         // Order repository and service (for online orders)
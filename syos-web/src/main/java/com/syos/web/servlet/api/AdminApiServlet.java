@@ -3,6 +3,10 @@ package com.syos.web.servlet.api;
 import com.syos.config.ServiceRegistry;
 import com.syos.domain.enums.UserRole;
 import com.syos.domain.models.Customer;
+import com.syos.service.interfaces.CatalogImportService;
+import com.syos.service.interfaces.CatalogImportService.ImportFormat;
+import com.syos.service.interfaces.CatalogImportService.ImportOptions;
+import com.syos.service.interfaces.CatalogImportService.ImportReport;
 import com.syos.service.interfaces.CustomerService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -13,21 +17,24 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST API servlet for admin operations.
- * Handles user management and role assignment.
+ * Handles user management, role assignment and bulk catalog import.
  * Only accessible by ADMIN role.
  */
 @WebServlet(urlPatterns = {"/api/admin/*"})
 public class AdminApiServlet extends BaseApiServlet {
 
     private CustomerService customerService;
+    private CatalogImportService catalogImportService;
 
     @Override
     public void init() throws ServletException {
         super.init();
         this.customerService = ServiceRegistry.get(CustomerService.class);
+        this.catalogImportService = ServiceRegistry.getOrNull(CatalogImportService.class);
     }
 
     @Override
@@ -50,6 +57,8 @@ public class AdminApiServlet extends BaseApiServlet {
                 handleListRoles(response);
             } else if (path.equals("/stats") || path.equals("/stats/")) {
                 handleGetStats(response);
+            } else if (path.equals("/import") || path.equals("/import/")) {
+                handleGetImportProgress(response);
             } else {
                 sendError(response, HttpServletResponse.SC_NOT_FOUND, "Endpoint not found");
             }
@@ -68,6 +77,8 @@ public class AdminApiServlet extends BaseApiServlet {
         try {
             if (path.equals("/users") || path.equals("/users/")) {
                 handleCreateUser(request, response);
+            } else if (path.equals("/import") || path.equals("/import/")) {
+                handleImportCatalog(request, response);
             } else {
                 sendError(response, HttpServletResponse.SC_NOT_FOUND, "Endpoint not found");
             }
@@ -107,6 +118,53 @@ public class AdminApiServlet extends BaseApiServlet {
         }
     }
 
+    /**
+     * GET /api/admin/import - Progress of the running catalog import, or the last report
+     */
+    private void handleGetImportProgress(HttpServletResponse response) throws IOException {
+        if (catalogImportService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Catalog import is not available");
+            return;
+        }
+        Optional<ImportReport> progress = catalogImportService.getProgress();
+        if (progress.isEmpty()) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "No catalog import has run yet");
+            return;
+        }
+        sendSuccess(response, progress.get());
+    }
+
+    /**
+     * POST /api/admin/import?format=json|csv&brand=&dryRun= - Import the products and
+     * batches in the request body. The format defaults from the content type.
+     */
+    private void handleImportCatalog(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (catalogImportService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Catalog import is not available");
+            return;
+        }
+        String format = request.getParameter("format");
+        String contentType = request.getContentType();
+        ImportFormat importFormat;
+        if (format != null) {
+            try {
+                importFormat = ImportFormat.valueOf(format.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Format must be json or csv");
+                return;
+            }
+        } else {
+            importFormat = contentType != null && contentType.toLowerCase().contains("csv")
+                    ? ImportFormat.CSV : ImportFormat.JSON;
+        }
+        ImportOptions options = new ImportOptions(request.getParameter("brand"),
+                Boolean.parseBoolean(request.getParameter("dryRun")));
+
+        ImportReport report = catalogImportService.importCatalog(request.getInputStream(), importFormat, options);
+        sendSuccess(response, report, options.dryRun() ? "Catalog import checked (dry run)" : "Catalog imported");
+    }
+
     /**
      * GET /api/admin/users - List all users
      */
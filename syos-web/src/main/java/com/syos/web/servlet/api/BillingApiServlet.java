@@ -7,6 +7,8 @@ import com.syos.domain.models.Bill;
 import com.syos.domain.models.BillItem;
 import com.syos.service.interfaces.BillingService;
 import com.syos.service.interfaces.BillingService.ValidationResult;
+import com.syos.service.interfaces.OfflineCheckoutService;
+import com.syos.service.interfaces.OfflineCheckoutService.CheckoutOutcome;
 import com.syos.web.dto.response.BillResponse;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -27,12 +29,20 @@ import java.util.Optional;
  *
  * Endpoints:
  * POST /api/billing - Create new bill
+ * POST /api/billing/checkout - Single-transaction POS checkout; retries carrying the
+ *     same Idempotency-Key header get the original result. While the database is
+ *     unavailable the sale is journaled and 202 with a provisional receipt is returned
+ * POST /api/billing/checkout/batch - Check out many baskets at once (e.g. a lane
+ *     terminal syncing buffered sales); returns one result per basket
+ * GET /api/billing/offline - Get offline journal status and replay conflicts
+ * POST /api/billing/offline/replay - Replay journaled checkouts now
  * GET /api/billing/{id} - Get bill by ID
  * GET /api/billing/serial/{serialNumber} - Get bill by serial number
  * GET /api/billing/today - Get today's bills summary
  * GET /api/billing/recent - Get recent bills
  * GET /api/billing/date/{date} - Get bills by date
  * GET /api/billing/customer/{customerId} - Get bills by customer
+ * GET /api/billing/in-progress/stats - Get in-progress bill store statistics
  *
  * POST /api/billing/{id}/items - Add item to bill
  * PUT /api/billing/{id}/items/{itemId} - Update item quantity
@@ -49,12 +59,18 @@ import java.util.Optional;
 @WebServlet(urlPatterns = { "/api/billing", "/api/billing/*" })
 public class BillingApiServlet extends BaseApiServlet {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+    private static final int MAX_BATCH_CHECKOUTS = 500;
+
     private BillingService billingService;
+    private OfflineCheckoutService offlineCheckoutService;
 
     @Override
     public void init() throws ServletException {
         super.init();
         billingService = ServiceRegistry.get(BillingService.class);
+        offlineCheckoutService = ServiceRegistry.getOrNull(OfflineCheckoutService.class);
     }
 
     @Override
@@ -74,6 +90,10 @@ public class BillingApiServlet extends BaseApiServlet {
 
             if (parts[0].equals("today")) {
                 handleGetTodaySummary(response);
+            } else if (parts[0].equals("in-progress") && parts.length > 1 && parts[1].equals("stats")) {
+                sendSuccess(response, billingService.getInProgressStats());
+            } else if (parts[0].equals("offline")) {
+                handleGetOfflineStatus(response);
             } else if (parts[0].equals("recent")) {
                 int limit = getIntParameter(request, "limit", 20);
                 handleGetRecentBills(limit, response);
@@ -111,7 +131,16 @@ public class BillingApiServlet extends BaseApiServlet {
 
             // Handle /checkout endpoint (no bill ID needed)
             if (parts[0].equals("checkout")) {
-                handleCheckout(request, response);
+                if (parts.length > 1 && parts[1].equals("batch")) {
+                    handleBatchCheckout(request, response);
+                } else {
+                    handleCheckout(request, response);
+                }
+                return;
+            }
+
+            if (parts[0].equals("offline") && parts.length > 1 && parts[1].equals("replay")) {
+                handleOfflineReplay(response);
                 return;
             }
 
@@ -365,46 +394,41 @@ public class BillingApiServlet extends BaseApiServlet {
             return;
         }
 
-        // Parse enums
-        StoreType storeType;
-        try {
-            storeType = StoreType.valueOf(checkoutRequest.storeType.toUpperCase());
-        } catch (Exception e) {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey == null) {
+            idempotencyKey = checkoutRequest.idempotencyKey;
+        }
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
             sendError(response, HttpServletResponse.SC_BAD_REQUEST,
-                    "Invalid store type. Use 'PHYSICAL' or 'ONLINE'");
+                    "Idempotency key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
             return;
         }
 
-        TransactionType transactionType;
-        try {
-            transactionType = TransactionType.valueOf(checkoutRequest.transactionType.toUpperCase());
-        } catch (Exception e) {
-            sendError(response, HttpServletResponse.SC_BAD_REQUEST,
-                    "Invalid transaction type. Use 'CASH' or 'CREDIT'");
+        List<String> errors = new ArrayList<>();
+        BillingService.CheckoutRequest serviceRequest = toServiceRequest(checkoutRequest, errors);
+        if (serviceRequest == null) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, errors.get(0));
             return;
         }
 
-        // Convert API items to service request items
-        List<BillingService.ItemRequest> items = new ArrayList<>();
-        if (checkoutRequest.items != null) {
-            for (CheckoutItemRequest item : checkoutRequest.items) {
-                items.add(new BillingService.ItemRequest(item.productCode, item.quantity));
+        // Execute checkout
+        BillingService.CheckoutResult result;
+        if (offlineCheckoutService != null) {
+            CheckoutOutcome outcome = offlineCheckoutService.checkout(serviceRequest, idempotencyKey);
+            if (outcome.isProvisional()) {
+                response.setStatus(HttpServletResponse.SC_ACCEPTED);
+                sendSuccess(response, Map.of(
+                        "provisional", true,
+                        "provisionalNumber", outcome.provisionalNumber(),
+                        "queuedAt", outcome.queuedAt().toString()),
+                        "Checkout recorded offline; the bill will be issued when the database is back");
+                return;
             }
+            result = outcome.result();
+        } else {
+            result = billingService.checkout(serviceRequest, idempotencyKey);
         }
 
-        // Build checkout request
-        BillingService.CheckoutRequest serviceRequest = new BillingService.CheckoutRequest(
-                storeType,
-                transactionType,
-                checkoutRequest.customerId,
-                checkoutRequest.cashierId,
-                items,
-                checkoutRequest.discount,
-                checkoutRequest.cashTendered);
-
-        // Execute checkout
-        BillingService.CheckoutResult result = billingService.checkout(serviceRequest);
-
         if (result.success()) {
             response.setStatus(HttpServletResponse.SC_CREATED);
             sendSuccess(response, Map.of(
@@ -429,6 +453,122 @@ public class BillingApiServlet extends BaseApiServlet {
         }
     }
 
+    private void handleGetOfflineStatus(HttpServletResponse response) throws IOException {
+        if (offlineCheckoutService == null) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "Offline checkout is not enabled");
+            return;
+        }
+        sendSuccess(response, Map.of(
+                "offline", offlineCheckoutService.isOffline(),
+                "pending", offlineCheckoutService.getPendingCount(),
+                "conflicts", offlineCheckoutService.getConflicts()));
+    }
+
+    private void handleOfflineReplay(HttpServletResponse response) throws IOException {
+        if (offlineCheckoutService == null) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "Offline checkout is not enabled");
+            return;
+        }
+        sendSuccess(response, offlineCheckoutService.replay());
+    }
+
+    /**
+     * Converts an API checkout body to a service request, or adds the reason
+     * to errors and returns null when the store or transaction type is invalid.
+     */
+    private BillingService.CheckoutRequest toServiceRequest(CheckoutApiRequest checkoutRequest,
+            List<String> errors) {
+        // Parse enums
+        StoreType storeType;
+        try {
+            storeType = StoreType.valueOf(checkoutRequest.storeType.toUpperCase());
+        } catch (Exception e) {
+            errors.add("Invalid store type. Use 'PHYSICAL' or 'ONLINE'");
+            return null;
+        }
+
+        TransactionType transactionType;
+        try {
+            transactionType = TransactionType.valueOf(checkoutRequest.transactionType.toUpperCase());
+        } catch (Exception e) {
+            errors.add("Invalid transaction type. Use 'CASH' or 'CREDIT'");
+            return null;
+        }
+
+        // Convert API items to service request items
+        List<BillingService.ItemRequest> items = new ArrayList<>();
+        if (checkoutRequest.items != null) {
+            for (CheckoutItemRequest item : checkoutRequest.items) {
+                items.add(new BillingService.ItemRequest(item.productCode, item.quantity));
+            }
+        }
+
+        return new BillingService.CheckoutRequest(
+                storeType,
+                transactionType,
+                checkoutRequest.customerId,
+                checkoutRequest.cashierId,
+                items,
+                checkoutRequest.discount,
+                checkoutRequest.cashTendered);
+    }
+
+    private void handleBatchCheckout(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        BatchCheckoutApiRequest batchRequest = parseRequestBody(request, BatchCheckoutApiRequest.class);
+        if (batchRequest == null || batchRequest.checkouts == null || batchRequest.checkouts.isEmpty()) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "At least one checkout is required");
+            return;
+        }
+        if (batchRequest.checkouts.size() > MAX_BATCH_CHECKOUTS) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "A batch may hold at most " + MAX_BATCH_CHECKOUTS + " checkouts");
+            return;
+        }
+
+        // Entries that cannot be parsed fail on their own; the rest go to the service together
+        int count = batchRequest.checkouts.size();
+        List<BillingService.CheckoutResult> results = new ArrayList<>(count);
+        List<BillingService.BatchCheckoutEntry> entries = new ArrayList<>();
+        List<Integer> entryPositions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CheckoutApiRequest checkout = batchRequest.checkouts.get(i);
+            results.add(null);
+            List<String> errors = new ArrayList<>();
+            BillingService.CheckoutRequest serviceRequest = checkout != null ? toServiceRequest(checkout, errors) : null;
+            if (checkout != null && checkout.idempotencyKey != null
+                    && checkout.idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                errors.add("Idempotency key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
+            if (serviceRequest == null || !errors.isEmpty()) {
+                results.set(i, BillingService.CheckoutResult.failure(
+                        errors.isEmpty() ? List.of("Invalid checkout") : errors));
+                continue;
+            }
+            entries.add(new BillingService.BatchCheckoutEntry(serviceRequest, checkout.idempotencyKey));
+            entryPositions.add(i);
+        }
+
+        if (!entries.isEmpty()) {
+            List<BillingService.CheckoutResult> serviceResults = billingService.checkoutBatch(entries);
+            for (int i = 0; i < entryPositions.size(); i++) {
+                results.set(entryPositions.get(i), serviceResults.get(i));
+            }
+        }
+
+        List<BatchCheckoutResponse> body = new ArrayList<>(count);
+        int succeeded = 0;
+        for (int i = 0; i < count; i++) {
+            BillingService.CheckoutResult result = results.get(i);
+            if (result.success()) {
+                succeeded++;
+            }
+            body.add(new BatchCheckoutResponse(i, result.success(), result.billId(), result.serialNumber(),
+                    result.total(), result.change(), result.errors()));
+        }
+        sendSuccess(response, body, succeeded + " of " + count + " checkouts completed");
+    }
+
     private void handleCreateBill(HttpServletRequest request, HttpServletResponse response)
             throws IOException {
         CreateBillRequest billRequest = parseRequestBody(request, CreateBillRequest.class);
@@ -631,6 +771,21 @@ public class BillingApiServlet extends BaseApiServlet {
         public List<CheckoutItemRequest> items;
         public BigDecimal discount; // Optional discount amount
         public BigDecimal cashTendered; // Required for CASH transactions
+        public String idempotencyKey; // Optional, used when no Idempotency-Key header is sent
+    }
+
+    public static class BatchCheckoutApiRequest {
+        public List<CheckoutApiRequest> checkouts;
+    }
+
+    public record BatchCheckoutResponse(
+            int index,
+            boolean success,
+            Integer billId,
+            String serialNumber,
+            BigDecimal total,
+            BigDecimal change,
+            List<String> errors) {
     }
 
     public static class CheckoutItemRequest {
@@ -1,7 +1,13 @@
 package com.syos.web.servlet.api;
 
 import com.syos.config.ServiceRegistry;
+import com.syos.config.ThreadPoolConfig;
 import com.syos.domain.models.MainInventory;
+import com.syos.service.interfaces.ExpiredStockWriteOffService;
+import com.syos.service.interfaces.ExpiredStockWriteOffService.WriteOffReport;
+import com.syos.service.interfaces.InventoryHistoryService;
+import com.syos.service.interfaces.InventoryReconciliationService;
+import com.syos.service.interfaces.InventoryReconciliationService.ReconciliationReport;
 import com.syos.service.interfaces.InventoryService;
 import com.syos.service.interfaces.InventoryService.ProductInventorySummary;
 import jakarta.servlet.ServletException;
@@ -12,9 +18,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST API servlet for Main Inventory (batch) operations.
@@ -24,19 +33,30 @@ import java.util.Optional;
  * GET  /api/inventory/summary            - Get inventory summary by product
  * GET  /api/inventory/expiring           - Get batches expiring soon
  * GET  /api/inventory/expired            - Get expired batches
+ * GET  /api/inventory/expired/write-off  - Get the last expired stock write-off report
+ * GET  /api/inventory/reconciliation     - Get the last reconciliation report
+ * GET  /api/inventory/stock-as-of        - Get batch stock as of ?at=ISO date-time (&productCode= to filter)
  * GET  /api/inventory/{batchId}          - Get batch by ID
  * GET  /api/inventory/product/{code}     - Get batches for a product
  * POST /api/inventory                    - Add new batch
+ * POST /api/inventory/expired/write-off  - Write off expired stock (?dryRun=true to only report)
+ * POST /api/inventory/reconciliation     - Start a reconciliation against the ledger
  */
 @WebServlet(urlPatterns = {"/api/inventory", "/api/inventory/*"})
 public class InventoryApiServlet extends BaseApiServlet {
 
     private InventoryService inventoryService;
+    private ExpiredStockWriteOffService writeOffService;
+    private InventoryReconciliationService reconciliationService;
+    private InventoryHistoryService inventoryHistoryService;
 
     @Override
     public void init() throws ServletException {
         super.init();
         inventoryService = ServiceRegistry.get(InventoryService.class);
+        writeOffService = ServiceRegistry.getOrNull(ExpiredStockWriteOffService.class);
+        reconciliationService = ServiceRegistry.getOrNull(InventoryReconciliationService.class);
+        inventoryHistoryService = ServiceRegistry.getOrNull(InventoryHistoryService.class);
     }
 
     @Override
@@ -53,6 +73,12 @@ public class InventoryApiServlet extends BaseApiServlet {
                 handleGetExpiring(request, response);
             } else if (pathInfo.equals("/expired")) {
                 handleGetExpired(response);
+            } else if (pathInfo.equals("/expired/write-off")) {
+                handleGetLastWriteOff(response);
+            } else if (pathInfo.equals("/reconciliation")) {
+                handleGetLastReconciliation(response);
+            } else if (pathInfo.equals("/stock-as-of")) {
+                handleGetStockAsOf(request, response);
             } else if (pathInfo.startsWith("/product/")) {
                 String productCode = pathInfo.substring("/product/".length());
                 handleGetByProductCode(productCode, request, response);
@@ -70,7 +96,13 @@ public class InventoryApiServlet extends BaseApiServlet {
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         try {
-            handleAddBatch(request, response);
+            if ("/expired/write-off".equals(request.getPathInfo())) {
+                handleWriteOff(request, response);
+            } else if ("/reconciliation".equals(request.getPathInfo())) {
+                handleStartReconciliation(response);
+            } else {
+                handleAddBatch(request, response);
+            }
         } catch (Exception e) {
             handleException(response, e);
         }
@@ -130,6 +162,87 @@ public class InventoryApiServlet extends BaseApiServlet {
         ));
     }
 
+    private void handleGetLastWriteOff(HttpServletResponse response) throws IOException {
+        if (writeOffService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Expired stock write-off is not available");
+            return;
+        }
+        Optional<WriteOffReport> report = writeOffService.getLastReport();
+        if (report.isEmpty()) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "No write-off has run yet");
+            return;
+        }
+        sendSuccess(response, report.get());
+    }
+
+    private void handleWriteOff(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (writeOffService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Expired stock write-off is not available");
+            return;
+        }
+        boolean dryRun = "true".equalsIgnoreCase(request.getParameter("dryRun"));
+        WriteOffReport report = writeOffService.writeOff(dryRun);
+        sendSuccess(response, report, dryRun
+            ? "Dry run: " + report.batches() + " expired batches would be written off"
+            : report.batches() + " expired batches written off");
+    }
+
+    private void handleGetLastReconciliation(HttpServletResponse response) throws IOException {
+        if (reconciliationService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Inventory reconciliation is not available");
+            return;
+        }
+        Optional<ReconciliationReport> report = reconciliationService.getLastReport();
+        if (report.isEmpty()) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "No reconciliation has completed yet");
+            return;
+        }
+        sendSuccess(response, Map.of(
+            "running", reconciliationService.isRunning(),
+            "report", report.get()
+        ));
+    }
+
+    private void handleGetStockAsOf(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (inventoryHistoryService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Inventory history is not available");
+            return;
+        }
+        String at = request.getParameter("at");
+        if (at == null || at.isBlank()) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "at is required");
+            return;
+        }
+        LocalDateTime asOf;
+        try {
+            asOf = LocalDateTime.parse(at.trim());
+        } catch (DateTimeParseException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid timestamp, expected e.g. 2026-01-15T18:00");
+            return;
+        }
+        sendSuccess(response, inventoryHistoryService.getStockAsOf(asOf, request.getParameter("productCode")));
+    }
+
+    private void handleStartReconciliation(HttpServletResponse response) throws IOException {
+        if (reconciliationService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Inventory reconciliation is not available");
+            return;
+        }
+        if (reconciliationService.isRunning()) {
+            sendError(response, HttpServletResponse.SC_CONFLICT, "Inventory reconciliation is already running");
+            return;
+        }
+        // A full run reads the whole ledger, so it runs in the background and is polled with GET
+        CompletableFuture.runAsync(reconciliationService::reconcile, ThreadPoolConfig.getBackgroundTaskExecutor())
+            .exceptionally(e -> {
+                logger.error("Inventory reconciliation failed: {}", e.getMessage(), e);
+                return null;
+            });
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        sendSuccess(response, Map.of("started", true), "Inventory reconciliation started");
+    }
+
     private void handleGetByProductCode(String productCode, HttpServletRequest request,
                                          HttpServletResponse response) throws IOException {
         String availableOnly = request.getParameter("available");
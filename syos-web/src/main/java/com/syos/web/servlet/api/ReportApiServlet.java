@@ -1,9 +1,14 @@
 package com.syos.web.servlet.api;
 
 import com.syos.config.ServiceRegistry;
+import com.syos.config.ThreadPoolConfig;
 import com.syos.domain.enums.StoreType;
+import com.syos.service.impl.ReportCache;
+import com.syos.service.impl.ReportCache.ReportStats;
 import com.syos.service.interfaces.ReportService;
 import com.syos.service.interfaces.ReportService.*;
+import com.syos.service.interfaces.SalesRollupService;
+import com.syos.web.stream.DashboardEventStream;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,34 +17,48 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST API servlet for Reports.
  *
  * Endpoints:
  * GET /api/reports/dashboard                  - Dashboard summary
+ * GET /api/reports/dashboard/stream           - Live dashboard counts (Server-Sent Events)
  * GET /api/reports/sales/daily                - Daily sales report
  * GET /api/reports/sales/by-store-type        - Sales by store type
  * GET /api/reports/sales/top-products         - Top selling products
  * GET /api/reports/sales/summary              - Sales summary for date/range
+ * GET /api/reports/sales/hourly               - Units and revenue per hour of a day
  *
  * GET /api/reports/inventory/stock-levels     - Current stock levels
  * GET /api/reports/inventory/low-stock        - Low stock products
  * GET /api/reports/inventory/expiring         - Expiring products
  * GET /api/reports/inventory/expired          - Expired products
  * GET /api/reports/inventory/restock          - Restock recommendations
+ *
+ * GET /api/reports/cache                      - Report cache hit rates
+ *
+ * POST /api/reports/sales/rollups/backfill    - Rebuild the sales rollups for a date range
  */
-@WebServlet(urlPatterns = {"/api/reports/*"})
+@WebServlet(urlPatterns = {"/api/reports/*"}, asyncSupported = true)
 public class ReportApiServlet extends BaseApiServlet {
 
     private ReportService reportService;
+    private SalesRollupService salesRollupService;
+    private ReportCache reportCache;
+    private DashboardEventStream dashboardStream;
 
     @Override
     public void init() throws ServletException {
         super.init();
         reportService = ServiceRegistry.get(ReportService.class);
+        salesRollupService = ServiceRegistry.getOrNull(SalesRollupService.class);
+        reportCache = ServiceRegistry.getOrNull(ReportCache.class);
+        dashboardStream = ServiceRegistry.getOrNull(DashboardEventStream.class);
     }
 
     @Override
@@ -55,12 +74,16 @@ public class ReportApiServlet extends BaseApiServlet {
 
             String[] parts = pathInfo.substring(1).split("/");
 
-            if (parts[0].equals("dashboard")) {
+            if (parts[0].equals("dashboard") && parts.length > 1 && parts[1].equals("stream")) {
+                handleDashboardStream(request, response);
+            } else if (parts[0].equals("dashboard")) {
                 handleDashboard(response);
             } else if (parts[0].equals("sales")) {
                 handleSalesReport(parts, request, response);
             } else if (parts[0].equals("inventory")) {
                 handleInventoryReport(parts, request, response);
+            } else if (parts[0].equals("cache")) {
+                handleCacheStats(response);
             } else {
                 sendError(response, HttpServletResponse.SC_NOT_FOUND,
                     "Unknown report type: " + parts[0]);
@@ -70,6 +93,20 @@ public class ReportApiServlet extends BaseApiServlet {
         }
     }
 
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        try {
+            if ("/sales/rollups/backfill".equals(request.getPathInfo())) {
+                handleRollupBackfill(request, response);
+            } else {
+                sendError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown report action");
+            }
+        } catch (Exception e) {
+            handleException(response, e);
+        }
+    }
+
     // ==================== Dashboard ====================
 
     private void handleDashboard(HttpServletResponse response) throws IOException {
@@ -86,6 +123,18 @@ public class ReportApiServlet extends BaseApiServlet {
         ));
     }
 
+    private void handleDashboardStream(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (dashboardStream == null || !request.isAsyncSupported()) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Dashboard stream is not available");
+            return;
+        }
+        if (!dashboardStream.open(request, response)) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                "Too many open dashboard streams; try again later");
+        }
+    }
+
     // ==================== Sales Reports ====================
 
     private void handleSalesReport(String[] parts, HttpServletRequest request,
@@ -104,6 +153,7 @@ public class ReportApiServlet extends BaseApiServlet {
             case "by-store-type" -> handleSalesByStoreType(startDate, endDate, response);
             case "top-products" -> handleTopProducts(startDate, endDate, request, response);
             case "summary" -> handleSalesSummary(startDate, endDate, request, response);
+            case "hourly" -> handleHourlySales(request, response);
             default -> sendError(response, HttpServletResponse.SC_NOT_FOUND,
                 "Unknown sales report: " + parts[1]);
         }
@@ -172,6 +222,98 @@ public class ReportApiServlet extends BaseApiServlet {
         ));
     }
 
+    private void handleHourlySales(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        LocalDate date = parseDateParam(request, "date", LocalDate.now());
+        StoreType storeType = parseStoreType(request);
+
+        List<HourlySalesReport> report = reportService.getHourlySalesReport(date, storeType);
+
+        sendSuccess(response, Map.of(
+            "date", date.toString(),
+            "storeType", storeType != null ? storeType.name() : "ALL",
+            "hours", report
+        ));
+    }
+
+    private void handleRollupBackfill(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (salesRollupService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Sales rollups are not available");
+            return;
+        }
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            startDate = LocalDate.parse(getRequiredParameter(request, "startDate"));
+            endDate = LocalDate.parse(getRequiredParameter(request, "endDate"));
+        } catch (DateTimeParseException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Dates must be in yyyy-MM-dd format");
+            return;
+        }
+        if (startDate.isAfter(endDate) || endDate.isAfter(LocalDate.now())) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+                "Start date must not be after end date, and end date must not be in the future");
+            return;
+        }
+        if (salesRollupService.isBackfillRunning()) {
+            sendError(response, HttpServletResponse.SC_CONFLICT, "A sales rollup backfill is already running");
+            return;
+        }
+        // A backfill rebuilds one day at a time, so it runs in the background
+        CompletableFuture.runAsync(() -> salesRollupService.backfill(startDate, endDate),
+                ThreadPoolConfig.getBackgroundTaskExecutor())
+            .thenRun(() -> {
+                // Cached sales reports were read from the rollups just rebuilt
+                if (reportCache != null) {
+                    reportCache.salesChanged();
+                }
+            })
+            .exceptionally(e -> {
+                logger.error("Sales rollup backfill failed: {}", e.getMessage(), e);
+                return null;
+            });
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        sendSuccess(response, Map.of(
+            "startDate", startDate.toString(),
+            "endDate", endDate.toString()
+        ), "Sales rollup backfill started");
+    }
+
+    // ==================== Report Cache ====================
+
+    private void handleCacheStats(HttpServletResponse response) throws IOException {
+        if (reportCache == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Report cache is not enabled");
+            return;
+        }
+        long hits = 0;
+        long misses = 0;
+        List<Map<String, Object>> reports = new ArrayList<>();
+        for (ReportStats stats : reportCache.getStats()) {
+            hits += stats.hits();
+            misses += stats.misses();
+            reports.add(Map.of(
+                "report", stats.type().name(),
+                "ttlSeconds", reportCache.getTtl(stats.type()).toSeconds(),
+                "hits", stats.hits(),
+                "misses", stats.misses(),
+                "hitRate", stats.hitRate(),
+                "loadFailures", stats.loadFailures(),
+                "invalidations", stats.invalidations(),
+                "entries", stats.entries()
+            ));
+        }
+
+        sendSuccess(response, Map.of(
+            "entries", reportCache.size(),
+            "hits", hits,
+            "misses", misses,
+            "hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses),
+            "reports", reports
+        ));
+    }
+
     // ==================== Inventory Reports ====================
 
     private void handleInventoryReport(String[] parts, HttpServletRequest request,
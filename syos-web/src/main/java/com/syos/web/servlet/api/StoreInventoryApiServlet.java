@@ -5,6 +5,10 @@ import com.syos.domain.enums.StoreType;
 import com.syos.domain.models.OnlineStoreInventory;
 import com.syos.domain.models.PhysicalStoreInventory;
 import com.syos.repository.interfaces.OnlineStoreInventoryRepository.ProductStockSummary;
+import com.syos.service.impl.CartReservationTable;
+import com.syos.service.interfaces.StockAlertService;
+import com.syos.service.interfaces.StockAlertService.AlertPage;
+import com.syos.service.interfaces.StockAlertService.StockAlert;
 import com.syos.service.interfaces.StoreInventoryService;
 import com.syos.service.interfaces.StoreInventoryService.RestockResult;
 import jakarta.servlet.ServletException;
@@ -14,6 +18,8 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,21 +31,37 @@ import java.util.Map;
  * GET  /api/store-inventory/physical/{code}       - Physical store stock for product
  * GET  /api/store-inventory/physical/low-stock    - Physical store low stock products
  * POST /api/store-inventory/physical/restock      - Restock physical store
+ * POST /api/store-inventory/physical/restock/bulk - Restock many products in one transaction
  *
  * GET  /api/store-inventory/online                - Online store stock summary
  * GET  /api/store-inventory/online/{code}         - Online store stock for product
  * GET  /api/store-inventory/online/low-stock      - Online store low stock products
  * POST /api/store-inventory/online/restock        - Restock online store
+ * POST /api/store-inventory/online/restock/bulk   - Restock many products in one transaction
+ *
+ * GET  /api/store-inventory/alerts                - Page through stock alerts (?after={id}&limit=)
+ * GET  /api/store-inventory/availability          - Available quantities (?codes=A,B&storeType=),
+ *                                                   online ones net of what carts hold
+ * GET  /api/store-inventory/{storeType}/alerts    - Products currently low or out of stock
  */
 @WebServlet(urlPatterns = {"/api/store-inventory/*"})
 public class StoreInventoryApiServlet extends BaseApiServlet {
 
+    private static final int MAX_BULK_RESTOCK_ITEMS = 1000;
+    private static final int DEFAULT_ALERT_PAGE_SIZE = 50;
+    private static final int MAX_ALERT_PAGE_SIZE = 500;
+    private static final int MAX_AVAILABILITY_CODES = 200;
+
     private StoreInventoryService storeInventoryService;
+    private StockAlertService stockAlertService;
+    private CartReservationTable cartReservations;
 
     @Override
     public void init() throws ServletException {
         super.init();
         storeInventoryService = ServiceRegistry.get(StoreInventoryService.class);
+        stockAlertService = ServiceRegistry.getOrNull(StockAlertService.class);
+        cartReservations = ServiceRegistry.getOrNull(CartReservationTable.class);
     }
 
     @Override
@@ -56,6 +78,18 @@ public class StoreInventoryApiServlet extends BaseApiServlet {
             String[] parts = pathInfo.substring(1).split("/");
             String storeTypeStr = parts[0];
 
+            if (storeTypeStr.equals("alerts")) {
+                // GET /api/store-inventory/alerts
+                handleGetAlerts(request, response);
+                return;
+            }
+
+            if (storeTypeStr.equals("availability")) {
+                // GET /api/store-inventory/availability
+                handleGetAvailability(request, response);
+                return;
+            }
+
             if (!storeTypeStr.equals("physical") && !storeTypeStr.equals("online")) {
                 sendError(response, HttpServletResponse.SC_BAD_REQUEST,
                     "Invalid store type. Use 'physical' or 'online'");
@@ -68,6 +102,9 @@ public class StoreInventoryApiServlet extends BaseApiServlet {
             if (parts.length == 1) {
                 // GET /api/store-inventory/{storeType}
                 handleGetStockSummary(storeType, response);
+            } else if (parts[1].equals("alerts")) {
+                // GET /api/store-inventory/{storeType}/alerts
+                handleGetOpenAlerts(storeType, response);
             } else if (parts[1].equals("low-stock")) {
                 // GET /api/store-inventory/{storeType}/low-stock
                 int threshold = getIntParameter(request, "threshold", 10);
@@ -103,7 +140,11 @@ public class StoreInventoryApiServlet extends BaseApiServlet {
             StoreType storeType = storeTypeStr.equals("physical") ?
                 StoreType.PHYSICAL : StoreType.ONLINE;
 
-            handleRestock(storeType, request, response);
+            if (parts.length > 2 && parts[2].equals("bulk")) {
+                handleBulkRestock(storeType, request, response);
+            } else {
+                handleRestock(storeType, request, response);
+            }
         } catch (Exception e) {
             handleException(response, e);
         }
@@ -218,6 +259,84 @@ public class StoreInventoryApiServlet extends BaseApiServlet {
         }
     }
 
+    private void handleGetAvailability(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        List<String> codes = Arrays.stream(getOptionalParameter(request, "codes", "").split(","))
+            .map(String::trim)
+            .filter(code -> !code.isEmpty())
+            .distinct()
+            .toList();
+        if (codes.isEmpty()) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "codes is required");
+            return;
+        }
+        if (codes.size() > MAX_AVAILABILITY_CODES) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+                "At most " + MAX_AVAILABILITY_CODES + " codes may be checked at once");
+            return;
+        }
+        String storeTypeStr = getOptionalParameter(request, "storeType", "online");
+        if (!storeTypeStr.equalsIgnoreCase("physical") && !storeTypeStr.equalsIgnoreCase("online")) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+                "Invalid store type. Use 'physical' or 'online'");
+            return;
+        }
+        StoreType storeType = storeTypeStr.equalsIgnoreCase("physical") ?
+            StoreType.PHYSICAL : StoreType.ONLINE;
+
+        Map<String, Integer> available = storeInventoryService.getAvailableQuantities(codes, storeType);
+        if (storeType == StoreType.ONLINE && cartReservations != null) {
+            // Stock held by carts cannot be bought by anyone else
+            Map<String, Integer> unreserved = new LinkedHashMap<>();
+            available.forEach((code, quantity) ->
+                unreserved.put(code, Math.max(0, quantity - cartReservations.getReserved(code))));
+            available = unreserved;
+        }
+        sendSuccess(response, Map.of(
+            "storeType", storeType.name(),
+            "available", available,
+            "count", available.size()
+        ));
+    }
+
+    private void handleGetAlerts(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (stockAlertService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Stock alerts are not available");
+            return;
+        }
+        long afterId;
+        try {
+            afterId = Long.parseLong(getOptionalParameter(request, "after", "0"));
+        } catch (NumberFormatException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "after must be an alert id");
+            return;
+        }
+        int limit = Math.min(Math.max(getIntParameter(request, "limit", DEFAULT_ALERT_PAGE_SIZE), 1),
+            MAX_ALERT_PAGE_SIZE);
+
+        AlertPage page = stockAlertService.getAlerts(afterId, limit);
+        sendSuccess(response, Map.of(
+            "alerts", page.alerts(),
+            "count", page.alerts().size(),
+            "nextAfter", page.nextAfterId(),
+            "hasMore", page.hasMore()
+        ));
+    }
+
+    private void handleGetOpenAlerts(StoreType storeType, HttpServletResponse response) throws IOException {
+        if (stockAlertService == null) {
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Stock alerts are not available");
+            return;
+        }
+        List<StockAlert> alerts = stockAlertService.getOpenAlerts(storeType);
+        sendSuccess(response, Map.of(
+            "storeType", storeType.name(),
+            "alerts", alerts,
+            "count", alerts.size()
+        ));
+    }
+
     private void handleRestock(StoreType storeType, HttpServletRequest request,
                                 HttpServletResponse response) throws IOException {
         RestockRequest restockRequest = parseRequestBody(request, RestockRequest.class);
@@ -267,6 +386,53 @@ public class StoreInventoryApiServlet extends BaseApiServlet {
         }
     }
 
+    private void handleBulkRestock(StoreType storeType, HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
+        BulkRestockRequest bulkRequest = parseRequestBody(request, BulkRestockRequest.class);
+        if (bulkRequest == null || bulkRequest.items == null || bulkRequest.items.isEmpty()) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "items are required");
+            return;
+        }
+        if (bulkRequest.items.size() > MAX_BULK_RESTOCK_ITEMS) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+                "A bulk restock may contain at most " + MAX_BULK_RESTOCK_ITEMS + " items");
+            return;
+        }
+
+        // Repeated product codes are merged so each product is planned once
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (RestockRequest item : bulkRequest.items) {
+            if (item == null || item.productCode == null || item.quantity == null || item.quantity <= 0) {
+                sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "Every item needs a productCode and a positive quantity");
+                return;
+            }
+            quantities.merge(item.productCode, item.quantity, Integer::sum);
+        }
+
+        Map<String, RestockResult> results = storeInventoryService.restockStore(storeType, quantities);
+
+        List<BulkRestockResponse> responses = results.entrySet().stream()
+            .map(e -> new BulkRestockResponse(
+                e.getKey(),
+                e.getValue().success(),
+                quantities.get(e.getKey()),
+                e.getValue().quantityRestocked(),
+                e.getValue().batchesUsed(),
+                e.getValue().message()
+            ))
+            .toList();
+        int restocked = (int) responses.stream().filter(BulkRestockResponse::success).count();
+
+        sendSuccess(response, Map.of(
+            "storeType", storeType.name(),
+            "results", responses,
+            "restocked", restocked,
+            "failed", responses.size() - restocked,
+            "quantityRestocked", responses.stream().mapToInt(BulkRestockResponse::quantityRestocked).sum()
+        ));
+    }
+
     // ==================== Response/Request DTOs ====================
 
     public record StockSummaryResponse(
@@ -290,9 +456,22 @@ public class StoreInventoryApiServlet extends BaseApiServlet {
         int currentQuantity
     ) {}
 
+    public record BulkRestockResponse(
+        String productCode,
+        boolean success,
+        int quantityRequested,
+        int quantityRestocked,
+        int batchesUsed,
+        String message
+    ) {}
+
     public static class RestockRequest {
         public String productCode;
         public Integer quantity;
         public Integer batchId; // Optional - if provided, restock from specific batch
     }
+
+    public static class BulkRestockRequest {
+        public List<RestockRequest> items;
+    }
 }
@@ -0,0 +1,266 @@
+package com.syos.web.stream;
+
+import com.syos.service.impl.LiveDashboardCounters;
+import com.syos.service.impl.LiveDashboardCounters.DashboardCounts;
+import com.syos.util.JsonUtil;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events stream of the live dashboard counts.
+ *
+ * Each open dashboard holds an async request whose responses are written with
+ * non-blocking I/O, so a connection costs no thread while idle. Changes to the
+ * counts are pushed at most once per push interval, whatever the checkout rate.
+ * Every heartbeat the counts are taken again and pushed if they differ from the
+ * last ones sent, which picks up restocks and the reset at midnight; otherwise a
+ * comment is sent to keep idle connections open. A client that falls behind
+ * only misses intermediate counts, never the latest.
+ */
+public class DashboardEventStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardEventStream.class);
+
+    private static final int MAX_PENDING_EVENTS = 8;
+    private static final long RECONNECT_MILLIS = 5000;
+    private static final byte[] HEARTBEAT = ": heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final LiveDashboardCounters counters;
+    private final ScheduledExecutorService scheduler;
+    private final Duration pushInterval;
+    private final Duration heartbeatInterval;
+    private final int maxClients;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pushScheduled = new AtomicBoolean(false);
+    private final AtomicLong lastEventId = new AtomicLong();
+    private volatile DashboardCounts lastSent;
+    private volatile ScheduledFuture<?> heartbeat;
+
+    public DashboardEventStream(LiveDashboardCounters counters,
+                                ScheduledExecutorService scheduler,
+                                Duration pushInterval,
+                                Duration heartbeatInterval,
+                                int maxClients) {
+        this.counters = counters;
+        this.scheduler = scheduler;
+        this.pushInterval = pushInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * Starts following the counters and sending heartbeats.
+     */
+    public void start() {
+        counters.addListener(this::countsChanged);
+        long millis = heartbeatInterval.toMillis();
+        heartbeat = scheduler.scheduleAtFixedRate(this::heartbeat, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes every open stream and stops the heartbeat.
+     */
+    public void stop() {
+        ScheduledFuture<?> task = heartbeat;
+        if (task != null) {
+            task.cancel(false);
+        }
+        List.copyOf(clients).forEach(Client::close);
+    }
+
+    /**
+     * Opens a stream on the request and sends it the current counts.
+     *
+     * @return false, leaving the response untouched, when the stream limit is reached
+     */
+    public boolean open(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (clients.size() >= maxClients) {
+            return false;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext context = request.startAsync();
+        context.setTimeout(0);
+        Client client = new Client(context, response.getOutputStream());
+        context.addListener(client);
+        clients.add(client);
+
+        client.send(("retry: " + RECONNECT_MILLIS + "\n\n").getBytes(StandardCharsets.UTF_8));
+        client.send(event(counters.snapshot()));
+        // Writes start once the container calls onWritePossible
+        client.out.setWriteListener(client);
+        logger.debug("Dashboard stream opened, {} open", clients.size());
+        return true;
+    }
+
+    /**
+     * Gets the number of open streams.
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    private void countsChanged() {
+        if (!clients.isEmpty() && pushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::push, pushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void push() {
+        // Cleared first, so changes made while pushing schedule the next push
+        pushScheduled.set(false);
+        try {
+            broadcast(event(counters.snapshot()));
+        } catch (RuntimeException e) {
+            logger.warn("Could not push dashboard counts: {}", e.getMessage());
+        }
+    }
+
+    private void heartbeat() {
+        if (clients.isEmpty()) {
+            return;
+        }
+        try {
+            DashboardCounts counts = counters.snapshot();
+            broadcast(counts.equals(lastSent) ? HEARTBEAT : event(counts));
+        } catch (RuntimeException e) {
+            logger.warn("Dashboard stream heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private void broadcast(byte[] event) {
+        for (Client client : clients) {
+            client.send(event);
+        }
+    }
+
+    private byte[] event(DashboardCounts counts) {
+        lastSent = counts;
+        String event = "id: " + lastEventId.incrementAndGet() + "\n"
+                + "event: dashboard\n"
+                + "data: " + JsonUtil.toJsonCompact(counts) + "\n\n";
+        return event.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One open stream. Events are queued and written while the connection can
+     * take them without blocking.
+     */
+    private final class Client implements WriteListener, AsyncListener {
+        private final AsyncContext context;
+        private final ServletOutputStream out;
+        private final Deque<byte[]> pending = new ArrayDeque<>();
+        private boolean writing;
+        private boolean closed;
+
+        private Client(AsyncContext context, ServletOutputStream out) {
+            this.context = context;
+            this.out = out;
+        }
+
+        private synchronized void send(byte[] event) {
+            if (closed) {
+                return;
+            }
+            if (pending.size() >= MAX_PENDING_EVENTS) {
+                // Every event carries the full counts, so the oldest can go
+                pending.pollFirst();
+            }
+            pending.addLast(event);
+            if (writing) {
+                write();
+            }
+        }
+
+        @Override
+        public synchronized void onWritePossible() {
+            writing = true;
+            write();
+        }
+
+        private void write() {
+            try {
+                while (!closed && out.isReady()) {
+                    byte[] next = pending.pollFirst();
+                    if (next == null) {
+                        return;
+                    }
+                    out.write(next);
+                    if (out.isReady()) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Dashboard stream write failed: {}", e.getMessage());
+                close();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            clients.remove(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+            }
+            clients.remove(this);
+            try {
+                context.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+}
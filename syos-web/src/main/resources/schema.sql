@@ -97,6 +97,9 @@ CREATE TABLE IF NOT EXISTS main_inventory (
 ) ENGINE=InnoDB;
 
 -- Physical Store Inventory (Shelves)
+-- One row per (product, batch) so restocks can upsert. On an existing database
+-- the application merges duplicate rows and adds uk_physical_product_batch at
+-- startup (PhysicalStoreInventoryRepository.ensureBatchKey).
 CREATE TABLE IF NOT EXISTS physical_store_inventory (
     physical_store_inventory_id INT AUTO_INCREMENT PRIMARY KEY,
     product_code VARCHAR(20) NOT NULL,
@@ -107,11 +110,13 @@ CREATE TABLE IF NOT EXISTS physical_store_inventory (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (product_code) REFERENCES product(product_code),
     FOREIGN KEY (main_inventory_id) REFERENCES main_inventory(main_inventory_id),
-    INDEX idx_physical_product (product_code),
+    UNIQUE KEY uk_physical_product_batch (product_code, main_inventory_id),
     INDEX idx_physical_batch (main_inventory_id)
 ) ENGINE=InnoDB;
 
 -- Online Store Inventory
+-- One row per (product, batch); added at startup on an existing database, as for
+-- physical_store_inventory.
 CREATE TABLE IF NOT EXISTS online_store_inventory (
     online_store_inventory_id INT AUTO_INCREMENT PRIMARY KEY,
     product_code VARCHAR(20) NOT NULL,
@@ -122,10 +127,24 @@ CREATE TABLE IF NOT EXISTS online_store_inventory (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (product_code) REFERENCES product(product_code),
     FOREIGN KEY (main_inventory_id) REFERENCES main_inventory(main_inventory_id),
-    INDEX idx_online_product (product_code),
+    UNIQUE KEY uk_online_product_batch (product_code, main_inventory_id),
     INDEX idx_online_batch (main_inventory_id)
 ) ENGINE=InnoDB;
 
+-- Store Stock Summary (one row per product and store, maintained by the store
+-- inventory repositories in the same transaction as every shelf change)
+CREATE TABLE IF NOT EXISTS store_stock_summary (
+    store_type ENUM('PHYSICAL', 'ONLINE') NOT NULL,
+    product_code VARCHAR(20) NOT NULL,
+    total_quantity INT NOT NULL DEFAULT 0,
+    batch_count INT NOT NULL DEFAULT 0,
+    earliest_expiry DATE,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (store_type, product_code),
+    FOREIGN KEY (product_code) REFERENCES product(product_code),
+    INDEX idx_summary_quantity (store_type, total_quantity)
+) ENGINE=InnoDB;
+
 -- =====================================================
 -- Customer Table
 -- =====================================================
@@ -151,6 +170,12 @@ CREATE TABLE IF NOT EXISTS customer (
 -- =====================================================
 
 -- Bill header
+-- Reports filter on bill_date with half-open ranges, so the date indexes carry
+-- the columns the sales summaries read and those queries never touch the rows.
+-- On an existing database:
+--   ALTER TABLE bill DROP INDEX idx_bill_date, DROP INDEX idx_bill_store_type,
+--     ADD INDEX idx_bill_date_cover (bill_date, store_type, transaction_type, total_amount),
+--     ADD INDEX idx_bill_store_date (store_type, bill_date, total_amount);
 CREATE TABLE IF NOT EXISTS bill (
     bill_id INT AUTO_INCREMENT PRIMARY KEY,
     serial_number VARCHAR(50) NOT NULL UNIQUE,
@@ -169,12 +194,17 @@ CREATE TABLE IF NOT EXISTS bill (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (customer_id) REFERENCES customer(customer_id),
     INDEX idx_bill_serial (serial_number),
-    INDEX idx_bill_date (bill_date),
+    INDEX idx_bill_date_cover (bill_date, store_type, transaction_type, total_amount),
     INDEX idx_bill_customer (customer_id),
-    INDEX idx_bill_store_type (store_type)
+    INDEX idx_bill_store_date (store_type, bill_date, total_amount)
 ) ENGINE=InnoDB;
 
 -- Bill items (line items)
+-- The bill and product indexes cover the quantity and revenue sums joined from bill.
+-- On an existing database:
+--   ALTER TABLE bill_item DROP INDEX idx_bill_item_bill, DROP INDEX idx_bill_item_product,
+--     ADD INDEX idx_bill_item_bill_cover (bill_id, product_code, quantity, line_total),
+--     ADD INDEX idx_bill_item_product_cover (product_code, bill_id, quantity, line_total);
 CREATE TABLE IF NOT EXISTS bill_item (
     bill_item_id INT AUTO_INCREMENT PRIMARY KEY,
     bill_id INT NOT NULL,
@@ -188,14 +218,17 @@ CREATE TABLE IF NOT EXISTS bill_item (
     FOREIGN KEY (bill_id) REFERENCES bill(bill_id) ON DELETE CASCADE,
     FOREIGN KEY (product_code) REFERENCES product(product_code),
     FOREIGN KEY (main_inventory_id) REFERENCES main_inventory(main_inventory_id),
-    INDEX idx_bill_item_bill (bill_id),
-    INDEX idx_bill_item_product (product_code)
+    INDEX idx_bill_item_bill_cover (bill_id, product_code, quantity, line_total),
+    INDEX idx_bill_item_product_cover (product_code, bill_id, quantity, line_total)
 ) ENGINE=InnoDB;
 
 -- =====================================================
 -- Inventory Transaction Log
 -- =====================================================
 
+-- On an existing database:
+--   ALTER TABLE inventory_transaction DROP INDEX idx_inv_trans_date,
+--     ADD INDEX idx_inv_trans_date_cover (transaction_date, transaction_type, quantity_changed);
 CREATE TABLE IF NOT EXISTS inventory_transaction (
     transaction_id INT AUTO_INCREMENT PRIMARY KEY,
     product_code VARCHAR(20) NOT NULL,
@@ -210,25 +243,138 @@ CREATE TABLE IF NOT EXISTS inventory_transaction (
     FOREIGN KEY (main_inventory_id) REFERENCES main_inventory(main_inventory_id),
     FOREIGN KEY (bill_id) REFERENCES bill(bill_id),
     INDEX idx_inv_trans_product (product_code),
-    INDEX idx_inv_trans_date (transaction_date),
+    INDEX idx_inv_trans_date_cover (transaction_date, transaction_type, quantity_changed),
     INDEX idx_inv_trans_type (transaction_type)
 ) ENGINE=InnoDB;
 
+-- Ledger rows older than the retention period, moved out of inventory_transaction
+-- by the ledger maintenance task. No foreign keys, so the table can be range
+-- partitioned by month; the task adds a partition per month before moving its
+-- rows, and an old month can be purged with ALTER TABLE ... DROP PARTITION.
+CREATE TABLE IF NOT EXISTS inventory_transaction_archive (
+    transaction_id INT NOT NULL,
+    product_code VARCHAR(20) NOT NULL,
+    main_inventory_id INT,
+    transaction_type ENUM('PURCHASE', 'SALE', 'RESTOCK_PHYSICAL', 'RESTOCK_ONLINE', 'ADJUSTMENT', 'RETURN', 'EXPIRED') NOT NULL,
+    store_type ENUM('PHYSICAL', 'ONLINE', 'WAREHOUSE'),
+    quantity_changed INT NOT NULL,
+    bill_id INT,
+    remarks TEXT,
+    transaction_date DATETIME NOT NULL,
+    PRIMARY KEY (transaction_id, transaction_date),
+    INDEX idx_inv_archive_product_date (product_code, transaction_date),
+    INDEX idx_inv_archive_batch (main_inventory_id),
+    INDEX idx_inv_archive_bill (bill_id)
+) ENGINE=InnoDB
+PARTITION BY RANGE COLUMNS (transaction_date) (
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+-- Quantity of every batch in main inventory and on each store's shelves as of
+-- snapshot_at, covering ledger rows and batches dated before that instant.
+-- Batches with nothing left anywhere are omitted. Stock as of any time is the
+-- nearest earlier snapshot plus the ledger rows since.
+CREATE TABLE IF NOT EXISTS inventory_snapshot (
+    snapshot_at DATETIME NOT NULL,
+    main_inventory_id INT NOT NULL,
+    product_code VARCHAR(20) NOT NULL,
+    main_quantity INT NOT NULL,
+    physical_quantity INT NOT NULL,
+    online_quantity INT NOT NULL,
+    PRIMARY KEY (snapshot_at, main_inventory_id),
+    INDEX idx_snapshot_product (product_code, snapshot_at)
+) ENGINE=InnoDB;
+
+-- Batches whose main, shelf or online quantity does not match the ledger,
+-- one row per batch and location, written by each reconciliation run
+CREATE TABLE IF NOT EXISTS inventory_discrepancy (
+    discrepancy_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_started_at DATETIME NOT NULL,
+    main_inventory_id INT NOT NULL,
+    product_code VARCHAR(20) NOT NULL,
+    location ENUM('MAIN', 'PHYSICAL', 'ONLINE') NOT NULL,
+    expected_quantity INT NOT NULL,
+    actual_quantity INT NOT NULL,
+    INDEX idx_discrepancy_run (run_started_at),
+    INDEX idx_discrepancy_batch (main_inventory_id)
+) ENGINE=InnoDB;
+
 -- =====================================================
 -- Bill Serial Number Sequence Table
 -- =====================================================
 
+-- One row per store type per day; rows are created on first use and advanced
+-- in blocks by the application (hi/lo allocation). A new day's row starts after
+-- the highest serial already in bill for that day. On an existing database,
+-- where the table was keyed by store type alone:
+--   DROP TABLE bill_sequence;
+--   CREATE TABLE bill_sequence (
+--       store_type ENUM('PHYSICAL', 'ONLINE') NOT NULL,
+--       sequence_date DATE NOT NULL,
+--       prefix VARCHAR(10) NOT NULL,
+--       last_number INT NOT NULL DEFAULT 0,
+--       PRIMARY KEY (store_type, sequence_date)
+--   ) ENGINE=InnoDB;
 CREATE TABLE IF NOT EXISTS bill_sequence (
-    store_type ENUM('PHYSICAL', 'ONLINE') PRIMARY KEY,
+    store_type ENUM('PHYSICAL', 'ONLINE') NOT NULL,
+    sequence_date DATE NOT NULL,
     prefix VARCHAR(10) NOT NULL,
-    last_number INT DEFAULT 0
+    last_number INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (store_type, sequence_date)
+) ENGINE=InnoDB;
+
+-- Results of checkouts submitted with an idempotency key. A retried request
+-- with the same key gets the stored result instead of a second bill.
+CREATE TABLE IF NOT EXISTS checkout_idempotency (
+    idempotency_key VARCHAR(100) PRIMARY KEY,
+    bill_id INT NOT NULL,
+    result_json TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at DATETIME NOT NULL,
+    FOREIGN KEY (bill_id) REFERENCES bill(bill_id),
+    INDEX idx_checkout_idempotency_expires (expires_at)
+) ENGINE=InnoDB;
+
+-- =====================================================
+-- Sales Rollup Tables
+-- =====================================================
+
+-- Units and revenue of finalized bills per day, store, cashier and product.
+-- Added to as bills are finalized and rebuilt from the bills for closed days.
+-- Online bills have no cashier and are stored under ''.
+CREATE TABLE IF NOT EXISTS sales_rollup_daily (
+    sale_date DATE NOT NULL,
+    store_type ENUM('PHYSICAL', 'ONLINE') NOT NULL,
+    cashier_id VARCHAR(50) NOT NULL DEFAULT '',
+    product_code VARCHAR(20) NOT NULL,
+    quantity INT NOT NULL,
+    revenue DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (sale_date, store_type, cashier_id, product_code),
+    INDEX idx_sales_rollup_daily_product (product_code, sale_date)
 ) ENGINE=InnoDB;
 
--- Initialize sequences
-INSERT INTO bill_sequence (store_type, prefix, last_number) VALUES
-    ('PHYSICAL', 'PH', 0),
-    ('ONLINE', 'ON', 0)
-ON DUPLICATE KEY UPDATE store_type = store_type;
+-- The same per hour; sale_hour is the start of the hour
+CREATE TABLE IF NOT EXISTS sales_rollup_hourly (
+    sale_hour DATETIME NOT NULL,
+    store_type ENUM('PHYSICAL', 'ONLINE') NOT NULL,
+    cashier_id VARCHAR(50) NOT NULL DEFAULT '',
+    product_code VARCHAR(20) NOT NULL,
+    quantity INT NOT NULL,
+    revenue DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (sale_hour, store_type, cashier_id, product_code)
+) ENGINE=InnoDB;
+
+-- Bill counts and bill totals per day, store, cashier and payment type. Bill
+-- totals include discounts and tax, so they cannot be summed from the lines.
+CREATE TABLE IF NOT EXISTS sales_rollup_bills_daily (
+    sale_date DATE NOT NULL,
+    store_type ENUM('PHYSICAL', 'ONLINE') NOT NULL,
+    cashier_id VARCHAR(50) NOT NULL DEFAULT '',
+    transaction_type ENUM('CASH', 'CREDIT', 'CARD', 'ONLINE') NOT NULL,
+    bill_count INT NOT NULL,
+    total_amount DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY (sale_date, store_type, cashier_id, transaction_type)
+) ENGINE=InnoDB;
 
 -- =====================================================
 -- Online Orders Table
@@ -378,7 +524,8 @@ ON DUPLICATE KEY UPDATE quantity_received = VALUES(quantity_received);
 INSERT INTO physical_store_inventory (product_code, main_inventory_id, quantity_on_shelf, restocked_date)
 SELECT mi.product_code, mi.main_inventory_id, 20, CURDATE()
 FROM main_inventory mi
-WHERE mi.main_inventory_id <= 10;
+WHERE mi.main_inventory_id <= 10
+ON DUPLICATE KEY UPDATE quantity_on_shelf = quantity_on_shelf;
 
 -- =====================================================
 -- Sample Online Store Inventory
@@ -387,6 +534,29 @@ WHERE mi.main_inventory_id <= 10;
 INSERT INTO online_store_inventory (product_code, main_inventory_id, quantity_available, restocked_date)
 SELECT mi.product_code, mi.main_inventory_id, 15, CURDATE()
 FROM main_inventory mi
-WHERE mi.main_inventory_id <= 10;
+WHERE mi.main_inventory_id <= 10
+ON DUPLICATE KEY UPDATE quantity_available = quantity_available;
+
+-- =====================================================
+-- Store Stock Summary backfill (safe to rerun; rebuilds every row from the shelves)
+-- =====================================================
+
+INSERT INTO store_stock_summary (store_type, product_code, total_quantity, batch_count, earliest_expiry)
+SELECT 'PHYSICAL', psi.product_code, SUM(psi.quantity_on_shelf), COUNT(*),
+       MIN(CASE WHEN psi.quantity_on_shelf > 0 THEN mi.expiry_date END)
+FROM physical_store_inventory psi
+JOIN main_inventory mi ON psi.main_inventory_id = mi.main_inventory_id
+GROUP BY psi.product_code
+ON DUPLICATE KEY UPDATE total_quantity = VALUES(total_quantity), batch_count = VALUES(batch_count),
+    earliest_expiry = VALUES(earliest_expiry);
+
+INSERT INTO store_stock_summary (store_type, product_code, total_quantity, batch_count, earliest_expiry)
+SELECT 'ONLINE', osi.product_code, SUM(osi.quantity_available), COUNT(*),
+       MIN(CASE WHEN osi.quantity_available > 0 THEN mi.expiry_date END)
+FROM online_store_inventory osi
+JOIN main_inventory mi ON osi.main_inventory_id = mi.main_inventory_id
+GROUP BY osi.product_code
+ON DUPLICATE KEY UPDATE total_quantity = VALUES(total_quantity), batch_count = VALUES(batch_count),
+    earliest_expiry = VALUES(earliest_expiry);
 
 SELECT 'Schema created successfully!' AS status;
@@ -18,7 +18,7 @@
             <div class="flex items-center justify-between">
                 <div>
                     <p class="text-sm font-medium text-gray-500">Today's Sales</p>
-                    <p class="text-2xl font-bold text-gray-900">
+                    <p id="liveTodaySales" class="text-2xl font-bold text-gray-900">
                         Rs. <fmt:formatNumber value="${todaySales != null ? todaySales : 0}" pattern="#,##0.00"/>
                     </p>
                 </div>
@@ -29,7 +29,8 @@
                 </div>
             </div>
             <p class="mt-2 text-sm text-gray-500">
-                <span class="font-medium text-gray-700">${todayBillCount != null ? todayBillCount : 0}</span> transactions
+                <span id="liveTodayBillCount" class="font-medium text-gray-700">${todayBillCount != null ? todayBillCount : 0}</span> transactions
+                <span id="liveItemsSold" class="hidden"></span>
             </p>
         </div>
 
@@ -56,7 +57,7 @@
             <div class="flex items-center justify-between">
                 <div>
                     <p class="text-sm font-medium text-gray-500">Low Stock Items</p>
-                    <p class="text-2xl font-bold text-gray-900">${lowStockCount != null ? lowStockCount : 0}</p>
+                    <p id="liveLowStockCount" class="text-2xl font-bold text-gray-900">${lowStockCount != null ? lowStockCount : 0}</p>
                 </div>
                 <div class="p-3 bg-yellow-100 rounded-full">
                     <svg class="w-6 h-6 text-syos-warning" fill="none" stroke="currentColor" viewBox="0 0 24 24">
@@ -222,4 +223,22 @@
         </div>
     </div>
 
+    <script>
+        // Live counts pushed by the server as sales are made; the browser reconnects on its own
+        document.addEventListener('DOMContentLoaded', () => {
+            if (!window.EventSource) return;
+            const stream = new EventSource(API_BASE + '/reports/dashboard/stream');
+            stream.addEventListener('dashboard', event => {
+                const counts = JSON.parse(event.data);
+                document.getElementById('liveTodaySales').textContent = formatCurrency(counts.revenue);
+                document.getElementById('liveTodayBillCount').textContent = counts.billCount;
+                document.getElementById('liveLowStockCount').textContent = counts.lowStockCount;
+                const itemsSold = document.getElementById('liveItemsSold');
+                itemsSold.textContent = '\u00b7 ' + counts.itemsSold + ' items';
+                itemsSold.classList.remove('hidden');
+            });
+            window.addEventListener('beforeunload', () => stream.close());
+        });
+    </script>
+
 </t:layout>
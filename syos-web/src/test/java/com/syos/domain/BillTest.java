@@ -422,6 +422,64 @@ class BillTest {
         }
     }
 
+    @Nested
+    @DisplayName("Running totals tests")
+    class RunningTotalsTests {
+
+        @Test
+        @DisplayName("Should keep subtotal and total current as lines change")
+        void shouldTrackLineChanges() {
+            // Arrange
+            Bill bill = new Bill();
+            BillItem first = createTestBillItem("P1", 2, 100.00);
+            BillItem second = createTestBillItem("P2", 1, 50.00);
+
+            // Act
+            bill.addItem(first);
+            bill.addItem(second);
+            bill.applyDiscount(new Money("20.00"));
+            bill.updateItemQuantity(first, 3);
+            bill.removeItem(second);
+
+            // Assert
+            assertEquals(new Money("300.00"), bill.getSubtotal());
+            assertEquals(new Money("280.00"), bill.getTotalAmount());
+        }
+
+        @Test
+        @DisplayName("Should match a full recalculation")
+        void shouldMatchFullRecalculation() {
+            // Arrange
+            Bill bill = new Bill();
+            for (int i = 1; i <= 20; i++) {
+                bill.addItem(createTestBillItem("P" + i, i, 1.25));
+            }
+            bill.updateItemQuantity(bill.getItems().get(4), 9);
+            bill.removeItemByProductCode("P7");
+            Money running = bill.getTotalAmount();
+
+            // Act
+            bill.calculateTotals();
+
+            // Assert
+            assertEquals(bill.getTotalAmount(), running);
+        }
+
+        @Test
+        @DisplayName("Should ignore removal of an item not on the bill")
+        void shouldIgnoreUnknownItemRemoval() {
+            // Arrange
+            Bill bill = new Bill();
+            bill.addItem(createTestBillItem("P1", 1, 10.00));
+
+            // Act
+            bill.removeItem(createTestBillItem("P1", 1, 10.00));
+
+            // Assert
+            assertEquals(new Money("10.00"), bill.getTotalAmount());
+        }
+    }
+
     @Nested
     @DisplayName("getTotalQuantity tests")
     class GetTotalQuantityTests {
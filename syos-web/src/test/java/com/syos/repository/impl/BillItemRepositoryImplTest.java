@@ -251,6 +251,29 @@ class BillItemRepositoryImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("updateQuantity tests")
+    class UpdateQuantityTests {
+        @Test
+        @DisplayName("Should write quantity and line total without an existence check")
+        void shouldUpdateQuantity() throws Exception {
+            BillItem item = new BillItem();
+            item.setBillItemId(7);
+            item.setQuantity(3);
+            item.setUnitPrice(new Money(BigDecimal.valueOf(10.00)));
+            item.recalculateTotal();
+            when(preparedStatement.executeUpdate()).thenReturn(1);
+
+            boolean result = repository.updateQuantity(item);
+
+            assertTrue(result);
+            verify(preparedStatement).setInt(1, 3);
+            verify(preparedStatement).setBigDecimal(2, new BigDecimal("30.00"));
+            verify(preparedStatement).setInt(3, 7);
+            verify(connection, never()).prepareStatement(contains("COUNT(*)"));
+        }
+    }
+
     @Nested
     @DisplayName("count/exists tests")
     class CountExistsTests {
@@ -291,6 +314,44 @@ class BillItemRepositoryImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("saveAll tests")
+    class SaveAllTests {
+
+        @Test
+        @DisplayName("Should insert new items in one batch and assign generated IDs")
+        void shouldInsertNewItemsInBatch() throws Exception {
+            ResultSet keys = mock(ResultSet.class);
+            when(preparedStatement.getGeneratedKeys()).thenReturn(keys);
+            when(keys.next()).thenReturn(true, true, false);
+            when(keys.getInt(1)).thenReturn(11, 12);
+
+            BillItem first = new BillItem();
+            first.setBillId(1);
+            first.setProductCode(new ProductCode("P001"));
+            first.setMainInventoryId(1);
+            first.setQuantity(2);
+            first.setUnitPrice(new Money(BigDecimal.TEN));
+            first.recalculateTotal();
+            BillItem second = new BillItem();
+            second.setBillId(1);
+            second.setProductCode(new ProductCode("P002"));
+            second.setMainInventoryId(2);
+            second.setQuantity(1);
+            second.setUnitPrice(new Money(BigDecimal.ONE));
+            second.recalculateTotal();
+
+            List<BillItem> result = repository.saveAll(List.of(first, second));
+
+            assertEquals(2, result.size());
+            assertEquals(11, first.getBillItemId());
+            assertEquals(12, second.getBillItemId());
+            verify(preparedStatement, times(2)).addBatch();
+            verify(preparedStatement).executeBatch();
+            verify(preparedStatement, never()).executeUpdate();
+        }
+    }
+
     @Nested
     @DisplayName("error handling tests")
     class ErrorHandlingTests {
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -125,6 +126,67 @@ class BillRepositoryImplTest {
             Bill updated = repository.save(bill);
             assertEquals(new BigDecimal("200.00"), updated.getTotalAmount().getAmount());
         }
+
+        @Test
+        @DisplayName("Should write header totals with a single update")
+        void shouldUpdateTotalsOnly() throws Exception {
+            Bill bill = new Bill();
+            bill.setBillId(1);
+            bill.setSubtotal(new Money(BigDecimal.valueOf(250.00)));
+            bill.setTotalAmount(new Money(BigDecimal.valueOf(230.00)));
+            bill.setDiscountAmount(new Money(BigDecimal.valueOf(20.00)));
+            when(preparedStatement.executeUpdate()).thenReturn(1);
+
+            boolean result = repository.updateTotals(bill);
+
+            assertTrue(result);
+            verify(connection, times(1)).prepareStatement(startsWith("UPDATE bill SET subtotal"));
+            verify(preparedStatement).setBigDecimal(1, new BigDecimal("250.00"));
+            verify(preparedStatement).setInt(5, 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("saveAll tests")
+    class SaveAllTests {
+
+        private Bill newBill(String serialNumber) {
+            Bill bill = new Bill();
+            bill.setSerialNumber(new BillSerialNumber(serialNumber));
+            bill.setStoreType(StoreType.PHYSICAL);
+            bill.setTransactionType(TransactionType.CASH);
+            bill.setTotalAmount(new Money(BigDecimal.valueOf(100.00)));
+            return bill;
+        }
+
+        @Test
+        @DisplayName("Should insert bills in one batch and set their IDs")
+        void shouldInsertBatch() throws Exception {
+            List<Bill> bills = List.of(newBill("POS-001"), newBill("POS-002"));
+            ResultSet generatedKeys = mock(ResultSet.class);
+            when(preparedStatement.getGeneratedKeys()).thenReturn(generatedKeys);
+            when(generatedKeys.next()).thenReturn(true, true, false);
+            when(generatedKeys.getInt(1)).thenReturn(11, 12);
+
+            repository.saveAll(bills);
+
+            assertEquals(11, bills.get(0).getBillId());
+            assertEquals(12, bills.get(1).getBillId());
+            verify(preparedStatement, times(2)).addBatch();
+            verify(preparedStatement, times(1)).executeBatch();
+        }
+
+        @Test
+        @DisplayName("Should fail when fewer keys come back than bills were inserted")
+        void shouldFailOnMissingKeys() throws Exception {
+            List<Bill> bills = List.of(newBill("POS-001"), newBill("POS-002"));
+            ResultSet generatedKeys = mock(ResultSet.class);
+            when(preparedStatement.getGeneratedKeys()).thenReturn(generatedKeys);
+            when(generatedKeys.next()).thenReturn(true, false);
+            when(generatedKeys.getInt(1)).thenReturn(11);
+
+            assertThrows(RepositoryException.class, () -> repository.saveAll(bills));
+        }
     }
 
     @Nested
@@ -231,6 +293,26 @@ class BillRepositoryImplTest {
             assertEquals(BigDecimal.valueOf(1000.00), total);
         }
 
+        @Test
+        @DisplayName("Should filter a day with a half-open range the date index can serve")
+        void shouldFilterDayWithHalfOpenRange() throws Exception {
+            // Arrange
+            LocalDate day = LocalDate.of(2026, 2, 14);
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getInt(1)).thenReturn(50);
+            ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+            // Act
+            repository.getBillCountForDate(day);
+
+            // Assert
+            verify(connection).prepareStatement(sql.capture());
+            assertTrue(sql.getValue().contains("bill_date >= ? AND bill_date < ?"));
+            assertFalse(sql.getValue().contains("DATE("));
+            verify(preparedStatement).setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+            verify(preparedStatement).setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+        }
+
         @Test
         void shouldGetTotalSalesForDateRange() throws Exception {
             when(resultSet.next()).thenReturn(true);
@@ -280,26 +362,30 @@ class BillRepositoryImplTest {
     class GenerateNextSerialNumberTests {
 
         @Test
-        @DisplayName("Should generate first serial number when none exist")
+        @DisplayName("Should generate first serial number from a newly reserved block")
         void shouldGenerateFirstSerialNumber() throws Exception {
-            when(resultSet.next()).thenReturn(false);
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getInt(1)).thenReturn(50);
 
             String serial = repository.generateNextSerialNumber(StoreType.PHYSICAL);
 
             assertTrue(serial.endsWith("-0001"));
             assertTrue(serial.startsWith("POS-"));
+            verify(connection).prepareStatement(contains("INSERT INTO bill_sequence"));
         }
 
         @Test
-        @DisplayName("Should generate next serial number")
+        @DisplayName("Should issue following serial numbers from memory")
         void shouldGenerateNextSerialNumber() throws Exception {
-            String today = LocalDate.now().toString().replace("-", "");
             when(resultSet.next()).thenReturn(true);
-            when(resultSet.getString(1)).thenReturn("POS-" + today + "-0005");
+            when(resultSet.getInt(1)).thenReturn(50);
 
-            String serial = repository.generateNextSerialNumber(StoreType.PHYSICAL);
+            repository.generateNextSerialNumber(StoreType.ONLINE);
+            String serial = repository.generateNextSerialNumber(StoreType.ONLINE);
 
-            assertTrue(serial.endsWith("-0006"));
+            assertTrue(serial.startsWith("ONL-"));
+            assertTrue(serial.endsWith("-0002"));
+            verify(dataSource, times(1)).getConnection();
         }
     }
 
@@ -0,0 +1,110 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.exception.RepositoryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BillSequenceRepositoryImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BillSequenceRepositoryImplTest {
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ResultSet resultSet;
+
+    private BillSequenceRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        repository = new BillSequenceRepositoryImpl(dataSource);
+    }
+
+    @Test
+    @DisplayName("Should reserve a block and return its highest number")
+    void shouldReserveBlock() throws Exception {
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(100);
+
+        int last = repository.reserveBlock(StoreType.PHYSICAL, LocalDate.of(2024, 1, 15), 50);
+
+        assertEquals(100, last);
+        verify(connection).prepareStatement(contains("ON DUPLICATE KEY UPDATE"));
+        verify(preparedStatement).setString(3, "POS");
+        verify(preparedStatement).setInt(4, 50);
+        verify(preparedStatement).setInt(6, 50);
+    }
+
+    @Test
+    @DisplayName("Should start a new day's row after the highest serial already issued that day")
+    void shouldSeedFromExistingSerials() throws Exception {
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(87);
+
+        repository.reserveBlock(StoreType.PHYSICAL, LocalDate.of(2024, 1, 15), 50);
+
+        verify(connection).prepareStatement(contains("MAX(CAST(SUBSTRING_INDEX(b.serial_number, '-', -1)"));
+        verify(preparedStatement).setString(5, "POS-20240115-%");
+    }
+
+    @Test
+    @DisplayName("Should not join an active unit of work")
+    void shouldUseOwnConnectionInsideUnitOfWork() throws Exception {
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(50);
+        when(connection.getAutoCommit()).thenReturn(true);
+        Connection sequenceConnection = mock(Connection.class);
+        when(sequenceConnection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(dataSource.getConnection()).thenReturn(connection, sequenceConnection);
+
+        new JdbcUnitOfWork(dataSource).run(
+                () -> repository.reserveBlock(StoreType.ONLINE, LocalDate.now(), 50));
+
+        verify(sequenceConnection).prepareStatement(contains("INSERT INTO bill_sequence"));
+        verify(sequenceConnection).close();
+        verify(connection, never()).prepareStatement(anyString());
+    }
+
+    @Test
+    @DisplayName("Should wrap SQL failures in RepositoryException")
+    void shouldWrapSqlFailure() throws Exception {
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLException("Deadlock"));
+
+        assertThrows(RepositoryException.class,
+                () -> repository.reserveBlock(StoreType.PHYSICAL, LocalDate.now(), 50));
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive block size")
+    void shouldRejectInvalidBlockSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.reserveBlock(StoreType.PHYSICAL, LocalDate.now(), 0));
+    }
+}
@@ -0,0 +1,184 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.repository.interfaces.BillSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BillSerialNumberAllocator.
+ */
+@ExtendWith(MockitoExtension.class)
+class BillSerialNumberAllocatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+
+    @Mock
+    private BillSequenceRepository sequenceRepository;
+
+    private MutableClock clock;
+    private BillSerialNumberAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(DAY);
+        allocator = new BillSerialNumberAllocator(sequenceRepository, 3, clock);
+    }
+
+    @Nested
+    @DisplayName("next tests")
+    class NextTests {
+
+        @Test
+        @DisplayName("Should issue numbers from a reserved block without further database calls")
+        void shouldIssueFromBlock() {
+            // Arrange
+            when(sequenceRepository.reserveBlock(StoreType.PHYSICAL, DAY, 3)).thenReturn(3);
+
+            // Act & Assert
+            assertEquals("POS-20240115-0001", allocator.next(StoreType.PHYSICAL));
+            assertEquals("POS-20240115-0002", allocator.next(StoreType.PHYSICAL));
+            assertEquals("POS-20240115-0003", allocator.next(StoreType.PHYSICAL));
+            verify(sequenceRepository, times(1)).reserveBlock(any(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should reserve a new block when the current one is exhausted")
+        void shouldReserveNewBlockWhenExhausted() {
+            // Arrange - another node took numbers 4-6 in between
+            when(sequenceRepository.reserveBlock(StoreType.ONLINE, DAY, 3)).thenReturn(3, 9);
+
+            // Act
+            for (int i = 0; i < 3; i++) {
+                allocator.next(StoreType.ONLINE);
+            }
+            String serial = allocator.next(StoreType.ONLINE);
+
+            // Assert
+            assertEquals("ONL-20240115-0007", serial);
+            verify(sequenceRepository, times(2)).reserveBlock(StoreType.ONLINE, DAY, 3);
+        }
+
+        @Test
+        @DisplayName("Should keep separate blocks per store type")
+        void shouldKeepSeparateBlocksPerStoreType() {
+            // Arrange
+            when(sequenceRepository.reserveBlock(eq(StoreType.PHYSICAL), any(), anyInt())).thenReturn(3);
+            when(sequenceRepository.reserveBlock(eq(StoreType.ONLINE), any(), anyInt())).thenReturn(3);
+
+            // Act & Assert
+            assertEquals("POS-20240115-0001", allocator.next(StoreType.PHYSICAL));
+            assertEquals("ONL-20240115-0001", allocator.next(StoreType.ONLINE));
+        }
+
+        @Test
+        @DisplayName("Should start a new sequence when the day changes")
+        void shouldResetOnNewDay() {
+            // Arrange
+            LocalDate nextDay = DAY.plusDays(1);
+            when(sequenceRepository.reserveBlock(StoreType.PHYSICAL, DAY, 3)).thenReturn(3);
+            when(sequenceRepository.reserveBlock(StoreType.PHYSICAL, nextDay, 3)).thenReturn(3);
+            allocator.next(StoreType.PHYSICAL);
+
+            // Act
+            clock.setDate(nextDay);
+            String serial = allocator.next(StoreType.PHYSICAL);
+
+            // Assert
+            assertEquals("POS-20240116-0001", serial);
+        }
+
+        @Test
+        @DisplayName("Should issue unique serials under concurrent use")
+        void shouldIssueUniqueSerialsConcurrently() throws Exception {
+            // Arrange
+            AtomicInteger high = new AtomicInteger();
+            when(sequenceRepository.reserveBlock(StoreType.PHYSICAL, DAY, 3))
+                    .thenAnswer(inv -> high.addAndGet(3));
+            int threads = 8;
+            int perThread = 250;
+            Set<String> issued = ConcurrentHashMap.newKeySet();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+            // Act
+            for (int t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        issued.add(allocator.next(StoreType.PHYSICAL));
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+            // Assert
+            assertEquals(threads * perThread, issued.size());
+            // No block is reserved until the previous one is used up
+            assertTrue(high.get() < threads * perThread + 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive block size")
+    void shouldRejectInvalidBlockSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BillSerialNumberAllocator(sequenceRepository, 0));
+    }
+
+    /**
+     * Clock whose date can be moved forward by tests.
+     */
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(LocalDate date) {
+            setDate(date);
+        }
+
+        void setDate(LocalDate date) {
+            this.instant = date.atTime(10, 0).toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.syos.repository.impl;
+
+import com.syos.exception.RepositoryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CheckoutIdempotencyRepositoryImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CheckoutIdempotencyRepositoryImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 15, 9, 0);
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ResultSet resultSet;
+
+    private CheckoutIdempotencyRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        repository = new CheckoutIdempotencyRepositoryImpl(dataSource);
+    }
+
+    @Test
+    @DisplayName("Should find a live stored result")
+    void shouldFindResult() throws Exception {
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString("result_json")).thenReturn("{\"success\":true}");
+
+        Optional<String> result = repository.findResult("key-1", NOW);
+
+        assertEquals(Optional.of("{\"success\":true}"), result);
+        verify(connection).prepareStatement(contains("expires_at > ?"));
+    }
+
+    @Test
+    @DisplayName("Should clear an expired entry before storing the key")
+    void shouldReplaceExpiredEntryOnSave() throws Exception {
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        repository.save("key-1", 7, "{}", NOW, NOW.plusHours(24));
+
+        var inOrder = inOrder(connection);
+        inOrder.verify(connection).prepareStatement(startsWith("DELETE FROM checkout_idempotency"));
+        inOrder.verify(connection).prepareStatement(contains("INSERT INTO checkout_idempotency"));
+    }
+
+    @Test
+    @DisplayName("Should fail when a live entry already holds the key")
+    void shouldFailOnDuplicateKey() throws Exception {
+        when(preparedStatement.executeUpdate())
+                .thenReturn(0)
+                .thenThrow(new SQLIntegrityConstraintViolationException("Duplicate entry 'key-1'"));
+
+        assertThrows(RepositoryException.class,
+                () -> repository.save("key-1", 7, "{}", NOW, NOW.plusHours(24)));
+    }
+
+    @Test
+    @DisplayName("Should delete expired keys")
+    void shouldDeleteExpired() throws Exception {
+        when(preparedStatement.executeUpdate()).thenReturn(3);
+
+        assertEquals(3, repository.deleteExpired(NOW));
+    }
+}
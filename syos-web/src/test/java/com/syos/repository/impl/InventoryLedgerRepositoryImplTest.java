@@ -0,0 +1,183 @@
+package com.syos.repository.impl;
+
+import com.syos.repository.interfaces.InventoryLedgerRepository.BatchStockLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for InventoryLedgerRepositoryImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryLedgerRepositoryImplTest {
+
+    private static final LocalDateTime SNAPSHOT_AT = LocalDateTime.of(2026, 1, 15, 0, 0);
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2026, 1, 15, 18, 30);
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ResultSet resultSet;
+
+    private InventoryLedgerRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        repository = new InventoryLedgerRepositoryImpl(dataSource);
+    }
+
+    @Test
+    @DisplayName("Should rebuild stock from the snapshot and the live and archived ledger since it")
+    void shouldFindStockAsOf() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt("main_inventory_id")).thenReturn(7);
+        when(resultSet.getString("product_code")).thenReturn("P1");
+        when(resultSet.getInt("main_quantity")).thenReturn(40);
+        when(resultSet.getInt("physical_quantity")).thenReturn(12);
+        when(resultSet.getInt("online_quantity")).thenReturn(3);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        List<BatchStockLevel> levels = repository.findStockAsOf(SNAPSHOT_AT, AS_OF, "P1");
+
+        // Assert
+        assertEquals(List.of(new BatchStockLevel(7, "P1", 40, 12, 3)), levels);
+        verify(connection).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().contains("FROM inventory_transaction_archive"));
+        assertTrue(sql.getValue().contains("transaction_date <= ?"));
+        // Snapshot, received batches, live ledger and archive, each with the product filter
+        verify(preparedStatement).setTimestamp(1, Timestamp.valueOf(SNAPSHOT_AT));
+        verify(preparedStatement).setString(11, "P1");
+        verify(preparedStatement).setTimestamp(10, Timestamp.valueOf(AS_OF));
+    }
+
+    @Test
+    @DisplayName("Should build a snapshot from the previous one and the live ledger only")
+    void shouldCreateSnapshot() throws Exception {
+        // Arrange
+        LocalDateTime previous = SNAPSHOT_AT.minusDays(1);
+        when(preparedStatement.executeUpdate()).thenReturn(25);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        int batches = repository.createSnapshot(previous, SNAPSHOT_AT);
+
+        // Assert
+        assertEquals(25, batches);
+        verify(connection).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().startsWith("INSERT INTO inventory_snapshot"));
+        assertFalse(sql.getValue().contains("inventory_transaction_archive"));
+        assertTrue(sql.getValue().contains("transaction_date < ?"));
+        verify(preparedStatement).setTimestamp(1, Timestamp.valueOf(SNAPSHOT_AT));
+        verify(preparedStatement).setTimestamp(2, Timestamp.valueOf(previous));
+        verify(preparedStatement).setTimestamp(6, Timestamp.valueOf(SNAPSHOT_AT));
+    }
+
+    @Test
+    @DisplayName("Should replay from the start of the ledger when there is no snapshot")
+    void shouldReplayFromLedgerStartWithoutSnapshot() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(false);
+
+        // Act
+        repository.findStockAsOf(null, AS_OF, null);
+
+        // Assert
+        verify(preparedStatement).setTimestamp(1, Timestamp.valueOf(InventoryLedgerRepositoryImpl.LEDGER_START));
+        verify(preparedStatement, never()).setString(anyInt(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should add a partition only for a month after the last one")
+    void shouldEnsureArchivePartition() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, false, true, false);
+        when(resultSet.getString("PARTITION_NAME")).thenReturn("p202512");
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        boolean existing = repository.ensureArchivePartition(YearMonth.of(2025, 11));
+        boolean added = repository.ensureArchivePartition(YearMonth.of(2026, 1));
+
+        // Assert
+        assertFalse(existing);
+        assertTrue(added);
+        verify(connection, times(3)).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().contains("PARTITION p202601 VALUES LESS THAN ('2026-02-01')"));
+    }
+
+    @Test
+    @DisplayName("Should keep the earliest snapshot of each month when pruning")
+    void shouldPruneToMonthlySnapshots() throws Exception {
+        // Arrange
+        when(preparedStatement.executeUpdate()).thenReturn(29);
+
+        // Act
+        int pruned = repository.pruneSnapshots(SNAPSHOT_AT);
+
+        // Assert
+        assertEquals(29, pruned);
+        verify(connection).prepareStatement(contains("GROUP BY YEAR(snapshot_at), MONTH(snapshot_at)"));
+        verify(preparedStatement).setTimestamp(1, Timestamp.valueOf(SNAPSHOT_AT));
+        verify(preparedStatement).setTimestamp(2, Timestamp.valueOf(SNAPSHOT_AT));
+    }
+
+    @Test
+    @DisplayName("Should copy and delete up to the last id of the oldest rows")
+    void shouldArchiveLedgerRows() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("last_id")).thenReturn(1500);
+        when(preparedStatement.executeUpdate()).thenReturn(1000);
+
+        // Act
+        int moved = repository.archiveLedgerRows(SNAPSHOT_AT, 1000);
+
+        // Assert
+        assertEquals(1000, moved);
+        verify(preparedStatement, times(2)).setInt(1, 1500);
+        verify(preparedStatement, times(2)).executeUpdate();
+    }
+
+    @Test
+    @DisplayName("Should archive nothing when no row is older than the cutoff")
+    void shouldArchiveNothingWhenNoOldRows() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("last_id")).thenReturn(0);
+
+        // Act
+        int moved = repository.archiveLedgerRows(SNAPSHOT_AT, 1000);
+
+        // Assert
+        assertEquals(0, moved);
+        verify(preparedStatement, never()).executeUpdate();
+    }
+}
@@ -0,0 +1,135 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.InventoryTransactionType;
+import com.syos.domain.enums.StoreType;
+import com.syos.exception.RepositoryException;
+import com.syos.repository.interfaces.InventoryReconciliationRepository.BatchDiscrepancy;
+import com.syos.repository.interfaces.InventoryReconciliationRepository.PartitionReader;
+import com.syos.repository.interfaces.InventoryReconciliationRepository.StockLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for InventoryReconciliationRepositoryImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryReconciliationRepositoryImplTest {
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ResultSet resultSet;
+    @Mock
+    private PartitionReader reader;
+
+    private InventoryReconciliationRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        repository = new InventoryReconciliationRepositoryImpl(dataSource);
+    }
+
+    @Test
+    @DisplayName("Should stream every table of a partition from one read-only snapshot")
+    void shouldStreamPartition() throws Exception {
+        // Each of the four streams returns one row
+        when(resultSet.next()).thenReturn(true, false, true, false, true, false, true, false);
+        when(resultSet.getInt("main_inventory_id")).thenReturn(7);
+        when(resultSet.getString("product_code")).thenReturn("P1");
+        when(resultSet.getInt("quantity_received")).thenReturn(100);
+        when(resultSet.getInt("remaining_quantity")).thenReturn(60);
+        when(resultSet.getInt("quantity")).thenReturn(5);
+        when(resultSet.getString("transaction_type")).thenReturn("SALE");
+        when(resultSet.getString("store_type")).thenReturn("PHYSICAL");
+        when(resultSet.getInt("quantity_changed")).thenReturn(-3);
+
+        repository.readPartition("P1", "P9", reader);
+
+        verify(reader).batch(7, "P1", 100, 60);
+        verify(reader).shelf(StoreType.PHYSICAL, 7, 5);
+        verify(reader).shelf(StoreType.ONLINE, 7, 5);
+        verify(reader).ledger(7, InventoryTransactionType.SALE, StoreType.PHYSICAL, -3);
+        // The ledger stream covers the archive too
+        verify(preparedStatement).setString(4, "P9");
+        verify(preparedStatement, times(4)).setFetchSize(Integer.MIN_VALUE);
+        InOrder inOrder = inOrder(connection);
+        inOrder.verify(connection).setAutoCommit(false);
+        inOrder.verify(connection).setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        inOrder.verify(connection).setReadOnly(true);
+        inOrder.verify(connection).commit();
+        inOrder.verify(connection).setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        inOrder.verify(connection).setAutoCommit(true);
+        verify(connection).close();
+    }
+
+    @Test
+    @DisplayName("Should treat ledger rows without a store or batch as main inventory and unbatched")
+    void shouldMapMainInventoryLedgerRows() throws Exception {
+        when(resultSet.next()).thenReturn(false, false, false, true, false);
+        when(resultSet.getInt("main_inventory_id")).thenReturn(0);
+        when(resultSet.wasNull()).thenReturn(true);
+        when(resultSet.getString("transaction_type")).thenReturn("ADJUSTMENT");
+        when(resultSet.getString("store_type")).thenReturn("WAREHOUSE");
+        when(resultSet.getInt("quantity_changed")).thenReturn(4);
+
+        repository.readPartition("P1", "P1", reader);
+
+        verify(reader).ledger(null, InventoryTransactionType.ADJUSTMENT, null, 4);
+    }
+
+    @Test
+    @DisplayName("Should wrap SQL errors in a RepositoryException")
+    void shouldWrapSqlErrors() throws Exception {
+        when(preparedStatement.executeQuery()).thenThrow(new SQLException("Lost connection"));
+
+        assertThrows(RepositoryException.class, () -> repository.readPartition("P1", "P1", reader));
+        verify(connection, never()).commit();
+        verify(connection).close();
+    }
+
+    @Test
+    @DisplayName("Should save discrepancies in one batch")
+    void shouldSaveDiscrepancies() throws Exception {
+        when(preparedStatement.executeBatch()).thenReturn(new int[] { 1, 1 });
+        LocalDateTime startedAt = LocalDateTime.of(2026, 1, 15, 2, 0);
+
+        repository.saveDiscrepancies(startedAt, List.of(
+                new BatchDiscrepancy(1, "P1", StockLocation.MAIN, 70, 60),
+                new BatchDiscrepancy(1, "P1", StockLocation.ONLINE, 0, 4)));
+
+        verify(preparedStatement, times(2)).addBatch();
+        verify(preparedStatement).executeBatch();
+        verify(preparedStatement).setString(4, "MAIN");
+        verify(preparedStatement).setString(4, "ONLINE");
+    }
+}
@@ -173,6 +173,23 @@ class InventoryTransactionRepositoryImplTest {
             assertEquals(1, result.size());
         }
 
+        @Test
+        @DisplayName("Should find a bill's transactions in the live ledger or its archive")
+        void shouldCheckArchiveForBill() throws Exception {
+            // Arrange
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getBoolean(1)).thenReturn(true);
+
+            // Act
+            boolean exists = repository.existsForBill(7);
+
+            // Assert
+            assertTrue(exists);
+            verify(connection).prepareStatement(contains("inventory_transaction_archive"));
+            verify(preparedStatement).setInt(1, 7);
+            verify(preparedStatement).setInt(2, 7);
+        }
+
         @Test
         void shouldFindByDateRange() throws Exception {
             when(resultSet.next()).thenReturn(true).thenReturn(false);
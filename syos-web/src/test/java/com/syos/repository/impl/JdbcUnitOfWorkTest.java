@@ -0,0 +1,154 @@
+package com.syos.repository.impl;
+
+import com.syos.exception.RepositoryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.sql.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for JdbcUnitOfWork.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JdbcUnitOfWorkTest {
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    private JdbcUnitOfWork unitOfWork;
+    private BillRepositoryImpl billRepository;
+    private BillItemRepositoryImpl billItemRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+
+        unitOfWork = new JdbcUnitOfWork(dataSource);
+        billRepository = new BillRepositoryImpl(dataSource);
+        billItemRepository = new BillItemRepositoryImpl(dataSource);
+    }
+
+    @Nested
+    @DisplayName("execute tests")
+    class ExecuteTests {
+
+        @Test
+        @DisplayName("Should share one connection across repositories and commit once")
+        void shouldShareOneConnectionAndCommit() throws Exception {
+            when(preparedStatement.executeUpdate()).thenReturn(1);
+
+            boolean result = unitOfWork.execute(() -> {
+                billItemRepository.deleteByBillId(1);
+                return billRepository.deleteById(1);
+            });
+
+            assertTrue(result);
+            verify(dataSource, times(1)).getConnection();
+            verify(connection).setAutoCommit(false);
+            verify(connection).commit();
+            verify(connection, never()).rollback();
+            verify(connection, times(1)).close();
+            verify(connection).setAutoCommit(true);
+        }
+
+        @Test
+        @DisplayName("Should roll back when the work fails")
+        void shouldRollBackOnFailure() throws Exception {
+            when(preparedStatement.executeUpdate()).thenReturn(1);
+
+            assertThrows(IllegalStateException.class, () -> unitOfWork.execute(() -> {
+                billRepository.deleteById(1);
+                throw new IllegalStateException("boom");
+            }));
+
+            verify(connection).rollback();
+            verify(connection, never()).commit();
+            assertFalse(JdbcUnitOfWork.isActive());
+        }
+
+        @Test
+        @DisplayName("Should join an outer unit of work")
+        void shouldJoinOuterUnitOfWork() throws Exception {
+            unitOfWork.run(() -> unitOfWork.run(() -> assertTrue(JdbcUnitOfWork.isActive())));
+
+            verify(dataSource, times(1)).getConnection();
+            verify(connection, times(1)).commit();
+        }
+
+        @Test
+        @DisplayName("Should wrap connection failures in RepositoryException")
+        void shouldWrapConnectionFailure() throws Exception {
+            when(dataSource.getConnection()).thenThrow(new SQLException("Pool exhausted"));
+
+            assertThrows(RepositoryException.class, () -> unitOfWork.execute(() -> 1));
+        }
+
+        @Test
+        @DisplayName("Should use a fresh connection per statement outside a unit of work")
+        void shouldNotBindConnectionOutsideUnitOfWork() throws Exception {
+            when(preparedStatement.executeUpdate()).thenReturn(1);
+
+            billRepository.deleteById(1);
+            billRepository.deleteById(2);
+
+            verify(dataSource, times(2)).getConnection();
+            verify(connection, times(2)).close();
+        }
+    
+        @Test
+        @DisplayName("Should run after-commit actions only once the transaction commits")
+        void shouldRunAfterCommitActionsOnCommit() throws Exception {
+            java.util.List<String> events = new java.util.ArrayList<>();
+            doAnswer(inv -> events.add("commit")).when(connection).commit();
+
+            unitOfWork.run(() -> unitOfWork.afterCommit(() -> events.add("action")));
+
+            assertEquals(java.util.List.of("commit", "action"), events);
+        }
+
+        @Test
+        @DisplayName("Should discard after-commit actions on rollback")
+        void shouldDiscardAfterCommitActionsOnRollback() {
+            java.util.List<String> events = new java.util.ArrayList<>();
+
+            assertThrows(IllegalStateException.class, () -> unitOfWork.run(() -> {
+                unitOfWork.afterCommit(() -> events.add("action"));
+                throw new IllegalStateException("boom");
+            }));
+
+            assertTrue(events.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should use separate connections while suspended")
+        void shouldUseSeparateConnectionWhileSuspended() throws Exception {
+            when(preparedStatement.executeUpdate()).thenReturn(1);
+
+            unitOfWork.run(() -> {
+                unitOfWork.suspend(() -> billRepository.deleteById(1));
+                assertTrue(JdbcUnitOfWork.isActive());
+            });
+
+            verify(dataSource, times(2)).getConnection();
+            verify(connection, times(2)).close();
+        }
+    }
+}
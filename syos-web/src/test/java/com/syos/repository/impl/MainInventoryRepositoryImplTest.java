@@ -1,7 +1,9 @@
 package com.syos.repository.impl;
 
 import com.syos.domain.models.MainInventory;
+import com.syos.domain.valueobjects.BatchQuantity;
 import com.syos.exception.RepositoryException;
+import com.syos.repository.interfaces.MainInventoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -89,6 +91,32 @@ class MainInventoryRepositoryImplTest {
 
             assertEquals(1, saved.getMainInventoryId());
         }
+
+        @Test
+        @DisplayName("Should insert several batches in one JDBC batch and set their IDs")
+        void shouldInsertAllBatches() throws Exception {
+            List<MainInventory> batches = new java.util.ArrayList<>();
+            for (String code : List.of("P001", "P002")) {
+                MainInventory batch = new MainInventory();
+                batch.setProductCode(new com.syos.domain.valueobjects.ProductCode(code));
+                batch.setQuantityReceived(50);
+                batch.setRemainingQuantity(50);
+                batch.setPurchasePrice(new com.syos.domain.valueobjects.Money(BigDecimal.ONE));
+                batch.setPurchaseDate(LocalDate.now());
+                batches.add(batch);
+            }
+            ResultSet generatedKeys = mock(ResultSet.class);
+            when(preparedStatement.getGeneratedKeys()).thenReturn(generatedKeys);
+            when(generatedKeys.next()).thenReturn(true, true, false);
+            when(generatedKeys.getInt(1)).thenReturn(41, 42);
+
+            repository.insertAll(batches);
+
+            verify(preparedStatement, times(2)).addBatch();
+            verify(preparedStatement).executeBatch();
+            assertEquals(41, batches.get(0).getMainInventoryId());
+            assertEquals(42, batches.get(1).getMainInventoryId());
+        }
     }
 
     @Nested
@@ -148,6 +176,26 @@ class MainInventoryRepositoryImplTest {
 
             assertEquals(1, result.size());
         }
+
+        @Test
+        @DisplayName("Should find available batches for several products in one query")
+        void shouldFindAvailableBatchesForSeveralProducts() throws Exception {
+            when(resultSet.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+            mockInventoryResultSet(1, "P001", 50);
+
+            List<MainInventory> result = repository.findAvailableBatchesByProductCodes(List.of("P001", "P002"));
+
+            assertEquals(2, result.size());
+            verify(connection).prepareStatement(contains("IN (?, ?)"));
+            verify(preparedStatement).setString(2, "P002");
+        }
+
+        @Test
+        @DisplayName("Should not query for an empty product list")
+        void shouldSkipQueryForNoProducts() throws Exception {
+            assertTrue(repository.findAvailableBatchesByProductCodes(List.of()).isEmpty());
+            verify(connection, never()).prepareStatement(anyString());
+        }
     }
 
     @Nested
@@ -182,6 +230,51 @@ class MainInventoryRepositoryImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("findAvailableWithExpiry tests")
+    class FindAvailableWithExpiryTests {
+
+        @Test
+        @DisplayName("Should find batches with stock and an expiry date, soonest first")
+        void shouldFindAvailableWithExpiry() throws Exception {
+            when(resultSet.next()).thenReturn(true).thenReturn(false);
+            mockInventoryResultSet(1, "P001", 50);
+
+            List<MainInventory> result = repository.findAvailableWithExpiry();
+
+            assertEquals(1, result.size());
+            verify(connection).prepareStatement(argThat(sql -> sql.contains("expiry_date IS NOT NULL")
+                    && sql.contains("ORDER BY mi.expiry_date ASC")));
+        }
+    }
+
+    @Nested
+    @DisplayName("findExpiredStock tests")
+    class FindExpiredStockTests {
+
+        @Test
+        @DisplayName("Should page expired stock by batch id with store quantities")
+        void shouldFindExpiredStock() throws Exception {
+            LocalDate cutoff = LocalDate.of(2026, 1, 15);
+            when(resultSet.next()).thenReturn(true).thenReturn(false);
+            when(resultSet.getInt("main_inventory_id")).thenReturn(12);
+            when(resultSet.getString("product_code")).thenReturn("P001");
+            when(resultSet.getDate("expiry_date")).thenReturn(Date.valueOf(cutoff.minusDays(3)));
+            when(resultSet.getInt("remaining_quantity")).thenReturn(20);
+            when(resultSet.getInt("physical_quantity")).thenReturn(5);
+            when(resultSet.getInt("online_quantity")).thenReturn(0);
+
+            List<MainInventoryRepository.ExpiredStock> result = repository.findExpiredStock(cutoff, 10, 100);
+
+            assertEquals(List.of(new MainInventoryRepository.ExpiredStock(12, "P001", cutoff.minusDays(3), 20, 5, 0)),
+                    result);
+            verify(preparedStatement).setInt(1, 10);
+            verify(preparedStatement).setDate(2, Date.valueOf(cutoff));
+            verify(preparedStatement).setInt(3, 100);
+            verify(connection).prepareStatement(argThat(sql -> sql.contains("ORDER BY mi.main_inventory_id")));
+        }
+    }
+
     @Nested
     @DisplayName("findExpiredBatches tests")
     class FindExpiredBatchesTests {
@@ -254,6 +347,32 @@ class MainInventoryRepositoryImplTest {
 
             assertFalse(result);
         }
+
+        @Test
+        @DisplayName("Should reduce several batches in one batched statement")
+        void shouldReduceQuantitiesInBatch() throws Exception {
+            when(preparedStatement.executeBatch()).thenReturn(new int[] { 1, 1 });
+
+            boolean result = repository.reduceQuantities(List.of(
+                    new BatchQuantity("P001", 1, 5),
+                    new BatchQuantity("P002", 2, 3)));
+
+            assertTrue(result);
+            verify(preparedStatement, times(2)).addBatch();
+            verify(preparedStatement).executeBatch();
+        }
+
+        @Test
+        @DisplayName("Should report failure when any batch lacks quantity")
+        void shouldReturnFalseWhenAnyBatchNotReduced() throws Exception {
+            when(preparedStatement.executeBatch()).thenReturn(new int[] { 1, 0 });
+
+            boolean result = repository.reduceQuantities(List.of(
+                    new BatchQuantity("P001", 1, 5),
+                    new BatchQuantity("P002", 2, 300)));
+
+            assertFalse(result);
+        }
     }
 
     @Nested
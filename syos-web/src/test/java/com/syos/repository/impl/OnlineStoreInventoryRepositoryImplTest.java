@@ -1,6 +1,7 @@
 package com.syos.repository.impl;
 
 import com.syos.domain.models.OnlineStoreInventory;
+import com.syos.domain.valueobjects.BatchQuantity;
 import com.syos.domain.valueobjects.ProductCode;
 import com.syos.exception.RepositoryException;
 import com.syos.repository.interfaces.OnlineStoreInventoryRepository.ProductStockSummary;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -195,6 +197,33 @@ class OnlineStoreInventoryRepositoryImplTest {
 
             assertTrue(result);
         }
+
+        @Test
+        @DisplayName("Should upsert in a single statement")
+        void shouldUpsertInSingleStatement() throws Exception {
+            when(preparedStatement.executeUpdate()).thenReturn(2);
+
+            boolean result = repository.addQuantity("P001", 1, 5);
+
+            assertTrue(result);
+            verify(connection).prepareStatement(contains("INTO online_store_inventory "));
+            verify(connection).prepareStatement(contains("quantity_available = quantity_available + new.quantity_available"));
+            verify(preparedStatement, never()).executeQuery();
+        }
+
+        @Test
+        @DisplayName("Should upsert several batches in one batched statement")
+        void shouldAddQuantitiesInBatch() throws Exception {
+            when(preparedStatement.executeBatch()).thenReturn(new int[] { 1, 2 });
+
+            repository.addQuantities(List.of(
+                    new BatchQuantity("P001", 1, 5),
+                    new BatchQuantity("P002", 2, 3)));
+
+            verify(connection).prepareStatement(contains("INTO online_store_inventory "));
+            verify(preparedStatement, times(2)).addBatch();
+            verify(preparedStatement).executeBatch();
+        }
     }
 
     @Nested
@@ -207,7 +236,7 @@ class OnlineStoreInventoryRepositoryImplTest {
             when(resultSet.next()).thenReturn(true).thenReturn(false);
             when(resultSet.getString("product_code")).thenReturn("P001");
             when(resultSet.getString("product_name")).thenReturn("Test Product");
-            when(resultSet.getInt("total_qty")).thenReturn(5);
+            when(resultSet.getInt("total_quantity")).thenReturn(5);
 
             List<OnlineStoreInventory> result = repository.findLowStock(10);
 
@@ -226,7 +255,7 @@ class OnlineStoreInventoryRepositoryImplTest {
             when(resultSet.next()).thenReturn(true).thenReturn(false);
             when(resultSet.getString("product_code")).thenReturn("P001");
             when(resultSet.getString("product_name")).thenReturn("Test Product");
-            when(resultSet.getInt("total_qty")).thenReturn(100);
+            when(resultSet.getInt("total_quantity")).thenReturn(100);
             when(resultSet.getInt("batch_count")).thenReturn(5);
 
             List<ProductStockSummary> result = repository.getStockSummary();
@@ -236,6 +265,53 @@ class OnlineStoreInventoryRepositoryImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("ensureBatchKey tests")
+    class EnsureBatchKeyTests {
+
+        @Test
+        @DisplayName("Should leave a table that already has the key alone")
+        void shouldSkipExistingKey() throws Exception {
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getInt(1)).thenReturn(2);
+
+            assertFalse(repository.ensureBatchKey());
+
+            verify(connection, never()).prepareStatement(contains("ALTER TABLE"));
+        }
+
+        @Test
+        @DisplayName("Should merge duplicate batch rows and refresh their summaries before adding the key")
+        void shouldMergeDuplicatesThenAddKey() throws Exception {
+            when(resultSet.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+            when(resultSet.getInt(1)).thenReturn(0);
+            when(resultSet.getString("product_code")).thenReturn("P001");
+
+            assertTrue(repository.ensureBatchKey());
+
+            InOrder inOrder = inOrder(connection);
+            inOrder.verify(connection).prepareStatement(contains("information_schema.STATISTICS"));
+            inOrder.verify(connection).prepareStatement(contains("INSERT INTO store_stock_summary"));
+            inOrder.verify(connection).prepareStatement(contains("UPDATE online_store_inventory keep"));
+            inOrder.verify(connection).prepareStatement(contains("DELETE extra FROM online_store_inventory"));
+            inOrder.verify(connection).prepareStatement(contains("UPDATE store_stock_summary"));
+            inOrder.verify(connection).prepareStatement(
+                    "ALTER TABLE online_store_inventory ADD UNIQUE KEY uk_online_product_batch (product_code, main_inventory_id)");
+        }
+
+        @Test
+        @DisplayName("Should add the key straight away when no batch is duplicated")
+        void shouldAddKeyWithoutDuplicates() throws Exception {
+            when(resultSet.next()).thenReturn(true).thenReturn(false);
+            when(resultSet.getInt(1)).thenReturn(0);
+
+            assertTrue(repository.ensureBatchKey());
+
+            verify(connection, never()).prepareStatement(contains("DELETE extra"));
+            verify(connection).prepareStatement(contains("ALTER TABLE online_store_inventory ADD UNIQUE KEY"));
+        }
+    }
+
     @Nested
     @DisplayName("findAll tests")
     class FindAllTests {
@@ -1,7 +1,9 @@
 package com.syos.repository.impl;
 
 import com.syos.domain.models.PhysicalStoreInventory;
+import com.syos.domain.valueobjects.BatchQuantity;
 import com.syos.domain.valueobjects.ProductCode;
+import com.syos.domain.valueobjects.StoreStockLevel;
 import com.syos.exception.RepositoryException;
 import com.syos.repository.interfaces.PhysicalStoreInventoryRepository.ProductStockSummary;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -136,6 +139,18 @@ class PhysicalStoreInventoryRepositoryImplTest {
 
             assertEquals(1, result.size());
         }
+
+        @Test
+        @DisplayName("Should find available inventory for all products")
+        void shouldFindAllAvailableInventory() throws Exception {
+            when(resultSet.next()).thenReturn(true, true, false);
+            mockInventoryResultSet(1, "P001", 10);
+
+            List<PhysicalStoreInventory> result = repository.findAllAvailable();
+
+            assertEquals(2, result.size());
+            verify(connection).prepareStatement(contains("ORDER BY psi.product_code"));
+        }
     }
 
     @Nested
@@ -167,6 +182,32 @@ class PhysicalStoreInventoryRepositoryImplTest {
 
             assertTrue(result);
         }
+
+        @Test
+        @DisplayName("Should reduce several batches in one JDBC batch")
+        void shouldReduceQuantitiesInBatch() throws Exception {
+            when(preparedStatement.executeBatch()).thenReturn(new int[] { 1, 1 });
+
+            boolean result = repository.reduceQuantities(List.of(
+                    new BatchQuantity("P001", 1, 5),
+                    new BatchQuantity("P002", 2, 3)));
+
+            assertTrue(result);
+            verify(preparedStatement, times(2)).addBatch();
+            verify(preparedStatement).executeBatch();
+        }
+
+        @Test
+        @DisplayName("Should report failure when any batch lacks stock")
+        void shouldReturnFalseWhenAnyBatchNotReduced() throws Exception {
+            when(preparedStatement.executeBatch()).thenReturn(new int[] { 1, 0 });
+
+            boolean result = repository.reduceQuantities(List.of(
+                    new BatchQuantity("P001", 1, 5),
+                    new BatchQuantity("P002", 2, 3)));
+
+            assertFalse(result);
+        }
     }
 
     @Nested
@@ -195,6 +236,33 @@ class PhysicalStoreInventoryRepositoryImplTest {
 
             assertTrue(result);
         }
+
+        @Test
+        @DisplayName("Should upsert in a single statement")
+        void shouldUpsertInSingleStatement() throws Exception {
+            when(preparedStatement.executeUpdate()).thenReturn(2);
+
+            boolean result = repository.addQuantity("P001", 1, 5);
+
+            assertTrue(result);
+            verify(connection).prepareStatement(contains("INTO physical_store_inventory "));
+            verify(connection).prepareStatement(contains("quantity_on_shelf = quantity_on_shelf + new.quantity_on_shelf"));
+            verify(preparedStatement, never()).executeQuery();
+        }
+
+        @Test
+        @DisplayName("Should upsert several batches in one batched statement")
+        void shouldAddQuantitiesInBatch() throws Exception {
+            when(preparedStatement.executeBatch()).thenReturn(new int[] { 1, 2 });
+
+            repository.addQuantities(List.of(
+                    new BatchQuantity("P001", 1, 5),
+                    new BatchQuantity("P002", 2, 3)));
+
+            verify(connection).prepareStatement(contains("INTO physical_store_inventory "));
+            verify(preparedStatement, times(2)).addBatch();
+            verify(preparedStatement).executeBatch();
+        }
     }
 
     @Nested
@@ -207,7 +275,7 @@ class PhysicalStoreInventoryRepositoryImplTest {
             when(resultSet.next()).thenReturn(true).thenReturn(false);
             when(resultSet.getString("product_code")).thenReturn("P001");
             when(resultSet.getString("product_name")).thenReturn("Test Product");
-            when(resultSet.getInt("total_qty")).thenReturn(5);
+            when(resultSet.getInt("total_quantity")).thenReturn(5);
 
             List<PhysicalStoreInventory> result = repository.findLowStock(10);
 
@@ -226,7 +294,7 @@ class PhysicalStoreInventoryRepositoryImplTest {
             when(resultSet.next()).thenReturn(true).thenReturn(false);
             when(resultSet.getString("product_code")).thenReturn("P001");
             when(resultSet.getString("product_name")).thenReturn("Test Product");
-            when(resultSet.getInt("total_qty")).thenReturn(100);
+            when(resultSet.getInt("total_quantity")).thenReturn(100);
             when(resultSet.getInt("batch_count")).thenReturn(5);
 
             List<ProductStockSummary> result = repository.getStockSummary();
@@ -236,6 +304,104 @@ class PhysicalStoreInventoryRepositoryImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("store stock summary tests")
+    class StockSummaryTableTests {
+
+        @Test
+        @DisplayName("Should lock the summary rows, change the shelf, then refresh the summary")
+        void shouldLockThenRefreshSummary() throws Exception {
+            when(preparedStatement.executeBatch()).thenReturn(new int[] { 1, 1 });
+
+            repository.addQuantities(List.of(
+                    new BatchQuantity("P002", 2, 3),
+                    new BatchQuantity("P001", 1, 5)));
+
+            InOrder inOrder = inOrder(connection, preparedStatement);
+            inOrder.verify(connection).prepareStatement(contains("INSERT INTO store_stock_summary"));
+            inOrder.verify(preparedStatement).setString(1, "PHYSICAL");
+            inOrder.verify(preparedStatement).setString(2, "P001");
+            inOrder.verify(preparedStatement).setString(4, "P002");
+            inOrder.verify(connection).prepareStatement(contains("INTO physical_store_inventory "));
+            inOrder.verify(connection).prepareStatement(contains("UPDATE store_stock_summary"));
+        }
+
+        @Test
+        @DisplayName("Should leave the summary alone when no batch was reduced")
+        void shouldNotRefreshWhenNotReduced() throws Exception {
+            when(preparedStatement.executeUpdate()).thenReturn(0);
+
+            repository.reduceQuantity("P001", 1, 5);
+
+            verify(connection, never()).prepareStatement(contains("UPDATE store_stock_summary"));
+        }
+
+        @Test
+        @DisplayName("Should read stock levels for the requested products only")
+        void shouldFindStockLevelsForProducts() throws Exception {
+            when(resultSet.next()).thenReturn(true, true, false);
+            when(resultSet.getString("product_code")).thenReturn("P001", "P002");
+            when(resultSet.getString("product_name")).thenReturn("Milk", "Bread");
+            when(resultSet.getString("summary_code")).thenReturn("P001").thenReturn(null);
+            when(resultSet.getInt("total_quantity")).thenReturn(7, 0);
+            when(resultSet.getInt("batch_count")).thenReturn(2, 0);
+            when(resultSet.getDate("earliest_expiry")).thenReturn(Date.valueOf(LocalDate.of(2026, 3, 1))).thenReturn(null);
+
+            List<StoreStockLevel> result = repository.findStockLevels(List.of("P001", "P002"));
+
+            assertEquals(new StoreStockLevel("P001", "Milk", 7, 2, LocalDate.of(2026, 3, 1), true), result.get(0));
+            assertFalse(result.get(1).stocked());
+            verify(connection).prepareStatement(contains("p.product_code IN (?, ?)"));
+        }
+    }
+
+    @Nested
+    @DisplayName("ensureBatchKey tests")
+    class EnsureBatchKeyTests {
+
+        @Test
+        @DisplayName("Should leave a table that already has the key alone")
+        void shouldSkipExistingKey() throws Exception {
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getInt(1)).thenReturn(2);
+
+            assertFalse(repository.ensureBatchKey());
+
+            verify(connection, never()).prepareStatement(contains("ALTER TABLE"));
+        }
+
+        @Test
+        @DisplayName("Should merge duplicate batch rows and refresh their summaries before adding the key")
+        void shouldMergeDuplicatesThenAddKey() throws Exception {
+            when(resultSet.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+            when(resultSet.getInt(1)).thenReturn(0);
+            when(resultSet.getString("product_code")).thenReturn("P001");
+
+            assertTrue(repository.ensureBatchKey());
+
+            InOrder inOrder = inOrder(connection);
+            inOrder.verify(connection).prepareStatement(contains("information_schema.STATISTICS"));
+            inOrder.verify(connection).prepareStatement(contains("INSERT INTO store_stock_summary"));
+            inOrder.verify(connection).prepareStatement(contains("UPDATE physical_store_inventory keep"));
+            inOrder.verify(connection).prepareStatement(contains("DELETE extra FROM physical_store_inventory"));
+            inOrder.verify(connection).prepareStatement(contains("UPDATE store_stock_summary"));
+            inOrder.verify(connection).prepareStatement(
+                    "ALTER TABLE physical_store_inventory ADD UNIQUE KEY uk_physical_product_batch (product_code, main_inventory_id)");
+        }
+
+        @Test
+        @DisplayName("Should add the key straight away when no batch is duplicated")
+        void shouldAddKeyWithoutDuplicates() throws Exception {
+            when(resultSet.next()).thenReturn(true).thenReturn(false);
+            when(resultSet.getInt(1)).thenReturn(0);
+
+            assertTrue(repository.ensureBatchKey());
+
+            verify(connection, never()).prepareStatement(contains("DELETE extra"));
+            verify(connection).prepareStatement(contains("ALTER TABLE physical_store_inventory ADD UNIQUE KEY"));
+        }
+    }
+
     @Nested
     @DisplayName("findAll tests")
     class FindAllTests {
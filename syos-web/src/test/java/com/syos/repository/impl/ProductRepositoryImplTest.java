@@ -1,10 +1,12 @@
 package com.syos.repository.impl;
 
+import com.syos.domain.enums.StoreType;
 import com.syos.domain.enums.UnitOfMeasure;
 import com.syos.domain.models.Product;
 import com.syos.domain.valueobjects.Money;
 import com.syos.domain.valueobjects.ProductCode;
 import com.syos.exception.RepositoryException;
+import com.syos.repository.interfaces.ProductRepository.StockProbe;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -19,6 +21,7 @@ import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -269,6 +272,30 @@ class ProductRepositoryImplTest {
             String code = repository.generateProductCode(1, 1, 1);
             assertEquals("C01S01B01005", code);
         }
+
+        @Test
+        @DisplayName("Should read the last sequence used by codes of exactly the prefix's length")
+        void shouldFindLastCodeSequence() throws Exception {
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getInt("last_seq")).thenReturn(12);
+
+            assertEquals(12, repository.findLastCodeSequence("SNKCONE"));
+            verify(preparedStatement).setString(1, "SNKCONE%");
+            verify(preparedStatement).setInt(2, 10);
+        }
+
+        @Test
+        @DisplayName("Should match LIKE wildcards in the prefix literally")
+        void shouldEscapeWildcardsInPrefix() throws Exception {
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getInt("last_seq")).thenReturn(0);
+
+            repository.findLastCodeSequence("SN_C%!");
+
+            verify(connection).prepareStatement(contains("LIKE ? ESCAPE '!'"));
+            verify(preparedStatement).setString(1, "SN!_C!%!!%");
+            verify(preparedStatement).setInt(2, 9);
+        }
     }
 
     @Nested
@@ -313,6 +340,37 @@ class ProductRepositoryImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("probeStock tests")
+    class ProbeStockTests {
+
+        @Test
+        @DisplayName("Should probe several products with one IN query")
+        void shouldProbeSeveralProducts() throws Exception {
+            when(resultSet.next()).thenReturn(true, true, false);
+            when(resultSet.getString("product_code")).thenReturn("P001", "P002");
+            when(resultSet.getString("product_name")).thenReturn("Milk", "Bread");
+            when(resultSet.getBigDecimal("unit_price")).thenReturn(BigDecimal.TEN, BigDecimal.ONE);
+            when(resultSet.getBoolean("is_active")).thenReturn(true, false);
+            when(resultSet.getInt("available_quantity")).thenReturn(12, 0);
+
+            Map<String, StockProbe> result = repository.probeStock(StoreType.ONLINE, List.of("P001", "P002"));
+
+            assertEquals(2, result.size());
+            assertEquals(12, result.get("P001").availableQuantity());
+            assertFalse(result.get("P002").active());
+            verify(connection, times(1)).prepareStatement(contains("IN (?, ?)"));
+            verify(connection).prepareStatement(contains("s.store_type = 'ONLINE'"));
+        }
+
+        @Test
+        @DisplayName("Should not query for an empty basket")
+        void shouldSkipEmptyBasket() throws Exception {
+            assertTrue(repository.probeStock(StoreType.PHYSICAL, List.of()).isEmpty());
+            verify(dataSource, never()).getConnection();
+        }
+    }
+
     @Nested
     @DisplayName("error handling tests")
     class ErrorHandlingTests {
@@ -0,0 +1,137 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.BillItem;
+import com.syos.repository.interfaces.ReportQueryRepository.BatchStockRow;
+import com.syos.repository.interfaces.ReportQueryRepository.ProductMinimumRow;
+import com.syos.repository.interfaces.ReportQueryRepository.ProductStockRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReportQueryRepositoryImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReportQueryRepositoryImplTest {
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ResultSet resultSet;
+
+    private ReportQueryRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        repository = new ReportQueryRepositoryImpl(dataSource);
+    }
+
+    @Test
+    @DisplayName("Should read every batch with its shelf quantities in one statement")
+    void shouldFindBatchStock() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString("product_code")).thenReturn("P1", "P2");
+        when(resultSet.getString("product_name")).thenReturn("Tea", "Milk");
+        when(resultSet.getInt("main_inventory_id")).thenReturn(3, 4);
+        when(resultSet.getDate("expiry_date")).thenReturn(Date.valueOf("2026-06-30"), (Date) null);
+        when(resultSet.getInt("remaining_quantity")).thenReturn(80, 0);
+        when(resultSet.getInt("physical_quantity")).thenReturn(15, 0);
+        when(resultSet.getInt("online_quantity")).thenReturn(5, 0);
+
+        // Act
+        List<BatchStockRow> rows = repository.findBatchStock();
+
+        // Assert
+        assertEquals(2, rows.size());
+        assertEquals(LocalDate.of(2026, 6, 30), rows.get(0).expiryDate());
+        assertEquals(15, rows.get(0).physicalQuantity());
+        assertNull(rows.get(1).expiryDate());
+        verify(connection, times(1)).prepareStatement(anyString());
+    }
+
+    @Test
+    @DisplayName("Should filter products below the reorder threshold in SQL")
+    void shouldFindMainStockBelow() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString("product_code")).thenReturn("P1");
+        when(resultSet.getInt("total_quantity")).thenReturn(0);
+
+        // Act
+        List<ProductStockRow> rows = repository.findMainStockBelow(25);
+
+        // Assert
+        assertEquals(List.of(new ProductStockRow("P1", null, 0)), rows);
+        verify(preparedStatement).setInt(1, 25);
+    }
+
+    @Test
+    @DisplayName("Should compare against the minimum stock column of the store")
+    void shouldFindStoreStockBelowMinimum() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString("product_code")).thenReturn("P1");
+        when(resultSet.getInt("total_quantity")).thenReturn(2);
+        when(resultSet.getInt("minimum_stock")).thenReturn(10);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        List<ProductMinimumRow> rows = repository.findStoreStockBelowMinimum(StoreType.ONLINE);
+
+        // Assert
+        assertEquals(8, rows.get(0).minimumStock() - rows.get(0).currentStock());
+        verify(connection).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().contains("p.min_online_stock AS minimum_stock"));
+        verify(preparedStatement).setString(1, "ONLINE");
+    }
+
+    @Test
+    @DisplayName("Should read the items of all bills of a day in one statement")
+    void shouldFindBillItems() throws Exception {
+        // Arrange
+        LocalDate date = LocalDate.of(2026, 1, 15);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt("bill_id")).thenReturn(1, 2);
+        when(resultSet.getString("product_code")).thenReturn("P1");
+        when(resultSet.getBigDecimal("unit_price")).thenReturn(BigDecimal.TEN);
+        when(resultSet.getBigDecimal("line_total")).thenReturn(BigDecimal.TEN);
+
+        // Act
+        List<BillItem> items = repository.findBillItems(StoreType.PHYSICAL, date, date);
+
+        // Assert
+        assertEquals(List.of(1, 2), items.stream().map(BillItem::getBillId).toList());
+        verify(preparedStatement).setString(1, "PHYSICAL");
+        verify(preparedStatement).setTimestamp(2, Timestamp.valueOf(date.atStartOfDay()));
+        verify(preparedStatement).setTimestamp(3, Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
+    }
+}
@@ -0,0 +1,187 @@
+package com.syos.repository.impl;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.enums.TransactionType;
+import com.syos.domain.models.Bill;
+import com.syos.domain.models.BillItem;
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.ProductCode;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSale;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSales;
+import com.syos.repository.interfaces.SalesRollupRepository.HourlySales;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SalesRollupRepositoryImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SalesRollupRepositoryImplTest {
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ResultSet resultSet;
+
+    private SalesRollupRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(preparedStatement.executeBatch()).thenReturn(new int[0]);
+        repository = new SalesRollupRepositoryImpl(dataSource);
+    }
+
+    private static Bill bill(LocalDateTime billDate, String cashierId, String total) {
+        Bill bill = new Bill();
+        bill.setStoreType(StoreType.PHYSICAL);
+        bill.setTransactionType(TransactionType.CASH);
+        bill.setCashierId(cashierId);
+        bill.setBillDate(billDate);
+        bill.setTotalAmount(new Money(new BigDecimal(total)));
+        return bill;
+    }
+
+    private static BillItem item(String productCode, int quantity, String lineTotal) {
+        BillItem item = new BillItem();
+        item.setProductCode(new ProductCode(productCode));
+        item.setQuantity(quantity);
+        item.setLineTotal(new Money(new BigDecimal(lineTotal)));
+        return item;
+    }
+
+    @Test
+    @DisplayName("Should merge bills into one upsert per rollup row")
+    void shouldAddSalesMergedByKey() throws Exception {
+        // Arrange
+        LocalDateTime nine = LocalDateTime.of(2026, 3, 2, 9, 15);
+        List<BillSale> sales = List.of(
+                new BillSale(bill(nine, "C1", "30.00"), List.of(item("P2", 1, "10.00"), item("P1", 2, "20.00"))),
+                new BillSale(bill(nine.plusMinutes(30), "C1", "5.00"), List.of(item("P1", 1, "5.00"))));
+
+        // Act
+        repository.addSales(sales);
+
+        // Assert - P1 and P2 daily, P1 and P2 hourly, one bill row
+        verify(preparedStatement, times(5)).addBatch();
+        verify(preparedStatement, times(3)).executeBatch();
+        InOrder inOrder = inOrder(preparedStatement);
+        // Rows go in key order, so P1 comes first with both bills merged
+        inOrder.verify(preparedStatement).setString(4, "P1");
+        inOrder.verify(preparedStatement).setInt(5, 3);
+        inOrder.verify(preparedStatement).setBigDecimal(6, new BigDecimal("25.00"));
+        verify(preparedStatement, times(2)).setTimestamp(1, Timestamp.valueOf(LocalDateTime.of(2026, 3, 2, 9, 0)));
+        verify(preparedStatement).setString(4, "CASH");
+        verify(preparedStatement).setInt(5, 2);
+        verify(preparedStatement).setBigDecimal(6, new BigDecimal("35.00"));
+    }
+
+    @Test
+    @DisplayName("Should store bills without a cashier under an empty cashier id")
+    void shouldStoreMissingCashierAsEmpty() throws Exception {
+        // Arrange
+        Bill online = bill(LocalDateTime.of(2026, 3, 2, 9, 15), null, "5.00");
+        online.setStoreType(StoreType.ONLINE);
+
+        // Act
+        repository.addSales(List.of(new BillSale(online, List.of(item("P1", 1, "5.00")))));
+
+        // Assert
+        verify(preparedStatement, times(3)).setString(3, "");
+        verify(preparedStatement, times(3)).setString(2, "ONLINE");
+    }
+
+    @Test
+    @DisplayName("Should rebuild a day from its finalized bills with half-open ranges")
+    void shouldRebuildDay() throws Exception {
+        // Arrange
+        LocalDate day = LocalDate.of(2026, 3, 2);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("bill_count")).thenReturn(42);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        int bills = repository.rebuildDay(day);
+
+        // Assert
+        assertEquals(42, bills);
+        verify(connection, times(7)).prepareStatement(sql.capture());
+        List<String> statements = sql.getAllValues();
+        assertTrue(statements.get(0).startsWith("DELETE FROM sales_rollup_daily"));
+        assertTrue(statements.get(3).contains("INSERT INTO sales_rollup_daily"));
+        assertTrue(statements.get(3).contains("b.bill_date >= ? AND b.bill_date < ?"));
+        assertTrue(statements.get(3).contains("inventory_transaction_archive"));
+        assertTrue(statements.get(4).contains("'%Y-%m-%d %H:00:00'"));
+        verify(preparedStatement, atLeastOnce()).setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    @Test
+    @DisplayName("Should map rolled-up bill sales by day, store and payment type")
+    void shouldFindBillSales() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getDate("sale_date")).thenReturn(Date.valueOf("2026-03-02"));
+        when(resultSet.getString("store_type")).thenReturn("PHYSICAL");
+        when(resultSet.getString("transaction_type")).thenReturn("CASH");
+        when(resultSet.getInt("bill_count")).thenReturn(4);
+        when(resultSet.getBigDecimal("total_amount")).thenReturn(new BigDecimal("80.00"));
+
+        // Act
+        List<BillSales> rows = repository.findBillSales(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 2));
+
+        // Assert
+        assertEquals(List.of(new BillSales(LocalDate.of(2026, 3, 2), StoreType.PHYSICAL, TransactionType.CASH,
+                4, new BigDecimal("80.00"))), rows);
+        verify(preparedStatement).setDate(2, Date.valueOf("2026-03-02"));
+    }
+
+    @Test
+    @DisplayName("Should aggregate today's hours live from the bills")
+    void shouldFindLiveHourlySales() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt("sale_hour")).thenReturn(14);
+        when(resultSet.getString("store_type")).thenReturn("ONLINE");
+        when(resultSet.getInt("total_quantity")).thenReturn(6);
+        when(resultSet.getBigDecimal("total_revenue")).thenReturn(new BigDecimal("12.00"));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        List<HourlySales> rows = repository.findLiveHourlySales(LocalDate.of(2026, 3, 2));
+
+        // Assert
+        assertEquals(List.of(new HourlySales(14, StoreType.ONLINE, 6, new BigDecimal("12.00"))), rows);
+        verify(connection).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().contains("FROM bill b"));
+        assertTrue(sql.getValue().contains("transaction_type = 'SALE'"));
+    }
+}
@@ -5,6 +5,8 @@ import com.syos.domain.models.PhysicalStoreInventory;
 import com.syos.domain.models.OnlineStoreInventory;
 import com.syos.domain.valueobjects.ProductCode;
 import com.syos.service.impl.BackgroundTaskServiceImpl;
+import com.syos.service.interfaces.ExpiredStockWriteOffService;
+import com.syos.service.interfaces.ExpiredStockWriteOffService.WriteOffReport;
 import com.syos.service.interfaces.InventoryService;
 import com.syos.service.interfaces.ReportService;
 import com.syos.service.interfaces.ReportService.*;
@@ -49,7 +51,8 @@ class BackgroundTaskServiceImplTest {
         backgroundTaskService = new BackgroundTaskServiceImpl(
                 inventoryService,
                 storeInventoryService,
-                reportService);
+                reportService,
+                null, null, null, null, null, null, null, null);
     }
 
     private PhysicalStoreInventory createPhysicalInventory(String productCode, int quantity) {
@@ -333,6 +336,24 @@ class BackgroundTaskServiceImplTest {
             verify(inventoryService).findExpiredBatches();
         }
 
+        @Test
+        @DisplayName("Should write off expired stock when a write-off service is set")
+        void shouldWriteOffExpiredStock() throws Exception {
+            // Arrange
+            ExpiredStockWriteOffService writeOffService = mock(ExpiredStockWriteOffService.class);
+            when(writeOffService.writeOff(false)).thenReturn(
+                    new WriteOffReport(LocalDate.now(), false, 1, 2, 30, 10, 0, 0, 7, true));
+            BackgroundTaskServiceImpl service = new BackgroundTaskServiceImpl(inventoryService,
+                    storeInventoryService, reportService, null, null, null, writeOffService, null, null, null, null);
+
+            // Act
+            service.runExpiredProductCleanup().get();
+
+            // Assert
+            verify(writeOffService).writeOff(false);
+            verify(inventoryService, never()).findExpiredBatches();
+        }
+
         @Test
         @DisplayName("Should handle exception gracefully during cleanup")
         void shouldHandleExceptionGracefully() throws Exception {
@@ -0,0 +1,232 @@
+package com.syos.service;
+
+import com.syos.domain.models.MainInventory;
+import com.syos.domain.valueobjects.ProductCode;
+import com.syos.repository.interfaces.MainInventoryRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.impl.BatchExpiryScheduler;
+import com.syos.service.impl.BatchExpiryScheduler.ExpiryEvent;
+import com.syos.service.impl.BatchExpiryScheduler.ExpiryState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchExpiryScheduler.
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchExpirySchedulerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 1, 15);
+
+    @Mock
+    private MainInventoryRepository mainInventoryRepository;
+
+    private AdjustableClock clock;
+    private BatchExpiryScheduler scheduler;
+    private final List<ExpiryEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        clock = new AdjustableClock(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant().plus(Duration.ofHours(9)));
+        scheduler = new BatchExpiryScheduler(mainInventoryRepository, UnitOfWork.AUTO_COMMIT, 7, clock);
+        scheduler.addListener(events::add);
+    }
+
+    private MainInventory batch(int id, int remaining, LocalDate expiryDate) {
+        MainInventory batch = new MainInventory();
+        batch.setMainInventoryId(id);
+        batch.setProductCode(new ProductCode("P" + id));
+        batch.setProductName("Product " + id);
+        batch.setRemainingQuantity(remaining);
+        batch.setExpiryDate(expiryDate);
+        return batch;
+    }
+
+    private void advanceDays(int days) {
+        clock.advance(Duration.ofDays(days));
+        scheduler.advance();
+    }
+
+    private List<ExpiryState> states() {
+        return events.stream().map(ExpiryEvent::state).toList();
+    }
+
+    @Nested
+    @DisplayName("rebuild tests")
+    class RebuildTests {
+
+        @Test
+        @DisplayName("Should count loaded batches by state without raising events")
+        void shouldCountWithoutEvents() {
+            // Arrange
+            when(mainInventoryRepository.findAvailableWithExpiry()).thenReturn(List.of(
+                    batch(1, 10, TODAY.minusDays(2)),
+                    batch(2, 10, TODAY.plusDays(3)),
+                    batch(3, 10, TODAY.plusDays(7)),
+                    batch(4, 10, TODAY.plusDays(30))));
+
+            // Act
+            scheduler.rebuild();
+
+            // Assert
+            assertEquals(4, scheduler.size());
+            assertEquals(2, scheduler.getExpiringSoonCount());
+            assertEquals(1, scheduler.getExpiredCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("advance tests")
+    class AdvanceTests {
+
+        @Test
+        @DisplayName("Should raise expiring soon and then expired on the right days")
+        void shouldFireOnTheRightDays() {
+            // Arrange
+            scheduler.track(batch(1, 10, TODAY.plusDays(10)));
+
+            // Act & Assert
+            advanceDays(2);
+            assertTrue(events.isEmpty());
+            advanceDays(1);
+            assertEquals(List.of(ExpiryState.EXPIRING_SOON), states());
+            assertEquals(1, scheduler.getExpiringSoonCount());
+            advanceDays(7);
+            assertEquals(1, events.size());
+            advanceDays(1);
+            assertEquals(List.of(ExpiryState.EXPIRING_SOON, ExpiryState.EXPIRED), states());
+            assertEquals(0, scheduler.getExpiringSoonCount());
+            assertEquals(1, scheduler.getExpiredCount());
+        }
+
+        @Test
+        @DisplayName("Should raise the events of every day passed when advanced late")
+        void shouldCatchUpMissedDays() {
+            // Arrange
+            scheduler.track(batch(1, 10, TODAY.plusDays(10)));
+
+            // Act
+            advanceDays(20);
+
+            // Assert
+            assertEquals(List.of(ExpiryState.EXPIRING_SOON, ExpiryState.EXPIRED), states());
+        }
+
+        @Test
+        @DisplayName("Should fire batches that expire beyond the daily and block wheels")
+        void shouldFireFarFutureBatches() {
+            // Arrange
+            scheduler.track(batch(1, 10, TODAY.plusDays(200)));
+            scheduler.track(batch(2, 10, TODAY.plusDays(5000)));
+
+            // Act
+            advanceDays(193);
+            int afterFirst = events.size();
+            advanceDays(4993 - 193);
+
+            // Assert
+            assertEquals(1, afterFirst);
+            assertEquals(Integer.valueOf(1), events.get(0).batchId());
+            assertEquals(ExpiryState.EXPIRING_SOON, events.get(events.size() - 1).state());
+            assertEquals(Integer.valueOf(2), events.get(events.size() - 1).batchId());
+        }
+    }
+
+    @Nested
+    @DisplayName("quantity change tests")
+    class QuantityChangeTests {
+
+        @Test
+        @DisplayName("Should stop tracking a batch drawn down to zero")
+        void shouldDropDepletedBatch() {
+            // Arrange
+            scheduler.track(batch(1, 10, TODAY.plusDays(10)));
+
+            // Act
+            scheduler.reduced(1, 10);
+            advanceDays(20);
+
+            // Assert
+            assertEquals(0, scheduler.size());
+            assertEquals(0, scheduler.getExpiringSoonCount());
+            assertEquals(0, scheduler.getExpiredCount());
+            assertTrue(events.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should report the remaining quantity after partial reductions")
+        void shouldKeepRemainingQuantity() {
+            // Arrange
+            scheduler.track(batch(1, 10, TODAY.plusDays(1)));
+
+            // Act
+            scheduler.reduced(1, 4);
+            advanceDays(2);
+
+            // Assert
+            assertEquals(ExpiryState.EXPIRED, events.get(events.size() - 1).state());
+            assertEquals(6, events.get(events.size() - 1).remainingQuantity());
+        }
+
+        @Test
+        @DisplayName("Should load a depleted batch again when stock is returned to it")
+        void shouldReloadReturnedBatch() {
+            // Arrange
+            scheduler.track(batch(1, 5, TODAY.plusDays(3)));
+            scheduler.reduced(1, 5);
+            when(mainInventoryRepository.findById(1)).thenReturn(Optional.of(batch(1, 2, TODAY.plusDays(3))));
+
+            // Act
+            scheduler.increased(1, 2);
+
+            // Assert
+            assertEquals(1, scheduler.size());
+            assertEquals(1, scheduler.getExpiringSoonCount());
+        }
+    }
+
+    private static final class AdjustableClock extends Clock {
+        private Instant now;
+
+        AdjustableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.syos.service;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.enums.TransactionType;
+import com.syos.domain.models.Bill;
+import com.syos.domain.models.PhysicalStoreInventory;
+import com.syos.domain.models.Product;
+import com.syos.domain.valueobjects.BatchQuantity;
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.ProductCode;
+import com.syos.repository.interfaces.*;
+import com.syos.repository.interfaces.ProductRepository.StockProbe;
+import com.syos.service.impl.BillingServiceImpl;
+import com.syos.service.impl.CheckoutResultCache;
+import com.syos.service.impl.InProgressBillStore;
+import com.syos.service.impl.ProductStockLocks;
+import com.syos.service.impl.StoreBatchIndex;
+import com.syos.service.impl.StoreInventoryServiceImpl;
+import com.syos.service.interfaces.BillingService.CheckoutRequest;
+import com.syos.service.interfaces.BillingService.CheckoutResult;
+import com.syos.service.interfaces.BillingService.ItemRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Stress test running many parallel checkouts against the same products.
+ * The shelf store used here has no conditional update of its own, so the
+ * per-product stock locks are the only thing preventing an oversell.
+ */
+class BillingCheckoutConcurrencyTest {
+
+    private static final int UNITS_PER_BATCH = 50;
+    private static final int QUANTITY_PER_LINE = 3;
+    private static final List<String> PRODUCTS = List.of("P1", "P2");
+
+    /** batch id -> quantity on shelf, per product */
+    private final Map<String, Map<Integer, Integer>> shelf = new ConcurrentHashMap<>();
+    private final AtomicInteger negativeStockEvents = new AtomicInteger();
+
+    private BillingServiceImpl billingService;
+
+    @BeforeEach
+    void setUp() {
+        PhysicalStoreInventoryRepository physicalStoreRepository = mock(PhysicalStoreInventoryRepository.class);
+        OnlineStoreInventoryRepository onlineStoreRepository = mock(OnlineStoreInventoryRepository.class);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        BillRepository billRepository = mock(BillRepository.class);
+        BillItemRepository billItemRepository = mock(BillItemRepository.class);
+        InventoryTransactionRepository transactionRepository = mock(InventoryTransactionRepository.class);
+
+        int batchId = 1;
+        for (String code : PRODUCTS) {
+            Map<Integer, Integer> batches = new ConcurrentHashMap<>();
+            batches.put(batchId++, UNITS_PER_BATCH);
+            batches.put(batchId++, UNITS_PER_BATCH);
+            shelf.put(code, batches);
+
+            Product product = new Product(new ProductCode(code), "Product " + code, 1, 1, 1,
+                    new Money(BigDecimal.TEN));
+            product.setActive(true);
+            when(productRepository.findByProductCode(code)).thenReturn(Optional.of(product));
+        }
+
+        when(productRepository.probeStock(eq(StoreType.PHYSICAL), anyCollection())).thenAnswer(inv -> {
+            Map<String, StockProbe> probes = new HashMap<>();
+            for (String code : inv.<Collection<String>>getArgument(1)) {
+                probes.put(code, new StockProbe(code, "Product " + code, BigDecimal.TEN, true, remaining(code)));
+            }
+            return probes;
+        });
+        when(physicalStoreRepository.findAvailableByProductCode(anyString()))
+                .thenAnswer(inv -> snapshot(inv.getArgument(0)));
+        when(physicalStoreRepository.reduceQuantities(anyList())).thenAnswer(inv -> {
+            List<BatchQuantity> reductions = inv.getArgument(0);
+            for (BatchQuantity reduction : reductions) {
+                Map<Integer, Integer> batches = shelf.get(reduction.productCode());
+                // Deliberately unguarded read-modify-write
+                int current = batches.get(reduction.batchId());
+                Thread.yield();
+                int updated = current - reduction.quantity();
+                if (updated < 0) {
+                    negativeStockEvents.incrementAndGet();
+                }
+                batches.put(reduction.batchId(), updated);
+            }
+            return true;
+        });
+
+        AtomicInteger billIds = new AtomicInteger();
+        when(billRepository.generateNextSerialNumber(StoreType.PHYSICAL)).thenAnswer(inv -> "POS-TEST-" + billIds.get());
+        when(billRepository.save(any(Bill.class))).thenAnswer(inv -> {
+            Bill bill = inv.getArgument(0);
+            bill.setBillId(billIds.incrementAndGet());
+            return bill;
+        });
+        when(billItemRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(transactionRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        StoreInventoryServiceImpl storeInventoryService = new StoreInventoryServiceImpl(
+                physicalStoreRepository, onlineStoreRepository, mock(MainInventoryRepository.class),
+                transactionRepository, productRepository,
+                new StoreBatchIndex(physicalStoreRepository, onlineStoreRepository), null, null, null, null,
+                UnitOfWork.AUTO_COMMIT);
+
+        billingService = new BillingServiceImpl(billRepository, billItemRepository, productRepository,
+                storeInventoryService, transactionRepository, UnitOfWork.AUTO_COMMIT, new ProductStockLocks(8),
+                new InProgressBillStore(), null, new CheckoutResultCache(), null, null, null, null);
+    }
+
+    private List<PhysicalStoreInventory> snapshot(String productCode) {
+        List<PhysicalStoreInventory> result = new ArrayList<>();
+        shelf.get(productCode).entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .filter(e -> e.getValue() > 0)
+                .forEach(e -> {
+                    PhysicalStoreInventory inv = new PhysicalStoreInventory(new ProductCode(productCode),
+                            e.getKey(), e.getValue(), LocalDate.now());
+                    inv.setExpiryDate(LocalDate.now().plusDays(e.getKey()));
+                    result.add(inv);
+                });
+        return result;
+    }
+
+    private int remaining(String productCode) {
+        return shelf.get(productCode).values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private CheckoutRequest request(List<String> codes) {
+        List<ItemRequest> items = codes.stream().map(c -> new ItemRequest(c, QUANTITY_PER_LINE)).toList();
+        return new CheckoutRequest(StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
+                items, BigDecimal.ZERO, BigDecimal.valueOf(1000));
+    }
+
+    @Test
+    @DisplayName("Parallel checkouts never sell more than is on the shelf")
+    void shouldNeverOversellUnderParallelCheckouts() throws Exception {
+        // Arrange
+        int threads = 16;
+        int checkoutsPerThread = 40;
+        List<List<String>> baskets = List.of(List.of("P1"), List.of("P2"), List.of("P2", "P1"));
+        Map<String, AtomicInteger> sold = new ConcurrentHashMap<>();
+        PRODUCTS.forEach(code -> sold.put(code, new AtomicInteger()));
+        AtomicInteger staleStockFailures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < checkoutsPerThread; i++) {
+                    List<String> basket = baskets.get((offset + i) % baskets.size());
+                    CheckoutResult result = billingService.checkout(request(basket));
+                    if (result.success()) {
+                        basket.forEach(code -> sold.get(code).addAndGet(QUANTITY_PER_LINE));
+                    } else if (result.errors().stream().anyMatch(e -> e.contains("Stock changed"))) {
+                        staleStockFailures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(0, negativeStockEvents.get(), "stock went negative");
+        assertEquals(0, staleStockFailures.get(), "checkout allocated stock another checkout had taken");
+        for (String code : PRODUCTS) {
+            int initial = 2 * UNITS_PER_BATCH;
+            assertEquals(initial, sold.get(code).get() + remaining(code), "units lost or oversold for " + code);
+            assertTrue(remaining(code) < QUANTITY_PER_LINE, "shelf not sold down for " + code);
+        }
+    }
+}
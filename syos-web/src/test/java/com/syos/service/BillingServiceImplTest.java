@@ -9,18 +9,36 @@ import com.syos.domain.valueobjects.BillSerialNumber;
 import com.syos.domain.valueobjects.Money;
 import com.syos.domain.valueobjects.ProductCode;
 import com.syos.exception.BillNotFoundException;
+import com.syos.exception.BillingException;
 import com.syos.exception.InsufficientStockException;
 import com.syos.exception.InvalidPaymentException;
 import com.syos.exception.ProductNotFoundException;
+import com.syos.exception.RepositoryException;
 import com.syos.exception.ValidationException;
 import com.syos.repository.interfaces.BillItemRepository;
 import com.syos.repository.interfaces.BillRepository;
+import com.syos.repository.interfaces.CheckoutIdempotencyRepository;
 import com.syos.repository.interfaces.InventoryTransactionRepository;
 import com.syos.repository.interfaces.ProductRepository;
+import com.syos.repository.interfaces.ProductRepository.StockProbe;
+import com.syos.repository.interfaces.SalesRollupRepository;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSale;
+import com.syos.repository.interfaces.UnitOfWork;
 import com.syos.service.impl.BillingServiceImpl;
+import com.syos.service.impl.CartReservationTable;
+import com.syos.service.impl.CheckoutResultCache;
+import com.syos.service.impl.InProgressBillStore;
+import com.syos.service.impl.LiveDashboardCounters;
+import com.syos.service.impl.LiveDashboardCounters.DashboardCounts;
+import com.syos.service.impl.LiveDashboardCounters.StoreCounts;
+import com.syos.service.impl.ProductStockLocks;
+import com.syos.service.impl.ReportCache;
+import com.syos.service.impl.ReportCache.ReportType;
 import com.syos.service.interfaces.BillingService;
+import com.syos.service.interfaces.BillingService.BatchCheckoutEntry;
 import com.syos.service.interfaces.BillingService.CheckoutRequest;
 import com.syos.service.interfaces.BillingService.CheckoutResult;
+import com.syos.service.interfaces.BillingService.InProgressStats;
 import com.syos.service.interfaces.BillingService.ItemDetail;
 import com.syos.service.interfaces.BillingService.ItemRequest;
 import com.syos.service.interfaces.BillingService.StockCheckResult;
@@ -36,14 +54,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -78,7 +106,16 @@ class BillingServiceImplTest {
                 billItemRepository,
                 productRepository,
                 storeInventoryService,
-                transactionRepository);
+                transactionRepository,
+                UnitOfWork.AUTO_COMMIT,
+                new ProductStockLocks(),
+                new InProgressBillStore(),
+                null,
+                new CheckoutResultCache(),
+                null,
+                null,
+                null,
+                null);
     }
 
     private Bill createTestBill(Integer billId, StoreType storeType, TransactionType transactionType) {
@@ -92,6 +129,11 @@ class BillingServiceImplTest {
         return bill;
     }
 
+    private StockProbe stockProbe(Product product, int available) {
+        return new StockProbe(product.getProductCodeString(), product.getProductName(),
+                product.getUnitPrice().getAmount(), product.isActive(), available);
+    }
+
     private Product createTestProduct(String code, String name, BigDecimal price) {
         Product product = new Product(
                 new ProductCode(code),
@@ -207,7 +249,7 @@ class BillingServiceImplTest {
                 item.setBillItemId(1);
                 return item;
             });
-            when(billRepository.save(any(Bill.class))).thenReturn(bill);
+            when(billRepository.updateTotals(bill)).thenReturn(true);
 
             // Act
             BillItem result = billingService.addItem(1, "TEST-001", 5);
@@ -215,7 +257,9 @@ class BillingServiceImplTest {
             // Assert
             assertNotNull(result);
             assertEquals(5, result.getQuantity());
+            assertEquals(new Money("500.00"), bill.getTotalAmount());
             verify(billItemRepository).save(any(BillItem.class));
+            verify(billRepository, never()).save(any(Bill.class));
         }
 
         @Test
@@ -290,8 +334,8 @@ class BillingServiceImplTest {
 
             when(billItemRepository.findById(1)).thenReturn(Optional.of(item));
             when(billRepository.findById(1)).thenReturn(Optional.of(bill));
-            when(billItemRepository.findByBillId(1)).thenReturn(List.of());
-            when(billRepository.save(any(Bill.class))).thenReturn(bill);
+            when(billItemRepository.findByBillId(1)).thenReturn(List.of(item));
+            when(billRepository.updateTotals(bill)).thenReturn(true);
 
             // Act
             boolean result = billingService.removeItem(1);
@@ -299,6 +343,7 @@ class BillingServiceImplTest {
             // Assert
             assertTrue(result);
             verify(billItemRepository).deleteById(1);
+            assertEquals(Money.ZERO, bill.getTotalAmount());
         }
 
         @Test
@@ -661,6 +706,51 @@ class BillingServiceImplTest {
             assertThrows(ValidationException.class,
                     () -> billingService.updateItemQuantity(999, 5));
         }
+
+        @Test
+        @DisplayName("Should write only the changed line and the header totals")
+        void shouldWriteOnlyChangedLineAndHeader() {
+            // Arrange
+            Bill bill = createTestBill(1, StoreType.PHYSICAL, TransactionType.CASH);
+            BillItem line = createTestBillItem(1, 1, "TEST-001", 2, BigDecimal.valueOf(100.00));
+            BillItem other = createTestBillItem(2, 1, "TEST-002", 1, BigDecimal.valueOf(40.00));
+            when(billRepository.findById(1)).thenReturn(Optional.of(bill));
+            when(billItemRepository.findByBillId(1)).thenReturn(List.of(line, other));
+            when(billItemRepository.findById(1))
+                    .thenReturn(Optional.of(createTestBillItem(1, 1, "TEST-001", 2, BigDecimal.valueOf(100.00))));
+            when(storeInventoryService.hasAvailableStock(eq("TEST-001"), eq(StoreType.PHYSICAL), anyInt()))
+                    .thenReturn(true);
+
+            // Act
+            billingService.updateItemQuantity(1, 3);
+            billingService.updateItemQuantity(1, 4);
+
+            // Assert
+            assertEquals(new Money("440.00"), bill.getTotalAmount());
+            verify(billItemRepository, times(1)).findByBillId(1);
+            verify(billItemRepository, times(2)).updateQuantity(line);
+            verify(billRepository, times(2)).updateTotals(bill);
+            verify(billItemRepository, never()).save(any(BillItem.class));
+            verify(billRepository, never()).save(any(Bill.class));
+        }
+
+        @Test
+        @DisplayName("Should not touch the totals when the item is no longer on the bill")
+        void shouldThrowWhenItemLeftBill() {
+            // Arrange
+            Bill bill = createTestBill(1, StoreType.PHYSICAL, TransactionType.CASH);
+            when(billRepository.findById(1)).thenReturn(Optional.of(bill));
+            when(billItemRepository.findByBillId(1)).thenReturn(List.of());
+            when(billItemRepository.findById(1))
+                    .thenReturn(Optional.of(createTestBillItem(1, 1, "TEST-001", 2, BigDecimal.valueOf(100.00))));
+
+            // Act & Assert
+            assertThrows(BillingException.class, () -> billingService.updateItemQuantity(1, 1));
+            assertThrows(BillingException.class, () -> billingService.removeItem(1));
+            verify(billItemRepository, never()).updateQuantity(any(BillItem.class));
+            verify(billItemRepository, never()).deleteById(1);
+            verify(billRepository, never()).updateTotals(any(Bill.class));
+        }
     }
 
     @Nested
@@ -673,14 +763,14 @@ class BillingServiceImplTest {
             // Arrange
             Bill bill = createTestBill(1, StoreType.PHYSICAL, TransactionType.CASH);
             when(billRepository.findById(1)).thenReturn(Optional.of(bill));
-            when(billRepository.save(any(Bill.class))).thenReturn(bill);
+            when(billRepository.updateTotals(bill)).thenReturn(true);
 
             // Act
             billingService.clearItems(1);
 
             // Assert
             verify(billItemRepository).deleteByBillId(1);
-            verify(billRepository).save(any(Bill.class));
+            verify(billRepository).updateTotals(bill);
         }
     }
 
@@ -827,8 +917,8 @@ class BillingServiceImplTest {
             // Arrange
             String productCode = "TEST-001";
             Product product = createTestProduct(productCode, "Test Product", BigDecimal.valueOf(100.00));
-            when(productRepository.findByProductCode(productCode)).thenReturn(Optional.of(product));
-            when(storeInventoryService.getAvailableQuantity(productCode, StoreType.PHYSICAL)).thenReturn(50);
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of(productCode, stockProbe(product, 50)));
 
             BatchAllocation allocation = new BatchAllocation(1, productCode, 5, LocalDate.now().plusDays(10));
             when(storeInventoryService.allocateStockForSale(productCode, StoreType.PHYSICAL, 5))
@@ -841,8 +931,8 @@ class BillingServiceImplTest {
                     b.setBillId(1);
                 return b;
             });
-            when(billItemRepository.save(any(BillItem.class))).thenAnswer(i -> i.getArgument(0));
-            when(storeInventoryService.reducePhysicalStoreStock(productCode, 1, 5)).thenReturn(true);
+            when(billItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(allocation))).thenReturn(true);
 
             CheckoutRequest request = new CheckoutRequest(
                     StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
@@ -859,7 +949,8 @@ class BillingServiceImplTest {
             assertEquals(1, result.items().size());
             assertEquals("Test Product", result.items().get(0).productName());
 
-            verify(storeInventoryService).reducePhysicalStoreStock(productCode, 1, 5);
+            verify(storeInventoryService).reduceStoreStock(StoreType.PHYSICAL, List.of(allocation));
+            verify(transactionRepository).saveAll(argThat(list -> list.size() == 1));
         }
 
         @Test
@@ -868,8 +959,8 @@ class BillingServiceImplTest {
             // Arrange
             String productCode = "TEST-002";
             Product product = createTestProduct(productCode, "Online Product", BigDecimal.valueOf(200.00));
-            when(productRepository.findByProductCode(productCode)).thenReturn(Optional.of(product));
-            when(storeInventoryService.getAvailableQuantity(productCode, StoreType.ONLINE)).thenReturn(20);
+            when(storeInventoryService.probeStock(eq(StoreType.ONLINE), anyCollection()))
+                    .thenReturn(Map.of(productCode, stockProbe(product, 20)));
 
             BatchAllocation allocation = new BatchAllocation(2, productCode, 2, LocalDate.now().plusDays(10));
             when(storeInventoryService.allocateStockForSale(productCode, StoreType.ONLINE, 2))
@@ -882,7 +973,8 @@ class BillingServiceImplTest {
                     b.setBillId(2);
                 return b;
             });
-            when(billItemRepository.save(any(BillItem.class))).thenAnswer(i -> i.getArgument(0));
+            when(billItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+            when(storeInventoryService.reduceStoreStock(StoreType.ONLINE, List.of(allocation))).thenReturn(true);
 
             CheckoutRequest request = new CheckoutRequest(
                     StoreType.ONLINE, TransactionType.ONLINE, 1001, null,
@@ -898,7 +990,123 @@ class BillingServiceImplTest {
             assertEquals(new BigDecimal("350.00"), result.cashTendered());
             assertEquals(new BigDecimal("0.00"), result.change());
 
-            verify(storeInventoryService).reduceOnlineStoreStock(productCode, 2, 2);
+            verify(storeInventoryService).reduceStoreStock(StoreType.ONLINE, List.of(allocation));
+        }
+
+        @Test
+        @DisplayName("Should leave online stock held by other carts to them")
+        void shouldNotSellStockReservedByOthers() {
+            // Arrange
+            CartReservationTable reservations = new CartReservationTable();
+            reservations.reserve(2002, "TEST-002", 18, 20);
+            reservations.reserve(1001, "TEST-002", 2, 20);
+            billingService = new BillingServiceImpl(billRepository, billItemRepository, productRepository,
+                    storeInventoryService, transactionRepository, UnitOfWork.AUTO_COMMIT, new ProductStockLocks(),
+                    new InProgressBillStore(), null, new CheckoutResultCache(), null, null, null, reservations);
+            Product product = createTestProduct("TEST-002", "Online Product", BigDecimal.valueOf(200.00));
+            when(storeInventoryService.probeStock(eq(StoreType.ONLINE), anyCollection()))
+                    .thenReturn(Map.of("TEST-002", stockProbe(product, 20)));
+            CheckoutRequest request = new CheckoutRequest(
+                    StoreType.ONLINE, TransactionType.ONLINE, 1001, null,
+                    List.of(new ItemRequest("TEST-002", 3)), BigDecimal.ZERO, null);
+
+            // Act
+            CheckoutResult result = billingService.checkout(request);
+
+            // Assert
+            assertFalse(result.success());
+            assertEquals(List.of("Insufficient stock. Only 2 available, requested 3"), result.errors());
+            verify(storeInventoryService, never()).allocateStockForSale(anyString(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should run checkout persistence inside a single unit of work")
+        void shouldRunCheckoutInsideSingleUnitOfWork() {
+            // Arrange
+            int[] transactions = { 0 };
+            UnitOfWork countingUnitOfWork = new UnitOfWork() {
+                @Override
+                public <T> T execute(Work<T> work) {
+                    transactions[0]++;
+                    return work.perform();
+                }
+            };
+            billingService = new BillingServiceImpl(billRepository, billItemRepository, productRepository,
+                    storeInventoryService, transactionRepository, countingUnitOfWork, new ProductStockLocks(),
+                    new InProgressBillStore(), null, new CheckoutResultCache(), null, null, null,
+                    null);
+
+            String productCode = "TEST-001";
+            Product product = createTestProduct(productCode, "Test Product", BigDecimal.valueOf(10.00));
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of(productCode, stockProbe(product, 50)));
+
+            BatchAllocation first = new BatchAllocation(1, productCode, 3, LocalDate.now().plusDays(5));
+            BatchAllocation second = new BatchAllocation(2, productCode, 2, LocalDate.now().plusDays(9));
+            when(storeInventoryService.allocateStockForSale(productCode, StoreType.PHYSICAL, 5))
+                    .thenReturn(List.of(first, second));
+            when(billRepository.generateNextSerialNumber(StoreType.PHYSICAL)).thenReturn("PH-002");
+            when(billRepository.save(any(Bill.class))).thenAnswer(i -> {
+                Bill b = i.getArgument(0);
+                b.setBillId(7);
+                return b;
+            });
+            when(billItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(first, second)))
+                    .thenReturn(true);
+
+            CheckoutRequest request = new CheckoutRequest(
+                    StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
+                    List.of(new ItemRequest(productCode, 5)),
+                    BigDecimal.ZERO, BigDecimal.valueOf(100.00));
+
+            // Act
+            CheckoutResult result = billingService.checkout(request);
+
+            // Assert
+            assertTrue(result.success());
+            assertEquals(1, transactions[0]);
+            // Header is written once with its final totals
+            verify(billRepository, times(1)).save(argThat(b -> b.getTotalAmount().getAmount()
+                    .compareTo(new BigDecimal("50.00")) == 0));
+            verify(billItemRepository).saveAll(argThat(list -> list.size() == 2));
+            verify(billItemRepository, never()).save(any(BillItem.class));
+            verify(transactionRepository).saveAll(argThat(list -> list.size() == 2));
+            verify(transactionRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should fail checkout and skip ledger when stock deduction fails")
+        void shouldFailCheckoutWhenStockDeductionFails() {
+            // Arrange
+            String productCode = "TEST-001";
+            Product product = createTestProduct(productCode, "Test Product", BigDecimal.valueOf(100.00));
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of(productCode, stockProbe(product, 50)));
+
+            BatchAllocation allocation = new BatchAllocation(1, productCode, 5, LocalDate.now().plusDays(10));
+            when(storeInventoryService.allocateStockForSale(productCode, StoreType.PHYSICAL, 5))
+                    .thenReturn(List.of(allocation));
+            when(billRepository.generateNextSerialNumber(StoreType.PHYSICAL)).thenReturn("PH-003");
+            when(billRepository.save(any(Bill.class))).thenAnswer(i -> {
+                Bill b = i.getArgument(0);
+                b.setBillId(3);
+                return b;
+            });
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(allocation))).thenReturn(false);
+
+            CheckoutRequest request = new CheckoutRequest(
+                    StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
+                    List.of(new ItemRequest(productCode, 5)),
+                    BigDecimal.ZERO, BigDecimal.valueOf(1000.00));
+
+            // Act
+            CheckoutResult result = billingService.checkout(request);
+
+            // Assert
+            assertFalse(result.success());
+            assertTrue(result.errors().get(0).contains("no longer available"));
+            verify(transactionRepository, never()).saveAll(anyList());
         }
 
         @Test
@@ -907,10 +1115,8 @@ class BillingServiceImplTest {
             // Arrange
             String productCode = "TEST-001";
             Product product = createTestProduct(productCode, "Test Product", BigDecimal.valueOf(100.00));
-            when(productRepository.findByProductCode(productCode)).thenReturn(Optional.of(product));
-
-            // Available 2, requested 5
-            when(storeInventoryService.getAvailableQuantity(productCode, StoreType.PHYSICAL)).thenReturn(2);
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+        .thenReturn(Map.of(productCode, stockProbe(product, 2)));
 
             CheckoutRequest request = new CheckoutRequest(
                     StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
@@ -931,8 +1137,8 @@ class BillingServiceImplTest {
             // Arrange
             String productCode = "TEST-001";
             Product product = createTestProduct(productCode, "Test Product", BigDecimal.valueOf(100.00));
-            when(productRepository.findByProductCode(productCode)).thenReturn(Optional.of(product));
-            when(storeInventoryService.getAvailableQuantity(productCode, StoreType.PHYSICAL)).thenReturn(50);
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of(productCode, stockProbe(product, 50)));
 
             CheckoutRequest request = new CheckoutRequest(
                     StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
@@ -954,8 +1160,8 @@ class BillingServiceImplTest {
             // Arrange
             String productCode = "TEST-001";
             Product product = createTestProduct(productCode, "Test Product", BigDecimal.valueOf(100.00));
-            when(productRepository.findByProductCode(productCode)).thenReturn(Optional.of(product));
-            when(storeInventoryService.getAvailableQuantity(productCode, StoreType.PHYSICAL)).thenReturn(50);
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of(productCode, stockProbe(product, 50)));
 
             CheckoutRequest request = new CheckoutRequest(
                     StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
@@ -970,6 +1176,53 @@ class BillingServiceImplTest {
             assertFalse(result.success());
             assertTrue(result.errors().stream().anyMatch(e -> e.contains("Insufficient cash")));
         }
+
+        @Test
+        @DisplayName("Should probe stock for the whole basket in one call")
+        void shouldProbeWholeBasketOnce() {
+            // Arrange - the same product on two lines needs 6 in total but only 5 are available
+            Product first = createTestProduct("TEST-001", "First", BigDecimal.TEN);
+            Product second = createTestProduct("TEST-002", "Second", BigDecimal.ONE);
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection())).thenReturn(Map.of(
+                    "TEST-001", stockProbe(first, 5),
+                    "TEST-002", stockProbe(second, 50)));
+
+            CheckoutRequest request = new CheckoutRequest(
+                    StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
+                    List.of(new ItemRequest("TEST-001", 3), new ItemRequest("TEST-002", 1),
+                            new ItemRequest("TEST-001", 3)),
+                    BigDecimal.ZERO, BigDecimal.valueOf(1000.00));
+
+            // Act
+            CheckoutResult result = billingService.checkout(request);
+
+            // Assert
+            assertFalse(result.success());
+            assertEquals(List.of("Insufficient stock. Only 5 available, requested 6"), result.errors());
+            verify(storeInventoryService, times(1)).probeStock(eq(StoreType.PHYSICAL),
+                    argThat(codes -> codes.size() == 2));
+            verify(productRepository, never()).findByProductCode(anyString());
+            verify(storeInventoryService, never()).getAvailableQuantity(anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Should report unknown products from the probe")
+        void shouldReportUnknownProducts() {
+            // Arrange
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection())).thenReturn(Map.of());
+
+            CheckoutRequest request = new CheckoutRequest(
+                    StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
+                    List.of(new ItemRequest("MISSING", 1)),
+                    BigDecimal.ZERO, BigDecimal.valueOf(1000.00));
+
+            // Act
+            CheckoutResult result = billingService.checkout(request);
+
+            // Assert
+            assertFalse(result.success());
+            assertTrue(result.errors().get(0).contains("MISSING"));
+        }
     }
 
     @Nested
@@ -986,6 +1239,30 @@ class BillingServiceImplTest {
             assertFalse(result.isValid());
             assertTrue(result.errors().stream().anyMatch(e -> e.contains("not found")));
         }
+
+        @Test
+        @DisplayName("Should check stock of all items with one bulk availability lookup")
+        void shouldCheckStockWithBulkAvailability() {
+            // Arrange
+            Bill bill = createTestBill(1, StoreType.PHYSICAL, TransactionType.ONLINE);
+            when(billRepository.findById(1)).thenReturn(Optional.of(bill));
+            billingService.applyDiscount(1, BigDecimal.ZERO);
+
+            when(billItemRepository.findByBillId(1)).thenReturn(List.of(
+                    createTestBillItem(1, 1, "TEST-001", 4, BigDecimal.TEN),
+                    createTestBillItem(2, 1, "TEST-001", 4, BigDecimal.TEN)));
+            when(storeInventoryService.getAvailableQuantities(anyCollection(), eq(StoreType.PHYSICAL)))
+                    .thenReturn(Map.of("TEST-001", 6));
+
+            // Act
+            ValidationResult result = billingService.validateBillForFinalization(1);
+
+            // Assert
+            assertFalse(result.isValid());
+            assertEquals(1, result.errors().size());
+            assertTrue(result.errors().get(0).startsWith("Insufficient stock"));
+            verify(storeInventoryService, never()).hasAvailableStock(anyString(), any(), anyInt());
+        }
     }
 
     @Nested
@@ -1050,13 +1327,44 @@ class BillingServiceImplTest {
             // Arrange
             Bill bill = createTestBill(1, StoreType.PHYSICAL, TransactionType.CASH);
             when(billRepository.findById(1)).thenReturn(Optional.of(bill));
-            // Bill is not in billsInProgress map, so cancelling will try to check
-            // repository
+            // Sale transactions are only logged when a bill is finalized
+            when(transactionRepository.existsForBill(1)).thenReturn(true);
 
             // Act & Assert
             assertThrows(ValidationException.class,
                     () -> billingService.cancelBill(1));
         }
+
+        @Test
+        @DisplayName("Should not cancel a finalized bill whose ledger rows were archived")
+        void shouldNotCancelArchivedBill() {
+            // Arrange - the live ledger no longer holds the bill's sales
+            Bill bill = createTestBill(1, StoreType.PHYSICAL, TransactionType.CASH);
+            when(billRepository.findById(1)).thenReturn(Optional.of(bill));
+            when(transactionRepository.existsForBill(1)).thenReturn(true);
+
+            // Act & Assert
+            assertThrows(ValidationException.class, () -> billingService.cancelBill(1));
+            verify(billItemRepository, never()).deleteByBillId(anyInt());
+            verify(billRepository, never()).deleteById(anyInt());
+        }
+
+        @Test
+        @DisplayName("Should cancel a draft that was evicted from memory")
+        void shouldCancelEvictedDraft() {
+            // Arrange
+            Bill bill = createTestBill(1, StoreType.PHYSICAL, TransactionType.CASH);
+            when(billRepository.findById(1)).thenReturn(Optional.of(bill));
+            when(transactionRepository.existsForBill(1)).thenReturn(false);
+
+            // Act
+            boolean result = billingService.cancelBill(1);
+
+            // Assert
+            assertTrue(result);
+            verify(billItemRepository).deleteByBillId(1);
+            verify(billRepository).deleteById(1);
+        }
     }
 
     @Nested
@@ -1093,4 +1401,592 @@ class BillingServiceImplTest {
             assertTrue(result.isEmpty());
         }
     }
+
+    @Nested
+    @DisplayName("In-progress bill expiry tests")
+    class InProgressExpiryTests {
+
+        private final AdjustableClock clock = new AdjustableClock(Instant.parse("2026-01-15T09:00:00Z"));
+        private BillingServiceImpl expiringService;
+
+        @BeforeEach
+        void setUp() {
+            InProgressBillStore store = new InProgressBillStore(2, Duration.ofMinutes(30), clock);
+            expiringService = new BillingServiceImpl(billRepository, billItemRepository, productRepository,
+                    storeInventoryService, transactionRepository, UnitOfWork.AUTO_COMMIT,
+                    new ProductStockLocks(), store, null, new CheckoutResultCache(), null, null, null, null);
+        }
+
+        private void openBill(int billId) {
+            Bill bill = createTestBill(billId, StoreType.PHYSICAL, TransactionType.CASH);
+            when(billRepository.generateNextSerialNumber(StoreType.PHYSICAL)).thenReturn("PH-0000" + billId);
+            when(billRepository.save(any(Bill.class))).thenReturn(bill);
+            expiringService.createBill(StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1");
+        }
+
+        @Test
+        @DisplayName("Should cancel expired empty drafts and keep drafts with items")
+        void shouldRetireExpiredBills() {
+            // Arrange
+            openBill(1);
+            openBill(2);
+            clock.advance(Duration.ofMinutes(31));
+            when(billItemRepository.findByBillId(1)).thenReturn(List.of());
+            when(billItemRepository.findByBillId(2)).thenReturn(List.of(new BillItem()));
+
+            // Act
+            int retired = expiringService.sweepExpiredBills();
+
+            // Assert
+            assertEquals(2, retired);
+            verify(billRepository).deleteById(1);
+            verify(billRepository, never()).deleteById(2);
+            assertEquals(0, expiringService.getInProgressStats().size());
+            assertEquals(2, expiringService.getInProgressStats().expirations());
+        }
+
+        @Test
+        @DisplayName("Should keep bills used within the TTL")
+        void shouldKeepRecentlyUsedBills() {
+            // Arrange
+            openBill(1);
+            clock.advance(Duration.ofMinutes(20));
+            expiringService.findBillById(1);
+            clock.advance(Duration.ofMinutes(20));
+
+            // Act
+            int retired = expiringService.sweepExpiredBills();
+
+            // Assert
+            assertEquals(0, retired);
+            assertEquals(1, expiringService.getInProgressStats().size());
+        }
+
+        @Test
+        @DisplayName("Should evict beyond capacity and recover evicted bills from the database")
+        void shouldRecoverEvictedBill() {
+            // Arrange
+            openBill(1);
+            openBill(2);
+            openBill(3);
+            Bill stored = createTestBill(1, StoreType.PHYSICAL, TransactionType.CASH);
+            when(billRepository.findById(1)).thenReturn(Optional.of(stored));
+            when(transactionRepository.existsForBill(1)).thenReturn(false);
+
+            // Act
+            ValidationResult result = expiringService.validateBillForFinalization(1);
+
+            // Assert
+            InProgressStats stats = expiringService.getInProgressStats();
+            assertEquals(List.of("Bill has no items", "Cash payment not completed"), result.errors());
+            assertEquals(2, stats.size());
+            assertEquals(2, stats.evictions());
+            assertEquals(1, stats.misses());
+        }
+    }
+
+    @Nested
+    @DisplayName("Idempotent checkout tests")
+    class IdempotentCheckoutTests {
+
+        @Mock
+        private CheckoutIdempotencyRepository idempotencyRepository;
+
+        private BillingServiceImpl keyedService;
+        private BatchAllocation allocation;
+        private CheckoutRequest request;
+
+        @BeforeEach
+        void setUp() {
+            keyedService = new BillingServiceImpl(billRepository, billItemRepository, productRepository,
+                    storeInventoryService, transactionRepository, UnitOfWork.AUTO_COMMIT,
+                    new ProductStockLocks(), new InProgressBillStore(), idempotencyRepository,
+                    new CheckoutResultCache(), null, null, null, null);
+            allocation = new BatchAllocation(1, "TEST-001", 2, LocalDate.now().plusDays(10));
+            request = new CheckoutRequest(StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
+                    List.of(new ItemRequest("TEST-001", 2)), BigDecimal.ZERO, BigDecimal.valueOf(500.00));
+        }
+
+        private void stubSuccessfulCheckout() {
+            Product product = createTestProduct("TEST-001", "Test Product", BigDecimal.valueOf(100.00));
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of("TEST-001", stockProbe(product, 50)));
+            when(storeInventoryService.allocateStockForSale("TEST-001", StoreType.PHYSICAL, 2))
+                    .thenReturn(List.of(allocation));
+            when(billRepository.generateNextSerialNumber(StoreType.PHYSICAL)).thenReturn("PH-001");
+            when(billRepository.save(any(Bill.class))).thenAnswer(i -> {
+                Bill b = i.getArgument(0);
+                b.setBillId(7);
+                return b;
+            });
+            when(billItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(allocation))).thenReturn(true);
+        }
+
+        @Test
+        @DisplayName("Should store the result with the key and replay it on retry")
+        void shouldReplayRetry() {
+            // Arrange
+            stubSuccessfulCheckout();
+            when(idempotencyRepository.findResult(eq("key-1"), any())).thenReturn(Optional.empty());
+
+            // Act
+            CheckoutResult first = keyedService.checkout(request, "key-1");
+            CheckoutResult retry = keyedService.checkout(request, "key-1");
+
+            // Assert
+            assertTrue(first.success());
+            assertSame(first, retry);
+            verify(billRepository, times(1)).generateNextSerialNumber(StoreType.PHYSICAL);
+            verify(storeInventoryService, times(1)).reduceStoreStock(StoreType.PHYSICAL, List.of(allocation));
+            verify(idempotencyRepository).save(eq("key-1"), eq(7), contains("PH-001"), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should return the stored result without checking out again")
+        void shouldReturnStoredResult() {
+            // Arrange
+            CheckoutResult stored = CheckoutResult.success(7, "PH-001", new BigDecimal("200.00"),
+                    BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("200.00"), new BigDecimal("500.00"),
+                    new BigDecimal("300.00"), java.time.LocalDateTime.of(2026, 1, 15, 9, 30),
+                    List.of(new ItemDetail("Test Product", 2, new BigDecimal("100.00"), new BigDecimal("200.00"))));
+            when(idempotencyRepository.findResult(eq("key-2"), any()))
+                    .thenReturn(Optional.of(com.syos.util.JsonUtil.toJsonCompact(stored)));
+
+            // Act
+            CheckoutResult result = keyedService.checkout(request, "key-2");
+
+            // Assert
+            assertEquals(stored, result);
+            verifyNoInteractions(storeInventoryService);
+            verify(billRepository, never()).save(any(Bill.class));
+        }
+
+        @Test
+        @DisplayName("Should return the winner's result when the key was stored concurrently")
+        void shouldReturnWinnerResultOnDuplicateKey() {
+            // Arrange
+            stubSuccessfulCheckout();
+            CheckoutResult winner = CheckoutResult.success(6, "PH-000", new BigDecimal("200.00"),
+                    BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("200.00"), new BigDecimal("500.00"),
+                    new BigDecimal("300.00"), java.time.LocalDateTime.of(2026, 1, 15, 9, 30), List.of());
+            when(idempotencyRepository.findResult(eq("key-3"), any()))
+                    .thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(com.syos.util.JsonUtil.toJsonCompact(winner)));
+            doThrow(new RepositoryException("Duplicate entry 'key-3'"))
+                    .when(idempotencyRepository).save(eq("key-3"), any(), anyString(), any(), any());
+
+            // Act
+            CheckoutResult result = keyedService.checkout(request, "key-3");
+
+            // Assert
+            assertEquals(winner, result);
+        }
+
+        @Test
+        @DisplayName("Should not remember failed checkouts")
+        void shouldNotRememberFailures() {
+            // Arrange
+            when(idempotencyRepository.findResult(eq("key-4"), any())).thenReturn(Optional.empty());
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection())).thenReturn(Map.of());
+
+            // Act
+            CheckoutResult first = keyedService.checkout(request, "key-4");
+            CheckoutResult retry = keyedService.checkout(request, "key-4");
+
+            // Assert
+            assertFalse(first.success());
+            assertFalse(retry.success());
+            verify(storeInventoryService, times(2)).probeStock(eq(StoreType.PHYSICAL), anyCollection());
+            verify(idempotencyRepository, never()).save(any(), any(), any(), any(), any());
+        }
+    }
+
+    /**
+     * Clock that only moves when a test advances it.
+     */
+    private static final class AdjustableClock extends Clock {
+        private Instant now;
+
+        AdjustableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch checkout tests")
+    class BatchCheckoutTests {
+
+        private Product product;
+
+        @BeforeEach
+        void setUp() {
+            product = createTestProduct("TEST-001", "Test Product", BigDecimal.valueOf(100.00));
+        }
+
+        private BatchCheckoutEntry entry(int quantity, String key) {
+            return new BatchCheckoutEntry(new CheckoutRequest(StoreType.PHYSICAL, TransactionType.CASH, null,
+                    "CASHIER-1", List.of(new ItemRequest("TEST-001", quantity)), BigDecimal.ZERO,
+                    BigDecimal.valueOf(1000.00)), key);
+        }
+
+        private void stubBatchPersistence() {
+            when(billRepository.generateNextSerialNumber(StoreType.PHYSICAL)).thenReturn("PH-001", "PH-002", "PH-003");
+            when(billRepository.saveAll(anyList())).thenAnswer(i -> {
+                List<Bill> bills = i.getArgument(0);
+                for (int n = 0; n < bills.size(); n++) {
+                    bills.get(n).setBillId(n + 1);
+                }
+                return bills;
+            });
+            when(billItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+        }
+
+        @Test
+        @DisplayName("Should probe once and split one allocation across the bills in order")
+        void shouldShareProbeAndAllocation() {
+            // Arrange
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of("TEST-001", stockProbe(product, 10)));
+            BatchAllocation older = new BatchAllocation(1, "TEST-001", 3, LocalDate.now().plusDays(5));
+            BatchAllocation newer = new BatchAllocation(2, "TEST-001", 4, LocalDate.now().plusDays(9));
+            when(storeInventoryService.allocateStockForSale("TEST-001", StoreType.PHYSICAL, 7))
+                    .thenReturn(List.of(older, newer));
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(older, newer))).thenReturn(true);
+            stubBatchPersistence();
+
+            // Act
+            List<CheckoutResult> results = billingService.checkoutBatch(List.of(entry(2, null), entry(5, null)));
+
+            // Assert
+            assertTrue(results.get(0).success());
+            assertTrue(results.get(1).success());
+            assertEquals(0, new BigDecimal("500").compareTo(results.get(1).total()));
+            verify(storeInventoryService, times(1)).probeStock(eq(StoreType.PHYSICAL), anyCollection());
+            verify(billRepository, times(1)).saveAll(anyList());
+            verify(billRepository, never()).save(any(Bill.class));
+            verify(billItemRepository).saveAll(argThat(items -> items.size() == 3
+                    && ((BillItem) items.get(0)).getQuantity() == 2
+                    && ((BillItem) items.get(1)).getMainInventoryId() == 1
+                    && ((BillItem) items.get(1)).getQuantity() == 1
+                    && ((BillItem) items.get(2)).getMainInventoryId() == 2
+                    && ((BillItem) items.get(2)).getQuantity() == 4));
+            verify(transactionRepository, times(1)).saveAll(anyList());
+        }
+
+        @Test
+        @DisplayName("Should fail only the bill that the earlier bills leave short")
+        void shouldFailBillLeftShort() {
+            // Arrange
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of("TEST-001", stockProbe(product, 6)));
+            BatchAllocation allocation = new BatchAllocation(1, "TEST-001", 5, LocalDate.now().plusDays(5));
+            when(storeInventoryService.allocateStockForSale("TEST-001", StoreType.PHYSICAL, 5))
+                    .thenReturn(List.of(allocation));
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(allocation))).thenReturn(true);
+            stubBatchPersistence();
+
+            // Act
+            List<CheckoutResult> results = billingService.checkoutBatch(List.of(entry(4, null), entry(3, null),
+                    entry(1, null)));
+
+            // Assert
+            assertTrue(results.get(0).success());
+            assertFalse(results.get(1).success());
+            assertEquals(List.of("Insufficient stock. Only 2 available, requested 3"), results.get(1).errors());
+            assertTrue(results.get(2).success());
+        }
+
+        @Test
+        @DisplayName("Should check out a key repeated in the batch only once")
+        void shouldCollapseRepeatedKey() {
+            // Arrange
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of("TEST-001", stockProbe(product, 10)));
+            BatchAllocation allocation = new BatchAllocation(1, "TEST-001", 2, LocalDate.now().plusDays(5));
+            when(storeInventoryService.allocateStockForSale("TEST-001", StoreType.PHYSICAL, 2))
+                    .thenReturn(List.of(allocation));
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(allocation))).thenReturn(true);
+            stubBatchPersistence();
+
+            // Act
+            List<CheckoutResult> results = billingService.checkoutBatch(List.of(entry(2, "lane-1-0001"),
+                    entry(2, "lane-1-0001")));
+
+            // Assert
+            assertSame(results.get(0), results.get(1));
+            verify(storeInventoryService, times(1)).allocateStockForSale("TEST-001", StoreType.PHYSICAL, 2);
+        }
+
+        @Test
+        @DisplayName("Should retry each bill on its own when the batch write fails")
+        void shouldFallBackToSingleCheckouts() {
+            // Arrange
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of("TEST-001", stockProbe(product, 10)));
+            BatchAllocation allocation = new BatchAllocation(1, "TEST-001", 2, LocalDate.now().plusDays(5));
+            when(storeInventoryService.allocateStockForSale("TEST-001", StoreType.PHYSICAL, 2))
+                    .thenReturn(List.of(allocation));
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(allocation))).thenReturn(true);
+            when(billRepository.generateNextSerialNumber(StoreType.PHYSICAL)).thenReturn("PH-001");
+            when(billRepository.saveAll(anyList())).thenThrow(new RepositoryException("Batch insert failed"));
+            when(billRepository.save(any(Bill.class))).thenAnswer(i -> {
+                Bill b = i.getArgument(0);
+                b.setBillId(9);
+                return b;
+            });
+            when(billItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+
+            // Act
+            List<CheckoutResult> results = billingService.checkoutBatch(List.of(entry(2, null)));
+
+            // Assert
+            assertTrue(results.get(0).success());
+            assertEquals(9, results.get(0).billId());
+        }
+
+        @Test
+        @DisplayName("Should fail only the entries with a malformed item")
+        void shouldFailMalformedEntriesOnly() {
+            // Arrange
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of("TEST-001", stockProbe(product, 10)));
+            BatchAllocation allocation = new BatchAllocation(1, "TEST-001", 5, LocalDate.now().plusDays(5));
+            when(storeInventoryService.allocateStockForSale("TEST-001", StoreType.PHYSICAL, 5))
+                    .thenReturn(List.of(allocation));
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(allocation))).thenReturn(true);
+            stubBatchPersistence();
+            BatchCheckoutEntry noCode = new BatchCheckoutEntry(new CheckoutRequest(StoreType.PHYSICAL,
+                    TransactionType.CASH, null, "CASHIER-1", List.of(new ItemRequest(null, 1)), BigDecimal.ZERO,
+                    BigDecimal.valueOf(1000.00)), null);
+
+            // Act
+            List<CheckoutResult> results = billingService.checkoutBatch(List.of(entry(2, null), noCode,
+                    entry(-4, null), entry(3, null)));
+
+            // Assert
+            assertTrue(results.get(0).success());
+            assertEquals(List.of("Product code is required for every item"), results.get(1).errors());
+            assertEquals(List.of("Quantity must be positive for TEST-001"), results.get(2).errors());
+            assertTrue(results.get(3).success());
+            verify(storeInventoryService).allocateStockForSale("TEST-001", StoreType.PHYSICAL, 5);
+        }
+
+        @Test
+        @DisplayName("Should report invalid requests without touching stock")
+        void shouldRejectInvalidRequest() {
+            // Arrange
+            BatchCheckoutEntry invalid = new BatchCheckoutEntry(new CheckoutRequest(StoreType.PHYSICAL,
+                    TransactionType.CASH, null, "CASHIER-1", List.of(), BigDecimal.ZERO, BigDecimal.TEN), null);
+
+            // Act
+            List<CheckoutResult> results = billingService.checkoutBatch(List.of(invalid));
+
+            // Assert
+            assertFalse(results.get(0).success());
+            verifyNoInteractions(storeInventoryService);
+        }
+    }
+
+    @Nested
+    @DisplayName("Sales rollup tests")
+    class SalesRollupTests {
+
+        @Mock
+        private SalesRollupRepository salesRollupRepository;
+
+        private final List<String> events = new ArrayList<>();
+
+        @BeforeEach
+        void setUp() {
+            // Records when the transaction commits and runs after-commit actions after it
+            UnitOfWork committing = new UnitOfWork() {
+                private final List<Runnable> pending = new ArrayList<>();
+                private int depth;
+
+                @Override
+                public <T> T execute(Work<T> work) {
+                    if (depth > 0) {
+                        return work.perform();
+                    }
+                    depth++;
+                    T result;
+                    try {
+                        result = work.perform();
+                        events.add("commit");
+                    } catch (RuntimeException e) {
+                        pending.clear();
+                        throw e;
+                    } finally {
+                        depth--;
+                    }
+                    List<Runnable> actions = new ArrayList<>(pending);
+                    pending.clear();
+                    actions.forEach(Runnable::run);
+                    return result;
+                }
+
+                @Override
+                public void afterCommit(Runnable action) {
+                    if (depth > 0) {
+                        pending.add(action);
+                    } else {
+                        action.run();
+                    }
+                }
+            };
+            billingService = new BillingServiceImpl(billRepository, billItemRepository, productRepository,
+                    storeInventoryService, transactionRepository, committing, new ProductStockLocks(),
+                    new InProgressBillStore(), null, new CheckoutResultCache(), salesRollupRepository, null, null,
+                    null);
+        }
+
+        private BatchAllocation stubCheckout(boolean stockStillAvailable) {
+            String productCode = "TEST-001";
+            Product product = createTestProduct(productCode, "Test Product", BigDecimal.valueOf(10.00));
+            when(storeInventoryService.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                    .thenReturn(Map.of(productCode, stockProbe(product, 50)));
+            BatchAllocation allocation = new BatchAllocation(1, productCode, 3, LocalDate.now().plusDays(5));
+            when(storeInventoryService.allocateStockForSale(productCode, StoreType.PHYSICAL, 3))
+                    .thenReturn(List.of(allocation));
+            when(billRepository.generateNextSerialNumber(StoreType.PHYSICAL)).thenReturn("PH-003");
+            when(billRepository.save(any(Bill.class))).thenAnswer(i -> {
+                Bill b = i.getArgument(0);
+                b.setBillId(9);
+                return b;
+            });
+            when(billItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+            when(storeInventoryService.reduceStoreStock(StoreType.PHYSICAL, List.of(allocation)))
+                    .thenReturn(stockStillAvailable);
+            return allocation;
+        }
+
+        private CheckoutRequest request() {
+            return new CheckoutRequest(
+                    StoreType.PHYSICAL, TransactionType.CASH, null, "CASHIER-1",
+                    List.of(new ItemRequest("TEST-001", 3)),
+                    BigDecimal.ZERO, BigDecimal.valueOf(100.00));
+        }
+
+        @Test
+        @DisplayName("Should add a checked out bill to the rollups after it commits")
+        void shouldAddBillAfterCommit() {
+            // Arrange
+            stubCheckout(true);
+            doAnswer(i -> {
+                List<BillSale> sales = i.getArgument(0);
+                events.add("rollup " + sales.get(0).bill().getBillId() + " x" + sales.get(0).items().size());
+                return null;
+            }).when(salesRollupRepository).addSales(anyList());
+
+            // Act
+            CheckoutResult result = billingService.checkout(request());
+
+            // Assert
+            assertTrue(result.success());
+            assertEquals(List.of("commit", "rollup 9 x1"), events.subList(0, 2));
+        }
+
+        @Test
+        @DisplayName("Should not add a rolled back checkout to the rollups")
+        void shouldSkipRolledBackCheckout() {
+            // Arrange
+            stubCheckout(false);
+
+            // Act
+            CheckoutResult result = billingService.checkout(request());
+
+            // Assert
+            assertFalse(result.success());
+            verify(salesRollupRepository, never()).addSales(anyList());
+        }
+
+        @Test
+        @DisplayName("Should keep the checkout when the rollup update fails")
+        void shouldKeepCheckoutWhenRollupFails() {
+            // Arrange
+            stubCheckout(true);
+            doThrow(new RepositoryException("Deadlock found")).when(salesRollupRepository).addSales(anyList());
+
+            // Act
+            CheckoutResult result = billingService.checkout(request());
+
+            // Assert
+            assertTrue(result.success());
+            assertEquals(9, result.billId());
+        }
+
+        @Test
+        @DisplayName("Should drop cached sales reports once the rollups are updated")
+        void shouldInvalidateReportCacheAfterRollups() {
+            // Arrange
+            ReportCache reportCache = new ReportCache();
+            reportCache.get(ReportType.DAILY_SALES, () -> "cached");
+            reportCache.get(ReportType.STOCK_LEVELS, () -> "cached");
+            billingService = new BillingServiceImpl(billRepository, billItemRepository, productRepository,
+                    storeInventoryService, transactionRepository, UnitOfWork.AUTO_COMMIT, new ProductStockLocks(),
+                    new InProgressBillStore(), null, new CheckoutResultCache(), salesRollupRepository, reportCache,
+                    null, null);
+            stubCheckout(true);
+            doAnswer(i -> {
+                events.add("rollup with " + reportCache.size() + " cached");
+                return null;
+            }).when(salesRollupRepository).addSales(anyList());
+
+            // Act
+            CheckoutResult result = billingService.checkout(request());
+
+            // Assert - only the stock report is left
+            assertTrue(result.success());
+            assertEquals(List.of("rollup with 2 cached"), events);
+            assertEquals(1, reportCache.size());
+            assertEquals("cached", reportCache.get(ReportType.STOCK_LEVELS, () -> "reloaded"));
+        }
+
+        @Test
+        @DisplayName("Should count a checked out bill on the live dashboard after it commits")
+        void shouldCountBillOnDashboardAfterCommit() {
+            // Arrange
+            LiveDashboardCounters counters = new LiveDashboardCounters(null, null,
+                    LiveDashboardCounters.DEFAULT_LOW_STOCK_THRESHOLD, Clock.systemDefaultZone());
+            counters.addListener(() -> events.add("counted " + counters.snapshot().billCount()));
+            billingService = new BillingServiceImpl(billRepository, billItemRepository, productRepository,
+                    storeInventoryService, transactionRepository, UnitOfWork.AUTO_COMMIT, new ProductStockLocks(),
+                    new InProgressBillStore(), null, new CheckoutResultCache(), null, null, counters,
+                    null);
+            stubCheckout(true);
+
+            // Act
+            CheckoutResult result = billingService.checkout(request());
+
+            // Assert
+            assertTrue(result.success());
+            assertEquals(List.of("counted 1"), events);
+            DashboardCounts counts = counters.snapshot();
+            assertEquals(new BigDecimal("30.00"), counts.revenue());
+            assertEquals(3, counts.itemsSold());
+            StoreCounts physical = counts.stores().stream()
+                    .filter(store -> store.storeType() == StoreType.PHYSICAL).findFirst().orElseThrow();
+            assertEquals(1, physical.billCount());
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package com.syos.service;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.service.impl.CachingReportService;
+import com.syos.service.impl.ReportCache;
+import com.syos.service.interfaces.ReportService;
+import com.syos.service.interfaces.ReportService.DashboardSummary;
+import com.syos.service.interfaces.ReportService.DailySalesReport;
+import com.syos.service.interfaces.ReportService.ProductSalesReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CachingReportService.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CachingReportServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private ReportService delegate;
+
+    private ReportCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ReportCache();
+    }
+
+    private CachingReportService service(LocalDate today) {
+        Clock clock = Clock.fixed(today.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new CachingReportService(delegate, cache, clock);
+    }
+
+    private static DashboardSummary dashboard(String todaySales) {
+        return new DashboardSummary(new BigDecimal(todaySales), 3, 1, 2, BigDecimal.TEN, BigDecimal.TEN,
+                new ArrayList<>(List.of(new ProductSalesReport("P1", "Milk", 4, BigDecimal.ONE))));
+    }
+
+    @Test
+    @DisplayName("Should compute the dashboard once per day until sales change")
+    void shouldCacheDashboardPerDay() {
+        // Arrange
+        when(delegate.getDashboardSummary()).thenReturn(dashboard("10.00"), dashboard("20.00"), dashboard("30.00"));
+        CachingReportService reports = service(TODAY);
+
+        // Act
+        DashboardSummary first = reports.getDashboardSummary();
+        DashboardSummary cached = reports.getDashboardSummary();
+        cache.salesChanged();
+        DashboardSummary afterSale = reports.getDashboardSummary();
+        DashboardSummary nextDay = service(TODAY.plusDays(1)).getDashboardSummary();
+
+        // Assert
+        assertSame(first, cached);
+        assertEquals(new BigDecimal("20.00"), afterSale.todaySales());
+        assertEquals(new BigDecimal("30.00"), nextDay.todaySales());
+        assertThrows(UnsupportedOperationException.class, () -> cached.topProducts().clear());
+        verify(delegate, times(3)).getDashboardSummary();
+    }
+
+    @Test
+    @DisplayName("Should key reports by their parameters")
+    void shouldKeyByParameters() {
+        // Arrange
+        List<DailySalesReport> week = List.of(new DailySalesReport(TODAY, 1, BigDecimal.ONE, BigDecimal.ONE,
+                BigDecimal.ZERO));
+        when(delegate.getDailySalesReport(TODAY.minusDays(7), TODAY)).thenReturn(week);
+        when(delegate.getDailySalesReport(TODAY.minusDays(30), TODAY)).thenReturn(List.of());
+        when(delegate.getHourlySalesReport(TODAY, null)).thenReturn(List.of());
+        CachingReportService reports = service(TODAY);
+
+        // Act
+        reports.getDailySalesReport(TODAY.minusDays(7), TODAY);
+        reports.getDailySalesReport(TODAY.minusDays(30), TODAY);
+        List<DailySalesReport> cachedWeek = reports.getDailySalesReport(TODAY.minusDays(7), TODAY);
+        reports.getHourlySalesReport(TODAY, null);
+        reports.getHourlySalesReport(TODAY, null);
+
+        // Assert
+        assertEquals(week, cachedWeek);
+        verify(delegate, times(1)).getDailySalesReport(TODAY.minusDays(7), TODAY);
+        verify(delegate, times(1)).getDailySalesReport(TODAY.minusDays(30), TODAY);
+        verify(delegate, times(1)).getHourlySalesReport(TODAY, null);
+    }
+
+    @Test
+    @DisplayName("Should pass bill reports through uncached")
+    void shouldNotCacheBillReports() {
+        // Arrange
+        CachingReportService reports = service(TODAY);
+
+        // Act
+        reports.getBillReport(TODAY, StoreType.PHYSICAL);
+        reports.getBillReport(TODAY, StoreType.PHYSICAL);
+
+        // Assert
+        verify(delegate, times(2)).getBillReport(TODAY, StoreType.PHYSICAL);
+        assertEquals(0, cache.size());
+    }
+}
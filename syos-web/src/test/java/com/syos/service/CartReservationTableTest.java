@@ -0,0 +1,212 @@
+package com.syos.service;
+
+import com.syos.service.impl.CartReservationTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CartReservationTable.
+ */
+class CartReservationTableTest {
+
+    private AdjustableClock clock;
+    private CartReservationTable table;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AdjustableClock(Instant.parse("2026-01-15T09:00:00Z"));
+        table = new CartReservationTable(Duration.ofMinutes(15), Duration.ofSeconds(10), clock);
+    }
+
+    @Nested
+    @DisplayName("reserve tests")
+    class ReserveTests {
+
+        @Test
+        @DisplayName("Should only grant what other carts do not hold")
+        void shouldGrantUnreservedStockOnly() {
+            // Act
+            boolean first = table.reserve(1, "P1", 6, 10);
+            boolean second = table.reserve(2, "P1", 5, 10);
+            boolean smaller = table.reserve(2, "P1", 4, 10);
+
+            // Assert
+            assertTrue(first);
+            assertFalse(second);
+            assertTrue(smaller);
+            assertEquals(10, table.getReserved("P1"));
+            assertEquals(6, table.getReservedByOthers("P1", 2));
+        }
+
+        @Test
+        @DisplayName("Should replace the customer's own reservation rather than add to it")
+        void shouldReplaceOwnReservation() {
+            // Arrange
+            table.reserve(1, "P1", 6, 10);
+
+            // Act
+            boolean raised = table.reserve(1, "P1", 10, 10);
+
+            // Assert
+            assertTrue(raised);
+            assertEquals(10, table.getReservation(1, "P1"));
+            assertEquals(10, table.getReserved("P1"));
+        }
+
+        @Test
+        @DisplayName("Should release one product or every product of a customer")
+        void shouldRelease() {
+            // Arrange
+            table.reserve(1, "P1", 2, 10);
+            table.reserve(1, "P2", 3, 10);
+            table.reserve(2, "P2", 4, 10);
+
+            // Act
+            table.release(1, "P1");
+            table.releaseAll(1);
+
+            // Assert
+            assertEquals(0, table.getReserved("P1"));
+            assertEquals(4, table.getReserved("P2"));
+        }
+
+        @Test
+        @DisplayName("Should never leave a hold that clearing the cart cannot find")
+        void shouldKeepIndexWithConcurrentClear() throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(3);
+            try {
+                for (int i = 0; i < 5000; i++) {
+                    // Arrange
+                    table.reserve(1, "P1", 1, 10);
+                    CountDownLatch start = new CountDownLatch(1);
+
+                    // Act - a cart change races the line being removed and the cart being cleared
+                    List<Future<?>> racing = List.of(
+                            executor.submit(() -> {
+                                start.await();
+                                return table.reserve(1, "P1", 2, 10);
+                            }),
+                            executor.submit(() -> {
+                                start.await();
+                                table.release(1, "P1");
+                                return null;
+                            }),
+                            executor.submit(() -> {
+                                start.await();
+                                table.releaseAll(1);
+                                return null;
+                            }));
+                    start.countDown();
+                    for (Future<?> future : racing) {
+                        future.get();
+                    }
+
+                    // Assert - whichever won, clearing again releases everything
+                    table.releaseAll(1);
+                    assertEquals(0, table.getReserved("P1"), "iteration " + i);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("advance tests")
+    class AdvanceTests {
+
+        @Test
+        @DisplayName("Should release reservations once their TTL has passed")
+        void shouldReleaseExpiredReservations() {
+            // Arrange
+            table.reserve(1, "P1", 5, 10);
+            clock.advance(Duration.ofMinutes(10));
+            table.reserve(2, "P1", 3, 10);
+
+            // Act
+            clock.advance(Duration.ofMinutes(6));
+            int released = table.advance();
+
+            // Assert
+            assertEquals(1, released);
+            assertEquals(0, table.getReservation(1, "P1"));
+            assertEquals(3, table.getReserved("P1"));
+        }
+
+        @Test
+        @DisplayName("Should keep a reservation renewed before it expired")
+        void shouldKeepRenewedReservation() {
+            // Arrange
+            table.reserve(1, "P1", 5, 10);
+            clock.advance(Duration.ofMinutes(10));
+            table.reserve(1, "P1", 5, 10);
+
+            // Act
+            clock.advance(Duration.ofMinutes(6));
+            int released = table.advance();
+
+            // Assert
+            assertEquals(0, released);
+            assertEquals(5, table.getReservation(1, "P1"));
+        }
+
+        @Test
+        @DisplayName("Should catch up after a pause longer than a turn of the wheel")
+        void shouldCatchUpAfterLongPause() {
+            // Arrange
+            table.reserve(1, "P1", 5, 10);
+            table.reserve(2, "P2", 1, 10);
+
+            // Act
+            clock.advance(Duration.ofHours(3));
+            int released = table.advance();
+
+            // Assert
+            assertEquals(2, released);
+            assertEquals(0, table.getReserved("P1"));
+            assertEquals(0, table.getReserved("P2"));
+        }
+    }
+
+    private static final class AdjustableClock extends Clock {
+        private Instant now;
+
+        AdjustableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.syos.service;
 
+import com.syos.domain.enums.StoreType;
 import com.syos.domain.models.Cart;
 import com.syos.domain.models.Product;
 import com.syos.domain.valueobjects.Money;
 import com.syos.domain.valueobjects.ProductCode;
+import com.syos.exception.InsufficientStockException;
 import com.syos.exception.ProductNotFoundException;
 import com.syos.exception.ValidationException;
+import com.syos.service.impl.CartReservationTable;
 import com.syos.service.impl.CartServiceImpl;
 import com.syos.service.interfaces.ProductService;
 import com.syos.service.interfaces.StoreInventoryService;
@@ -19,10 +22,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -354,7 +360,8 @@ class CartServiceImplTest {
             // Arrange
             Product product = createTestProduct("TEST-001", "Test Product", BigDecimal.valueOf(100.00));
             when(productService.findByProductCode("TEST-001")).thenReturn(Optional.of(product));
-            when(storeInventoryService.getOnlineStoreQuantity("TEST-001")).thenReturn(100);
+            when(storeInventoryService.getAvailableQuantities(anyCollection(), eq(StoreType.ONLINE)))
+                    .thenReturn(Map.of("TEST-001", 100));
             cartService.addItem(1, "TEST-001", 5);
 
             // Act
@@ -370,7 +377,8 @@ class CartServiceImplTest {
             // Arrange
             Product product = createTestProduct("TEST-001", "Test Product", BigDecimal.valueOf(100.00));
             when(productService.findByProductCode("TEST-001")).thenReturn(Optional.of(product));
-            when(storeInventoryService.getOnlineStoreQuantity("TEST-001")).thenReturn(2);
+            when(storeInventoryService.getAvailableQuantities(anyCollection(), eq(StoreType.ONLINE)))
+                    .thenReturn(Map.of("TEST-001", 2));
             cartService.addItem(1, "TEST-001", 5);
 
             // Act
@@ -402,7 +410,8 @@ class CartServiceImplTest {
             // Arrange
             Product product = createTestProduct("TEST-001", "Test Product", BigDecimal.valueOf(100.00));
             when(productService.findByProductCode("TEST-001")).thenReturn(Optional.of(product));
-            when(storeInventoryService.getOnlineStoreQuantity("TEST-001")).thenReturn(2);
+            when(storeInventoryService.getAvailableQuantities(anyCollection(), eq(StoreType.ONLINE)))
+                    .thenReturn(Map.of("TEST-001", 2));
             cartService.addItem(1, "TEST-001", 5);
 
             // Act
@@ -416,4 +425,73 @@ class CartServiceImplTest {
             assertEquals(2, result.issues().get(0).availableQuantity());
         }
     }
+
+    @Nested
+    @DisplayName("stock reservation tests")
+    class ReservationTests {
+
+        private CartReservationTable reservations;
+        private CartServiceImpl reservingService;
+
+        @BeforeEach
+        void setUpReservations() {
+            reservations = new CartReservationTable();
+            reservingService = new CartServiceImpl(productService, storeInventoryService, reservations);
+        }
+
+        @Test
+        @DisplayName("Should refuse stock already held by another cart")
+        void shouldRefuseStockHeldByAnotherCart() {
+            // Arrange
+            Product product = createTestProduct("TEST-001", "Test Product", BigDecimal.valueOf(100.00));
+            when(productService.findByProductCode("TEST-001")).thenReturn(Optional.of(product));
+            when(storeInventoryService.getAvailableQuantity("TEST-001", StoreType.ONLINE)).thenReturn(5);
+            reservingService.addItem(1, "TEST-001", 2);
+            reservingService.addItem(1, "TEST-001", 2);
+
+            // Act & Assert
+            InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                    () -> reservingService.addItem(2, "TEST-001", 2));
+            assertEquals(1, e.getAvailableStock());
+            assertEquals(4, reservations.getReservation(1, "TEST-001"));
+            assertTrue(reservingService.getCart(2).orElseThrow().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should release a cart's reservations when it is cleared")
+        void shouldReleaseOnClear() {
+            // Arrange
+            Product product = createTestProduct("TEST-001", "Test Product", BigDecimal.valueOf(100.00));
+            when(productService.findByProductCode("TEST-001")).thenReturn(Optional.of(product));
+            when(storeInventoryService.getAvailableQuantity("TEST-001", StoreType.ONLINE)).thenReturn(5);
+            reservingService.addItem(1, "TEST-001", 5);
+
+            // Act
+            reservingService.clearCart(1);
+
+            // Assert
+            assertEquals(0, reservations.getReserved("TEST-001"));
+        }
+
+        @Test
+        @DisplayName("Should count other carts' reservations when validating")
+        void shouldValidateAgainstUnreservedStock() {
+            // Arrange
+            Product product = createTestProduct("TEST-001", "Test Product", BigDecimal.valueOf(100.00));
+            when(productService.findByProductCode("TEST-001")).thenReturn(Optional.of(product));
+            when(storeInventoryService.getAvailableQuantity("TEST-001", StoreType.ONLINE)).thenReturn(10);
+            reservingService.addItem(1, "TEST-001", 4);
+            reservations.release(1, "TEST-001");
+            reservations.reserve(2, "TEST-001", 8, 10);
+            when(storeInventoryService.getAvailableQuantities(anyCollection(), eq(StoreType.ONLINE)))
+                    .thenReturn(Map.of("TEST-001", 10));
+
+            // Act
+            StockValidationResult result = reservingService.validateCartStockDetails(1);
+
+            // Assert
+            assertFalse(result.isValid());
+            assertEquals(2, result.issues().get(0).availableQuantity());
+        }
+    }
 }
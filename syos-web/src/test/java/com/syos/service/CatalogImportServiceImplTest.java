@@ -0,0 +1,265 @@
+package com.syos.service;
+
+import com.syos.domain.models.Brand;
+import com.syos.domain.models.Category;
+import com.syos.domain.models.MainInventory;
+import com.syos.domain.models.Product;
+import com.syos.domain.models.Subcategory;
+import com.syos.exception.RepositoryException;
+import com.syos.exception.ValidationException;
+import com.syos.repository.interfaces.BrandRepository;
+import com.syos.repository.interfaces.CategoryRepository;
+import com.syos.repository.interfaces.MainInventoryRepository;
+import com.syos.repository.interfaces.ProductRepository;
+import com.syos.repository.interfaces.SubcategoryRepository;
+import com.syos.service.impl.BatchExpiryScheduler;
+import com.syos.service.impl.CatalogImportServiceImpl;
+import com.syos.service.interfaces.CatalogImportService.ImportFormat;
+import com.syos.service.interfaces.CatalogImportService.ImportOptions;
+import com.syos.service.interfaces.CatalogImportService.ImportReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CatalogImportServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogImportServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 1, 15);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private MainInventoryRepository mainInventoryRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private SubcategoryRepository subcategoryRepository;
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private BatchExpiryScheduler expiryScheduler;
+
+    private ForkJoinPool pool;
+    private CatalogImportServiceImpl importService;
+    private final List<Product> insertedProducts = new ArrayList<>();
+    private final List<MainInventory> insertedBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        Clock clock = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        importService = new CatalogImportServiceImpl(productRepository, mainInventoryRepository,
+                categoryRepository, subcategoryRepository, brandRepository, expiryScheduler,
+                null, pool, 2, clock);
+
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(3, "Snacks", "SNK")));
+        when(subcategoryRepository.findAll()).thenReturn(List.of(new Subcategory(9, "Chocolates", "CO", 3)));
+        when(brandRepository.findAll()).thenReturn(List.of(new Brand(3, "Nestle", "NE")));
+        when(productRepository.findExistingProductCodes(anyCollection())).thenReturn(Set.of());
+        doAnswer(invocation -> {
+            insertedProducts.addAll(invocation.getArgument(0));
+            return null;
+        }).when(productRepository).insertAll(anyList());
+        when(mainInventoryRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<MainInventory> batches = invocation.getArgument(0);
+            for (MainInventory batch : batches) {
+                batch.setMainInventoryId(insertedBatches.size() + 1);
+                insertedBatches.add(batch);
+            }
+            return batches;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static InputStream file(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nested
+    @DisplayName("JSON import tests")
+    class JsonImportTests {
+
+        @Test
+        @DisplayName("Should import a products file with defaults, generating codes from one block per prefix")
+        void shouldImportProductsFile() {
+            // Arrange
+            String json = """
+                {
+                    "category": "Snacks",
+                    "sub-category": "Chocolates",
+                    "products": [
+                        {"name": "Dark Bar", "price": "1200", "image": "a.png", "quantity": "200"},
+                        {"name": "Milk Bar", "price": "1500", "quantity": "0"},
+                        {"name": "Truffles", "price": 2500, "quantity": 50, "expiry_date": "2026-06-30"}
+                    ]
+                }
+                """;
+            when(productRepository.findLastCodeSequence("SNKCONE")).thenReturn(7);
+
+            // Act
+            ImportReport report = importService.importCatalog(file(json), ImportFormat.JSON,
+                    new ImportOptions("NE", false));
+
+            // Assert
+            assertTrue(report.complete());
+            assertEquals(2, report.chunks());
+            assertEquals(3, report.rowsImported());
+            assertEquals(3, report.productsCreated());
+            assertEquals(2, report.batchesCreated());
+            assertEquals(List.of("SNKCONE008", "SNKCONE009", "SNKCONE010"),
+                    insertedProducts.stream().map(Product::getProductCodeString).toList());
+            assertEquals(new BigDecimal("1200.00"), insertedBatches.get(0).getPurchasePrice().getAmount());
+            assertEquals(TODAY, insertedBatches.get(0).getPurchaseDate());
+            assertEquals("SNKCONE010", insertedBatches.get(1).getProductCodeString());
+            assertEquals(LocalDate.of(2026, 6, 30), insertedBatches.get(1).getExpiryDate());
+            verify(productRepository, times(1)).findLastCodeSequence("SNKCONE");
+            verify(expiryScheduler, times(2)).track(any());
+            assertEquals(report, importService.getProgress().orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should look up the code sequence by the prefix GenerateProductCode builds")
+        void shouldUseProcedurePrefix() {
+            // Arrange
+            when(brandRepository.findAll()).thenReturn(List.of(new Brand(3, "Nestle", "Ne")));
+            when(productRepository.findLastCodeSequence("SNKCONe")).thenReturn(1);
+
+            // Act
+            importService.importCatalog(file("""
+                    [{"name": "A", "price": 1, "category": "SNK", "subcategory": "CO", "brand": "Nestle"}]
+                    """), ImportFormat.JSON, new ImportOptions(null, false));
+
+            // Assert
+            verify(productRepository).findLastCodeSequence("SNKCONe");
+            assertEquals(List.of("SNKCONE002"),
+                    insertedProducts.stream().map(Product::getProductCodeString).toList());
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed file after keeping the chunks before it")
+        void shouldRejectMalformedJson() {
+            // Arrange
+            String json = """
+                [{"name": "A", "price": 1, "category": "SNK", "subcategory": "CO", "brand": "NE"},
+                 {"name": "B", "price": 1, "category": "SNK", "subcategory": "CO", "brand": "NE"},
+                 {"name": "C", "price": }]
+                """;
+
+            // Act & Assert
+            assertThrows(ValidationException.class, () -> importService.importCatalog(
+                    file(json), ImportFormat.JSON, new ImportOptions(null, false)));
+            assertEquals(2, insertedProducts.size());
+            assertFalse(importService.getProgress().orElseThrow().complete());
+        }
+    }
+
+    @Nested
+    @DisplayName("CSV import tests")
+    class CsvImportTests {
+
+        @Test
+        @DisplayName("Should add batches to existing products and report invalid rows")
+        void shouldImportCsvRows() {
+            // Arrange
+            String csv = """
+                product_code,name,price,category,subcategory,brand,quantity,purchase_price,supplier
+                SNK-CO-NE-001,,,,,,40,180,"Nestle Lanka, Colombo"
+                ,"Bar \"\"Special\"\"",250,Snacks,Chocolates,Nestle,10,,
+                ,Crisps,abc,Snacks,Chocolates,Nestle,5,,
+                ,Juice,100,Beverages,Juices,Nestle,5,,
+                SNK-CO-NE-001,,,,,,0,,
+                """;
+            when(productRepository.findExistingProductCodes(anyCollection())).thenReturn(Set.of("SNK-CO-NE-001"));
+
+            // Act
+            ImportReport report = importService.importCatalog(file(csv), ImportFormat.CSV,
+                    new ImportOptions(null, false));
+
+            // Assert
+            assertEquals(5, report.rowsRead());
+            assertEquals(2, report.rowsImported());
+            assertEquals(3, report.rowsRejected());
+            assertEquals(1, report.productsCreated());
+            assertEquals("Bar \"Special\"", insertedProducts.get(0).getProductName());
+            assertEquals("SNK-CO-NE-001", insertedBatches.get(0).getProductCodeString());
+            assertEquals("Nestle Lanka, Colombo", insertedBatches.get(0).getSupplierName());
+            assertEquals(List.of(3L, 4L, 5L), report.errors().stream().map(e -> e.row()).toList());
+            assertTrue(report.errors().get(1).message().contains("Unknown category"));
+        }
+
+        @Test
+        @DisplayName("Should write nothing on a dry run")
+        void shouldNotWriteOnDryRun() {
+            // Arrange
+            String csv = "name,price,category,subcategory,brand,quantity\nBar,250,SNK,CO,NE,10\n";
+
+            // Act
+            ImportReport report = importService.importCatalog(file(csv), ImportFormat.CSV,
+                    new ImportOptions(null, true));
+
+            // Assert
+            assertTrue(report.dryRun());
+            assertEquals(1, report.productsCreated());
+            verify(productRepository, never()).insertAll(anyList());
+            verify(mainInventoryRepository, never()).insertAll(anyList());
+        }
+
+        @Test
+        @DisplayName("Should reject the rows of a failed chunk and go on with the next one")
+        void shouldContinueAfterFailedChunk() {
+            // Arrange
+            String csv = "name,price,category,subcategory,brand\nA,1,SNK,CO,NE\nB,1,SNK,CO,NE\nC,1,SNK,CO,NE\n";
+            ArgumentCaptor<List<Product>> captor = ArgumentCaptor.captor();
+            doThrow(new RepositoryException("Duplicate entry"))
+                    .doNothing()
+                    .when(productRepository).insertAll(captor.capture());
+            when(productRepository.findLastCodeSequence("SNKCONE")).thenReturn(0, 2);
+
+            // Act
+            ImportReport report = importService.importCatalog(file(csv), ImportFormat.CSV,
+                    new ImportOptions(null, false));
+
+            // Assert
+            assertEquals(1, report.rowsImported());
+            assertEquals(2, report.rowsRejected());
+            assertEquals("SNKCONE003", captor.getAllValues().get(1).get(0).getProductCodeString());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.syos.service;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.enums.TransactionType;
+import com.syos.service.impl.CheckoutJournal;
+import com.syos.service.interfaces.BillingService.CheckoutRequest;
+import com.syos.service.interfaces.BillingService.ItemRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CheckoutJournal.
+ */
+class CheckoutJournalTest {
+
+    private static final LocalDateTime QUEUED_AT = LocalDateTime.of(2026, 1, 15, 9, 30);
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private CheckoutJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = tempDir.resolve("journal").resolve("checkout-journal.log");
+        journal = new CheckoutJournal(file);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    private CheckoutRequest request(String productCode, int quantity) {
+        return new CheckoutRequest(StoreType.PHYSICAL, TransactionType.CASH, null, "cashier-1",
+                List.of(new ItemRequest(productCode, quantity)), BigDecimal.ZERO, new BigDecimal("500.00"));
+    }
+
+    @Nested
+    @DisplayName("Append tests")
+    class AppendTests {
+
+        @Test
+        @DisplayName("Should read entries back in append order after reopening")
+        void shouldRoundTripEntries() throws IOException {
+            // Arrange
+            journal.append("key-1", request("P001", 2), QUEUED_AT);
+            journal.append("key-2", request("P002", 1), QUEUED_AT.plusMinutes(1));
+            journal.close();
+
+            // Act
+            journal = new CheckoutJournal(file);
+            List<CheckoutJournal.Entry> entries = journal.readAll();
+
+            // Assert
+            assertEquals(2, entries.size());
+            assertEquals(2, journal.size());
+            assertEquals("key-1", entries.get(0).idempotencyKey());
+            assertEquals(1, entries.get(0).sequence());
+            assertEquals(QUEUED_AT, entries.get(0).queuedAt());
+            assertEquals(request("P001", 2), entries.get(0).request());
+            assertEquals("key-2", entries.get(1).idempotencyKey());
+        }
+
+        @Test
+        @DisplayName("Should continue the sequence after reopening")
+        void shouldContinueSequence() throws IOException {
+            // Arrange
+            journal.append("key-1", request("P001", 1), QUEUED_AT);
+            journal.close();
+            journal = new CheckoutJournal(file);
+
+            // Act
+            CheckoutJournal.Entry entry = journal.append("key-2", request("P001", 1), QUEUED_AT);
+
+            // Assert
+            assertEquals(2, entry.sequence());
+        }
+
+        @Test
+        @DisplayName("Should keep every entry appended concurrently")
+        void shouldKeepConcurrentAppends() throws Exception {
+            // Arrange
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<CheckoutJournal.Entry>> futures = new ArrayList<>();
+
+            // Act
+            for (int i = 0; i < 100; i++) {
+                String key = "key-" + i;
+                futures.add(executor.submit(() -> journal.append(key, request("P001", 1), QUEUED_AT)));
+            }
+            for (Future<CheckoutJournal.Entry> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            // Assert
+            List<CheckoutJournal.Entry> entries = journal.readAll();
+            assertEquals(100, entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals(i + 1, entries.get(i).sequence());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Recovery tests")
+    class RecoveryTests {
+
+        @Test
+        @DisplayName("Should drop a torn record left by a crash")
+        void shouldTruncateTornRecord() throws IOException {
+            // Arrange
+            journal.append("key-1", request("P001", 1), QUEUED_AT);
+            journal.close();
+            long validLength = Files.size(file);
+            Files.write(file, new byte[] { 0, 0, 1, 0, 12, 34 }, StandardOpenOption.APPEND);
+
+            // Act
+            journal = new CheckoutJournal(file);
+
+            // Assert
+            assertEquals(1, journal.size());
+            assertEquals(validLength, Files.size(file));
+        }
+    }
+
+    @Nested
+    @DisplayName("Discard tests")
+    class DiscardTests {
+
+        @Test
+        @DisplayName("Should drop only the oldest entries")
+        void shouldDiscardOldest() throws IOException {
+            // Arrange
+            journal.append("key-1", request("P001", 1), QUEUED_AT);
+            journal.append("key-2", request("P002", 1), QUEUED_AT);
+            journal.append("key-3", request("P003", 1), QUEUED_AT);
+
+            // Act
+            journal.discard(2);
+            journal.append("key-4", request("P004", 1), QUEUED_AT);
+
+            // Assert
+            List<CheckoutJournal.Entry> entries = journal.readAll();
+            assertEquals(List.of("key-3", "key-4"),
+                    entries.stream().map(CheckoutJournal.Entry::idempotencyKey).toList());
+            assertEquals(2, journal.size());
+            journal.close();
+            journal = new CheckoutJournal(file);
+            assertEquals(2, journal.readAll().size());
+        }
+
+        @Test
+        @DisplayName("Should move the replay point without rewriting the journal")
+        void shouldCheckpointWithoutRewriting() throws IOException {
+            // Arrange
+            journal.append("key-1", request("P001", 1), QUEUED_AT);
+            journal.append("key-2", request("P002", 1), QUEUED_AT);
+            byte[] before = Files.readAllBytes(file);
+
+            // Act
+            journal.discard(1);
+            journal.close();
+            journal = new CheckoutJournal(file);
+
+            // Assert
+            assertArrayEquals(before, Files.readAllBytes(file));
+            assertEquals(List.of("key-2"),
+                    journal.readAll().stream().map(CheckoutJournal.Entry::idempotencyKey).toList());
+            assertEquals(3, journal.append("key-3", request("P003", 1), QUEUED_AT).sequence());
+        }
+
+        @Test
+        @DisplayName("Should leave an empty journal once everything is discarded")
+        void shouldEmptyJournal() throws IOException {
+            // Arrange
+            journal.append("key-1", request("P001", 1), QUEUED_AT);
+
+            // Act
+            journal.discard(5);
+
+            // Assert
+            assertEquals(0, journal.size());
+            assertTrue(journal.readAll().isEmpty());
+            assertEquals(0, Files.size(file));
+            assertFalse(Files.exists(file.resolveSibling("checkout-journal.log.checkpoint")));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.syos.service;
+
+import com.syos.service.impl.CheckoutResultCache;
+import com.syos.service.interfaces.BillingService.CheckoutResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CheckoutResultCache.
+ */
+class CheckoutResultCacheTest {
+
+    private AdjustableClock clock;
+    private CheckoutResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AdjustableClock(Instant.parse("2026-01-15T09:00:00Z"));
+        cache = new CheckoutResultCache(2, Duration.ofHours(1), clock);
+    }
+
+    @Test
+    @DisplayName("Should return a stored result until it expires")
+    void shouldExpireEntries() {
+        // Arrange
+        CheckoutResult result = CheckoutResult.failure("stored");
+        cache.put("key-1", result);
+
+        // Act
+        clock.advance(Duration.ofMinutes(59));
+        CheckoutResult beforeExpiry = cache.get("key-1");
+        clock.advance(Duration.ofMinutes(1));
+        CheckoutResult afterExpiry = cache.get("key-1");
+
+        // Assert
+        assertSame(result, beforeExpiry);
+        assertNull(afterExpiry);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should drop the least recently used key when full")
+    void shouldEvictLeastRecentlyUsed() {
+        // Arrange
+        cache.put("key-1", CheckoutResult.failure("one"));
+        cache.put("key-2", CheckoutResult.failure("two"));
+        cache.get("key-1");
+
+        // Act
+        cache.put("key-3", CheckoutResult.failure("three"));
+
+        // Assert
+        assertNotNull(cache.get("key-1"));
+        assertNull(cache.get("key-2"));
+        assertNotNull(cache.get("key-3"));
+    }
+
+    /**
+     * Clock that only moves when a test advances it.
+     */
+    private static final class AdjustableClock extends Clock {
+        private Instant now;
+
+        AdjustableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.syos.service;
+
+import com.syos.domain.enums.InventoryTransactionType;
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.InventoryTransaction;
+import com.syos.domain.valueobjects.BatchQuantity;
+import com.syos.exception.RepositoryException;
+import com.syos.repository.interfaces.InventoryTransactionRepository;
+import com.syos.repository.interfaces.MainInventoryRepository;
+import com.syos.repository.interfaces.MainInventoryRepository.ExpiredStock;
+import com.syos.repository.interfaces.OnlineStoreInventoryRepository;
+import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.impl.BatchExpiryScheduler;
+import com.syos.service.impl.ExpiredStockWriteOffServiceImpl;
+import com.syos.service.interfaces.ExpiredStockWriteOffService.WriteOffReport;
+import com.syos.service.interfaces.StockAlertService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExpiredStockWriteOffServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExpiredStockWriteOffServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 1, 15);
+
+    @Mock
+    private MainInventoryRepository mainInventoryRepository;
+
+    @Mock
+    private PhysicalStoreInventoryRepository physicalStoreRepository;
+
+    @Mock
+    private OnlineStoreInventoryRepository onlineStoreRepository;
+
+    @Mock
+    private InventoryTransactionRepository transactionRepository;
+
+    @Mock
+    private StockAlertService stockAlertService;
+
+    @Mock
+    private BatchExpiryScheduler expiryScheduler;
+
+    private ExpiredStockWriteOffServiceImpl writeOffService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-15T02:00:00Z"), ZoneOffset.UTC);
+        writeOffService = new ExpiredStockWriteOffServiceImpl(mainInventoryRepository, physicalStoreRepository,
+                onlineStoreRepository, transactionRepository, null, null, stockAlertService, expiryScheduler,
+                null, UnitOfWork.AUTO_COMMIT, 2, clock);
+
+        when(physicalStoreRepository.reduceQuantities(anyList())).thenReturn(true);
+        when(onlineStoreRepository.reduceQuantities(anyList())).thenReturn(true);
+        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(true);
+    }
+
+    private ExpiredStock stock(int batchId, int main, int physical, int online) {
+        return new ExpiredStock(batchId, "P" + batchId, TODAY.minusDays(3), main, physical, online);
+    }
+
+    @Nested
+    @DisplayName("writeOff tests")
+    class WriteOffTests {
+
+        @Test
+        @DisplayName("Should zero every location of a chunk and record batched EXPIRED transactions")
+        @SuppressWarnings("unchecked")
+        void shouldWriteOffChunk() {
+            // Arrange
+            when(mainInventoryRepository.findExpiredStock(TODAY, 0, 2))
+                    .thenReturn(List.of(stock(1, 20, 5, 0), stock(2, 0, 0, 4)));
+            when(mainInventoryRepository.findExpiredStock(TODAY, 2, 2)).thenReturn(List.of());
+
+            // Act
+            WriteOffReport report = writeOffService.writeOff(false);
+
+            // Assert
+            verify(physicalStoreRepository).reduceQuantities(List.of(new BatchQuantity("P1", 1, 5)));
+            verify(onlineStoreRepository).reduceQuantities(List.of(new BatchQuantity("P2", 2, 4)));
+            verify(mainInventoryRepository).reduceQuantities(List.of(new BatchQuantity("P1", 1, 20)));
+            ArgumentCaptor<List<InventoryTransaction>> captor = ArgumentCaptor.forClass(List.class);
+            verify(transactionRepository, times(1)).saveAll(captor.capture());
+            List<InventoryTransaction> transactions = captor.getValue();
+            assertEquals(3, transactions.size());
+            assertTrue(transactions.stream()
+                    .allMatch(t -> t.getTransactionType() == InventoryTransactionType.EXPIRED));
+            assertEquals(-29, transactions.stream().mapToInt(InventoryTransaction::getQuantityChanged).sum());
+            verify(expiryScheduler).reduced(1, 20);
+            verify(stockAlertService).stockChanged(StoreType.PHYSICAL, List.of("P1"));
+            verify(stockAlertService).stockChanged(StoreType.ONLINE, List.of("P2"));
+            assertEquals(2, report.batches());
+            assertEquals(29, report.totalQuantity());
+            assertTrue(report.complete());
+        }
+
+        @Test
+        @DisplayName("Should page through the backlog in a dry run without writing")
+        void shouldOnlyReportInDryRun() {
+            // Arrange
+            when(mainInventoryRepository.findExpiredStock(TODAY, 0, 2))
+                    .thenReturn(List.of(stock(1, 10, 0, 0), stock(4, 5, 2, 0)));
+            when(mainInventoryRepository.findExpiredStock(TODAY, 4, 2)).thenReturn(List.of(stock(9, 1, 0, 0)));
+            when(mainInventoryRepository.findExpiredStock(TODAY, 9, 2)).thenReturn(List.of());
+
+            // Act
+            WriteOffReport report = writeOffService.writeOff(true);
+
+            // Assert
+            assertTrue(report.dryRun());
+            assertEquals(2, report.chunks());
+            assertEquals(3, report.batches());
+            assertEquals(18, report.totalQuantity());
+            verify(mainInventoryRepository, never()).reduceQuantities(anyList());
+            verify(physicalStoreRepository, never()).reduceQuantities(anyList());
+            verifyNoInteractions(transactionRepository);
+            assertEquals(report, writeOffService.getLastReport().orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should read a chunk again when its stock changed before the write-off")
+        void shouldRetryChunkAfterConflict() {
+            // Arrange
+            when(mainInventoryRepository.findExpiredStock(TODAY, 0, 2))
+                    .thenReturn(List.of(stock(1, 0, 5, 0)))
+                    .thenReturn(List.of(stock(1, 0, 3, 0)));
+            when(mainInventoryRepository.findExpiredStock(TODAY, 1, 2)).thenReturn(List.of());
+            when(physicalStoreRepository.reduceQuantities(anyList())).thenReturn(false).thenReturn(true);
+
+            // Act
+            WriteOffReport report = writeOffService.writeOff(false);
+
+            // Assert
+            verify(physicalStoreRepository).reduceQuantities(List.of(new BatchQuantity("P1", 1, 3)));
+            verify(transactionRepository, times(1)).saveAll(anyList());
+            assertEquals(3, report.physicalQuantity());
+            assertEquals(0, report.skippedBatches());
+        }
+
+        @Test
+        @DisplayName("Should skip a chunk that keeps changing and carry on")
+        void shouldSkipChunkAfterRepeatedConflicts() {
+            // Arrange
+            when(mainInventoryRepository.findExpiredStock(TODAY, 0, 2)).thenReturn(List.of(stock(1, 0, 5, 0)));
+            when(mainInventoryRepository.findExpiredStock(TODAY, 1, 2)).thenReturn(List.of());
+            when(physicalStoreRepository.reduceQuantities(anyList())).thenReturn(false);
+
+            // Act
+            WriteOffReport report = writeOffService.writeOff(false);
+
+            // Assert
+            verify(physicalStoreRepository, times(3)).reduceQuantities(anyList());
+            verifyNoInteractions(transactionRepository);
+            assertEquals(1, report.skippedBatches());
+            assertEquals(0, report.batches());
+            assertTrue(report.complete());
+        }
+
+        @Test
+        @DisplayName("Should resume after the last committed chunk when a run fails part way")
+        void shouldResumeAfterFailure() {
+            // Arrange
+            when(mainInventoryRepository.findExpiredStock(TODAY, 0, 2))
+                    .thenReturn(List.of(stock(1, 10, 0, 0), stock(2, 10, 0, 0)));
+            when(mainInventoryRepository.findExpiredStock(TODAY, 2, 2))
+                    .thenThrow(new RepositoryException("Connection lost"))
+                    .thenReturn(List.of());
+            assertThrows(RepositoryException.class, () -> writeOffService.writeOff(false));
+            assertFalse(writeOffService.getLastReport().orElseThrow().complete());
+
+            // Act
+            WriteOffReport report = writeOffService.writeOff(false);
+
+            // Assert
+            verify(mainInventoryRepository, times(1)).findExpiredStock(TODAY, 0, 2);
+            assertTrue(report.complete());
+            assertEquals(0, report.chunks());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.syos.service;
+
+import com.syos.domain.models.Bill;
+import com.syos.service.impl.InProgressBillStore;
+import com.syos.service.interfaces.BillingService.InProgressStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InProgressBillStore.
+ */
+class InProgressBillStoreTest {
+
+    private AdjustableClock clock;
+    private InProgressBillStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AdjustableClock(Instant.parse("2026-01-15T09:00:00Z"));
+        store = new InProgressBillStore(3, Duration.ofMinutes(30), clock);
+    }
+
+    private Bill bill(int billId) {
+        Bill bill = new Bill();
+        bill.setBillId(billId);
+        return bill;
+    }
+
+    @Nested
+    @DisplayName("Lookup tests")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should count hits and misses")
+        void shouldCountHitsAndMisses() {
+            // Arrange
+            store.put(bill(1));
+
+            // Act
+            Bill found = store.get(1);
+            Bill missing = store.get(2);
+
+            // Assert
+            assertNotNull(found);
+            assertNull(missing);
+            InProgressStats stats = store.stats();
+            assertEquals(1, stats.hits());
+            assertEquals(1, stats.misses());
+        }
+
+        @Test
+        @DisplayName("Should return removed bill once")
+        void shouldRemoveBill() {
+            // Arrange
+            store.put(bill(1));
+
+            // Act & Assert
+            assertNotNull(store.remove(1));
+            assertNull(store.remove(1));
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Eviction tests")
+    class EvictionTests {
+
+        @Test
+        @DisplayName("Should evict the least recently used bill when full")
+        void shouldEvictLeastRecentlyUsed() {
+            // Arrange
+            store.put(bill(1));
+            store.put(bill(2));
+            store.put(bill(3));
+            store.get(1);
+
+            // Act
+            store.put(bill(4));
+
+            // Assert
+            assertNotNull(store.get(1));
+            assertNull(store.get(2));
+            assertEquals(3, store.size());
+            assertEquals(1, store.stats().evictions());
+        }
+
+        @Test
+        @DisplayName("Should not evict when replacing a held bill")
+        void shouldNotEvictOnReplace() {
+            // Arrange
+            store.put(bill(1));
+            store.put(bill(2));
+            store.put(bill(3));
+
+            // Act
+            store.put(bill(2));
+
+            // Assert
+            assertEquals(3, store.size());
+            assertEquals(0, store.stats().evictions());
+        }
+    }
+
+    @Nested
+    @DisplayName("Expiry tests")
+    class ExpiryTests {
+
+        @Test
+        @DisplayName("Should hand back only bills idle past the TTL")
+        void shouldRemoveIdleBills() {
+            // Arrange
+            store.put(bill(1));
+            store.put(bill(2));
+            clock.advance(Duration.ofMinutes(20));
+            store.get(2);
+            clock.advance(Duration.ofMinutes(15));
+
+            // Act
+            List<Bill> expired = store.removeExpired();
+
+            // Assert
+            assertEquals(1, expired.size());
+            assertEquals(1, expired.get(0).getBillId());
+            assertNotNull(store.get(2));
+            assertEquals(1, store.stats().expirations());
+        }
+
+        @Test
+        @DisplayName("Should reject a non-positive TTL")
+        void shouldRejectNonPositiveTtl() {
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class,
+                    () -> new InProgressBillStore(10, Duration.ZERO, clock));
+        }
+    }
+
+    /**
+     * Clock that only moves when a test advances it.
+     */
+    private static final class AdjustableClock extends Clock {
+        private Instant now;
+
+        AdjustableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.syos.service;
+
+import com.syos.exception.BusinessRuleException;
+import com.syos.exception.ValidationException;
+import com.syos.repository.interfaces.InventoryLedgerRepository;
+import com.syos.repository.interfaces.InventoryLedgerRepository.BatchStockLevel;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.impl.InventoryHistoryServiceImpl;
+import com.syos.service.interfaces.InventoryHistoryService.ArchiveReport;
+import com.syos.service.interfaces.InventoryHistoryService.StockAsOf;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for InventoryHistoryServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryHistoryServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 10, 14, 0);
+    private static final LocalDateTime TODAY = NOW.toLocalDate().atStartOfDay();
+
+    @Mock
+    private InventoryLedgerRepository ledgerRepository;
+
+    private InventoryHistoryServiceImpl historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = service(NOW);
+    }
+
+    private InventoryHistoryServiceImpl service(LocalDateTime now) {
+        Clock clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new InventoryHistoryServiceImpl(ledgerRepository, UnitOfWork.AUTO_COMMIT, 12, 100, clock);
+    }
+
+    @Nested
+    @DisplayName("getStockAsOf tests")
+    class GetStockAsOfTests {
+
+        @Test
+        @DisplayName("Should replay the ledger from the nearest snapshot and total the batches")
+        void shouldRebuildFromNearestSnapshot() {
+            // Arrange
+            LocalDateTime asOf = TODAY.minusDays(3).plusHours(17);
+            LocalDateTime snapshotAt = asOf.toLocalDate().atStartOfDay();
+            when(ledgerRepository.findSnapshotAtOrBefore(asOf)).thenReturn(Optional.of(snapshotAt));
+            when(ledgerRepository.findStockAsOf(snapshotAt, asOf, "P1")).thenReturn(List.of(
+                    new BatchStockLevel(1, "P1", 40, 10, 5),
+                    new BatchStockLevel(2, "P1", 60, 0, 2)));
+
+            // Act
+            StockAsOf stock = historyService.getStockAsOf(asOf, " P1 ");
+
+            // Assert
+            assertEquals(snapshotAt, stock.snapshotAt());
+            assertEquals(2, stock.batches().size());
+            assertEquals(100, stock.mainQuantity());
+            assertEquals(10, stock.physicalQuantity());
+            assertEquals(7, stock.onlineQuantity());
+        }
+
+        @Test
+        @DisplayName("Should reject a missing or future timestamp")
+        void shouldRejectInvalidTimestamp() {
+            // Act & Assert
+            assertThrows(ValidationException.class, () -> historyService.getStockAsOf(null, null));
+            assertThrows(ValidationException.class, () -> historyService.getStockAsOf(NOW.plusMinutes(1), null));
+            verifyNoInteractions(ledgerRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("takeSnapshot tests")
+    class TakeSnapshotTests {
+
+        @Test
+        @DisplayName("Should take today's snapshot from the previous one")
+        void shouldTakeSnapshot() {
+            // Arrange
+            LocalDateTime previous = TODAY.minusDays(1);
+            when(ledgerRepository.findSnapshotAtOrBefore(NOW)).thenReturn(Optional.of(previous));
+
+            // Act
+            Optional<LocalDateTime> taken = historyService.takeSnapshot();
+
+            // Assert
+            assertEquals(Optional.of(TODAY), taken);
+            verify(ledgerRepository).createSnapshot(previous, TODAY);
+        }
+
+        @Test
+        @DisplayName("Should not take a snapshot twice in a day")
+        void shouldSkipExistingSnapshot() {
+            // Arrange
+            when(ledgerRepository.findSnapshotAtOrBefore(NOW)).thenReturn(Optional.of(TODAY));
+
+            // Act
+            Optional<LocalDateTime> taken = historyService.takeSnapshot();
+
+            // Assert
+            assertTrue(taken.isEmpty());
+            verify(ledgerRepository, never()).createSnapshot(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should still take yesterday's snapshot just after midnight")
+        void shouldTakeYesterdaysSnapshotJustAfterMidnight() {
+            // Arrange
+            LocalDateTime justAfterMidnight = TODAY.plusMinutes(5);
+            when(ledgerRepository.findSnapshotAtOrBefore(justAfterMidnight)).thenReturn(Optional.empty());
+
+            // Act
+            Optional<LocalDateTime> taken = service(justAfterMidnight).takeSnapshot();
+
+            // Assert
+            assertEquals(Optional.of(TODAY.minusDays(1)), taken);
+            verify(ledgerRepository).createSnapshot(null, TODAY.minusDays(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("archiveLedger tests")
+    class ArchiveLedgerTests {
+
+        @Test
+        @DisplayName("Should archive rows past retention in chunks and prune old snapshots")
+        void shouldArchiveInChunks() {
+            // Arrange
+            LocalDateTime retentionCutoff = LocalDateTime.of(2025, 3, 1, 0, 0);
+            when(ledgerRepository.findSnapshotAtOrBefore(NOW)).thenReturn(Optional.of(TODAY));
+            when(ledgerRepository.archiveLedgerRows(retentionCutoff, 100)).thenReturn(100, 100, 30);
+            when(ledgerRepository.pruneSnapshots(retentionCutoff)).thenReturn(400);
+
+            // Act
+            ArchiveReport report = historyService.archiveLedger();
+
+            // Assert
+            assertEquals(new ArchiveReport(retentionCutoff, 230, 400), report);
+            verify(ledgerRepository).ensureArchivePartition(YearMonth.of(2025, 2));
+            verify(ledgerRepository, times(3)).archiveLedgerRows(retentionCutoff, 100);
+        }
+
+        @Test
+        @DisplayName("Should not archive past the latest snapshot")
+        void shouldStopAtLatestSnapshot() {
+            // Arrange
+            LocalDateTime latest = LocalDateTime.of(2025, 1, 20, 0, 0);
+            when(ledgerRepository.findSnapshotAtOrBefore(NOW)).thenReturn(Optional.of(latest));
+
+            // Act
+            ArchiveReport report = historyService.archiveLedger();
+
+            // Assert
+            assertEquals(latest, report.cutoff());
+            verify(ledgerRepository).archiveLedgerRows(latest, 100);
+            verify(ledgerRepository).pruneSnapshots(latest);
+        }
+
+        @Test
+        @DisplayName("Should archive nothing before the first snapshot")
+        void shouldNotArchiveWithoutSnapshot() {
+            // Arrange
+            when(ledgerRepository.findSnapshotAtOrBefore(NOW)).thenReturn(Optional.empty());
+
+            // Act
+            ArchiveReport report = historyService.archiveLedger();
+
+            // Assert
+            assertEquals(0, report.rowsArchived());
+            verify(ledgerRepository, never()).archiveLedgerRows(any(), anyInt());
+            verify(ledgerRepository, never()).pruneSnapshots(any());
+        }
+
+        @Test
+        @DisplayName("Should refuse to archive while another run is in progress")
+        void shouldRejectConcurrentRun() throws Exception {
+            // Arrange
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(ledgerRepository.findSnapshotAtOrBefore(NOW)).thenAnswer(invocation -> {
+                started.countDown();
+                release.await();
+                return Optional.empty();
+            });
+            Thread first = new Thread(historyService::archiveLedger);
+            first.start();
+            started.await();
+
+            // Act & Assert
+            try {
+                assertThrows(BusinessRuleException.class, () -> historyService.archiveLedger());
+            } finally {
+                release.countDown();
+                first.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.syos.service;
+
+import com.syos.domain.enums.InventoryTransactionType;
+import com.syos.domain.enums.StoreType;
+import com.syos.exception.BusinessRuleException;
+import com.syos.repository.interfaces.InventoryReconciliationRepository;
+import com.syos.repository.interfaces.InventoryReconciliationRepository.BatchDiscrepancy;
+import com.syos.repository.interfaces.InventoryReconciliationRepository.PartitionReader;
+import com.syos.repository.interfaces.InventoryReconciliationRepository.StockLocation;
+import com.syos.service.impl.InventoryReconciliationServiceImpl;
+import com.syos.service.interfaces.InventoryReconciliationService.ReconciliationReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for InventoryReconciliationServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryReconciliationServiceImplTest {
+
+    @Mock
+    private InventoryReconciliationRepository reconciliationRepository;
+
+    private ForkJoinPool pool;
+    private InventoryReconciliationServiceImpl reconciliationService;
+    private final Map<String, Consumer<PartitionReader>> productRows = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        reconciliationService = new InventoryReconciliationServiceImpl(reconciliationRepository, pool, 1);
+
+        // Each partition replays the rows of the products in its code range
+        doAnswer(invocation -> {
+            String first = invocation.getArgument(0);
+            String last = invocation.getArgument(1);
+            PartitionReader reader = invocation.getArgument(2);
+            productRows.forEach((code, rows) -> {
+                if (code.compareTo(first) >= 0 && code.compareTo(last) <= 0) {
+                    rows.accept(reader);
+                }
+            });
+            return null;
+        }).when(reconciliationRepository).readPartition(anyString(), anyString(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private void product(String productCode, Consumer<PartitionReader> rows) {
+        productRows.put(productCode, rows);
+        when(reconciliationRepository.findProductCodes()).thenReturn(productRows.keySet().stream().sorted().toList());
+    }
+
+    @Nested
+    @DisplayName("reconcile tests")
+    class ReconcileTests {
+
+        @Test
+        @DisplayName("Should find no discrepancies when quantities match the ledger")
+        void shouldMatchLedger() {
+            // Arrange
+            product("P1", reader -> {
+                reader.batch(1, "P1", 100, 60);
+                reader.shelf(StoreType.PHYSICAL, 1, 25);
+                reader.shelf(StoreType.ONLINE, 1, 10);
+                reader.ledger(1, InventoryTransactionType.PURCHASE, null, 100);
+                reader.ledger(1, InventoryTransactionType.RESTOCK_PHYSICAL, StoreType.PHYSICAL, 30);
+                reader.ledger(1, InventoryTransactionType.RESTOCK_ONLINE, StoreType.ONLINE, 10);
+                reader.ledger(1, InventoryTransactionType.SALE, StoreType.PHYSICAL, -5);
+            });
+
+            // Act
+            ReconciliationReport report = reconciliationService.reconcile();
+
+            // Assert
+            assertTrue(report.discrepancies().isEmpty());
+            assertEquals(1, report.batchesChecked());
+            assertEquals(4, report.ledgerRows());
+            verify(reconciliationRepository, never()).saveDiscrepancies(any(), anyList());
+        }
+
+        @Test
+        @DisplayName("Should count write-offs against main inventory and the shelf")
+        void shouldCountWriteOffs() {
+            // Arrange
+            product("P1", reader -> {
+                reader.batch(1, "P1", 50, 0);
+                reader.shelf(StoreType.PHYSICAL, 1, 0);
+                reader.ledger(1, InventoryTransactionType.RESTOCK_PHYSICAL, StoreType.PHYSICAL, 20);
+                reader.ledger(1, InventoryTransactionType.EXPIRED, null, -30);
+                reader.ledger(1, InventoryTransactionType.EXPIRED, StoreType.PHYSICAL, -20);
+            });
+
+            // Act
+            ReconciliationReport report = reconciliationService.reconcile();
+
+            // Assert
+            assertTrue(report.discrepancies().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should report and save every batch location that drifted from the ledger")
+        void shouldReportDrift() {
+            // Arrange
+            product("P1", reader -> {
+                reader.batch(1, "P1", 100, 60);
+                reader.shelf(StoreType.ONLINE, 1, 4);
+                reader.ledger(1, InventoryTransactionType.RESTOCK_PHYSICAL, StoreType.PHYSICAL, 30);
+                reader.ledger(null, InventoryTransactionType.ADJUSTMENT, null, 2);
+            });
+
+            // Act
+            ReconciliationReport report = reconciliationService.reconcile();
+
+            // Assert
+            List<BatchDiscrepancy> expected = List.of(
+                    new BatchDiscrepancy(1, "P1", StockLocation.MAIN, 70, 60),
+                    new BatchDiscrepancy(1, "P1", StockLocation.PHYSICAL, 30, 0),
+                    new BatchDiscrepancy(1, "P1", StockLocation.ONLINE, 0, 4));
+            assertEquals(expected, report.discrepancies());
+            assertEquals(1, report.unbatchedLedgerRows());
+            verify(reconciliationRepository).saveDiscrepancies(report.startedAt(), expected);
+        }
+
+        @Test
+        @DisplayName("Should read products in separate partitions and merge the results")
+        void shouldMergePartitions() {
+            // Arrange
+            product("P1", reader -> reader.batch(1, "P1", 10, 10));
+            product("P2", reader -> reader.batch(2, "P2", 10, 9));
+            product("P3", reader -> {
+                reader.batch(3, "P3", 10, 10);
+                reader.batch(4, "P3", 5, 5);
+            });
+
+            // Act
+            ReconciliationReport report = reconciliationService.reconcile();
+
+            // Assert
+            assertEquals(3, report.partitions());
+            assertEquals(3, report.productsChecked());
+            assertEquals(4, report.batchesChecked());
+            assertEquals(List.of(new BatchDiscrepancy(2, "P2", StockLocation.MAIN, 10, 9)), report.discrepancies());
+            verify(reconciliationRepository).readPartition(eq("P2"), eq("P2"), any());
+            assertEquals(report, reconciliationService.getLastReport().orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should refuse to start while another run is in progress")
+        void shouldRejectConcurrentRun() {
+            // Arrange
+            BusinessRuleException[] rejected = new BusinessRuleException[1];
+            product("P1", reader -> {
+                reader.batch(1, "P1", 10, 10);
+                rejected[0] = assertThrows(BusinessRuleException.class, () -> reconciliationService.reconcile());
+            });
+
+            // Act
+            reconciliationService.reconcile();
+
+            // Assert
+            assertNotNull(rejected[0]);
+            assertFalse(reconciliationService.isRunning());
+        }
+    }
+}
@@ -43,7 +43,7 @@ class InventoryServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        inventoryService = new InventoryServiceImpl(mainInventoryRepository, productRepository);
+        inventoryService = new InventoryServiceImpl(mainInventoryRepository, productRepository, null, null);
     }
 
     private MainInventory createTestBatch(String productCode, int quantity, LocalDate expiryDate) {
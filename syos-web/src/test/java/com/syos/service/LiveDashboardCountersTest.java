@@ -0,0 +1,201 @@
+package com.syos.service;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.enums.TransactionType;
+import com.syos.domain.models.Bill;
+import com.syos.domain.models.BillItem;
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.StoreStockLevel;
+import com.syos.repository.interfaces.SalesRollupRepository;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSale;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSales;
+import com.syos.repository.interfaces.SalesRollupRepository.HourlySales;
+import com.syos.service.impl.LiveDashboardCounters;
+import com.syos.service.impl.LiveDashboardCounters.DashboardCounts;
+import com.syos.service.impl.LiveDashboardCounters.StoreCounts;
+import com.syos.service.impl.StoreStockSummaryMirror;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LiveDashboardCounters.
+ */
+@ExtendWith(MockitoExtension.class)
+class LiveDashboardCountersTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private StoreStockSummaryMirror stockSummaryMirror;
+
+    private AdjustableClock clock;
+    private LiveDashboardCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AdjustableClock(TODAY.atTime(9, 0).toInstant(ZoneOffset.UTC));
+        counters = new LiveDashboardCounters(salesRollupRepository, stockSummaryMirror, 10, clock);
+    }
+
+    private static BillSale sale(StoreType storeType, LocalDateTime billDate, String total, int... quantities) {
+        Bill bill = new Bill();
+        bill.setStoreType(storeType);
+        bill.setBillDate(billDate);
+        bill.setTotalAmount(new Money(new BigDecimal(total)));
+        List<BillItem> items = new ArrayList<>();
+        for (int quantity : quantities) {
+            BillItem item = new BillItem();
+            item.setQuantity(quantity);
+            items.add(item);
+        }
+        return new BillSale(bill, items);
+    }
+
+    private static StoreCounts store(DashboardCounts counts, StoreType storeType) {
+        return counts.stores().stream().filter(s -> s.storeType() == storeType).findFirst().orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Should count today's bills per store and leave out earlier days")
+    void shouldCountTodaysBills() {
+        // Arrange
+        List<String> notified = new ArrayList<>();
+        counters.addListener(() -> notified.add("changed"));
+        when(stockSummaryMirror.getLowStock(StoreType.PHYSICAL, 10))
+                .thenReturn(List.of(new StoreStockLevel("P1", "Milk", 2, 1, null, true)));
+
+        // Act
+        counters.recordSales(List.of(
+                sale(StoreType.PHYSICAL, TODAY.atTime(8, 30), "12.50", 2, 1),
+                sale(StoreType.ONLINE, TODAY.atTime(8, 45), "7.25", 4),
+                sale(StoreType.PHYSICAL, TODAY.minusDays(1).atTime(23, 59), "99.00", 9)));
+        counters.recordSales(List.of(sale(StoreType.PHYSICAL, TODAY.atTime(9, 0), "0.25", 1)));
+        DashboardCounts counts = counters.snapshot();
+
+        // Assert
+        assertEquals(TODAY, counts.date());
+        assertEquals(new BigDecimal("20.00"), counts.revenue());
+        assertEquals(3, counts.billCount());
+        assertEquals(8, counts.itemsSold());
+        assertEquals(1, counts.lowStockCount());
+        assertEquals(new StoreCounts(StoreType.PHYSICAL, new BigDecimal("12.75"), 2, 4),
+                store(counts, StoreType.PHYSICAL));
+        assertEquals(List.of("changed", "changed"), notified);
+    }
+
+    @Test
+    @DisplayName("Should start again from zero when the date changes")
+    void shouldResetAtMidnight() {
+        // Arrange
+        counters.recordSales(List.of(sale(StoreType.PHYSICAL, TODAY.atTime(22, 0), "30.00", 3)));
+
+        // Act
+        clock.advance(Duration.ofHours(15));
+        DashboardCounts afterMidnight = counters.snapshot();
+        counters.recordSales(List.of(sale(StoreType.ONLINE, TODAY.plusDays(1).atTime(0, 5), "4.00", 1)));
+
+        // Assert
+        assertEquals(TODAY.plusDays(1), afterMidnight.date());
+        assertEquals(0, afterMidnight.billCount());
+        assertEquals(BigDecimal.ZERO.setScale(2), afterMidnight.revenue());
+        assertEquals(1, counters.snapshot().billCount());
+    }
+
+    @Test
+    @DisplayName("Should load today's counts from the finalized bills")
+    void shouldLoadTodayFromBills() {
+        // Arrange
+        when(salesRollupRepository.findLiveBillSales(TODAY)).thenReturn(List.of(
+                new BillSales(TODAY, StoreType.PHYSICAL, TransactionType.CASH, 3, new BigDecimal("30.00")),
+                new BillSales(TODAY, StoreType.PHYSICAL, TransactionType.ONLINE, 1, new BigDecimal("5.50"))));
+        when(salesRollupRepository.findLiveHourlySales(TODAY)).thenReturn(List.of(
+                new HourlySales(8, StoreType.PHYSICAL, 6, new BigDecimal("20.00")),
+                new HourlySales(9, StoreType.PHYSICAL, 4, new BigDecimal("15.50"))));
+
+        // Act
+        counters.load();
+        counters.recordSales(List.of(sale(StoreType.PHYSICAL, TODAY.atTime(9, 0), "1.00", 1)));
+
+        // Assert
+        assertEquals(new StoreCounts(StoreType.PHYSICAL, new BigDecimal("36.50"), 5, 11),
+                store(counters.snapshot(), StoreType.PHYSICAL));
+    }
+
+    @Test
+    @DisplayName("Should not lose counts from concurrent checkouts")
+    void shouldCountConcurrentSales() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        try {
+            for (int i = 0; i < 1000; i++) {
+                executor.execute(() -> counters.recordSales(
+                        List.of(sale(StoreType.PHYSICAL, TODAY.atTime(9, 0), "1.10", 2))));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        DashboardCounts counts = counters.snapshot();
+        assertEquals(1000, counts.billCount());
+        assertEquals(2000, counts.itemsSold());
+        assertEquals(new BigDecimal("1100.00"), counts.revenue());
+    }
+
+    /**
+     * Clock that only moves when a test advances it.
+     */
+    private static final class AdjustableClock extends Clock {
+        private volatile Instant now;
+
+        AdjustableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.syos.service;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.enums.TransactionType;
+import com.syos.exception.RepositoryException;
+import com.syos.service.impl.CheckoutJournal;
+import com.syos.service.impl.OfflineCheckoutServiceImpl;
+import com.syos.service.interfaces.BillingService;
+import com.syos.service.interfaces.BillingService.CheckoutRequest;
+import com.syos.service.interfaces.BillingService.CheckoutResult;
+import com.syos.service.interfaces.BillingService.ItemRequest;
+import com.syos.service.interfaces.OfflineCheckoutService.CheckoutOutcome;
+import com.syos.service.interfaces.OfflineCheckoutService.ReplayConflict;
+import com.syos.service.interfaces.OfflineCheckoutService.ReplayReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OfflineCheckoutServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class OfflineCheckoutServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BillingService billingService;
+
+    private CheckoutJournal journal;
+    private OfflineCheckoutServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = new CheckoutJournal(tempDir.resolve("checkout-journal.log"));
+        Clock clock = Clock.fixed(Instant.parse("2026-01-15T09:30:00Z"), ZoneOffset.UTC);
+        service = new OfflineCheckoutServiceImpl(billingService, journal, clock);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    private CheckoutRequest request(String productCode, int quantity) {
+        return new CheckoutRequest(StoreType.PHYSICAL, TransactionType.CASH, null, "cashier-1",
+                List.of(new ItemRequest(productCode, quantity)), BigDecimal.ZERO, new BigDecimal("500.00"));
+    }
+
+    private CheckoutResult success(int billId) {
+        return CheckoutResult.success(billId, "BILL-" + billId, BigDecimal.TEN, BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.ZERO,
+                LocalDateTime.of(2026, 1, 15, 10, 0), List.of());
+    }
+
+    private RepositoryException connectionFailure() {
+        return new RepositoryException("Failed to find stock",
+                new SQLTransientConnectionException("Connection is not available, request timed out"));
+    }
+
+    @Nested
+    @DisplayName("Checkout tests")
+    class CheckoutTests {
+
+        @Test
+        @DisplayName("Should check out directly while the database is up")
+        void shouldCheckoutOnline() {
+            // Arrange
+            CheckoutRequest request = request("P001", 1);
+            when(billingService.checkout(request, "key-1")).thenReturn(success(1));
+
+            // Act
+            CheckoutOutcome outcome = service.checkout(request, "key-1");
+
+            // Assert
+            assertFalse(outcome.isProvisional());
+            assertEquals(1, outcome.result().billId());
+            assertEquals(0, service.getPendingCount());
+        }
+
+        @Test
+        @DisplayName("Should journal and return a provisional receipt when the database is unreachable")
+        void shouldJournalWhenDatabaseUnavailable() {
+            // Arrange
+            CheckoutRequest request = request("P001", 1);
+            when(billingService.checkout(request, "key-1")).thenThrow(connectionFailure());
+
+            // Act
+            CheckoutOutcome outcome = service.checkout(request, "key-1");
+
+            // Assert
+            assertTrue(outcome.isProvisional());
+            assertEquals("OFF-260115-093000-1", outcome.provisionalNumber());
+            assertTrue(service.isOffline());
+            assertEquals(1, service.getPendingCount());
+        }
+
+        @Test
+        @DisplayName("Should journal later checkouts without trying the database")
+        void shouldQueueBehindPendingEntries() {
+            // Arrange
+            when(billingService.checkout(any(CheckoutRequest.class), any())).thenThrow(connectionFailure());
+            service.checkout(request("P001", 1), null);
+
+            // Act
+            CheckoutOutcome outcome = service.checkout(request("P002", 1), null);
+
+            // Assert
+            assertTrue(outcome.isProvisional());
+            assertEquals(2, service.getPendingCount());
+            verify(billingService, times(1)).checkout(any(CheckoutRequest.class), any());
+            assertTrue(journal.readAll().get(1).idempotencyKey().startsWith("offline-"));
+        }
+
+        @Test
+        @DisplayName("Should rethrow repository failures that are not connection failures")
+        void shouldRethrowOtherFailures() {
+            // Arrange
+            CheckoutRequest request = request("P001", 1);
+            when(billingService.checkout(request, null)).thenThrow(new RepositoryException("Constraint violated"));
+
+            // Act & Assert
+            assertThrows(RepositoryException.class, () -> service.checkout(request, null));
+            assertFalse(service.isOffline());
+            assertEquals(0, service.getPendingCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Replay tests")
+    class ReplayTests {
+
+        @Test
+        @DisplayName("Should replay journaled checkouts in order with their keys")
+        void shouldReplayInOrder() {
+            // Arrange
+            CheckoutRequest first = request("P001", 1);
+            CheckoutRequest second = request("P002", 3);
+            when(billingService.checkout(first, "key-1")).thenThrow(connectionFailure()).thenReturn(success(1));
+            service.checkout(first, "key-1");
+            service.checkout(second, "key-2");
+            when(billingService.checkout(second, "key-2")).thenReturn(success(2));
+
+            // Act
+            ReplayReport report = service.replay();
+
+            // Assert
+            assertEquals(new ReplayReport(2, 0, 0, false), report);
+            assertFalse(service.isOffline());
+            InOrder inOrder = inOrder(billingService);
+            inOrder.verify(billingService, times(2)).checkout(first, "key-1");
+            inOrder.verify(billingService).checkout(second, "key-2");
+        }
+
+        @Test
+        @DisplayName("Should report a stock shortfall as a conflict and move on")
+        void shouldReportConflicts() throws IOException {
+            // Arrange
+            CheckoutRequest first = request("P001", 5);
+            CheckoutRequest second = request("P002", 1);
+            when(billingService.checkout(first, "key-1"))
+                    .thenThrow(connectionFailure())
+                    .thenReturn(CheckoutResult.failure("Insufficient stock for P001: requested 5, available 2"));
+            service.checkout(first, "key-1");
+            service.checkout(second, "key-2");
+            when(billingService.checkout(second, "key-2")).thenReturn(success(2));
+
+            // Act
+            ReplayReport report = service.replay();
+
+            // Assert
+            assertEquals(new ReplayReport(1, 1, 0, false), report);
+            List<ReplayConflict> conflicts = service.getConflicts();
+            assertEquals(1, conflicts.size());
+            assertEquals("OFF-260115-093000-1", conflicts.get(0).provisionalNumber());
+            assertEquals("key-1", conflicts.get(0).idempotencyKey());
+            assertEquals(List.of("Insufficient stock for P001: requested 5, available 2"), conflicts.get(0).errors());
+            assertEquals(first.items(), conflicts.get(0).items());
+            assertEquals(1, Files.readAllLines(tempDir.resolve("checkout-journal.log.conflicts")).size());
+        }
+
+        @Test
+        @DisplayName("Should stop and keep the rest when the database drops again")
+        void shouldPauseWhenStillOffline() {
+            // Arrange
+            CheckoutRequest first = request("P001", 1);
+            CheckoutRequest second = request("P002", 1);
+            when(billingService.checkout(first, "key-1")).thenThrow(connectionFailure()).thenReturn(success(1));
+            service.checkout(first, "key-1");
+            service.checkout(second, "key-2");
+            when(billingService.checkout(second, "key-2")).thenThrow(connectionFailure());
+
+            // Act
+            ReplayReport report = service.replay();
+
+            // Assert
+            assertEquals(new ReplayReport(1, 0, 1, true), report);
+            assertTrue(service.isOffline());
+            assertEquals("key-2", journal.readAll().get(0).idempotencyKey());
+        }
+
+        @Test
+        @DisplayName("Should resume offline mode for entries left from before a restart")
+        void shouldResumeOfflineAfterRestart() {
+            // Arrange
+            journal.append("key-1", request("P001", 1), LocalDateTime.of(2026, 1, 15, 9, 0));
+
+            // Act
+            OfflineCheckoutServiceImpl restarted = new OfflineCheckoutServiceImpl(billingService, journal);
+
+            // Assert
+            assertTrue(restarted.isOffline());
+            assertEquals(1, restarted.getPendingCount());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.syos.service;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.service.impl.ProductStockLocks;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductStockLocks.
+ */
+class ProductStockLocksTest {
+
+    @Test
+    @DisplayName("Should round the stripe count up to a power of two")
+    void shouldRoundStripeCount() {
+        assertEquals(64, new ProductStockLocks(50).getStripeCount());
+        assertEquals(1, new ProductStockLocks(1).getStripeCount());
+        assertThrows(IllegalArgumentException.class, () -> new ProductStockLocks(0));
+    }
+
+    @Test
+    @DisplayName("Should block a second sale of the same product until the first releases it")
+    void shouldSerializeSameProduct() throws Exception {
+        ProductStockLocks locks = new ProductStockLocks(16);
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        CompletableFuture<Void> second;
+        try (ProductStockLocks.Held held = locks.lockAll(StoreType.PHYSICAL, List.of("P1", "P2"))) {
+            second = CompletableFuture.runAsync(() -> {
+                try (ProductStockLocks.Held other = locks.lockAll(StoreType.PHYSICAL, List.of("P2"))) {
+                    acquired.countDown();
+                }
+            });
+            assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        }
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should allow the same thread to lock overlapping products and release them all")
+    void shouldAllowDuplicateCodes() throws Exception {
+        ProductStockLocks locks = new ProductStockLocks(4);
+
+        try (ProductStockLocks.Held held = locks.lockAll(StoreType.ONLINE, List.of("P1", "P1", "P2"))) {
+            assertNotNull(held);
+        }
+
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> {
+            try (ProductStockLocks.Held held = locks.lockAll(StoreType.ONLINE, List.of("P1", "P2"))) {
+                return true;
+            }
+        });
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+    }
+}
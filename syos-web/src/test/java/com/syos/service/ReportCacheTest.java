@@ -0,0 +1,174 @@
+package com.syos.service;
+
+import com.syos.service.impl.ReportCache;
+import com.syos.service.impl.ReportCache.ReportStats;
+import com.syos.service.impl.ReportCache.ReportType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReportCache.
+ */
+class ReportCacheTest {
+
+    private AdjustableClock clock;
+    private ReportCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AdjustableClock(Instant.parse("2026-01-15T09:00:00Z"));
+        cache = new ReportCache(Map.of(ReportType.DASHBOARD, Duration.ofSeconds(30)), 100, clock);
+    }
+
+    private ReportStats stats(ReportType type) {
+        return cache.getStats().stream().filter(s -> s.type() == type).findFirst().orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Should serve a report until its own TTL runs out")
+    void shouldExpireByReportTtl() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(ReportType.DASHBOARD, loads::incrementAndGet);
+        cache.get(ReportType.DAILY_SALES, List.of("2026-01-15"), loads::incrementAndGet);
+
+        // Act
+        clock.advance(Duration.ofSeconds(29));
+        int cachedDashboard = cache.get(ReportType.DASHBOARD, loads::incrementAndGet);
+        clock.advance(Duration.ofSeconds(1));
+        int reloadedDashboard = cache.get(ReportType.DASHBOARD, loads::incrementAndGet);
+        int cachedSales = cache.get(ReportType.DAILY_SALES, List.of("2026-01-15"), loads::incrementAndGet);
+
+        // Assert
+        assertEquals(1, cachedDashboard);
+        assertEquals(3, reloadedDashboard);
+        assertEquals(2, cachedSales);
+        assertEquals(1, stats(ReportType.DASHBOARD).hits());
+        assertEquals(2, stats(ReportType.DASHBOARD).misses());
+        assertEquals(0.5, stats(ReportType.DAILY_SALES).hitRate());
+    }
+
+    @Test
+    @DisplayName("Should drop only the reports computed from the changed data")
+    void shouldInvalidateBySource() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(ReportType.DASHBOARD, loads::incrementAndGet);
+        cache.get(ReportType.TOP_PRODUCTS, List.of(7), loads::incrementAndGet);
+        cache.get(ReportType.STOCK_LEVELS, loads::incrementAndGet);
+
+        // Act
+        cache.salesChanged();
+
+        // Assert
+        assertEquals(1, cache.size());
+        assertEquals(3, (int) cache.get(ReportType.STOCK_LEVELS, loads::incrementAndGet));
+        assertEquals(4, (int) cache.get(ReportType.DASHBOARD, loads::incrementAndGet));
+        assertEquals(1, stats(ReportType.TOP_PRODUCTS).invalidations());
+    }
+
+    @Test
+    @DisplayName("Should load a report once for concurrent misses")
+    void shouldLoadOnceForConcurrentMisses() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // Act
+            Future<Integer> first = executor.submit(() -> cache.get(ReportType.DASHBOARD, () -> {
+                loading.countDown();
+                await(release);
+                return loads.incrementAndGet();
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            List<Future<Integer>> waiters = List.of(
+                    executor.submit(() -> cache.get(ReportType.DASHBOARD, loads::incrementAndGet)),
+                    executor.submit(() -> cache.get(ReportType.DASHBOARD, loads::incrementAndGet)));
+            Thread.sleep(50);
+            release.countDown();
+
+            // Assert
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            for (Future<Integer> waiter : waiters) {
+                assertEquals(1, waiter.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, stats(ReportType.DASHBOARD).misses());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not cache a failed load")
+    void shouldNotCacheFailures() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> cache.get(ReportType.BATCH_STOCK, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        String report = cache.get(ReportType.BATCH_STOCK, () -> "loaded");
+
+        // Assert
+        assertEquals("loaded", report);
+        assertEquals(1, stats(ReportType.BATCH_STOCK).loadFailures());
+        assertEquals(2, stats(ReportType.BATCH_STOCK).misses());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Clock that only moves when a test advances it.
+     */
+    private static final class AdjustableClock extends Clock {
+        private volatile Instant now;
+
+        AdjustableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package com.syos.service;
 
 import com.syos.domain.enums.StoreType;
+import com.syos.domain.enums.TransactionType;
 import com.syos.domain.models.Bill;
 import com.syos.domain.models.BillItem;
 import com.syos.domain.models.MainInventory;
 import com.syos.domain.models.PhysicalStoreInventory;
 import com.syos.domain.models.OnlineStoreInventory;
-import com.syos.domain.models.Product;
 import com.syos.service.interfaces.ReportService.SalesSummary;
 import com.syos.service.interfaces.ReportService.BillReport;
 import com.syos.service.interfaces.ReportService.RestockRecommendation;
 import com.syos.domain.valueobjects.BillSerialNumber;
 import com.syos.domain.valueobjects.Money;
 import com.syos.domain.valueobjects.ProductCode;
+import com.syos.domain.valueobjects.StoreStockLevel;
 import com.syos.repository.interfaces.*;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSales;
+import com.syos.repository.interfaces.SalesRollupRepository.HourlySales;
+import com.syos.repository.interfaces.SalesRollupRepository.ProductSales;
+import com.syos.service.impl.BatchExpiryScheduler;
+import com.syos.service.impl.LiveDashboardCounters;
+import com.syos.service.impl.LiveDashboardCounters.DashboardCounts;
 import com.syos.service.impl.ReportServiceImpl;
 import com.syos.service.interfaces.ReportService.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -58,7 +65,7 @@ class ReportServiceImplTest {
     private OnlineStoreInventoryRepository onlineStoreRepository;
 
     @Mock
-    private ProductRepository productRepository;
+    private ReportQueryRepository reportQueryRepository;
 
     private ReportServiceImpl reportService;
 
@@ -70,7 +77,10 @@ class ReportServiceImplTest {
                 mainInventoryRepository,
                 physicalStoreRepository,
                 onlineStoreRepository,
-                productRepository);
+                reportQueryRepository,
+                null,
+                null,
+                null);
     }
 
     private Bill createTestBill(Integer billId, StoreType storeType, LocalDate date) {
@@ -97,6 +107,10 @@ class ReportServiceImplTest {
         return inv;
     }
 
+    private static StoreStockLevel stockLevel(String productCode, int quantity, int batches) {
+        return new StoreStockLevel(productCode, "Test Product", quantity, batches, null, quantity > 0);
+    }
+
     private MainInventory createMainInventory(String productCode, int quantity, LocalDate expiry) {
         MainInventory batch = new MainInventory();
         batch.setMainInventoryId(1);
@@ -230,9 +244,9 @@ class ReportServiceImplTest {
         @DisplayName("Should return physical store stock levels")
         void shouldReturnPhysicalStoreStockLevels() {
             // Arrange
-            PhysicalStoreInventoryRepository.ProductStockSummary summary = new PhysicalStoreInventoryRepository.ProductStockSummary(
-                    "TEST-001", "Test", 50, 2);
-            when(physicalStoreRepository.getStockSummary()).thenReturn(List.of(summary));
+            LocalDate expiry = LocalDate.now().plusDays(20);
+            when(physicalStoreRepository.findStockLevels()).thenReturn(List.of(
+                    new StoreStockLevel("TEST-001", "Test", 50, 2, expiry, true)));
 
             // Act
             List<StockLevelReport> result = reportService.getCurrentStockLevels(StoreType.PHYSICAL);
@@ -242,15 +256,15 @@ class ReportServiceImplTest {
             assertEquals(1, result.size());
             assertEquals("TEST-001", result.get(0).productCode());
             assertEquals(50, result.get(0).currentStock());
+            assertEquals(expiry, result.get(0).earliestExpiry());
+            verify(physicalStoreRepository, never()).findAvailableByProductCode(anyString());
         }
 
         @Test
         @DisplayName("Should return online store stock levels")
         void shouldReturnOnlineStoreStockLevels() {
             // Arrange
-            OnlineStoreInventoryRepository.ProductStockSummary summary = new OnlineStoreInventoryRepository.ProductStockSummary(
-                    "TEST-001", "Test", 30, 1);
-            when(onlineStoreRepository.getStockSummary()).thenReturn(List.of(summary));
+            when(onlineStoreRepository.findStockLevels()).thenReturn(List.of(stockLevel("TEST-001", 30, 1)));
 
             // Act
             List<StockLevelReport> result = reportService.getCurrentStockLevels(StoreType.ONLINE);
@@ -339,8 +353,10 @@ class ReportServiceImplTest {
         @DisplayName("Should return batch stock report")
         void shouldReturnBatchStockReport() {
             // Arrange
-            MainInventory batch = createMainInventory("TEST-001", 100, LocalDate.now().plusMonths(6));
-            when(mainInventoryRepository.findAll()).thenReturn(List.of(batch));
+            LocalDate expiry = LocalDate.now().plusMonths(6);
+            when(reportQueryRepository.findBatchStock()).thenReturn(List.of(
+                    new ReportQueryRepository.BatchStockRow("TEST-001", "Test Product", 7,
+                            LocalDate.now().minusDays(30), expiry, 150, 100, 20, 5)));
 
             // Act
             List<BatchStockReport> result = reportService.getBatchStockReport();
@@ -348,6 +364,11 @@ class ReportServiceImplTest {
             // Assert
             assertNotNull(result);
             assertEquals(1, result.size());
+            assertEquals(7, result.get(0).batchNumber());
+            assertEquals(100, result.get(0).remainingInMain());
+            assertEquals(20, result.get(0).quantityInPhysical());
+            assertEquals(5, result.get(0).quantityInOnline());
+            verify(physicalStoreRepository, never()).findByProductCodeAndBatchId(anyString(), anyInt());
         }
     }
 
@@ -372,6 +393,25 @@ class ReportServiceImplTest {
             // Assert
             assertNotNull(result);
         }
+
+        @Test
+        @DisplayName("Should take the expiring count from the expiry scheduler when one is set")
+        void shouldUseExpirySchedulerCount() {
+            // Arrange
+            BatchExpiryScheduler expiryScheduler = mock(BatchExpiryScheduler.class);
+            when(expiryScheduler.getExpiringSoonCount()).thenReturn(3);
+            ReportServiceImpl service = new ReportServiceImpl(billRepository, billItemRepository,
+                    mainInventoryRepository, physicalStoreRepository, onlineStoreRepository,
+                    reportQueryRepository, expiryScheduler, null, null);
+            when(physicalStoreRepository.findLowStock(anyInt())).thenReturn(List.of());
+
+            // Act
+            DashboardSummary result = service.getDashboardSummary();
+
+            // Assert
+            assertEquals(3, result.expiringProductCount());
+            verify(mainInventoryRepository, never()).findExpiringWithinDays(anyInt());
+        }
     }
 
     @Nested
@@ -416,7 +456,7 @@ class ReportServiceImplTest {
         @DisplayName("getCurrentStockLevelsAsync should return CompletableFuture")
         void getCurrentStockLevelsAsyncShouldReturnFuture() throws Exception {
             // Arrange
-            when(physicalStoreRepository.getStockSummary()).thenReturn(List.of());
+            when(physicalStoreRepository.findStockLevels()).thenReturn(List.of());
 
             // Act
             var future = reportService.getCurrentStockLevelsAsync(StoreType.PHYSICAL);
@@ -436,15 +476,8 @@ class ReportServiceImplTest {
         @DisplayName("Should return reorder level report")
         void shouldReturnReorderLevelReport() {
             // Arrange
-            // 1. Mock active products
-            Product product = new Product();
-            product.setProductCode(new ProductCode("TEST-001"));
-            product.setProductName("Test Product");
-            when(productRepository.findAllActive()).thenReturn(List.of(product));
-
-            // 2. Mock inventory batches for the product
-            MainInventory batch = createMainInventory("TEST-001", 5, LocalDate.now().plusMonths(6));
-            when(mainInventoryRepository.findByProductCode("TEST-001")).thenReturn(List.of(batch));
+            when(reportQueryRepository.findMainStockBelow(10)).thenReturn(List.of(
+                    new ReportQueryRepository.ProductStockRow("TEST-001", "Test Product", 5)));
 
             // Act
             // Threshold 10, remaining 5. Should reorder 5.
@@ -454,6 +487,7 @@ class ReportServiceImplTest {
             assertNotNull(result);
             assertEquals(1, result.size());
             assertEquals(5, result.get(0).quantityToReorder());
+            verify(mainInventoryRepository, never()).findByProductCode(anyString());
         }
     }
 
@@ -527,15 +561,8 @@ class ReportServiceImplTest {
         @DisplayName("Should return reshelve report for physical store")
         void shouldReturnReshelveReportForPhysicalStore() {
             // Arrange
-            PhysicalStoreInventoryRepository.ProductStockSummary summary = new PhysicalStoreInventoryRepository.ProductStockSummary(
-                    "TEST-001", "Test Product", 5, 1);
-
-            when(physicalStoreRepository.getStockSummary()).thenReturn(List.of(summary));
-
-            Product product = new Product();
-            product.setProductCode(new ProductCode("TEST-001"));
-            product.setMinPhysicalStock(10);
-            when(productRepository.findByProductCode("TEST-001")).thenReturn(java.util.Optional.of(product));
+            when(reportQueryRepository.findStoreStockBelowMinimum(StoreType.PHYSICAL)).thenReturn(List.of(
+                    new ReportQueryRepository.ProductMinimumRow("TEST-001", "Test Product", 5, 10)));
 
             // Act
             List<ReshelveReport> result = reportService.getReshelveReport(StoreType.PHYSICAL);
@@ -544,21 +571,15 @@ class ReportServiceImplTest {
             assertNotNull(result);
             assertEquals(1, result.size());
             assertEquals(5, result.get(0).quantityToReshelve());
+            verify(physicalStoreRepository, never()).getStockSummary();
         }
 
         @Test
         @DisplayName("Should return reshelve report for online store")
         void shouldReturnReshelveReportForOnlineStore() {
             // Arrange
-            OnlineStoreInventoryRepository.ProductStockSummary summary = new OnlineStoreInventoryRepository.ProductStockSummary(
-                    "TEST-001", "Test Product", 3, 1);
-
-            when(onlineStoreRepository.getStockSummary()).thenReturn(List.of(summary));
-
-            Product product = new Product();
-            product.setProductCode(new ProductCode("TEST-001"));
-            product.setMinOnlineStock(10);
-            when(productRepository.findByProductCode("TEST-001")).thenReturn(java.util.Optional.of(product));
+            when(reportQueryRepository.findStoreStockBelowMinimum(StoreType.ONLINE)).thenReturn(List.of(
+                    new ReportQueryRepository.ProductMinimumRow("TEST-001", "Test Product", 3, 10)));
 
             // Act
             List<ReshelveReport> result = reportService.getReshelveReport(StoreType.ONLINE);
@@ -568,6 +589,22 @@ class ReportServiceImplTest {
             assertEquals(1, result.size());
             assertEquals(7, result.get(0).quantityToReshelve());
         }
+
+        @Test
+        @DisplayName("Should include active products that have never been stocked")
+        void shouldIncludeProductsWithoutStock() {
+            // Arrange
+            when(reportQueryRepository.findStoreStockBelowMinimum(StoreType.PHYSICAL)).thenReturn(List.of(
+                    new ReportQueryRepository.ProductMinimumRow("TEST-002", "New Product", 0, 4)));
+
+            // Act
+            List<ReshelveReport> result = reportService.getReshelveReport(StoreType.PHYSICAL);
+
+            // Assert
+            assertEquals(1, result.size());
+            assertEquals(0, result.get(0).currentStock());
+            assertEquals(4, result.get(0).quantityToReshelve());
+        }
     }
 
     @Nested
@@ -579,10 +616,8 @@ class ReportServiceImplTest {
         void shouldReturnRestockRecommendationsForPhysicalStore() {
             // Arrange
             // 1. Mock stock levels
-            PhysicalStoreInventoryRepository.ProductStockSummary stockSummary = new PhysicalStoreInventoryRepository.ProductStockSummary(
-                    "TEST-001", "Test Product", 10, 1);
-            when(physicalStoreRepository.getStockSummary()).thenReturn(List.of(stockSummary));
-            when(physicalStoreRepository.findAvailableByProductCode("TEST-001")).thenReturn(List.of());
+            when(physicalStoreRepository.findStockLevels()).thenReturn(List.of(
+                    stockLevel("TEST-001", 10, 1), stockLevel("TEST-002", 500, 3)));
 
             // 2. Mock sales data (high sales to trigger restock)
             BillItemRepository.ProductSalesSummary salesSummary = new BillItemRepository.ProductSalesSummary("TEST-001",
@@ -594,19 +629,18 @@ class ReportServiceImplTest {
 
             // Assert
             assertNotNull(result);
-            assertFalse(result.isEmpty());
+            assertEquals(1, result.size());
             assertEquals("TEST-001", result.get(0).productCode());
+            assertEquals(2, result.get(0).averageDailySales());
             assertTrue(result.get(0).recommendedRestock() > 0);
+            verify(billItemRepository, times(1)).getProductSalesSummary(any(), any());
         }
 
         @Test
         @DisplayName("Should return restock recommendations for online store")
         void shouldReturnRestockRecommendationsForOnlineStore() {
             // Arrange
-            OnlineStoreInventoryRepository.ProductStockSummary stockSummary = new OnlineStoreInventoryRepository.ProductStockSummary(
-                    "TEST-001", "Test Product", 10, 1);
-            when(onlineStoreRepository.getStockSummary()).thenReturn(List.of(stockSummary));
-            when(onlineStoreRepository.findAvailableByProductCode("TEST-001")).thenReturn(List.of());
+            when(onlineStoreRepository.findStockLevels()).thenReturn(List.of(stockLevel("TEST-001", 10, 1)));
 
             BillItemRepository.ProductSalesSummary salesSummary = new BillItemRepository.ProductSalesSummary("TEST-001",
                     "Test Product", 60, BigDecimal.TEN);
@@ -638,7 +672,7 @@ class ReportServiceImplTest {
             BillItem item = new BillItem();
             item.setBillId(1);
             item.setProductCode(new ProductCode("P1"));
-            when(billItemRepository.findByBillId(1)).thenReturn(List.of(item));
+            when(reportQueryRepository.findBillItems(storeType, date, date)).thenReturn(List.of(item));
 
             // Act
             BillReport result = reportService.getBillReport(date, storeType);
@@ -649,6 +683,185 @@ class ReportServiceImplTest {
             assertEquals(1, result.bills().get(0).getItems().size());
             // Total revenue should equal the bill's total amount
             assertEquals(bill.getTotalAmount().getAmount(), result.totalRevenue());
+            verify(billItemRepository, never()).findByBillId(anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("Sales rollup tests")
+    class SalesRollupTests {
+
+        @Mock
+        private SalesRollupRepository salesRollupRepository;
+
+        private ReportServiceImpl rollupReportService;
+
+        private final LocalDate today = LocalDate.now();
+
+        @BeforeEach
+        void setUp() {
+            rollupReportService = new ReportServiceImpl(
+                    billRepository,
+                    billItemRepository,
+                    mainInventoryRepository,
+                    physicalStoreRepository,
+                    onlineStoreRepository,
+                    reportQueryRepository,
+                    null,
+                    salesRollupRepository,
+                    null);
+        }
+
+        @Test
+        @DisplayName("Should read past days from the rollups and today live, newest first")
+        void shouldMergeRollupsWithToday() {
+            // Arrange
+            LocalDate yesterday = today.minusDays(1);
+            when(salesRollupRepository.findBillSales(today.minusDays(7), yesterday)).thenReturn(List.of(
+                    new BillSales(yesterday, StoreType.PHYSICAL, TransactionType.CASH, 3, new BigDecimal("30.00")),
+                    new BillSales(yesterday, StoreType.ONLINE, TransactionType.ONLINE, 1, new BigDecimal("12.00"))));
+            when(salesRollupRepository.findLiveBillSales(today)).thenReturn(List.of(
+                    new BillSales(today, StoreType.PHYSICAL, TransactionType.CASH, 2, new BigDecimal("8.00"))));
+
+            // Act
+            List<DailySalesReport> result = rollupReportService.getDailySalesReport(today.minusDays(7), today);
+
+            // Assert
+            assertEquals(2, result.size());
+            assertEquals(today, result.get(0).date());
+            assertEquals(new DailySalesReport(yesterday, 4, new BigDecimal("42.00"), new BigDecimal("30.00"),
+                    new BigDecimal("12.00")), result.get(1));
+            verify(billRepository, never()).getDailySalesSummary(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should not query today live for ranges that end before today")
+        void shouldUseOnlyRollupsForPastRanges() {
+            // Arrange
+            LocalDate end = today.minusDays(2);
+            when(salesRollupRepository.findBillSales(end.minusDays(5), end)).thenReturn(List.of());
+
+            // Act
+            List<StoreTypeSalesReport> result = rollupReportService.getSalesByStoreType(end.minusDays(5), end);
+
+            // Assert
+            assertTrue(result.isEmpty());
+            verify(salesRollupRepository, never()).findLiveBillSales(any());
+        }
+
+        @Test
+        @DisplayName("Should merge a product's rolled-up and live sales before ranking")
+        void shouldRankMergedProducts() {
+            // Arrange
+            when(salesRollupRepository.findProductSales(any(), any())).thenReturn(List.of(
+                    new ProductSales(StoreType.PHYSICAL, "P1", "Tea", 5, new BigDecimal("50.00")),
+                    new ProductSales(StoreType.ONLINE, "P2", "Milk", 8, new BigDecimal("16.00"))));
+            when(salesRollupRepository.findLiveProductSales(today)).thenReturn(List.of(
+                    new ProductSales(StoreType.PHYSICAL, "P1", "Tea", 4, new BigDecimal("40.00"))));
+
+            // Act
+            List<ProductSalesReport> all = rollupReportService.getTopSellingProducts(today.minusDays(7), today, 1);
+            List<ProductSalesReport> online = rollupReportService.getTopSellingProductsByStoreType(
+                    today.minusDays(7), today, 5, StoreType.ONLINE);
+
+            // Assert
+            assertEquals(List.of(new ProductSalesReport("P1", "Tea", 9, new BigDecimal("90.00"))), all);
+            assertEquals(List.of(new ProductSalesReport("P2", "Milk", 8, new BigDecimal("16.00"))), online);
+            verify(billItemRepository, never()).getTopSellingProducts(any(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should summarize a store type's bills and items from today's live rows")
+        void shouldSummarizeStoreType() {
+            // Arrange
+            when(salesRollupRepository.findLiveBillSales(today)).thenReturn(List.of(
+                    new BillSales(today, StoreType.PHYSICAL, TransactionType.CASH, 4, new BigDecimal("100.00")),
+                    new BillSales(today, StoreType.ONLINE, TransactionType.ONLINE, 1, new BigDecimal("9.00"))));
+            when(salesRollupRepository.findLiveProductSales(today)).thenReturn(List.of(
+                    new ProductSales(StoreType.PHYSICAL, "P1", "Tea", 7, new BigDecimal("70.00")),
+                    new ProductSales(StoreType.ONLINE, "P1", "Tea", 1, new BigDecimal("9.00"))));
+
+            // Act
+            SalesSummary summary = rollupReportService.getSalesSummaryByStoreType(today, StoreType.PHYSICAL);
+
+            // Assert
+            assertEquals(4, summary.totalBills());
+            assertEquals(new BigDecimal("100.00"), summary.totalSales());
+            assertEquals(new BigDecimal("25.00"), summary.averageBillValue());
+            assertEquals(7, summary.totalItemsSold());
+            verify(salesRollupRepository, never()).findBillSales(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should total the dashboard's day, week and month from one read")
+        void shouldBuildDashboardFromRollups() {
+            // Arrange
+            when(salesRollupRepository.findBillSales(today.minusDays(30), today.minusDays(1))).thenReturn(List.of(
+                    new BillSales(today.minusDays(20), StoreType.PHYSICAL, TransactionType.CASH, 1,
+                            new BigDecimal("100.00")),
+                    new BillSales(today.minusDays(3), StoreType.PHYSICAL, TransactionType.CASH, 1,
+                            new BigDecimal("10.00"))));
+            when(salesRollupRepository.findLiveBillSales(today)).thenReturn(List.of(
+                    new BillSales(today, StoreType.ONLINE, TransactionType.ONLINE, 2, new BigDecimal("5.00"))));
+            when(physicalStoreRepository.findLowStock(anyInt())).thenReturn(List.of());
+
+            // Act
+            DashboardSummary summary = rollupReportService.getDashboardSummary();
+
+            // Assert
+            assertEquals(new BigDecimal("5.00"), summary.todaySales());
+            assertEquals(2, summary.todayBillCount());
+            assertEquals(new BigDecimal("15.00"), summary.weekSales());
+            assertEquals(new BigDecimal("115.00"), summary.monthSales());
+            verify(billRepository, never()).getTotalSalesForDateRange(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should take today's sales and low stock from the live counters")
+        void shouldBuildDashboardFromLiveCounters() {
+            // Arrange
+            LiveDashboardCounters counters = mock(LiveDashboardCounters.class);
+            when(counters.snapshot()).thenReturn(new DashboardCounts(today, new BigDecimal("5.00"), 2, 4, 6,
+                    List.of()));
+            ReportServiceImpl service = new ReportServiceImpl(billRepository, billItemRepository,
+                    mainInventoryRepository, physicalStoreRepository, onlineStoreRepository,
+                    reportQueryRepository, null, salesRollupRepository, counters);
+            when(salesRollupRepository.findBillSales(today.minusDays(30), today.minusDays(1))).thenReturn(List.of(
+                    new BillSales(today.minusDays(3), StoreType.PHYSICAL, TransactionType.CASH, 1,
+                            new BigDecimal("10.00"))));
+
+            // Act
+            DashboardSummary summary = service.getDashboardSummary();
+
+            // Assert
+            assertEquals(new BigDecimal("5.00"), summary.todaySales());
+            assertEquals(2, summary.todayBillCount());
+            assertEquals(6, summary.lowStockProductCount());
+            assertEquals(new BigDecimal("15.00"), summary.weekSales());
+            assertEquals(new BigDecimal("15.00"), summary.monthSales());
+            verify(salesRollupRepository, never()).findLiveBillSales(any());
+            verify(physicalStoreRepository, never()).findLowStock(anyInt());
+        }
+
+        @Test
+        @DisplayName("Should read past hours from the rollup and filter by store type")
+        void shouldReportHourlySales() {
+            // Arrange
+            LocalDate day = today.minusDays(1);
+            when(salesRollupRepository.findHourlySales(day)).thenReturn(List.of(
+                    new HourlySales(9, StoreType.PHYSICAL, 3, new BigDecimal("30.00")),
+                    new HourlySales(9, StoreType.ONLINE, 1, new BigDecimal("10.00")),
+                    new HourlySales(15, StoreType.PHYSICAL, 2, new BigDecimal("20.00"))));
+
+            // Act
+            List<HourlySalesReport> both = rollupReportService.getHourlySalesReport(day, null);
+            List<HourlySalesReport> physical = rollupReportService.getHourlySalesReport(day, StoreType.PHYSICAL);
+
+            // Assert
+            assertEquals(new HourlySalesReport(9, 4, new BigDecimal("40.00")), both.get(0));
+            assertEquals(2, physical.size());
+            assertEquals(15, physical.get(1).hour());
+            verify(salesRollupRepository, never()).findLiveHourlySales(any());
         }
     }
 }
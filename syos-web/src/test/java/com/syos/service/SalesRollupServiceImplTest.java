@@ -0,0 +1,113 @@
+package com.syos.service;
+
+import com.syos.exception.ValidationException;
+import com.syos.repository.interfaces.SalesRollupRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.impl.SalesRollupServiceImpl;
+import com.syos.service.interfaces.SalesRollupService.BackfillReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SalesRollupServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SalesRollupServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 10, 14, 0);
+    private static final LocalDate TODAY = NOW.toLocalDate();
+
+    @Mock
+    private SalesRollupRepository rollupRepository;
+
+    private SalesRollupServiceImpl service(LocalDateTime now) {
+        Clock clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new SalesRollupServiceImpl(rollupRepository, UnitOfWork.AUTO_COMMIT, clock);
+    }
+
+    @Nested
+    @DisplayName("backfill tests")
+    class BackfillTests {
+
+        @Test
+        @DisplayName("Should rebuild every day in the range and total the bills")
+        void shouldRebuildEveryDay() {
+            // Arrange
+            when(rollupRepository.rebuildDay(any())).thenReturn(5, 0, 7);
+
+            // Act
+            BackfillReport report = service(NOW).backfill(TODAY.minusDays(3), TODAY.minusDays(1));
+
+            // Assert
+            assertEquals(3, report.daysRebuilt());
+            assertEquals(12, report.billsCounted());
+            verify(rollupRepository).rebuildDay(TODAY.minusDays(3));
+            verify(rollupRepository).rebuildDay(TODAY.minusDays(1));
+        }
+
+        @Test
+        @DisplayName("Should reject ranges that end in the future or run backwards")
+        void shouldRejectInvalidRanges() {
+            // Arrange
+            SalesRollupServiceImpl rollupService = service(NOW);
+
+            // Act & Assert
+            assertThrows(ValidationException.class, () -> rollupService.backfill(TODAY, TODAY.plusDays(1)));
+            assertThrows(ValidationException.class, () -> rollupService.backfill(TODAY, TODAY.minusDays(1)));
+            assertThrows(ValidationException.class, () -> rollupService.backfill(null, TODAY));
+            verify(rollupRepository, never()).rebuildDay(any());
+            assertFalse(rollupService.isBackfillRunning());
+        }
+    }
+
+    @Nested
+    @DisplayName("closeDay tests")
+    class CloseDayTests {
+
+        @Test
+        @DisplayName("Should rebuild yesterday once")
+        void shouldCloseYesterdayOnce() {
+            // Arrange
+            SalesRollupServiceImpl rollupService = service(NOW);
+
+            // Act
+            Optional<LocalDate> first = rollupService.closeDay();
+            Optional<LocalDate> second = rollupService.closeDay();
+
+            // Assert
+            assertEquals(Optional.of(TODAY.minusDays(1)), first);
+            assertTrue(second.isEmpty());
+            verify(rollupRepository, times(1)).rebuildDay(TODAY.minusDays(1));
+        }
+
+        @Test
+        @DisplayName("Should wait a few minutes after midnight before closing the day")
+        void shouldWaitAfterMidnight() {
+            // Arrange
+            SalesRollupServiceImpl rollupService = service(TODAY.atStartOfDay().plusMinutes(5));
+
+            // Act
+            Optional<LocalDate> closed = rollupService.closeDay();
+
+            // Assert - the day before yesterday is still the last closed day
+            assertEquals(Optional.of(TODAY.minusDays(2)), closed);
+        }
+    }
+}
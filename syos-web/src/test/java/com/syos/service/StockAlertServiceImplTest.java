@@ -0,0 +1,193 @@
+package com.syos.service;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.Product;
+import com.syos.domain.valueobjects.ProductCode;
+import com.syos.domain.valueobjects.StoreStockLevel;
+import com.syos.repository.interfaces.OnlineStoreInventoryRepository;
+import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
+import com.syos.repository.interfaces.ProductRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.impl.StockAlertServiceImpl;
+import com.syos.service.impl.StoreStockSummaryMirror;
+import com.syos.service.interfaces.StockAlertService.AlertPage;
+import com.syos.service.interfaces.StockAlertService.AlertType;
+import com.syos.service.interfaces.StockAlertService.StockAlert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StockAlertServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockAlertServiceImplTest {
+
+    @Mock
+    private PhysicalStoreInventoryRepository physicalStoreRepository;
+
+    @Mock
+    private OnlineStoreInventoryRepository onlineStoreRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private StoreStockSummaryMirror mirror;
+    private StockAlertServiceImpl alertService;
+
+    @BeforeEach
+    void setUp() {
+        mirror = new StoreStockSummaryMirror(physicalStoreRepository,
+                onlineStoreRepository, UnitOfWork.AUTO_COMMIT);
+        Clock clock = Clock.fixed(Instant.parse("2026-01-15T09:30:00Z"), ZoneOffset.UTC);
+        alertService = new StockAlertServiceImpl(mirror, productRepository, Runnable::run, clock, 3);
+
+        when(productRepository.findAllActive()).thenReturn(List.of(product("P1", 10, 5), product("P2", 20, 0)));
+        when(physicalStoreRepository.findStockLevels()).thenReturn(List.of(level("P1", 50), level("P2", 50)));
+        when(onlineStoreRepository.findStockLevels()).thenReturn(List.of());
+    }
+
+    private Product product(String productCode, int minPhysicalStock, int minOnlineStock) {
+        Product product = new Product();
+        product.setProductCode(new ProductCode(productCode));
+        product.setProductName("Product " + productCode);
+        product.setMinPhysicalStock(minPhysicalStock);
+        product.setMinOnlineStock(minOnlineStock);
+        return product;
+    }
+
+    private StoreStockLevel level(String productCode, int quantity) {
+        return new StoreStockLevel(productCode, "Product " + productCode, quantity, 1, null, true);
+    }
+
+    private void commitShelfChange(String productCode, int quantity) {
+        when(physicalStoreRepository.findStockLevels(anyCollection())).thenReturn(List.of(level(productCode, quantity)));
+        mirror.invalidate(StoreType.PHYSICAL, List.of(productCode));
+        alertService.stockChanged(StoreType.PHYSICAL, List.of(productCode));
+    }
+
+    @Nested
+    @DisplayName("stockChanged tests")
+    class StockChangedTests {
+
+        @Test
+        @DisplayName("Should raise a low stock alert when a product drops below its minimum")
+        void shouldRaiseLowStockAlert() {
+            // Arrange
+            alertService.checkAll();
+
+            // Act
+            commitShelfChange("P1", 4);
+
+            // Assert
+            List<StockAlert> alerts = alertService.getAlerts(0, 10).alerts();
+            assertEquals(1, alerts.size());
+            assertEquals(AlertType.LOW_STOCK, alerts.get(0).type());
+            assertEquals(4, alerts.get(0).quantity());
+            assertEquals(10, alerts.get(0).minimumStock());
+            assertEquals(1, alertService.getOpenAlerts(StoreType.PHYSICAL).size());
+        }
+
+        @Test
+        @DisplayName("Should not repeat an alert while the product stays low")
+        void shouldDeduplicateAlerts() {
+            // Arrange
+            alertService.checkAll();
+            commitShelfChange("P1", 4);
+
+            // Act
+            commitShelfChange("P1", 2);
+
+            // Assert
+            assertEquals(1, alertService.getAlerts(0, 10).alerts().size());
+        }
+
+        @Test
+        @DisplayName("Should raise out of stock and then back in stock as the product moves")
+        void shouldFollowTransitions() {
+            // Arrange
+            alertService.checkAll();
+
+            // Act
+            commitShelfChange("P1", 0);
+            commitShelfChange("P1", 30);
+
+            // Assert
+            assertEquals(List.of(AlertType.OUT_OF_STOCK, AlertType.BACK_IN_STOCK),
+                    alertService.getAlerts(0, 10).alerts().stream().map(StockAlert::type).toList());
+            assertTrue(alertService.getOpenAlerts(StoreType.PHYSICAL).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should read minimum stock levels once for many changes")
+        void shouldCacheThresholds() {
+            // Arrange
+            alertService.checkAll();
+
+            // Act
+            commitShelfChange("P2", 5);
+            commitShelfChange("P2", 3);
+
+            // Assert
+            verify(productRepository, times(1)).findAllActive();
+            verify(productRepository, never()).findByProductCode(anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("getAlerts tests")
+    class GetAlertsTests {
+
+        @Test
+        @DisplayName("Should page through alerts after the last id seen")
+        void shouldPageAfterId() {
+            // Arrange
+            when(physicalStoreRepository.findStockLevels()).thenReturn(List.of(level("P1", 1), level("P2", 1)));
+            alertService.checkAll();
+
+            // Act
+            AlertPage first = alertService.getAlerts(0, 1);
+            AlertPage second = alertService.getAlerts(first.nextAfterId(), 1);
+
+            // Assert
+            assertTrue(first.hasMore());
+            assertEquals("P1", first.alerts().get(0).productCode());
+            assertFalse(second.hasMore());
+            assertEquals("P2", second.alerts().get(0).productCode());
+            assertEquals(second.nextAfterId(), alertService.getAlerts(second.nextAfterId(), 1).nextAfterId());
+        }
+
+        @Test
+        @DisplayName("Should keep only the most recent alerts")
+        void shouldDropOldestBeyondCapacity() {
+            // Arrange
+            alertService.checkAll();
+
+            // Act
+            for (int quantity : new int[] { 1, 40, 0, 40 }) {
+                commitShelfChange("P1", quantity);
+            }
+
+            // Assert
+            List<StockAlert> alerts = alertService.getAlerts(0, 10).alerts();
+            assertEquals(3, alerts.size());
+            assertEquals(2, alerts.get(0).id());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.syos.service;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.OnlineStoreInventory;
+import com.syos.domain.models.PhysicalStoreInventory;
+import com.syos.domain.valueobjects.ProductCode;
+import com.syos.repository.interfaces.OnlineStoreInventoryRepository;
+import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
+import com.syos.service.impl.StoreBatchIndex;
+import com.syos.service.interfaces.StoreInventoryService.BatchAllocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StoreBatchIndex.
+ */
+@ExtendWith(MockitoExtension.class)
+class StoreBatchIndexTest {
+
+    @Mock
+    private PhysicalStoreInventoryRepository physicalStoreRepository;
+
+    @Mock
+    private OnlineStoreInventoryRepository onlineStoreRepository;
+
+    private StoreBatchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StoreBatchIndex(physicalStoreRepository, onlineStoreRepository);
+    }
+
+    private PhysicalStoreInventory shelf(String productCode, Integer batchId, int quantity, LocalDate expiry) {
+        PhysicalStoreInventory inv = new PhysicalStoreInventory(new ProductCode(productCode), batchId, quantity,
+                LocalDate.now());
+        inv.setExpiryDate(expiry);
+        return inv;
+    }
+
+    private OnlineStoreInventory online(String productCode, Integer batchId, int quantity) {
+        OnlineStoreInventory inv = new OnlineStoreInventory(new ProductCode(productCode), batchId, quantity,
+                LocalDate.now());
+        inv.setExpiryDate(LocalDate.now().plusMonths(1));
+        return inv;
+    }
+
+    @Nested
+    @DisplayName("rebuild tests")
+    class RebuildTests {
+
+        @Test
+        @DisplayName("Should load all products of both stores in one query each")
+        void shouldRebuildFromDatabase() {
+            // Arrange
+            LocalDate soon = LocalDate.now().plusDays(5);
+            LocalDate later = LocalDate.now().plusDays(30);
+            when(physicalStoreRepository.findAllAvailable()).thenReturn(List.of(
+                    shelf("P1", 1, 10, soon), shelf("P1", 2, 20, later), shelf("P2", 3, 5, soon)));
+            when(onlineStoreRepository.findAllAvailable()).thenReturn(List.of(online("P1", 1, 7)));
+
+            // Act
+            index.rebuild();
+
+            // Assert
+            assertEquals(2, index.size(StoreType.PHYSICAL));
+            assertEquals(1, index.size(StoreType.ONLINE));
+            assertEquals(30, index.getAvailableQuantity(StoreType.PHYSICAL, "P1"));
+            assertEquals(7, index.getAvailableQuantity(StoreType.ONLINE, "P1"));
+            verify(physicalStoreRepository, never()).findAvailableByProductCode(anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("allocate tests")
+    class AllocateTests {
+
+        @Test
+        @DisplayName("Should allocate in FIFO order without changing the index")
+        void shouldAllocateFifo() {
+            // Arrange
+            LocalDate soon = LocalDate.now().plusDays(5);
+            when(physicalStoreRepository.findAvailableByProductCode("P1")).thenReturn(List.of(
+                    shelf("P1", 1, 10, soon), shelf("P1", 2, 20, soon.plusDays(10))));
+
+            // Act
+            List<BatchAllocation> allocations = index.allocate(StoreType.PHYSICAL, "P1", 15);
+
+            // Assert
+            assertEquals(2, allocations.size());
+            assertEquals(new BatchAllocation(1, "P1", 10, soon), allocations.get(0));
+            assertEquals(5, allocations.get(1).quantity());
+            assertEquals(30, index.getAvailableQuantity(StoreType.PHYSICAL, "P1"));
+        }
+
+        @Test
+        @DisplayName("Should return a partial allocation when stock is short")
+        void shouldReturnPartialAllocation() {
+            when(onlineStoreRepository.findAvailableByProductCode("P1")).thenReturn(List.of(online("P1", 1, 4)));
+
+            List<BatchAllocation> allocations = index.allocate(StoreType.ONLINE, "P1", 10);
+
+            assertEquals(1, allocations.size());
+            assertEquals(4, allocations.get(0).quantity());
+        }
+
+        @Test
+        @DisplayName("Should cache products that have no stock")
+        void shouldCacheEmptyProducts() {
+            when(physicalStoreRepository.findAvailableByProductCode("P9")).thenReturn(List.of());
+
+            assertEquals(0, index.getAvailableQuantity(StoreType.PHYSICAL, "P9"));
+            assertTrue(index.allocate(StoreType.PHYSICAL, "P9", 1).isEmpty());
+            verify(physicalStoreRepository, times(1)).findAvailableByProductCode("P9");
+        }
+
+        @Test
+        @DisplayName("Should not keep a load that raced a change to the store")
+        void shouldNotCacheLoadRacingChange() {
+            // Arrange - the product is invalidated while its query runs
+            when(physicalStoreRepository.findAvailableByProductCode("P1")).thenAnswer(invocation -> {
+                index.invalidate(StoreType.PHYSICAL, "P1");
+                return List.of(shelf("P1", 1, 10, LocalDate.now()));
+            });
+
+            // Act
+            int available = index.getAvailableQuantity(StoreType.PHYSICAL, "P1");
+
+            // Assert
+            assertEquals(10, available);
+            assertEquals(0, index.size(StoreType.PHYSICAL));
+        }
+    }
+
+    @Nested
+    @DisplayName("deduct tests")
+    class DeductTests {
+
+        @Test
+        @DisplayName("Should reduce batches and drop emptied ones")
+        void shouldDeductAndDropEmptyBatches() {
+            // Arrange
+            when(physicalStoreRepository.findAvailableByProductCode("P1")).thenReturn(List.of(
+                    shelf("P1", 1, 10, LocalDate.now()), shelf("P1", 2, 20, LocalDate.now().plusDays(1))));
+            List<BatchAllocation> allocations = index.allocate(StoreType.PHYSICAL, "P1", 12);
+
+            // Act
+            index.deduct(StoreType.PHYSICAL, allocations);
+
+            // Assert
+            assertEquals(18, index.getAvailableQuantity(StoreType.PHYSICAL, "P1"));
+            List<BatchAllocation> next = index.allocate(StoreType.PHYSICAL, "P1", 1);
+            assertEquals(2, next.get(0).batchId());
+        }
+
+        @Test
+        @DisplayName("Should drop the product when a deduction does not match the index")
+        void shouldDropProductOnMismatch() {
+            // Arrange
+            when(physicalStoreRepository.findAvailableByProductCode("P1"))
+                    .thenReturn(List.of(shelf("P1", 1, 10, LocalDate.now())))
+                    .thenReturn(List.of(shelf("P1", 1, 2, LocalDate.now())));
+            index.getAvailableQuantity(StoreType.PHYSICAL, "P1");
+
+            // Act
+            index.deduct(StoreType.PHYSICAL, List.of(new BatchAllocation(99, "P1", 1, null)));
+
+            // Assert
+            assertEquals(0, index.size(StoreType.PHYSICAL));
+            assertEquals(2, index.getAvailableQuantity(StoreType.PHYSICAL, "P1"));
+        }
+
+        @Test
+        @DisplayName("Should ignore products that are not loaded")
+        void shouldIgnoreUnloadedProducts() {
+            index.deduct(StoreType.ONLINE, List.of(new BatchAllocation(1, "P1", 1, null)));
+
+            assertEquals(0, index.size(StoreType.ONLINE));
+            verifyNoInteractions(onlineStoreRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("availability tests")
+    class AvailabilityTests {
+
+        @Test
+        @DisplayName("Should load the products not yet held with one query")
+        void shouldBulkLoadMissingProducts() {
+            // Arrange
+            when(onlineStoreRepository.findAvailableByProductCode("P1")).thenReturn(List.of(online("P1", 1, 4)));
+            index.getAvailableQuantity(StoreType.ONLINE, "P1");
+            when(onlineStoreRepository.findAvailableByProductCodes(List.of("P2", "P3")))
+                    .thenReturn(List.of(online("P2", 2, 3), online("P2", 3, 6)));
+
+            // Act
+            Map<String, Integer> available = index.getAvailableQuantities(StoreType.ONLINE,
+                    List.of("P1", "P2", "P3"));
+
+            // Assert
+            assertEquals(Map.of("P1", 4, "P2", 9, "P3", 0), available);
+            assertEquals(3, index.size(StoreType.ONLINE));
+            verify(onlineStoreRepository, times(1)).findAvailableByProductCode(anyString());
+        }
+
+        @Test
+        @DisplayName("Should drop products whose total differs from the database")
+        void shouldReconcileWithDatabaseTotals() {
+            // Arrange
+            when(physicalStoreRepository.findAllAvailable()).thenReturn(List.of(
+                    shelf("P1", 1, 10, LocalDate.now()), shelf("P2", 2, 5, LocalDate.now())));
+            when(onlineStoreRepository.findAllAvailable()).thenReturn(List.of());
+            index.rebuild();
+
+            // Act
+            int dropped = index.reconcile(StoreType.PHYSICAL, Map.of("P1", 10, "P2", 3));
+
+            // Assert
+            assertEquals(1, dropped);
+            assertEquals(1, index.size(StoreType.PHYSICAL));
+            assertEquals(0, index.reconcile(StoreType.PHYSICAL, Map.of("P1", 10)));
+        }
+    }
+}
@@ -4,12 +4,19 @@ import com.syos.domain.enums.StoreType;
 import com.syos.domain.models.MainInventory;
 import com.syos.domain.models.OnlineStoreInventory;
 import com.syos.domain.models.PhysicalStoreInventory;
+import com.syos.domain.valueobjects.BatchQuantity;
 import com.syos.domain.valueobjects.ProductCode;
+import com.syos.domain.valueobjects.StoreStockLevel;
 import com.syos.exception.InsufficientStockException;
 import com.syos.exception.ProductNotFoundException;
 import com.syos.exception.ValidationException;
 import com.syos.repository.interfaces.*;
+import com.syos.repository.interfaces.OnlineStoreInventoryRepository.ProductStockSummary;
+import com.syos.repository.interfaces.ProductRepository.StockProbe;
+import com.syos.service.impl.StoreBatchIndex;
 import com.syos.service.impl.StoreInventoryServiceImpl;
+import com.syos.service.impl.StoreStockSummaryMirror;
+import com.syos.service.interfaces.StockAlertService;
 import com.syos.service.interfaces.StoreInventoryService.BatchAllocation;
 import com.syos.service.interfaces.StoreInventoryService.RestockResult;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +24,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -24,7 +32,9 @@ import org.mockito.quality.Strictness;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -63,7 +73,13 @@ class StoreInventoryServiceImplTest {
                                 onlineStoreRepository,
                                 mainInventoryRepository,
                                 transactionRepository,
-                                productRepository);
+                                productRepository,
+                                null,
+                                null,
+                                null,
+                                null,
+                                null,
+                                UnitOfWork.AUTO_COMMIT);
         }
 
         private MainInventory createTestBatch(Integer batchId, String productCode, int quantity, LocalDate expiry) {
@@ -114,8 +130,7 @@ class StoreInventoryServiceImplTest {
                         when(mainInventoryRepository.findAvailableBatchesByProductCode(productCode))
                                         .thenReturn(List.of(batch));
 
-                        when(mainInventoryRepository.reduceQuantity(eq(1), eq(20))).thenReturn(true);
-                        when(physicalStoreRepository.addQuantity(eq(productCode), eq(1), eq(20))).thenReturn(true);
+                        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(true);
 
                         // Act
                         RestockResult result = storeInventoryService.restockPhysicalStore(productCode, 20);
@@ -125,9 +140,9 @@ class StoreInventoryServiceImplTest {
                         assertEquals(20, result.quantityRestocked());
                         assertEquals(1, result.batchesUsed());
 
-                        verify(mainInventoryRepository).reduceQuantity(1, 20);
-                        verify(physicalStoreRepository).addQuantity(productCode, 1, 20);
-                        verify(transactionRepository).save(any());
+                        verify(mainInventoryRepository).reduceQuantities(List.of(new BatchQuantity(productCode, 1, 20)));
+                        verify(physicalStoreRepository).addQuantities(List.of(new BatchQuantity(productCode, 1, 20)));
+                        verify(transactionRepository).saveAll(argThat(transactions -> transactions.size() == 1));
                 }
 
                 @Test
@@ -182,8 +197,7 @@ class StoreInventoryServiceImplTest {
                         when(mainInventoryRepository.findAvailableBatchesByProductCode(productCode))
                                         .thenReturn(List.of(batch));
 
-                        when(mainInventoryRepository.reduceQuantity(eq(1), eq(10))).thenReturn(true);
-                        when(physicalStoreRepository.addQuantity(eq(productCode), eq(1), eq(10))).thenReturn(true);
+                        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(true);
 
                         // Act - request 20
                         RestockResult result = storeInventoryService.restockPhysicalStore(productCode, 20);
@@ -209,8 +223,7 @@ class StoreInventoryServiceImplTest {
                         when(mainInventoryRepository.findAvailableBatchesByProductCode(productCode))
                                         .thenReturn(List.of(batch));
 
-                        when(mainInventoryRepository.reduceQuantity(eq(1), eq(20))).thenReturn(true);
-                        when(onlineStoreRepository.addQuantity(eq(productCode), eq(1), eq(20))).thenReturn(true);
+                        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(true);
 
                         // Act
                         RestockResult result = storeInventoryService.restockOnlineStore(productCode, 20);
@@ -219,8 +232,8 @@ class StoreInventoryServiceImplTest {
                         assertTrue(result.success());
                         assertEquals(20, result.quantityRestocked());
 
-                        verify(mainInventoryRepository).reduceQuantity(1, 20);
-                        verify(onlineStoreRepository).addQuantity(productCode, 1, 20);
+                        verify(mainInventoryRepository).reduceQuantities(List.of(new BatchQuantity(productCode, 1, 20)));
+                        verify(onlineStoreRepository).addQuantities(List.of(new BatchQuantity(productCode, 1, 20)));
                 }
 
                 @Test
@@ -273,8 +286,7 @@ class StoreInventoryServiceImplTest {
                         when(mainInventoryRepository.findAvailableBatchesByProductCode(productCode))
                                         .thenReturn(List.of(batch));
 
-                        when(mainInventoryRepository.reduceQuantity(eq(1), eq(10))).thenReturn(true);
-                        when(onlineStoreRepository.addQuantity(eq(productCode), eq(1), eq(10))).thenReturn(true);
+                        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(true);
 
                         // Act - request 20
                         RestockResult result = storeInventoryService.restockOnlineStore(productCode, 20);
@@ -286,6 +298,105 @@ class StoreInventoryServiceImplTest {
                 }
         }
 
+        @Nested
+        @DisplayName("Bulk Restock tests")
+        class BulkRestockTests {
+
+                private StockProbe probe(String productCode) {
+                        return new StockProbe(productCode, "Test Product", BigDecimal.TEN, true, 0);
+                }
+
+                @Test
+                @DisplayName("Should split every product FIFO and apply the plan with batched statements")
+                void shouldRestockSeveralProductsInOneBatch() {
+                        // Arrange
+                        Map<String, Integer> quantities = new LinkedHashMap<>();
+                        quantities.put("P1", 30);
+                        quantities.put("P2", 5);
+                        when(productRepository.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                                        .thenReturn(Map.of("P1", probe("P1"), "P2", probe("P2")));
+                        when(mainInventoryRepository.findAvailableBatchesByProductCodes(anyCollection()))
+                                        .thenReturn(List.of(
+                                                        createTestBatch(1, "P1", 20, LocalDate.now().plusDays(5)),
+                                                        createTestBatch(2, "P1", 50, LocalDate.now().plusDays(9)),
+                                                        createTestBatch(3, "P2", 40, LocalDate.now().plusDays(7))));
+                        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(true);
+
+                        // Act
+                        Map<String, RestockResult> results = storeInventoryService.restockStore(StoreType.PHYSICAL,
+                                        quantities);
+
+                        // Assert
+                        assertEquals(RestockResult.success(30, 2), results.get("P1"));
+                        assertEquals(RestockResult.success(5, 1), results.get("P2"));
+                        List<BatchQuantity> moves = List.of(
+                                        new BatchQuantity("P1", 1, 20),
+                                        new BatchQuantity("P1", 2, 10),
+                                        new BatchQuantity("P2", 3, 5));
+                        verify(mainInventoryRepository).reduceQuantities(moves);
+                        verify(physicalStoreRepository).addQuantities(moves);
+                        verify(transactionRepository).saveAll(argThat(transactions -> transactions.size() == 3));
+                        verify(mainInventoryRepository, never()).reduceQuantity(anyInt(), anyInt());
+                }
+
+                @Test
+                @DisplayName("Should fail unknown and out-of-stock products without blocking the rest")
+                void shouldReportPerProductFailures() {
+                        // Arrange
+                        Map<String, Integer> quantities = new LinkedHashMap<>();
+                        quantities.put("P1", 10);
+                        quantities.put("GONE", 10);
+                        quantities.put("P3", 10);
+                        when(productRepository.probeStock(eq(StoreType.ONLINE), anyCollection()))
+                                        .thenReturn(Map.of("P1", probe("P1"), "P3", probe("P3")));
+                        when(mainInventoryRepository.findAvailableBatchesByProductCodes(anyCollection()))
+                                        .thenReturn(List.of(createTestBatch(1, "P1", 4, LocalDate.now())));
+                        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(true);
+
+                        // Act
+                        Map<String, RestockResult> results = storeInventoryService.restockStore(StoreType.ONLINE,
+                                        quantities);
+
+                        // Assert
+                        assertEquals(List.of("P1", "GONE", "P3"), List.copyOf(results.keySet()));
+                        assertEquals(4, results.get("P1").quantityRestocked());
+                        assertTrue(results.get("P1").message().contains("Partial restock"));
+                        assertFalse(results.get("GONE").success());
+                        assertEquals("No available batches in main inventory", results.get("P3").message());
+                        verify(onlineStoreRepository).addQuantities(List.of(new BatchQuantity("P1", 1, 4)));
+                }
+
+                @Test
+                @DisplayName("Should replan from fresh batches when main inventory changed underneath")
+                void shouldReplanAfterConflict() {
+                        // Arrange
+                        when(productRepository.probeStock(eq(StoreType.PHYSICAL), anyCollection()))
+                                        .thenReturn(Map.of("P1", probe("P1")));
+                        when(mainInventoryRepository.findAvailableBatchesByProductCodes(anyCollection()))
+                                        .thenReturn(List.of(createTestBatch(1, "P1", 20, LocalDate.now())))
+                                        .thenReturn(List.of(createTestBatch(1, "P1", 8, LocalDate.now())));
+                        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(false).thenReturn(true);
+
+                        // Act
+                        Map<String, RestockResult> results = storeInventoryService.restockStore(StoreType.PHYSICAL,
+                                        Map.of("P1", 10));
+
+                        // Assert
+                        // The first attempt's shelf write is rolled back with its unit of work
+                        assertEquals(8, results.get("P1").quantityRestocked());
+                        InOrder inOrder = inOrder(physicalStoreRepository);
+                        inOrder.verify(physicalStoreRepository).addQuantities(List.of(new BatchQuantity("P1", 1, 10)));
+                        inOrder.verify(physicalStoreRepository).addQuantities(List.of(new BatchQuantity("P1", 1, 8)));
+                }
+
+                @Test
+                @DisplayName("Should reject a non-positive quantity")
+                void shouldRejectNonPositiveQuantity() {
+                        assertThrows(ValidationException.class,
+                                        () -> storeInventoryService.restockStore(StoreType.PHYSICAL, Map.of("P1", 0)));
+                }
+        }
+
         @Nested
         @DisplayName("Stock Query tests")
         class StockQueryTests {
@@ -442,6 +553,246 @@ class StoreInventoryServiceImplTest {
                 }
         }
 
+        @Nested
+        @DisplayName("Indexed Allocation Tests")
+        class IndexedAllocationTests {
+
+                private StoreBatchIndex batchIndex;
+                private StoreInventoryServiceImpl indexedService;
+
+                @BeforeEach
+                void setUpIndex() {
+                        batchIndex = new StoreBatchIndex(physicalStoreRepository, onlineStoreRepository);
+                        indexedService = new StoreInventoryServiceImpl(
+                                        physicalStoreRepository,
+                                        onlineStoreRepository,
+                                        mainInventoryRepository,
+                                        transactionRepository,
+                                        productRepository,
+                                        batchIndex,
+                                        null,
+                                        null,
+                                        null,
+                                        null,
+                                        UnitOfWork.AUTO_COMMIT);
+                }
+
+                @Test
+                @DisplayName("Should answer availability and allocation from the index after one load")
+                void shouldServeFromIndex() {
+                        // Arrange
+                        when(physicalStoreRepository.findAvailableByProductCode("P1")).thenReturn(List.of(
+                                        createPhysicalInventory("P1", 1, 10),
+                                        createPhysicalInventory("P1", 2, 20)));
+
+                        // Act
+                        boolean available = indexedService.hasAvailableStock("P1", StoreType.PHYSICAL, 30);
+                        List<BatchAllocation> result = indexedService.allocateStockForSale("P1",
+                                        StoreType.PHYSICAL, 25);
+
+                        // Assert
+                        assertTrue(available);
+                        assertEquals(2, result.size());
+                        assertEquals(10, result.get(0).quantity());
+                        assertEquals(15, result.get(1).quantity());
+                        verify(physicalStoreRepository, times(1)).findAvailableByProductCode("P1");
+                        verify(physicalStoreRepository, never()).getTotalQuantityOnShelf(anyString());
+                }
+
+                @Test
+                @DisplayName("Should deduct successful sales from the index")
+                void shouldDeductSalesFromIndex() {
+                        // Arrange
+                        when(onlineStoreRepository.findAvailableByProductCode("P1"))
+                                        .thenReturn(List.of(createOnlineInventory("P1", 1, 10)));
+                        when(onlineStoreRepository.reduceQuantities(anyList())).thenReturn(true);
+                        List<BatchAllocation> allocations = indexedService.allocateStockForSale("P1",
+                                        StoreType.ONLINE, 4);
+
+                        // Act
+                        boolean reduced = indexedService.reduceStoreStock(StoreType.ONLINE, allocations);
+
+                        // Assert
+                        assertTrue(reduced);
+                        assertEquals(6, indexedService.getAvailableQuantity("P1", StoreType.ONLINE));
+                        verify(onlineStoreRepository, times(1)).findAvailableByProductCode("P1");
+                }
+
+                @Test
+                @DisplayName("Should reload the product when the database rejects a deduction")
+                void shouldReloadWhenDeductionRejected() {
+                        // Arrange
+                        when(physicalStoreRepository.findAvailableByProductCode("P1"))
+                                        .thenReturn(List.of(createPhysicalInventory("P1", 1, 10)))
+                                        .thenReturn(List.of(createPhysicalInventory("P1", 1, 3)));
+                        when(physicalStoreRepository.reduceQuantity("P1", 1, 5)).thenReturn(false);
+                        indexedService.getAvailableQuantity("P1", StoreType.PHYSICAL);
+
+                        // Act
+                        boolean reduced = indexedService.reducePhysicalStoreStock("P1", 1, 5);
+
+                        // Assert
+                        assertFalse(reduced);
+                        assertEquals(3, indexedService.getAvailableQuantity("P1", StoreType.PHYSICAL));
+                }
+
+                @Test
+                @DisplayName("Should confirm a shortfall against the database before failing")
+                void shouldRecheckDatabaseOnShortfall() {
+                        // Arrange - stock was restocked elsewhere after the index loaded
+                        when(physicalStoreRepository.findAvailableByProductCode("P1"))
+                                        .thenReturn(List.of(createPhysicalInventory("P1", 1, 5)))
+                                        .thenReturn(List.of(createPhysicalInventory("P1", 1, 50)));
+                        indexedService.getAvailableQuantity("P1", StoreType.PHYSICAL);
+
+                        // Act
+                        List<BatchAllocation> result = indexedService.allocateStockForSale("P1",
+                                        StoreType.PHYSICAL, 20);
+
+                        // Assert
+                        assertEquals(20, result.get(0).quantity());
+                }
+
+                @Test
+                @DisplayName("Should refresh the product after a restock")
+                void shouldRefreshAfterRestock() {
+                        // Arrange
+                        when(productRepository.existsByProductCode("P1")).thenReturn(true);
+                        when(mainInventoryRepository.reduceQuantity(7, 10)).thenReturn(true);
+                        when(physicalStoreRepository.findAvailableByProductCode("P1"))
+                                        .thenReturn(List.of())
+                                        .thenReturn(List.of(createPhysicalInventory("P1", 7, 10)));
+                        assertEquals(0, indexedService.getAvailableQuantity("P1", StoreType.PHYSICAL));
+
+                        // Act
+                        indexedService.restockPhysicalStoreFromBatch("P1", 7, 10);
+
+                        // Assert
+                        assertEquals(10, indexedService.getAvailableQuantity("P1", StoreType.PHYSICAL));
+                }
+
+                @Test
+                @DisplayName("Should reload products that drifted from the stock summary")
+                void shouldReconcileAvailability() {
+                        // Arrange - the shelf was changed behind the index's back
+                        when(physicalStoreRepository.findAvailableByProductCode("P1"))
+                                        .thenReturn(List.of(createPhysicalInventory("P1", 1, 10)))
+                                        .thenReturn(List.of(createPhysicalInventory("P1", 1, 4)));
+                        indexedService.getAvailableQuantity("P1", StoreType.PHYSICAL);
+                        when(physicalStoreRepository.findStockLevels()).thenReturn(List.of(
+                                        new StoreStockLevel("P1", "Product 1", 4, 1, null, true)));
+                        when(onlineStoreRepository.findStockLevels()).thenReturn(List.of());
+
+                        // Act
+                        int dropped = indexedService.reconcileAvailability();
+
+                        // Assert
+                        assertEquals(1, dropped);
+                        assertEquals(Map.of("P1", 4),
+                                        indexedService.getAvailableQuantities(List.of("P1"), StoreType.PHYSICAL));
+                }
+        }
+
+        @Nested
+        @DisplayName("Stock Summary Mirror Tests")
+        class StockSummaryMirrorTests {
+
+                private StoreInventoryServiceImpl mirroredService;
+
+                @BeforeEach
+                void setUpMirror() {
+                        StoreStockSummaryMirror mirror = new StoreStockSummaryMirror(physicalStoreRepository,
+                                        onlineStoreRepository, UnitOfWork.AUTO_COMMIT);
+                        mirroredService = new StoreInventoryServiceImpl(
+                                        physicalStoreRepository,
+                                        onlineStoreRepository,
+                                        mainInventoryRepository,
+                                        transactionRepository,
+                                        productRepository,
+                                        null,
+                                        mirror,
+                                        null,
+                                        null,
+                                        null,
+                                        UnitOfWork.AUTO_COMMIT);
+                }
+
+                @Test
+                @DisplayName("Should serve the stock summary and low stock from one load")
+                void shouldServeFromMirror() {
+                        // Arrange
+                        when(physicalStoreRepository.findStockLevels()).thenReturn(List.of(
+                                        new StoreStockLevel("P1", "Bread", 3, 1, null, true),
+                                        new StoreStockLevel("P2", "Milk", 40, 2, null, true)));
+
+                        // Act
+                        List<ProductStockSummary> summary = mirroredService.getPhysicalStoreStockSummary();
+                        List<PhysicalStoreInventory> lowStock = mirroredService.getPhysicalStoreLowStock(10);
+
+                        // Assert
+                        assertEquals(new ProductStockSummary("P2", "Milk", 40, 2), summary.get(1));
+                        assertEquals(1, lowStock.size());
+                        assertEquals("P1", lowStock.get(0).getProductCodeString());
+                        assertEquals(3, lowStock.get(0).getQuantityOnShelf());
+                        verify(physicalStoreRepository, times(1)).findStockLevels();
+                        verify(physicalStoreRepository, never()).getStockSummary();
+                        verify(physicalStoreRepository, never()).findLowStock(anyInt());
+                }
+
+                @Test
+                @DisplayName("Should reload a product after it is restocked")
+                void shouldReloadAfterRestock() {
+                        // Arrange
+                        when(onlineStoreRepository.findStockLevels())
+                                        .thenReturn(List.of(new StoreStockLevel("P1", "Bread", 0, 0, null, true)));
+                        when(onlineStoreRepository.findStockLevels(anyCollection()))
+                                        .thenReturn(List.of(new StoreStockLevel("P1", "Bread", 10, 1, null, true)));
+                        when(productRepository.existsByProductCode("P1")).thenReturn(true);
+                        when(mainInventoryRepository.reduceQuantity(7, 10)).thenReturn(true);
+                        assertEquals(0, mirroredService.getOnlineStoreStockSummary().get(0).totalQuantity());
+
+                        // Act
+                        mirroredService.restockOnlineStoreFromBatch("P1", 7, 10);
+
+                        // Assert
+                        assertEquals(10, mirroredService.getOnlineStoreStockSummary().get(0).totalQuantity());
+                        verify(onlineStoreRepository).findStockLevels(List.of("P1"));
+                }
+        }
+
+        @Nested
+        @DisplayName("Stock Change Event Tests")
+        class StockChangeEventTests {
+
+                @Test
+                @DisplayName("Should pass products sold to the alert service")
+                void shouldPublishSales() {
+                        // Arrange
+                        StockAlertService alertService = mock(StockAlertService.class);
+                        StoreInventoryServiceImpl service = new StoreInventoryServiceImpl(
+                                        physicalStoreRepository,
+                                        onlineStoreRepository,
+                                        mainInventoryRepository,
+                                        transactionRepository,
+                                        productRepository,
+                                        null,
+                                        null,
+                                        alertService,
+                                        null,
+                                        null,
+                                        UnitOfWork.AUTO_COMMIT);
+                        when(physicalStoreRepository.reduceQuantities(anyList())).thenReturn(true);
+
+                        // Act
+                        service.reduceStoreStock(StoreType.PHYSICAL, List.of(
+                                        new BatchAllocation(1, "P1", 2, LocalDate.now()),
+                                        new BatchAllocation(2, "P1", 1, LocalDate.now())));
+
+                        // Assert
+                        verify(alertService).stockChanged(StoreType.PHYSICAL, List.of("P1"));
+                }
+        }
+
         @Nested
         @DisplayName("Async Method Tests")
         class AsyncMethodTests {
@@ -454,15 +805,14 @@ class StoreInventoryServiceImplTest {
                         when(productRepository.existsByProductCode(productCode)).thenReturn(true);
                         when(mainInventoryRepository.findAvailableBatchesByProductCode(productCode))
                                         .thenReturn(List.of(batch));
-                        when(mainInventoryRepository.reduceQuantity(anyInt(), anyInt())).thenReturn(true);
-                        when(physicalStoreRepository.addQuantity(anyString(), anyInt(), anyInt())).thenReturn(true);
+                        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(true);
 
                         CompletableFuture<RestockResult> future = storeInventoryService
                                         .restockPhysicalStoreAsync(productCode, 10);
                         RestockResult result = future.get();
 
                         assertTrue(result.success());
-                        verify(physicalStoreRepository).addQuantity(eq(productCode), eq(1), eq(10));
+                        verify(physicalStoreRepository).addQuantities(List.of(new BatchQuantity(productCode, 1, 10)));
                 }
 
                 @Test
@@ -473,15 +823,14 @@ class StoreInventoryServiceImplTest {
                         when(productRepository.existsByProductCode(productCode)).thenReturn(true);
                         when(mainInventoryRepository.findAvailableBatchesByProductCode(productCode))
                                         .thenReturn(List.of(batch));
-                        when(mainInventoryRepository.reduceQuantity(anyInt(), anyInt())).thenReturn(true);
-                        when(onlineStoreRepository.addQuantity(anyString(), anyInt(), anyInt())).thenReturn(true);
+                        when(mainInventoryRepository.reduceQuantities(anyList())).thenReturn(true);
 
                         CompletableFuture<RestockResult> future = storeInventoryService
                                         .restockOnlineStoreAsync(productCode, 10);
                         RestockResult result = future.get();
 
                         assertTrue(result.success());
-                        verify(onlineStoreRepository).addQuantity(eq(productCode), eq(2), eq(10));
+                        verify(onlineStoreRepository).addQuantities(List.of(new BatchQuantity(productCode, 2, 10)));
                 }
 
                 @Test
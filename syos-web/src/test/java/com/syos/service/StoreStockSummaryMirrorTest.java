@@ -0,0 +1,160 @@
+package com.syos.service;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.valueobjects.StoreStockLevel;
+import com.syos.repository.interfaces.OnlineStoreInventoryRepository;
+import com.syos.repository.interfaces.PhysicalStoreInventoryRepository;
+import com.syos.repository.interfaces.UnitOfWork;
+import com.syos.service.impl.StoreStockSummaryMirror;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StoreStockSummaryMirror.
+ */
+@ExtendWith(MockitoExtension.class)
+class StoreStockSummaryMirrorTest {
+
+    @Mock
+    private PhysicalStoreInventoryRepository physicalStoreRepository;
+
+    @Mock
+    private OnlineStoreInventoryRepository onlineStoreRepository;
+
+    private AdjustableClock clock;
+    private StoreStockSummaryMirror mirror;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AdjustableClock(Instant.parse("2026-01-15T09:00:00Z"));
+        mirror = new StoreStockSummaryMirror(physicalStoreRepository, onlineStoreRepository,
+                UnitOfWork.AUTO_COMMIT, Duration.ofMinutes(10), clock);
+    }
+
+    private StoreStockLevel level(String productCode, String name, int quantity) {
+        return new StoreStockLevel(productCode, name, quantity, quantity > 0 ? 1 : 0, null, true);
+    }
+
+    @Nested
+    @DisplayName("getStockLevels tests")
+    class GetStockLevelsTests {
+
+        @Test
+        @DisplayName("Should load a store once and serve later reads from memory")
+        void shouldLoadOnce() {
+            // Arrange
+            when(physicalStoreRepository.findStockLevels()).thenReturn(List.of(level("P1", "Bread", 4)));
+
+            // Act
+            mirror.getStockLevels(StoreType.PHYSICAL);
+            List<StoreStockLevel> levels = mirror.getStockLevels(StoreType.PHYSICAL);
+
+            // Assert
+            assertEquals(List.of(level("P1", "Bread", 4)), levels);
+            verify(physicalStoreRepository, times(1)).findStockLevels();
+            verifyNoInteractions(onlineStoreRepository);
+        }
+
+        @Test
+        @DisplayName("Should reload only invalidated products and keep name order")
+        void shouldReloadInvalidatedProducts() {
+            // Arrange
+            when(physicalStoreRepository.findStockLevels()).thenReturn(List.of(
+                    level("P1", "Bread", 4), level("P2", "Milk", 9), level("P3", "Tea", 2)));
+            mirror.getStockLevels(StoreType.PHYSICAL);
+            when(physicalStoreRepository.findStockLevels(anyCollection()))
+                    .thenReturn(List.of(level("P2", "Apples", 1)));
+
+            // Act
+            mirror.invalidate(StoreType.PHYSICAL, List.of("P2", "P3"));
+            List<StoreStockLevel> levels = mirror.getStockLevels(StoreType.PHYSICAL);
+
+            // Assert
+            assertEquals(List.of(level("P2", "Apples", 1), level("P1", "Bread", 4)), levels);
+            verify(physicalStoreRepository).findStockLevels(argThat(codes -> codes.containsAll(List.of("P2", "P3"))));
+            verify(physicalStoreRepository, times(1)).findStockLevels();
+        }
+
+        @Test
+        @DisplayName("Should reload the whole store once it is older than the maximum age")
+        void shouldReloadWhenExpired() {
+            // Arrange
+            when(physicalStoreRepository.findStockLevels())
+                    .thenReturn(List.of(level("P1", "Bread", 4)))
+                    .thenReturn(List.of(level("P1", "Bread", 4), level("P9", "Jam", 0)));
+            mirror.getStockLevels(StoreType.PHYSICAL);
+
+            // Act
+            clock.advance(Duration.ofMinutes(10));
+            List<StoreStockLevel> levels = mirror.getStockLevels(StoreType.PHYSICAL);
+
+            // Assert
+            assertEquals(2, levels.size());
+            verify(physicalStoreRepository, times(2)).findStockLevels();
+        }
+    }
+
+    @Nested
+    @DisplayName("getLowStock tests")
+    class GetLowStockTests {
+
+        @Test
+        @DisplayName("Should list stocked products under the threshold, lowest first")
+        void shouldFilterAndSortLowStock() {
+            // Arrange
+            when(onlineStoreRepository.findStockLevels()).thenReturn(List.of(
+                    level("P1", "Bread", 8),
+                    level("P2", "Milk", 3),
+                    level("P3", "Tea", 50),
+                    new StoreStockLevel("P4", "Jam", 0, 0, null, false)));
+
+            // Act
+            List<StoreStockLevel> low = mirror.getLowStock(StoreType.ONLINE, 10);
+
+            // Assert
+            assertEquals(List.of("P2", "P1"), low.stream().map(StoreStockLevel::productCode).toList());
+        }
+    }
+
+    private static final class AdjustableClock extends Clock {
+        private Instant now;
+
+        AdjustableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.syos.web.servlet.api;
 
 import com.syos.domain.enums.UserRole;
 import com.syos.domain.models.Customer;
+import com.syos.service.interfaces.CatalogImportService;
+import com.syos.service.interfaces.CatalogImportService.ImportFormat;
+import com.syos.service.interfaces.CatalogImportService.ImportOptions;
+import com.syos.service.interfaces.CatalogImportService.ImportReport;
 import com.syos.service.interfaces.CustomerService;
 import com.syos.service.interfaces.CustomerService.CustomerStatistics;
+import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
@@ -385,6 +390,58 @@ class AdminApiServletTest {
         }
     }
 
+    @Nested
+    @DisplayName("Catalog import tests")
+    class CatalogImportTests {
+
+        @Mock
+        private CatalogImportService catalogImportService;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            java.lang.reflect.Field field = AdminApiServlet.class.getDeclaredField("catalogImportService");
+            field.setAccessible(true);
+            field.set(servlet, catalogImportService);
+        }
+
+        @Test
+        @DisplayName("Should import a CSV request body with the given options")
+        void shouldImportCsvBody() throws Exception {
+            // Arrange
+            ServletInputStream body = mock(ServletInputStream.class);
+            when(request.getPathInfo()).thenReturn("/import");
+            when(request.getContentType()).thenReturn("text/csv");
+            when(request.getParameter("brand")).thenReturn("NE");
+            when(request.getParameter("dryRun")).thenReturn("true");
+            when(request.getInputStream()).thenReturn(body);
+            when(catalogImportService.importCatalog(any(), any(), any())).thenReturn(new ImportReport(
+                    LocalDateTime.now(), LocalDateTime.now(), ImportFormat.CSV, true, 1, 3, 3, 0, 2, 3,
+                    List.of(), true));
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(catalogImportService).importCatalog(body, ImportFormat.CSV, new ImportOptions("NE", true));
+            org.junit.jupiter.api.Assertions.assertTrue(
+                    responseWriter.toString().replaceAll("\\s", "").contains("\"rowsImported\":3"));
+        }
+
+        @Test
+        @DisplayName("Should return 404 before any import has run")
+        void shouldReturn404WithoutImport() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/import");
+            when(catalogImportService.getProgress()).thenReturn(Optional.empty());
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
     @Nested
     @DisplayName("doPut tests - Update Role")
     class DoPutUpdateRoleTests {
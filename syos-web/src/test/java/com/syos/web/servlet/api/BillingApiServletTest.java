@@ -9,6 +9,8 @@ import com.syos.domain.valueobjects.Money;
 import com.syos.domain.valueobjects.ProductCode;
 import com.syos.service.interfaces.BillingService;
 import com.syos.service.interfaces.BillingService.*;
+import com.syos.service.interfaces.OfflineCheckoutService;
+import com.syos.service.interfaces.OfflineCheckoutService.CheckoutOutcome;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -28,6 +30,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -473,16 +476,142 @@ class BillingApiServletTest {
                     BigDecimal.valueOf(50.00), BigDecimal.valueOf(100.00), BigDecimal.valueOf(50.00),
                     LocalDateTime.now(), List.of(new ItemDetail("Test Product", 2,
                             BigDecimal.valueOf(25.00), BigDecimal.valueOf(50.00))));
-            when(billingService.checkout(any(CheckoutRequest.class))).thenReturn(result);
+            when(billingService.checkout(any(CheckoutRequest.class), any())).thenReturn(result);
 
             // Act
             servlet.doPost(request, response);
 
             // Assert
-            verify(billingService).checkout(any(CheckoutRequest.class));
+            verify(billingService).checkout(any(CheckoutRequest.class), isNull());
             verify(response).setStatus(HttpServletResponse.SC_CREATED);
         }
 
+        @Test
+        @DisplayName("Should return 202 with a provisional receipt when checkout is journaled offline")
+        void shouldReturnProvisionalReceiptWhenOffline() throws Exception {
+            // Arrange
+            OfflineCheckoutService offlineCheckoutService = mock(OfflineCheckoutService.class);
+            java.lang.reflect.Field field = BillingApiServlet.class.getDeclaredField("offlineCheckoutService");
+            field.setAccessible(true);
+            field.set(servlet, offlineCheckoutService);
+
+            when(request.getPathInfo()).thenReturn("/checkout");
+            String jsonBody = """
+                    {
+                        "storeType": "PHYSICAL",
+                        "transactionType": "CASH",
+                        "items": [{"productCode": "P001", "quantity": 1}],
+                        "cashTendered": 100.00
+                    }
+                    """;
+            when(request.getReader()).thenReturn(new BufferedReader(new StringReader(jsonBody)));
+            when(offlineCheckoutService.checkout(any(CheckoutRequest.class), any())).thenReturn(
+                    CheckoutOutcome.provisional("OFF-260115-093000-1", LocalDateTime.of(2026, 1, 15, 9, 30)));
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_ACCEPTED);
+            verify(billingService, never()).checkout(any(CheckoutRequest.class), any());
+            printWriter.flush();
+            assertTrue(responseWriter.toString().contains("OFF-260115-093000-1"));
+        }
+
+        @Test
+        @DisplayName("Should check out a batch and fail unparseable entries on their own")
+        void shouldCheckoutBatch() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/checkout/batch");
+            String jsonBody = """
+                    {
+                        "checkouts": [
+                            {"storeType": "PHYSICAL", "transactionType": "CASH", "idempotencyKey": "lane-1-0001",
+                             "items": [{"productCode": "P001", "quantity": 1}], "cashTendered": 100.00},
+                            {"storeType": "NOWHERE", "transactionType": "CASH",
+                             "items": [{"productCode": "P001", "quantity": 1}], "cashTendered": 100.00}
+                        ]
+                    }
+                    """;
+            when(request.getReader()).thenReturn(new BufferedReader(new StringReader(jsonBody)));
+            CheckoutResult result = CheckoutResult.success(
+                    1, "PH-001", BigDecimal.valueOf(50.00), BigDecimal.ZERO, BigDecimal.ZERO,
+                    BigDecimal.valueOf(50.00), BigDecimal.valueOf(100.00), BigDecimal.valueOf(50.00),
+                    LocalDateTime.now(), List.of());
+            when(billingService.checkoutBatch(anyList())).thenReturn(List.of(result));
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(billingService).checkoutBatch(argThat(entries -> entries.size() == 1
+                    && "lane-1-0001".equals(entries.get(0).idempotencyKey())));
+            printWriter.flush();
+            String body = responseWriter.toString();
+            assertTrue(body.contains("1 of 2 checkouts completed"));
+            assertTrue(body.contains("Invalid store type"));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an empty batch")
+        void shouldRejectEmptyBatch() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/checkout/batch");
+            when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{\"checkouts\": []}")));
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            verify(billingService, never()).checkoutBatch(anyList());
+        }
+
+        @Test
+        @DisplayName("Should pass the Idempotency-Key header to checkout")
+        void shouldPassIdempotencyKeyHeader() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/checkout");
+            when(request.getHeader("Idempotency-Key")).thenReturn("terminal-7-000123");
+            String jsonBody = """
+                    {
+                        "storeType": "PHYSICAL",
+                        "transactionType": "CASH",
+                        "items": [{"productCode": "P001", "quantity": 1}],
+                        "cashTendered": 100.00
+                    }
+                    """;
+            when(request.getReader()).thenReturn(new BufferedReader(new StringReader(jsonBody)));
+            CheckoutResult result = CheckoutResult.success(
+                    1, "PH-001", BigDecimal.valueOf(25.00), BigDecimal.ZERO, BigDecimal.ZERO,
+                    BigDecimal.valueOf(25.00), BigDecimal.valueOf(100.00), BigDecimal.valueOf(75.00),
+                    LocalDateTime.now(), List.of());
+            when(billingService.checkout(any(CheckoutRequest.class), eq("terminal-7-000123"))).thenReturn(result);
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_CREATED);
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an over-long idempotency key")
+        void shouldRejectLongIdempotencyKey() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/checkout");
+            when(request.getHeader("Idempotency-Key")).thenReturn("k".repeat(101));
+            when(request.getReader()).thenReturn(new BufferedReader(new StringReader(
+                    "{\"storeType\": \"PHYSICAL\", \"transactionType\": \"CASH\"}")));
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            verify(billingService, never()).checkout(any(CheckoutRequest.class), any());
+        }
+
         @Test
         @DisplayName("Should return 400 when checkout fails")
         void shouldReturn400WhenCheckoutFails() throws Exception {
@@ -499,7 +628,7 @@ class BillingApiServletTest {
             when(request.getReader()).thenReturn(new BufferedReader(new StringReader(jsonBody)));
 
             CheckoutResult result = CheckoutResult.failure("Insufficient stock for P001");
-            when(billingService.checkout(any(CheckoutRequest.class))).thenReturn(result);
+            when(billingService.checkout(any(CheckoutRequest.class), any())).thenReturn(result);
 
             // Act
             servlet.doPost(request, response);
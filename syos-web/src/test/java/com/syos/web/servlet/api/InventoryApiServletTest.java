@@ -2,6 +2,11 @@ package com.syos.web.servlet.api;
 
 import com.syos.domain.models.MainInventory;
 import com.syos.domain.valueobjects.ProductCode;
+import com.syos.service.interfaces.ExpiredStockWriteOffService;
+import com.syos.service.interfaces.ExpiredStockWriteOffService.WriteOffReport;
+import com.syos.service.interfaces.InventoryHistoryService;
+import com.syos.service.interfaces.InventoryHistoryService.StockAsOf;
+import com.syos.service.interfaces.InventoryReconciliationService;
 import com.syos.service.interfaces.InventoryService;
 import com.syos.service.interfaces.InventoryService.ProductInventorySummary;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +22,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -140,6 +146,43 @@ class InventoryApiServletTest {
 
             verify(inventoryService).findBatchesByProductCode("P001");
         }
+
+        @Test
+        @DisplayName("Should get stock as of a timestamp")
+        void shouldGetStockAsOf() throws Exception {
+            InventoryHistoryService historyService = setHistoryService();
+            LocalDateTime asOf = LocalDateTime.of(2026, 1, 15, 18, 0);
+            when(request.getPathInfo()).thenReturn("/stock-as-of");
+            when(request.getParameter("at")).thenReturn("2026-01-15T18:00");
+            when(request.getParameter("productCode")).thenReturn("P001");
+            when(historyService.getStockAsOf(asOf, "P001"))
+                    .thenReturn(new StockAsOf(asOf, asOf.toLocalDate().atStartOfDay(), List.of(), 0, 0, 0));
+
+            servlet.doGet(request, response);
+
+            verify(historyService).getStockAsOf(asOf, "P001");
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an invalid stock-as-of timestamp")
+        void shouldRejectInvalidStockAsOfTimestamp() throws Exception {
+            InventoryHistoryService historyService = setHistoryService();
+            when(request.getPathInfo()).thenReturn("/stock-as-of");
+            when(request.getParameter("at")).thenReturn("yesterday");
+
+            servlet.doGet(request, response);
+
+            verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            verifyNoInteractions(historyService);
+        }
+
+        private InventoryHistoryService setHistoryService() throws Exception {
+            InventoryHistoryService historyService = mock(InventoryHistoryService.class);
+            java.lang.reflect.Field field = InventoryApiServlet.class.getDeclaredField("inventoryHistoryService");
+            field.setAccessible(true);
+            field.set(servlet, historyService);
+            return historyService;
+        }
     }
 
     @Nested
@@ -160,6 +203,53 @@ class InventoryApiServletTest {
             verify(response).setStatus(HttpServletResponse.SC_CREATED);
         }
 
+        @Test
+        @DisplayName("Should run a dry-run write-off of expired stock")
+        void shouldRunDryRunWriteOff() throws Exception {
+            ExpiredStockWriteOffService writeOffService = mock(ExpiredStockWriteOffService.class);
+            java.lang.reflect.Field field = InventoryApiServlet.class.getDeclaredField("writeOffService");
+            field.setAccessible(true);
+            field.set(servlet, writeOffService);
+            when(request.getPathInfo()).thenReturn("/expired/write-off");
+            when(request.getParameter("dryRun")).thenReturn("true");
+            when(writeOffService.writeOff(true)).thenReturn(
+                    new WriteOffReport(LocalDate.now(), true, 1, 3, 40, 5, 0, 0, 9, true));
+
+            servlet.doPost(request, response);
+
+            verify(writeOffService).writeOff(true);
+            verify(inventoryService, never()).addBatch(any(), anyInt(), any(), any(), any(), any());
+            printWriter.flush();
+            org.junit.jupiter.api.Assertions.assertTrue(
+                    responseWriter.toString().replaceAll("\\s", "").contains("\"batches\":3"));
+        }
+
+        @Test
+        @DisplayName("Should return 503 for write-off when the service is unavailable")
+        void shouldReturn503WithoutWriteOffService() throws Exception {
+            when(request.getPathInfo()).thenReturn("/expired/write-off");
+
+            servlet.doPost(request, response);
+
+            verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+
+        @Test
+        @DisplayName("Should return 409 when a reconciliation is already running")
+        void shouldReturn409WhileReconciling() throws Exception {
+            InventoryReconciliationService reconciliationService = mock(InventoryReconciliationService.class);
+            java.lang.reflect.Field field = InventoryApiServlet.class.getDeclaredField("reconciliationService");
+            field.setAccessible(true);
+            field.set(servlet, reconciliationService);
+            when(request.getPathInfo()).thenReturn("/reconciliation");
+            when(reconciliationService.isRunning()).thenReturn(true);
+
+            servlet.doPost(request, response);
+
+            verify(response).setStatus(HttpServletResponse.SC_CONFLICT);
+            verify(reconciliationService, never()).reconcile();
+        }
+
         @Test
         @DisplayName("Should return 400 for invalid request")
         void shouldReturn400ForInvalidRequest() throws Exception {
@@ -1,8 +1,11 @@
 package com.syos.web.servlet.api;
 
 import com.syos.domain.enums.StoreType;
+import com.syos.service.impl.ReportCache;
 import com.syos.service.interfaces.ReportService;
 import com.syos.service.interfaces.ReportService.*;
+import com.syos.service.interfaces.SalesRollupService;
+import com.syos.web.stream.DashboardEventStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -507,4 +510,165 @@ class ReportApiServletTest {
             verify(reportService).getCurrentStockLevels(null);
         }
     }
+
+    @Nested
+    @DisplayName("Sales rollup tests")
+    class SalesRollupTests {
+
+        @Mock
+        private SalesRollupService salesRollupService;
+
+        private void injectRollupService(SalesRollupService service) throws Exception {
+            java.lang.reflect.Field field = ReportApiServlet.class.getDeclaredField("salesRollupService");
+            field.setAccessible(true);
+            field.set(servlet, service);
+        }
+
+        @Test
+        @DisplayName("Should return hourly sales for the requested day and store")
+        void shouldReturnHourlySales() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/sales/hourly");
+            when(request.getParameter("date")).thenReturn("2026-03-02");
+            when(request.getParameter("storeType")).thenReturn("physical");
+            when(reportService.getHourlySalesReport(LocalDate.of(2026, 3, 2), StoreType.PHYSICAL))
+                    .thenReturn(List.of(new HourlySalesReport(9, 4, BigDecimal.valueOf(40))));
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            printWriter.flush();
+            String output = responseWriter.toString().replaceAll("\\s", "");
+            assert output.contains("\"quantitySold\":4");
+            assert output.contains("PHYSICAL");
+        }
+
+        @Test
+        @DisplayName("Should return 503 for a backfill when rollups are not configured")
+        void shouldReturn503WithoutRollups() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/sales/rollups/backfill");
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+
+        @Test
+        @DisplayName("Should return 400 for a backfill ending in the future")
+        void shouldRejectFutureBackfill() throws Exception {
+            // Arrange
+            injectRollupService(salesRollupService);
+            when(request.getPathInfo()).thenReturn("/sales/rollups/backfill");
+            when(request.getParameter("startDate")).thenReturn(LocalDate.now().minusDays(3).toString());
+            when(request.getParameter("endDate")).thenReturn(LocalDate.now().plusDays(1).toString());
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            verify(salesRollupService, never()).backfill(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should return 409 while another backfill is running")
+        void shouldReturn409WhileBackfillRuns() throws Exception {
+            // Arrange
+            injectRollupService(salesRollupService);
+            when(request.getPathInfo()).thenReturn("/sales/rollups/backfill");
+            when(request.getParameter("startDate")).thenReturn("2026-01-01");
+            when(request.getParameter("endDate")).thenReturn("2026-01-31");
+            when(salesRollupService.isBackfillRunning()).thenReturn(true);
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_CONFLICT);
+        }
+    }
+
+    @Nested
+    @DisplayName("doGet tests - Report cache")
+    class ReportCacheTests {
+
+        @Test
+        @DisplayName("Should return cache hit rates per report")
+        void shouldReturnCacheStats() throws Exception {
+            // Arrange
+            ReportCache reportCache = new ReportCache();
+            reportCache.get(ReportCache.ReportType.DASHBOARD, () -> "summary");
+            reportCache.get(ReportCache.ReportType.DASHBOARD, () -> "summary");
+            java.lang.reflect.Field field = ReportApiServlet.class.getDeclaredField("reportCache");
+            field.setAccessible(true);
+            field.set(servlet, reportCache);
+            when(request.getPathInfo()).thenReturn("/cache");
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            printWriter.flush();
+            String output = responseWriter.toString().replaceAll("\\s", "");
+            assert output.contains("\"report\":\"DASHBOARD\"");
+            assert output.contains("\"hitRate\":0.5");
+        }
+
+        @Test
+        @DisplayName("Should return 503 when the report cache is not enabled")
+        void shouldReturn503WithoutCache() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/cache");
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+    }
+
+    @Nested
+    @DisplayName("Dashboard stream tests")
+    class DashboardStreamTests {
+
+        @Test
+        @DisplayName("Should hand the request to the dashboard stream")
+        void shouldOpenDashboardStream() throws Exception {
+            // Arrange
+            DashboardEventStream dashboardStream = mock(DashboardEventStream.class);
+            when(dashboardStream.open(request, response)).thenReturn(true);
+            java.lang.reflect.Field field = ReportApiServlet.class.getDeclaredField("dashboardStream");
+            field.setAccessible(true);
+            field.set(servlet, dashboardStream);
+            when(request.getPathInfo()).thenReturn("/dashboard/stream");
+            when(request.isAsyncSupported()).thenReturn(true);
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            verify(dashboardStream).open(request, response);
+            verify(reportService, never()).getDashboardSummary();
+            verify(response, never()).setStatus(anyInt());
+        }
+
+        @Test
+        @DisplayName("Should return 503 when the dashboard stream is not available")
+        void shouldReturn503WithoutStream() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/dashboard/stream");
+            when(request.isAsyncSupported()).thenReturn(true);
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+    }
 }
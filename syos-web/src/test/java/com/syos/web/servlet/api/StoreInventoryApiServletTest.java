@@ -5,6 +5,11 @@ import com.syos.domain.models.OnlineStoreInventory;
 import com.syos.domain.models.PhysicalStoreInventory;
 import com.syos.domain.valueobjects.ProductCode;
 import com.syos.repository.interfaces.OnlineStoreInventoryRepository.ProductStockSummary;
+import com.syos.service.impl.CartReservationTable;
+import com.syos.service.interfaces.StockAlertService;
+import com.syos.service.interfaces.StockAlertService.AlertPage;
+import com.syos.service.interfaces.StockAlertService.AlertType;
+import com.syos.service.interfaces.StockAlertService.StockAlert;
 import com.syos.service.interfaces.StoreInventoryService;
 import com.syos.service.interfaces.StoreInventoryService.RestockResult;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,8 +26,12 @@ import org.mockito.quality.Strictness;
 
 import java.io.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -41,6 +50,9 @@ class StoreInventoryApiServletTest {
     @Mock
     private StoreInventoryService storeInventoryService;
 
+    @Mock
+    private StockAlertService stockAlertService;
+
     private StoreInventoryApiServlet servlet;
     private StringWriter responseWriter;
     private PrintWriter printWriter;
@@ -52,6 +64,9 @@ class StoreInventoryApiServletTest {
         java.lang.reflect.Field field = StoreInventoryApiServlet.class.getDeclaredField("storeInventoryService");
         field.setAccessible(true);
         field.set(servlet, storeInventoryService);
+        java.lang.reflect.Field alertField = StoreInventoryApiServlet.class.getDeclaredField("stockAlertService");
+        alertField.setAccessible(true);
+        alertField.set(servlet, stockAlertService);
 
         // Setup response writer
         responseWriter = new StringWriter();
@@ -206,6 +221,70 @@ class StoreInventoryApiServletTest {
         }
     }
 
+    @Nested
+    @DisplayName("doGet tests - Availability")
+    class DoGetAvailabilityTests {
+
+        @Test
+        @DisplayName("Should return online availability for the given codes by default")
+        void shouldReturnAvailability() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/availability");
+            when(request.getParameter("codes")).thenReturn("P001, P002,P001");
+            when(storeInventoryService.getAvailableQuantities(List.of("P001", "P002"), StoreType.ONLINE))
+                    .thenReturn(Map.of("P001", 12, "P002", 0));
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            printWriter.flush();
+            String output = responseWriter.toString().replaceAll("\\s", "");
+            assertTrue(output.contains("\"P001\":12"));
+            assertTrue(output.contains("\"storeType\":\"ONLINE\""));
+        }
+
+        @Test
+        @DisplayName("Should leave out online stock held by carts")
+        void shouldSubtractCartReservations() throws Exception {
+            // Arrange
+            CartReservationTable reservations = new CartReservationTable();
+            reservations.reserve(1, "P001", 5, 12);
+            reservations.reserve(2, "P002", 3, 3);
+            java.lang.reflect.Field field = StoreInventoryApiServlet.class.getDeclaredField("cartReservations");
+            field.setAccessible(true);
+            field.set(servlet, reservations);
+            when(request.getPathInfo()).thenReturn("/availability");
+            when(request.getParameter("codes")).thenReturn("P001,P002,P003");
+            when(storeInventoryService.getAvailableQuantities(List.of("P001", "P002", "P003"), StoreType.ONLINE))
+                    .thenReturn(Map.of("P001", 12, "P002", 3, "P003", 4));
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            printWriter.flush();
+            String output = responseWriter.toString().replaceAll("\\s", "");
+            assertTrue(output.contains("\"P001\":7"));
+            assertTrue(output.contains("\"P002\":0"));
+            assertTrue(output.contains("\"P003\":4"));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when no codes are given")
+        void shouldReturn400WithoutCodes() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/availability");
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            verify(storeInventoryService, never()).getAvailableQuantities(any(), any());
+        }
+    }
+
     @Nested
     @DisplayName("doGet tests - Low Stock")
     class DoGetLowStockTests {
@@ -432,4 +511,96 @@ class StoreInventoryApiServletTest {
             verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
         }
     }
+
+    @Nested
+    @DisplayName("doPost tests - Bulk restock")
+    class DoPostBulkRestockTests {
+
+        @Test
+        @DisplayName("Should restock every product in one call and merge repeated codes")
+        void shouldRestockAllProducts() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/physical/restock/bulk");
+            String jsonBody = "{\"items\": [{\"productCode\": \"P001\", \"quantity\": 20},"
+                    + "{\"productCode\": \"P002\", \"quantity\": 5},"
+                    + "{\"productCode\": \"P001\", \"quantity\": 10}]}";
+            when(request.getReader()).thenReturn(new BufferedReader(new StringReader(jsonBody)));
+
+            Map<String, Integer> expected = new LinkedHashMap<>();
+            expected.put("P001", 30);
+            expected.put("P002", 5);
+            Map<String, RestockResult> results = new LinkedHashMap<>();
+            results.put("P001", RestockResult.success(30, 2));
+            results.put("P002", RestockResult.failure("No available batches in main inventory"));
+            when(storeInventoryService.restockStore(StoreType.PHYSICAL, expected)).thenReturn(results);
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(storeInventoryService).restockStore(StoreType.PHYSICAL, expected);
+            verify(storeInventoryService, never()).restockPhysicalStore(anyString(), anyInt());
+            printWriter.flush();
+            String output = responseWriter.toString().replaceAll("\\s", "");
+            assertTrue(output.contains("\"restocked\":1"));
+            assertTrue(output.contains("\"failed\":1"));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when an item has no positive quantity")
+        void shouldReturn400ForInvalidItem() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/online/restock/bulk");
+            String jsonBody = "{\"items\": [{\"productCode\": \"P001\", \"quantity\": 0}]}";
+            when(request.getReader()).thenReturn(new BufferedReader(new StringReader(jsonBody)));
+
+            // Act
+            servlet.doPost(request, response);
+
+            // Assert
+            verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            verifyNoInteractions(storeInventoryService);
+        }
+    }
+
+    @Nested
+    @DisplayName("doGet tests - Stock Alerts")
+    class DoGetAlertsTests {
+
+        @Test
+        @DisplayName("Should return the page of alerts after the given id")
+        void shouldReturnAlertPage() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/alerts");
+            when(request.getParameter("after")).thenReturn("41");
+            when(request.getParameter("limit")).thenReturn("2");
+            StockAlert alert = new StockAlert(42, StoreType.PHYSICAL, "P001", "Product 1", AlertType.LOW_STOCK,
+                    3, 10, LocalDateTime.of(2026, 1, 15, 9, 30));
+            when(stockAlertService.getAlerts(41, 2)).thenReturn(new AlertPage(List.of(alert), 42, false));
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            printWriter.flush();
+            String output = responseWriter.toString().replaceAll("\\s", "");
+            assertTrue(output.contains("\"nextAfter\":42"));
+            assertTrue(output.contains("LOW_STOCK"));
+        }
+
+        @Test
+        @DisplayName("Should return open alerts for a store")
+        void shouldReturnOpenAlerts() throws Exception {
+            // Arrange
+            when(request.getPathInfo()).thenReturn("/online/alerts");
+            when(stockAlertService.getOpenAlerts(StoreType.ONLINE)).thenReturn(List.of());
+
+            // Act
+            servlet.doGet(request, response);
+
+            // Assert
+            verify(stockAlertService).getOpenAlerts(StoreType.ONLINE);
+            verify(storeInventoryService, never()).getAvailableQuantity(anyString(), any());
+        }
+    }
 }
@@ -0,0 +1,186 @@
+package com.syos.web.stream;
+
+import com.syos.domain.enums.StoreType;
+import com.syos.domain.models.Bill;
+import com.syos.domain.valueobjects.Money;
+import com.syos.repository.interfaces.SalesRollupRepository.BillSale;
+import com.syos.service.impl.LiveDashboardCounters;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DashboardEventStream.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DashboardEventStreamTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private AsyncContext asyncContext;
+
+    @Mock
+    private ServletOutputStream out;
+
+    private final StringBuilder written = new StringBuilder();
+
+    private LiveDashboardCounters counters;
+    private DashboardEventStream stream;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Clock clock = Clock.fixed(TODAY.atTime(10, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        counters = new LiveDashboardCounters(null, null, 10, clock);
+        stream = new DashboardEventStream(counters, scheduler, Duration.ofSeconds(1), Duration.ofSeconds(15), 1);
+        stream.start();
+
+        when(request.startAsync()).thenReturn(asyncContext);
+        when(response.getOutputStream()).thenReturn(out);
+        when(out.isReady()).thenReturn(true);
+        doAnswer(i -> {
+            written.append(new String((byte[]) i.getArgument(0), StandardCharsets.UTF_8));
+            return null;
+        }).when(out).write(any(byte[].class));
+    }
+
+    private WriteListener openStream() throws IOException {
+        assertTrue(stream.open(request, response));
+        ArgumentCaptor<WriteListener> listener = ArgumentCaptor.forClass(WriteListener.class);
+        verify(out).setWriteListener(listener.capture());
+        listener.getValue().onWritePossible();
+        return listener.getValue();
+    }
+
+    private void recordSale(String total) {
+        Bill bill = new Bill();
+        bill.setStoreType(StoreType.PHYSICAL);
+        bill.setBillDate(TODAY.atTime(10, 0));
+        bill.setTotalAmount(new Money(new BigDecimal(total)));
+        counters.recordSales(List.of(new BillSale(bill, List.of())));
+    }
+
+    private Runnable heartbeat() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).scheduleAtFixedRate(task.capture(), eq(15000L), eq(15000L), eq(TimeUnit.MILLISECONDS));
+        return task.getValue();
+    }
+
+    @Test
+    @DisplayName("Should send the current counts when a stream opens, up to the stream limit")
+    void shouldOpenStreamWithCurrentCounts() throws IOException {
+        // Act
+        openStream();
+        boolean second = stream.open(mock(HttpServletRequest.class), mock(HttpServletResponse.class));
+
+        // Assert
+        verify(response).setContentType("text/event-stream");
+        verify(asyncContext).setTimeout(0);
+        assertTrue(written.toString().startsWith("retry: 5000\n\nid: 1\nevent: dashboard\ndata: {"));
+        assertTrue(written.toString().contains("\"date\":\"2026-03-10\""));
+        assertTrue(written.toString().endsWith("}\n\n"));
+        assertFalse(second);
+        assertEquals(1, stream.getClientCount());
+    }
+
+    @Test
+    @DisplayName("Should push several sales in one event")
+    void shouldCoalesceChanges() throws IOException {
+        // Arrange
+        openStream();
+        written.setLength(0);
+
+        // Act
+        recordSale("10.00");
+        recordSale("2.50");
+        ArgumentCaptor<Runnable> push = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(1)).schedule(push.capture(), eq(1000L), eq(TimeUnit.MILLISECONDS));
+        push.getValue().run();
+
+        // Assert
+        assertTrue(written.toString().startsWith("id: 2\nevent: dashboard\n"));
+        assertTrue(written.toString().contains("\"revenue\":12.50"));
+        assertTrue(written.toString().contains("\"billCount\":2"));
+    }
+
+    @Test
+    @DisplayName("Should send a comment on heartbeat unless the counts changed")
+    void shouldHeartbeatOrPushChangedCounts() throws IOException {
+        // Arrange
+        openStream();
+        Runnable heartbeat = heartbeat();
+        written.setLength(0);
+
+        // Act
+        heartbeat.run();
+        String unchanged = written.toString();
+        written.setLength(0);
+        recordSale("4.00");
+        heartbeat.run();
+
+        // Assert
+        assertEquals(": heartbeat\n\n", unchanged);
+        assertTrue(written.toString().contains("\"billCount\":1"));
+    }
+
+    @Test
+    @DisplayName("Should hold events while the connection is not ready and close a broken stream")
+    void shouldHoldEventsUntilWritableAndCloseOnFailure() throws IOException {
+        // Arrange
+        WriteListener listener = openStream();
+        Runnable heartbeat = heartbeat();
+        written.setLength(0);
+        when(out.isReady()).thenReturn(false);
+
+        // Act - nothing is written until the container says the connection is writable
+        heartbeat.run();
+        String whileBlocked = written.toString();
+        when(out.isReady()).thenReturn(true);
+        listener.onWritePossible();
+        String afterWritable = written.toString();
+        doThrow(new IOException("Broken pipe")).when(out).write(any(byte[].class));
+        heartbeat.run();
+
+        // Assert
+        assertEquals("", whileBlocked);
+        assertEquals(": heartbeat\n\n", afterWritable);
+        verify(asyncContext).complete();
+        assertEquals(0, stream.getClientCount());
+    }
+}
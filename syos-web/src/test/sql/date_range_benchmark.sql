@@ -0,0 +1,210 @@
+-- =====================================================
+-- Date filter benchmark: DATE(bill_date) versus half-open ranges
+-- =====================================================
+--
+-- Seeds a scratch database with a million bills and three million bill items
+-- spread over a year, then prints EXPLAIN ANALYZE plans and timings for the
+-- report queries in three stages:
+--
+--   1. DATE(b.bill_date) filters with the old single-column indexes
+--   2. b.bill_date >= ? AND b.bill_date < ? with the same indexes
+--   3. the same half-open filters with the covering indexes from schema.sql
+--
+-- Requires MySQL 8.0.18 or later for EXPLAIN ANALYZE. Seeding takes a few
+-- minutes. Run with:
+--
+--   mysql -u root --table < syos-web/src/test/sql/date_range_benchmark.sql > date_range_benchmark.txt
+--
+-- Stage 1 should show a full scan of bill ("Table scan on b"), stage 2 an
+-- "Index range scan on b using idx_bill_date" with a row lookup per bill, and
+-- stage 3 a "Covering index range scan" that reads no bill rows at all.
+
+DROP DATABASE IF EXISTS syos_date_range_benchmark;
+CREATE DATABASE syos_date_range_benchmark;
+USE syos_date_range_benchmark;
+
+-- Same columns as the application tables, with the indexes they had before
+-- the covering indexes were added
+CREATE TABLE bill (
+    bill_id INT AUTO_INCREMENT PRIMARY KEY,
+    serial_number VARCHAR(50) NOT NULL UNIQUE,
+    customer_id INT,
+    transaction_type ENUM('CASH', 'CREDIT', 'CARD', 'ONLINE') NOT NULL,
+    store_type ENUM('PHYSICAL', 'ONLINE') NOT NULL,
+    subtotal DECIMAL(12, 2) DEFAULT 0.00,
+    discount_amount DECIMAL(12, 2) DEFAULT 0.00,
+    tax_amount DECIMAL(12, 2) DEFAULT 0.00,
+    total_amount DECIMAL(12, 2) DEFAULT 0.00,
+    tendered_amount DECIMAL(12, 2),
+    change_amount DECIMAL(12, 2),
+    cashier_id VARCHAR(50),
+    bill_date DATETIME DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_bill_date (bill_date),
+    INDEX idx_bill_customer (customer_id),
+    INDEX idx_bill_store_type (store_type)
+) ENGINE=InnoDB;
+
+CREATE TABLE bill_item (
+    bill_item_id INT AUTO_INCREMENT PRIMARY KEY,
+    bill_id INT NOT NULL,
+    product_code VARCHAR(20) NOT NULL,
+    product_name VARCHAR(200),
+    main_inventory_id INT,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(12, 2) NOT NULL,
+    line_total DECIMAL(12, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_bill_item_bill (bill_id),
+    INDEX idx_bill_item_product (product_code)
+) ENGINE=InnoDB;
+
+CREATE TABLE product (
+    product_code VARCHAR(20) PRIMARY KEY,
+    product_name VARCHAR(200) NOT NULL
+) ENGINE=InnoDB;
+
+-- =====================================================
+-- Seed data
+-- =====================================================
+
+CREATE TABLE digit (d INT PRIMARY KEY);
+INSERT INTO digit VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+INSERT INTO product (product_code, product_name)
+SELECT CONCAT('P', LPAD(a.d * 10 + b.d, 3, '0')), CONCAT('Product ', a.d * 10 + b.d)
+FROM digit a CROSS JOIN digit b;
+
+-- 1,000,000 bills, evenly spread over the year before 2026-03-01
+SET @first_day = '2025-03-01 00:00:00';
+INSERT INTO bill (serial_number, transaction_type, store_type, subtotal, total_amount, cashier_id, bill_date)
+SELECT CONCAT('BENCH-', n),
+       ELT(1 + n % 4, 'CASH', 'CREDIT', 'CARD', 'ONLINE'),
+       IF(n % 3 = 0, 'ONLINE', 'PHYSICAL'),
+       (n % 9000) / 100 + 10,
+       (n % 9000) / 100 + 10,
+       IF(n % 3 = 0, NULL, CONCAT('cashier', n % 20)),
+       TIMESTAMPADD(SECOND, FLOOR(n * 31.536), @first_day)
+FROM (
+    SELECT a.d + b.d * 10 + c.d * 100 + e.d * 1000 + f.d * 10000 + g.d * 100000 AS n
+    FROM digit a CROSS JOIN digit b CROSS JOIN digit c
+         CROSS JOIN digit e CROSS JOIN digit f CROSS JOIN digit g
+) numbers;
+
+-- Three items per bill
+INSERT INTO bill_item (bill_id, product_code, product_name, quantity, unit_price, line_total)
+SELECT b.bill_id, p.product_code, p.product_name, 1 + (b.bill_id + k.d) % 4, 2.50, 2.50 * (1 + (b.bill_id + k.d) % 4)
+FROM bill b
+JOIN digit k ON k.d < 3
+JOIN product p ON p.product_code = CONCAT('P', LPAD((b.bill_id * 7 + k.d * 31) % 100, 3, '0'));
+
+ANALYZE TABLE bill, bill_item, product;
+
+SELECT (SELECT COUNT(*) FROM bill) AS bills, (SELECT COUNT(*) FROM bill_item) AS bill_items;
+
+-- =====================================================
+-- Stage 1: DATE() filters, single-column indexes
+-- =====================================================
+
+SELECT 'Stage 1: DATE() filters, single-column indexes' AS stage;
+
+-- BillRepositoryImpl.getTotalSalesForDate
+EXPLAIN ANALYZE
+SELECT COALESCE(SUM(total_amount), 0) FROM bill WHERE DATE(bill_date) = '2026-02-14';
+
+-- BillRepositoryImpl.getSalesByStoreType, one week
+EXPLAIN ANALYZE
+SELECT store_type, COUNT(*) AS bill_count, COALESCE(SUM(total_amount), 0) AS total_amount
+FROM bill
+WHERE DATE(bill_date) BETWEEN '2026-02-08' AND '2026-02-14'
+GROUP BY store_type;
+
+-- BillRepositoryImpl.findByStoreTypeAndDateRange, counted instead of fetched
+EXPLAIN ANALYZE
+SELECT COUNT(*), SUM(b.total_amount)
+FROM bill b
+WHERE b.store_type = 'ONLINE' AND DATE(b.bill_date) BETWEEN '2026-02-08' AND '2026-02-14';
+
+-- BillItemRepositoryImpl.getTopSellingProducts, one month
+EXPLAIN ANALYZE
+SELECT bi.product_code, p.product_name, SUM(bi.quantity) AS total_quantity, SUM(bi.line_total) AS total_revenue
+FROM bill_item bi
+JOIN product p ON bi.product_code = p.product_code
+JOIN bill b ON bi.bill_id = b.bill_id
+WHERE DATE(b.bill_date) BETWEEN '2026-02-01' AND '2026-02-28'
+GROUP BY bi.product_code, p.product_name
+ORDER BY total_quantity DESC
+LIMIT 10;
+
+-- =====================================================
+-- Stage 2: half-open ranges, single-column indexes
+-- =====================================================
+
+SELECT 'Stage 2: half-open ranges, single-column indexes' AS stage;
+
+EXPLAIN ANALYZE
+SELECT COALESCE(SUM(total_amount), 0) FROM bill
+WHERE bill_date >= '2026-02-14 00:00:00' AND bill_date < '2026-02-15 00:00:00';
+
+EXPLAIN ANALYZE
+SELECT store_type, COUNT(*) AS bill_count, COALESCE(SUM(total_amount), 0) AS total_amount
+FROM bill
+WHERE bill_date >= '2026-02-08 00:00:00' AND bill_date < '2026-02-15 00:00:00'
+GROUP BY store_type;
+
+EXPLAIN ANALYZE
+SELECT COUNT(*), SUM(b.total_amount)
+FROM bill b
+WHERE b.store_type = 'ONLINE' AND b.bill_date >= '2026-02-08 00:00:00' AND b.bill_date < '2026-02-15 00:00:00';
+
+EXPLAIN ANALYZE
+SELECT bi.product_code, p.product_name, SUM(bi.quantity) AS total_quantity, SUM(bi.line_total) AS total_revenue
+FROM bill_item bi
+JOIN product p ON bi.product_code = p.product_code
+JOIN bill b ON bi.bill_id = b.bill_id
+WHERE b.bill_date >= '2026-02-01 00:00:00' AND b.bill_date < '2026-03-01 00:00:00'
+GROUP BY bi.product_code, p.product_name
+ORDER BY total_quantity DESC
+LIMIT 10;
+
+-- =====================================================
+-- Stage 3: half-open ranges, covering indexes
+-- =====================================================
+
+SELECT 'Stage 3: half-open ranges, covering indexes' AS stage;
+
+ALTER TABLE bill DROP INDEX idx_bill_date, DROP INDEX idx_bill_store_type,
+    ADD INDEX idx_bill_date_cover (bill_date, store_type, transaction_type, total_amount),
+    ADD INDEX idx_bill_store_date (store_type, bill_date, total_amount);
+ALTER TABLE bill_item DROP INDEX idx_bill_item_bill, DROP INDEX idx_bill_item_product,
+    ADD INDEX idx_bill_item_bill_cover (bill_id, product_code, quantity, line_total),
+    ADD INDEX idx_bill_item_product_cover (product_code, bill_id, quantity, line_total);
+ANALYZE TABLE bill, bill_item;
+
+EXPLAIN ANALYZE
+SELECT COALESCE(SUM(total_amount), 0) FROM bill
+WHERE bill_date >= '2026-02-14 00:00:00' AND bill_date < '2026-02-15 00:00:00';
+
+EXPLAIN ANALYZE
+SELECT store_type, COUNT(*) AS bill_count, COALESCE(SUM(total_amount), 0) AS total_amount
+FROM bill
+WHERE bill_date >= '2026-02-08 00:00:00' AND bill_date < '2026-02-15 00:00:00'
+GROUP BY store_type;
+
+EXPLAIN ANALYZE
+SELECT COUNT(*), SUM(b.total_amount)
+FROM bill b
+WHERE b.store_type = 'ONLINE' AND b.bill_date >= '2026-02-08 00:00:00' AND b.bill_date < '2026-02-15 00:00:00';
+
+EXPLAIN ANALYZE
+SELECT bi.product_code, p.product_name, SUM(bi.quantity) AS total_quantity, SUM(bi.line_total) AS total_revenue
+FROM bill_item bi
+JOIN product p ON bi.product_code = p.product_code
+JOIN bill b ON bi.bill_id = b.bill_id
+WHERE b.bill_date >= '2026-02-01 00:00:00' AND b.bill_date < '2026-03-01 00:00:00'
+GROUP BY bi.product_code, p.product_name
+ORDER BY total_quantity DESC
+LIMIT 10;
+
+DROP DATABASE syos_date_range_benchmark;